@@ -1,20 +1,37 @@
 package com.busticket.configuration;
 
+import com.busticket.domain.entity.ServicePattern;
+import com.busticket.persistence.BookingArchive;
+import com.busticket.persistence.WriteAheadLog;
 import com.busticket.service.DataStore;
 import com.busticket.service.FareService;
+import com.busticket.service.InMemoryStorageProvider;
 import com.busticket.service.JourneyService;
+import com.busticket.service.ScheduleImporter;
+import com.busticket.storage.StorageProvider;
+import com.busticket.storage.StorageProviders;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * Application configuration - initializes and configures core services
- * Pure in-memory storage for all data
+ * In-memory storage for all data, optionally backed by a write-ahead log
  */
 public class ApplicationConfiguration {
     private static ApplicationConfiguration instance;
+    private StorageProvider storage;
     private DataStore dataStore;
     private FareService fareService;
     private JourneyService journeyService;
+    private BookingArchive bookingArchive;
 
     private ApplicationConfiguration() {
         initialize();
@@ -34,34 +51,155 @@ public class ApplicationConfiguration {
      * Initialize all services
      */
     private void initialize() {
-        // Initialize DataStore (in-memory storage)
+        // Initialize the configured storage provider; the write-ahead log belongs to the in-memory DataStore
+        this.storage = StorageProviders.getProvider();
         this.dataStore = DataStore.getInstance();
 
         // Initialize services
         this.fareService = FareService.getInstance();
         this.journeyService = JourneyService.getInstance();
 
-        // Load sample journeys for production
-        loadSampleJourneys();
+        // Replay the write-ahead log when persistence is configured
+        if (storage instanceof InMemoryStorageProvider) {
+            enableWriteAheadLog();
+        }
+
+        // Import the configured timetable (or sample service patterns) unless the schedule was restored from the log
+        if (storage.journeys().getAllJourneys().isEmpty() && storage.journeys().getServicePatterns().isEmpty()) {
+            String scheduleFile = ServerConfiguration.getSetting(ServerConfiguration.SCHEDULE_FILE_PROPERTY,
+                    ServerConfiguration.SCHEDULE_FILE_ENV);
+            if (scheduleFile == null || scheduleFile.isBlank()) {
+                loadSampleServicePatterns();
+            } else {
+                importSchedule(Path.of(scheduleFile.trim()));
+            }
+        }
+
+        if (storage instanceof InMemoryStorageProvider) {
+            openBookingArchive();
+            startRetiringDays();
+        }
 
         System.out.println("✅ Application Configuration initialized successfully");
-        System.out.println("✅ In-Memory Storage: ACTIVE (all data)");
+        System.out.println("✅ Storage Provider: " + storage.getName());
+        System.out.println("✅ Write-Ahead Log: " + (dataStore.isWriteAheadLogEnabled() ? "ENABLED" : "DISABLED"));
+        System.out.println("✅ Booking Archive: " + (bookingArchive != null ? bookingArchive.getDirectory() : "DISABLED"));
         System.out.println("Thread Pool Size: " + ServerConfiguration.THREAD_POOL_SIZE);
     }
 
     /**
-     * Load sample journeys for testing  use
-     * Creates 1 return journey pair per route per day (forward in morning, return in evening)
+     * Restore from the snapshot and write-ahead log if a log directory is configured,
+     * then checkpoint periodically
+     */
+    private void enableWriteAheadLog() {
+        String walDir = ServerConfiguration.getSetting(ServerConfiguration.WAL_DIR_PROPERTY, ServerConfiguration.WAL_DIR_ENV);
+        if (walDir == null || walDir.isBlank()) {
+            return;
+        }
+        String sync = ServerConfiguration.getSetting(ServerConfiguration.WAL_SYNC_PROPERTY, ServerConfiguration.WAL_SYNC_ENV);
+        WriteAheadLog.SyncMode syncMode = sync == null || sync.isBlank()
+                ? WriteAheadLog.SyncMode.BATCH
+                : WriteAheadLog.SyncMode.valueOf(sync.trim().toUpperCase(Locale.ROOT));
+        String interval = ServerConfiguration.getSetting(ServerConfiguration.SNAPSHOT_INTERVAL_PROPERTY,
+                ServerConfiguration.SNAPSHOT_INTERVAL_ENV);
+        int intervalSeconds = interval == null || interval.isBlank()
+                ? ServerConfiguration.DEFAULT_SNAPSHOT_INTERVAL_SECONDS
+                : Integer.parseInt(interval.trim());
+        try {
+            dataStore.enableWriteAheadLog(Path.of(walDir), syncMode);
+            dataStore.startCheckpointing(Duration.ofSeconds(intervalSeconds));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open write-ahead log in " + walDir, e);
+        }
+    }
+
+    /**
+     * Archive retired days' bookings to disk if an archive directory is configured
+     */
+    private void openBookingArchive() {
+        String archiveDir = ServerConfiguration.getSetting(ServerConfiguration.ARCHIVE_DIR_PROPERTY,
+                ServerConfiguration.ARCHIVE_DIR_ENV);
+        if (archiveDir == null || archiveDir.isBlank()) {
+            return;
+        }
+        try {
+            bookingArchive = BookingArchive.open(Path.of(archiveDir.trim()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open booking archive in " + archiveDir, e);
+        }
+        dataStore.setBookingArchive(bookingArchive);
+    }
+
+    /**
+     * Retire past days from memory once they are older than the configured retention
+     */
+    private void startRetiringDays() {
+        String retention = ServerConfiguration.getSetting(ServerConfiguration.RETENTION_DAYS_PROPERTY,
+                ServerConfiguration.RETENTION_DAYS_ENV);
+        int retentionDays = retention == null || retention.isBlank()
+                ? ServerConfiguration.DEFAULT_RETENTION_DAYS
+                : Integer.parseInt(retention.trim());
+        if (retentionDays >= 0) {
+            dataStore.startRetiringDays(retentionDays);
+        }
+    }
+
+    /**
+     * Bulk-import the timetable file; a file with invalid rows fails startup rather than
+     * serving a partial timetable
+     */
+    private void importSchedule(Path file) {
+        ScheduleImporter.ImportReport report;
+        try {
+            report = ScheduleImporter.getInstance().importFile(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read schedule file " + file, e);
+        }
+        if (report.rowsRejected() > 0) {
+            throw new IllegalStateException("Schedule file " + file + " has invalid rows: " + report.errors());
+        }
+        System.out.println("✅ Schedule imported: " + report);
+    }
+
+    /**
+     * Checkpoint, then flush and close persistence on shutdown so the next start replays nothing
+     */
+    public void shutdown() {
+        dataStore.stopRetiringDays();
+        try {
+            dataStore.checkpoint();
+        } catch (IOException e) {
+            System.err.println("Error writing shutdown checkpoint: " + e.getMessage());
+        }
+        try {
+            dataStore.closeWriteAheadLog();
+        } catch (IOException e) {
+            System.err.println("Error closing write-ahead log: " + e.getMessage());
+        }
+        if (bookingArchive != null) {
+            dataStore.setBookingArchive(null);
+            try {
+                bookingArchive.close();
+            } catch (IOException e) {
+                System.err.println("Error closing booking archive: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Load sample service patterns for testing  use
+     * Creates 1 return journey pair per route, running every day from today (forward in morning, return in evening)
      * Routes: A↔B (Rs.50), A↔C (Rs.100), A↔D (Rs.150), B↔C (Rs.50), B↔D (Rs.100), C↔D (Rs.50)
+     * Journeys are expanded from the patterns when a date is first queried
      *
      * IMPORTANT: Seat Sharing Across Routes
      * - All forward journeys on the same day share the same bus (and therefore seats)
      * - All return journeys on the same day share a different bus (and therefore seats)
      * - Example: If seat 1A is booked on A→B, it's unavailable on B→C, A→C, etc. (same day)
      */
-    private void loadSampleJourneys() {
+    private void loadSampleServicePatterns() {
         LocalDate today = LocalDate.now();
-        LocalDateTime now = LocalDateTime.now();
+        Set<DayOfWeek> everyDay = EnumSet.allOf(DayOfWeek.class);
 
         // Define all routes as pairs: forward and return
         String[][] routes = {
@@ -70,36 +208,23 @@ public class ApplicationConfiguration {
         };
 
         int journeyCounter = 101;
-        int busIdForForwardJourneys = 1;
-        int busIdForReturnJourneys = 2;
-
-        // Create journeys for 3 days
-        for (int day = 0; day < 3; day++) {
-            LocalDate journeyDate = today.plusDays(day);
-            LocalDateTime baseTime = now.plusDays(day);
-
-            // Bus IDs: Each day gets 2 buses (one for forward routes, one for return routes)
-            int forwardBusId = busIdForForwardJourneys + (day * 2);
-            int returnBusId = busIdForReturnJourneys + (day * 2);
-
-            // Create forward and return journeys for each route
-            for (String[] route : routes) {
-                String origin = route[0];
-                String destination = route[1];
-                String journeyNum = String.format("JN-%d%d", journeyCounter / 100, journeyCounter % 100);
-
-                // Forward journey (morning - 8 AM) - Uses forward bus
-                // All forward journeys on same day share the same bus, so seats are shared
-                journeyService.createJourney(forwardBusId, journeyNum, journeyDate, baseTime.plusHours(8),
-                    origin, destination, origin + "->" + destination, 40);
-
-                // Return journey (evening - 6 PM) - Uses return bus
-                // All return journeys on same day share the same bus, so seats are shared
-                journeyService.createJourney(returnBusId, journeyNum + "R", journeyDate, baseTime.plusHours(18),
-                    destination, origin, destination + "->" + origin, 40);
-
-                journeyCounter++;
-            }
+        int forwardBusId = 1;
+        int returnBusId = 2;
+
+        for (String[] route : routes) {
+            String origin = route[0];
+            String destination = route[1];
+            String journeyNum = String.format("JN-%d%d", journeyCounter / 100, journeyCounter % 100);
+
+            // Forward journey (morning - 8 AM) - Uses forward bus
+            journeyService.createServicePattern(new ServicePattern(forwardBusId, journeyNum, origin, destination,
+                origin + "->" + destination, LocalTime.of(8, 0), everyDay, today, null, 40));
+
+            // Return journey (evening - 6 PM) - Uses return bus
+            journeyService.createServicePattern(new ServicePattern(returnBusId, journeyNum + "R", destination, origin,
+                destination + "->" + origin, LocalTime.of(18, 0), everyDay, today, null, 40));
+
+            journeyCounter++;
         }
     }
 
@@ -121,7 +246,7 @@ public class ApplicationConfiguration {
      * Reset all services
      */
     public void reset() {
-        dataStore.reset();
+        storage.reset();
         System.out.println("Application Configuration reset");
     }
 
@@ -135,7 +260,8 @@ public class ApplicationConfiguration {
         System.out.println("Thread Pool Size: " + ServerConfiguration.THREAD_POOL_SIZE);
         System.out.println("Max Request Body: " + ServerConfiguration.MAX_REQUEST_BODY_SIZE + " bytes");
         System.out.println("Content Type: " + ServerConfiguration.CONTENT_TYPE_JSON);
-        System.out.println("Storage: Pure In-Memory (HashMap/ArrayList)");
+        System.out.println("Storage Provider: " + storage.getName());
+        System.out.println("Write-Ahead Log: " + (dataStore.isWriteAheadLogEnabled() ? "ENABLED" : "DISABLED"));
         System.out.println("=====================================\n");
     }
 }
@@ -27,6 +27,59 @@ public class ServerConfiguration {
     public static final String CORS_ALLOW_METHODS = "GET, POST, PUT, DELETE, OPTIONS";
     public static final String CORS_ALLOW_HEADERS = "Content-Type";
 
+    // Storage Configuration ("memory" or the class name of a StorageProvider)
+    public static final String STORAGE_PROVIDER_PROPERTY = "busticket.storage.provider";
+    public static final String STORAGE_PROVIDER_ENV = "BUSTICKET_STORAGE_PROVIDER";
+
+    // Persistence Configuration (write-ahead log is disabled unless a directory is set)
+    public static final String WAL_DIR_PROPERTY = "busticket.wal.dir";
+    public static final String WAL_DIR_ENV = "BUSTICKET_WAL_DIR";
+    public static final String WAL_SYNC_PROPERTY = "busticket.wal.sync"; // BATCH (default) or RECORD
+    public static final String WAL_SYNC_ENV = "BUSTICKET_WAL_SYNC";
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "busticket.snapshot.interval.seconds";
+    public static final String SNAPSHOT_INTERVAL_ENV = "BUSTICKET_SNAPSHOT_INTERVAL_SECONDS";
+    public static final int DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 300;
+
+    // Days kept in memory after their journey date; older days are retired (negative disables)
+    public static final String RETENTION_DAYS_PROPERTY = "busticket.retention.days";
+    public static final String RETENTION_DAYS_ENV = "BUSTICKET_RETENTION_DAYS";
+    public static final int DEFAULT_RETENTION_DAYS = 7;
+
+    // Compressed archive of retired days' bookings, still found by booking number (disabled unless set)
+    public static final String ARCHIVE_DIR_PROPERTY = "busticket.archive.dir";
+    public static final String ARCHIVE_DIR_ENV = "BUSTICKET_ARCHIVE_DIR";
+
+    // Timetable imported at startup instead of the sample journeys (.csv, .jsonl or .ndjson)
+    public static final String SCHEDULE_FILE_PROPERTY = "busticket.schedule.file";
+    public static final String SCHEDULE_FILE_ENV = "BUSTICKET_SCHEDULE_FILE";
+
+    // Node id (0-1023) embedded in booking, reservation and ticket numbers; unique per running instance
+    public static final String NODE_ID_PROPERTY = "busticket.node.id";
+    public static final String NODE_ID_ENV = "BUSTICKET_NODE_ID";
+
+    // Idempotency-Key responses kept for retried bookings
+    public static final int IDEMPOTENCY_MAX_KEYS = 20000;
+    public static final long IDEMPOTENCY_TTL_SECONDS = 3600;
+
+    // Availability results are cached per party size up to this; larger parties are computed every time
+    public static final int AVAILABILITY_CACHE_MAX_PASSENGERS = 10;
+    // Days in one date_from/date_to availability search
+    public static final int AVAILABILITY_MAX_RANGE_DAYS = 14;
+    // Days of range searches looked up at once across all requests, and the time one search may take
+    public static final int AVAILABILITY_RANGE_PARALLELISM = 32;
+    public static final long AVAILABILITY_RANGE_TIMEOUT_MILLIS = 5000;
+    // Seat change streams: open streams per instance, and seconds between keep-alive comments
+    public static final int AVAILABILITY_STREAM_MAX_SUBSCRIBERS = 10000;
+    public static final int AVAILABILITY_STREAM_HEARTBEAT_SECONDS = 15;
+
+    // Seat selection sessions: holds per session, and idle seconds before a session and its holds are dropped
+    public static final int SEAT_SELECTION_MAX_HOLDS = 10;
+    public static final int SEAT_SELECTION_IDLE_TIMEOUT_SECONDS = 120;
+
+    // Batch bookings: items per request, and items read before their bus-days are booked
+    public static final int BATCH_MAX_ITEMS = 10000;
+    public static final int BATCH_CHUNK_SIZE = 500;
+
     // Timeout Configuration (milliseconds)
     public static final int REQUEST_TIMEOUT = 30000;
     public static final int CONNECT_TIMEOUT = 5000;
@@ -43,6 +96,14 @@ public class ServerConfiguration {
         // Utility class - cannot instantiate
     }
 
+    /**
+     * Read a setting from a system property, falling back to an environment variable
+     */
+    public static String getSetting(String property, String env) {
+        String value = System.getProperty(property);
+        return value != null && !value.isBlank() ? value : System.getenv(env);
+    }
+
     public static String getServerUrl() {
         return "http://" + HOSTNAME + ":" + PORT;
     }
@@ -0,0 +1,10 @@
+package com.busticket.domain.container;
+
+import java.time.LocalDate;
+
+/**
+ * Composite key identifying one bus on one operating day
+ * All journeys that share a bus on the same date share its seat inventory
+ */
+public record BusDayKey(int busId, LocalDate journeyDate) {
+}
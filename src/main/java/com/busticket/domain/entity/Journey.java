@@ -2,6 +2,7 @@ package com.busticket.domain.entity;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Journey entity representing a specific bus journey
@@ -16,7 +17,7 @@ public class Journey {
     private String toStop;      // "D"
     private String direction;   // "FORWARD" or "RETURN"
     private int totalSeats;
-    private int availableSeats;
+    private final AtomicInteger availableSeats = new AtomicInteger();
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -33,7 +34,7 @@ public class Journey {
         this.toStop = toStop;
         this.direction = direction;
         this.totalSeats = totalSeats;
-        this.availableSeats = totalSeats;
+        this.availableSeats.set(totalSeats);
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
@@ -112,11 +113,25 @@ public class Journey {
     }
 
     public int getAvailableSeats() {
-        return availableSeats;
+        return availableSeats.get();
     }
 
     public void setAvailableSeats(int availableSeats) {
-        this.availableSeats = availableSeats;
+        this.availableSeats.set(availableSeats);
+    }
+
+    /**
+     * Atomically take one seat from the available count
+     */
+    public int decrementAvailableSeats() {
+        return availableSeats.decrementAndGet();
+    }
+
+    /**
+     * Atomically return one seat to the available count
+     */
+    public int incrementAvailableSeats() {
+        return availableSeats.incrementAndGet();
     }
 
     public LocalDateTime getCreatedAt() {
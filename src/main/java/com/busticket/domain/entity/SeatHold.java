@@ -1,6 +1,7 @@
 package com.busticket.domain.entity;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * SeatHold - Represents a temporary soft lock on a seat
@@ -10,12 +11,13 @@ public class SeatHold {
     private int journeyId;
     private String seatId;
     private LocalDateTime heldAt;
-    private static final int HOLD_DURATION_MINUTES = 10;
+    private long expiresAtMillis;
+    public static final int HOLD_DURATION_MINUTES = 10;
 
     public SeatHold(int journeyId, String seatId, LocalDateTime heldAt) {
         this.journeyId = journeyId;
         this.seatId = seatId;
-        this.heldAt = heldAt;
+        setHeldAt(heldAt);
     }
 
     public int getJourneyId() {
@@ -40,13 +42,26 @@ public class SeatHold {
 
     public void setHeldAt(LocalDateTime heldAt) {
         this.heldAt = heldAt;
+        this.expiresAtMillis = heldAt.plusMinutes(HOLD_DURATION_MINUTES)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Expiry time in epoch milliseconds, precomputed so checks are a single comparison
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
     }
 
     /**
      * Check if this seat hold has expired (older than 10 minutes)
      */
     public boolean isExpired() {
-        return LocalDateTime.now().isAfter(heldAt.plusMinutes(HOLD_DURATION_MINUTES));
+        return isExpired(System.currentTimeMillis());
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis > expiresAtMillis;
     }
 
     /**
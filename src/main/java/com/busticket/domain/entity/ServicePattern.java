@@ -0,0 +1,123 @@
+package com.busticket.domain.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * ServicePattern entity representing a recurring departure, like a calendar rule
+ * One bus runs one route at a fixed time on the given days of the week, optionally limited to
+ * a date range (validFrom/validUntil, inclusive, null for open-ended). Concrete Journey entities
+ * are expanded from it when a date is first queried.
+ */
+public class ServicePattern {
+    private int id;
+    private final int busId;
+    private final String journeyNumber;
+    private final String fromStop;
+    private final String toStop;
+    private final String direction;
+    private final LocalTime departureTime;
+    private final Set<DayOfWeek> daysOfWeek;
+    private final LocalDate validFrom;
+    private final LocalDate validUntil;
+    private final int totalSeats;
+
+    public ServicePattern(int busId, String journeyNumber, String fromStop, String toStop, String direction,
+                          LocalTime departureTime, Set<DayOfWeek> daysOfWeek, LocalDate validFrom,
+                          LocalDate validUntil, int totalSeats) {
+        this.busId = busId;
+        this.journeyNumber = journeyNumber;
+        this.fromStop = fromStop;
+        this.toStop = toStop;
+        this.direction = direction;
+        this.departureTime = departureTime;
+        this.daysOfWeek = Collections.unmodifiableSet(daysOfWeek.isEmpty()
+                ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(daysOfWeek));
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+        this.totalSeats = totalSeats;
+    }
+
+    /**
+     * Whether the pattern has a departure on the given date
+     */
+    public boolean runsOn(LocalDate date) {
+        return daysOfWeek.contains(date.getDayOfWeek())
+                && (validFrom == null || !date.isBefore(validFrom))
+                && (validUntil == null || !date.isAfter(validUntil));
+    }
+
+    /**
+     * The concrete, not yet stored journey of this pattern on the given date
+     */
+    public Journey toJourney(LocalDate date) {
+        return new Journey(busId, journeyNumber, date, date.atTime(departureTime), fromStop, toStop, direction,
+                totalSeats);
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getBusId() {
+        return busId;
+    }
+
+    public String getJourneyNumber() {
+        return journeyNumber;
+    }
+
+    public String getFromStop() {
+        return fromStop;
+    }
+
+    public String getToStop() {
+        return toStop;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public LocalDate getValidUntil() {
+        return validUntil;
+    }
+
+    public int getTotalSeats() {
+        return totalSeats;
+    }
+
+    @Override
+    public String toString() {
+        return "ServicePattern{" +
+                "id=" + id +
+                ", busId=" + busId +
+                ", journeyNumber='" + journeyNumber + '\'' +
+                ", fromStop='" + fromStop + '\'' +
+                ", toStop='" + toStop + '\'' +
+                ", departureTime=" + departureTime +
+                ", daysOfWeek=" + daysOfWeek +
+                '}';
+    }
+}
@@ -0,0 +1,184 @@
+package com.busticket.domain.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Request DTO for booking a reservation, one item of a batch
+ * Payment may be given at the root (payment_amount, payment_reference) or as a payment object.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ReservationRequest {
+    @JsonProperty("client_ref")
+    private String clientRef;
+
+    @JsonProperty("journey_id")
+    private int journeyId;
+
+    @JsonProperty("origin")
+    private String origin;
+
+    @JsonProperty("destination")
+    private String destination;
+
+    @JsonProperty("passenger_count")
+    private int passengerCount;
+
+    @JsonProperty("contact_email")
+    private String contactEmail;
+
+    @JsonProperty("passengers")
+    private List<PassengerInfo> passengers;
+
+    @JsonProperty("payment_amount")
+    private BigDecimal paymentAmount;
+
+    @JsonProperty("payment_reference")
+    private String paymentReference;
+
+    @JsonProperty("payment")
+    private Payment payment;
+
+    /**
+     * Nested payment details
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Payment {
+        @JsonProperty("amount")
+        private BigDecimal amount;
+
+        @JsonProperty("reference")
+        private String reference;
+
+        public Payment() {
+        }
+
+        public Payment(BigDecimal amount, String reference) {
+            this.amount = amount;
+            this.reference = reference;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+
+        public void setReference(String reference) {
+            this.reference = reference;
+        }
+    }
+
+    public ReservationRequest() {
+    }
+
+    public ReservationRequest(int journeyId, String origin, String destination, String contactEmail,
+                              List<PassengerInfo> passengers, BigDecimal paymentAmount) {
+        this.journeyId = journeyId;
+        this.origin = origin;
+        this.destination = destination;
+        this.passengerCount = passengers.size();
+        this.contactEmail = contactEmail;
+        this.passengers = passengers;
+        this.paymentAmount = paymentAmount;
+    }
+
+    public String getClientRef() {
+        return clientRef;
+    }
+
+    public void setClientRef(String clientRef) {
+        this.clientRef = clientRef;
+    }
+
+    public int getJourneyId() {
+        return journeyId;
+    }
+
+    public void setJourneyId(int journeyId) {
+        this.journeyId = journeyId;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public int getPassengerCount() {
+        return passengerCount;
+    }
+
+    public void setPassengerCount(int passengerCount) {
+        this.passengerCount = passengerCount;
+    }
+
+    public String getContactEmail() {
+        return contactEmail;
+    }
+
+    public void setContactEmail(String contactEmail) {
+        this.contactEmail = contactEmail;
+    }
+
+    public List<PassengerInfo> getPassengers() {
+        return passengers;
+    }
+
+    public void setPassengers(List<PassengerInfo> passengers) {
+        this.passengers = passengers;
+    }
+
+    public BigDecimal getPaymentAmount() {
+        return paymentAmount;
+    }
+
+    public void setPaymentAmount(BigDecimal paymentAmount) {
+        this.paymentAmount = paymentAmount;
+    }
+
+    public String getPaymentReference() {
+        return paymentReference;
+    }
+
+    public void setPaymentReference(String paymentReference) {
+        this.paymentReference = paymentReference;
+    }
+
+    public Payment getPayment() {
+        return payment;
+    }
+
+    public void setPayment(Payment payment) {
+        this.payment = payment;
+    }
+
+    /**
+     * Amount paid, from payment_amount or else payment.amount
+     */
+    public BigDecimal paidAmount() {
+        if (paymentAmount != null) {
+            return paymentAmount;
+        }
+        return payment == null ? null : payment.getAmount();
+    }
+}
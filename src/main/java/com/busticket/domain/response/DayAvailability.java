@@ -0,0 +1,78 @@
+package com.busticket.domain.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Availability summary of one day of a date range search
+ */
+public class DayAvailability {
+    private LocalDate date;
+    private int departures;
+    private int seatsLeft;
+    private LocalDateTime firstDeparture;
+    private BigDecimal cheapestFare;
+    private BigDecimal cheapestTotalFare;
+
+    public DayAvailability() {
+    }
+
+    public DayAvailability(LocalDate date, int departures, int seatsLeft, LocalDateTime firstDeparture,
+                           BigDecimal cheapestFare, BigDecimal cheapestTotalFare) {
+        this.date = date;
+        this.departures = departures;
+        this.seatsLeft = seatsLeft;
+        this.firstDeparture = firstDeparture;
+        this.cheapestFare = cheapestFare;
+        this.cheapestTotalFare = cheapestTotalFare;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getDepartures() {
+        return departures;
+    }
+
+    public void setDepartures(int departures) {
+        this.departures = departures;
+    }
+
+    public int getSeatsLeft() {
+        return seatsLeft;
+    }
+
+    public void setSeatsLeft(int seatsLeft) {
+        this.seatsLeft = seatsLeft;
+    }
+
+    public LocalDateTime getFirstDeparture() {
+        return firstDeparture;
+    }
+
+    public void setFirstDeparture(LocalDateTime firstDeparture) {
+        this.firstDeparture = firstDeparture;
+    }
+
+    public BigDecimal getCheapestFare() {
+        return cheapestFare;
+    }
+
+    public void setCheapestFare(BigDecimal cheapestFare) {
+        this.cheapestFare = cheapestFare;
+    }
+
+    public BigDecimal getCheapestTotalFare() {
+        return cheapestTotalFare;
+    }
+
+    public void setCheapestTotalFare(BigDecimal cheapestTotalFare) {
+        this.cheapestTotalFare = cheapestTotalFare;
+    }
+}
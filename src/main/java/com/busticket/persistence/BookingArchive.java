@@ -0,0 +1,640 @@
+package com.busticket.persistence;
+
+import com.busticket.domain.entity.Booking;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * BookingArchive is the cold tier for the bookings of retired days
+ * Every archived day becomes one segment file that is written once and never modified.
+ *
+ * Segment layout (big-endian, version 1):
+ *   int magic | int version | long epochDay | long baseEpochSecond | int bookingCount
+ *   int dictionarySize | { string }*                      stop codes, statuses, email domains
+ *   int blockCount | { string firstBookingNumber | int length }* | string lastBookingNumber
+ *   int filterWords | { long }*                           Bloom filter over the booking numbers
+ *   { deflated block }*                                   up to BLOCK_SIZE bookings each
+ *
+ * Bookings are sorted by booking number. A block starts with its booking numbers, each stored as
+ * the suffix that differs from the previous one, followed by the encoded length of every record
+ * and then the records, so a lookup decodes the numbers but only the one record it needs. Inside
+ * a record, low-cardinality strings are dictionary references, timestamps are deltas from the
+ * segment's base second and integers are varints.
+ * Only the sparse block index and Bloom filter of each segment stay on the heap; a lookup skips
+ * segments whose filter rules the number out, binary-searches the index and inflates one block.
+ */
+public class BookingArchive implements Closeable {
+    static final int MAGIC = 0x42544241; // "BTBA"
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 32;
+    static final int FILTER_BITS_PER_BOOKING = 10;
+    private static final String PREFIX = "bookings-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    private BookingArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Open the archive in a directory, loading the block index of every existing segment
+     */
+    public static BookingArchive open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        BookingArchive archive = new BookingArchive(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segmentFiles = files
+                    .filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+            for (Path file : segmentFiles) {
+                archive.segments.add(Segment.open(file));
+            }
+        } catch (IOException e) {
+            archive.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Write the bookings of one day as a new segment
+     */
+    public synchronized void append(LocalDate day, Collection<Booking> bookings) throws IOException {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        Path target = nextSegmentFile(day);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, encodeSegment(day, bookings));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        segments.add(Segment.open(target));
+    }
+
+    /**
+     * Find an archived booking by its number, newest segment first
+     */
+    public Optional<Booking> find(String bookingNumber) throws IOException {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Booking booking = segments.get(i).find(bookingNumber);
+            if (booking != null) {
+                return Optional.of(booking);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getBookingCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.bookingCount;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private Path nextSegmentFile(LocalDate day) {
+        for (int sequence = 0; ; sequence++) {
+            Path file = directory.resolve(PREFIX + day + "-" + sequence + SUFFIX);
+            if (!Files.exists(file)) {
+                return file;
+            }
+        }
+    }
+
+    // ==================== Encoding ====================
+
+    static byte[] encodeSegment(LocalDate day, Collection<Booking> bookings) throws IOException {
+        List<Booking> sorted = new ArrayList<>(bookings);
+        sorted.sort(Comparator.comparing(Booking::getBookingNumber, Comparator.nullsFirst(Comparator.naturalOrder())));
+        long baseSecond = day.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> words = new ArrayList<>();
+        List<byte[]> blocks = new ArrayList<>();
+        List<String> firstNumbers = new ArrayList<>();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            for (int start = 0; start < sorted.size(); start += BLOCK_SIZE) {
+                List<Booking> block = sorted.subList(start, Math.min(start + BLOCK_SIZE, sorted.size()));
+                ByteArrayOutputStream raw = new ByteArrayOutputStream(block.size() * 64);
+                DataOutputStream out = new DataOutputStream(raw);
+                ByteArrayOutputStream records = new ByteArrayOutputStream(block.size() * 48);
+                DataOutputStream recordOut = new DataOutputStream(records);
+                int[] recordLengths = new int[block.size()];
+                writeVarLong(out, block.size());
+                String previous = "";
+                for (int i = 0; i < block.size(); i++) {
+                    Booking booking = block.get(i);
+                    previous = writeBookingNumber(out, booking.getBookingNumber(), previous);
+                    int before = records.size();
+                    writeBooking(recordOut, booking, baseSecond, dictionary, words);
+                    recordOut.flush();
+                    recordLengths[i] = records.size() - before;
+                }
+                for (int length : recordLengths) {
+                    writeVarLong(out, length);
+                }
+                records.writeTo(out);
+                out.flush();
+                firstNumbers.add(nullToEmpty(block.get(0).getBookingNumber()));
+                blocks.add(deflate(deflater, raw.toByteArray()));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(day.toEpochDay());
+        out.writeLong(baseSecond);
+        out.writeInt(sorted.size());
+        out.writeInt(words.size());
+        for (String word : words) {
+            writeString(out, word);
+        }
+        out.writeInt(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            writeString(out, firstNumbers.get(i));
+            out.writeInt(blocks.get(i).length);
+        }
+        writeString(out, nullToEmpty(sorted.get(sorted.size() - 1).getBookingNumber()));
+        long[] filter = new long[Math.max(1, (sorted.size() * FILTER_BITS_PER_BOOKING + 63) / 64)];
+        for (Booking booking : sorted) {
+            addToFilter(filter, nullToEmpty(booking.getBookingNumber()));
+        }
+        out.writeInt(filter.length);
+        for (long word : filter) {
+            out.writeLong(word);
+        }
+        for (byte[] block : blocks) {
+            out.write(block);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static String writeBookingNumber(DataOutputStream out, String bookingNumber, String previousNumber)
+            throws IOException {
+        String number = nullToEmpty(bookingNumber);
+        int shared = 0;
+        int limit = Math.min(number.length(), previousNumber.length());
+        while (shared < limit && number.charAt(shared) == previousNumber.charAt(shared)) {
+            shared++;
+        }
+        writeVarLong(out, shared);
+        writeString(out, number.substring(shared));
+        return number;
+    }
+
+    private static String readBookingNumber(DataInputStream in, String previousNumber) throws IOException {
+        int shared = (int) readVarLong(in);
+        return previousNumber.substring(0, shared) + readString(in);
+    }
+
+    private static void writeBooking(DataOutputStream out, Booking booking, long baseSecond,
+                                     Map<String, Integer> dictionary, List<String> words) throws IOException {
+        writeVarLong(out, booking.getId());
+        writeVarLong(out, booking.getJourneyId());
+        writeNullableString(out, booking.getPassengerName());
+        writeNullableString(out, booking.getPassengerPhone());
+
+        // Email as local part plus dictionary-encoded domain
+        String email = booking.getPassengerEmail();
+        int at = email == null ? -1 : email.lastIndexOf('@');
+        writeNullableString(out, at < 0 ? email : email.substring(0, at));
+        writeWord(out, at < 0 ? null : email.substring(at + 1), dictionary, words);
+
+        writeWord(out, booking.getFromStop(), dictionary, words);
+        writeWord(out, booking.getToStop(), dictionary, words);
+        writeNullableString(out, booking.getSeatId());
+        BigDecimal fare = booking.getFare();
+        if (fare == null) {
+            writeVarLong(out, 0);
+        } else {
+            writeVarLong(out, fare.scale() + 1L);
+            writeVarLong(out, zigZag(fare.unscaledValue().longValueExact()));
+        }
+        writeWord(out, booking.getStatus(), dictionary, words);
+        writeTime(out, booking.getBookingTime(), baseSecond);
+        writeTime(out, booking.getTravelDate(), baseSecond);
+        writeTime(out, booking.getCreatedAt(), baseSecond);
+        writeTime(out, booking.getUpdatedAt(), baseSecond);
+    }
+
+    private static Booking readBooking(DataInputStream in, String number, long baseSecond, String[] words)
+            throws IOException {
+        Booking booking = new Booking();
+        booking.setBookingNumber(number.isEmpty() ? null : number);
+        booking.setId((int) readVarLong(in));
+        booking.setJourneyId((int) readVarLong(in));
+        booking.setPassengerName(readNullableString(in));
+        booking.setPassengerPhone(readNullableString(in));
+        String local = readNullableString(in);
+        String domain = readWord(in, words);
+        booking.setPassengerEmail(domain == null ? local : local + "@" + domain);
+        booking.setFromStop(readWord(in, words));
+        booking.setToStop(readWord(in, words));
+        booking.setSeatId(readNullableString(in));
+        long scale = readVarLong(in);
+        booking.setFare(scale == 0 ? null : BigDecimal.valueOf(unZigZag(readVarLong(in)), (int) scale - 1));
+        booking.setStatus(readWord(in, words));
+        booking.setBookingTime(readTime(in, baseSecond));
+        booking.setTravelDate(readTime(in, baseSecond));
+        booking.setCreatedAt(readTime(in, baseSecond));
+        booking.setUpdatedAt(readTime(in, baseSecond));
+        return booking;
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 3 + 16);
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return out.toByteArray();
+    }
+
+    // ==================== Primitives ====================
+
+    private static void addToFilter(long[] filter, String bookingNumber) {
+        long bits = filter.length * 64L;
+        long hash = mix(bookingNumber.hashCode());
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < 3; i++) {
+            long bit = Integer.toUnsignedLong(first + i * second) % bits;
+            filter[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static boolean mightContain(long[] filter, String bookingNumber) {
+        long bits = filter.length * 64L;
+        long hash = mix(bookingNumber.hashCode());
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < 3; i++) {
+            long bit = Integer.toUnsignedLong(first + i * second) % bits;
+            if ((filter[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static void writeWord(DataOutputStream out, String word, Map<String, Integer> dictionary,
+                                  List<String> words) throws IOException {
+        if (word == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        Integer index = dictionary.get(word);
+        if (index == null) {
+            index = words.size();
+            dictionary.put(word, index);
+            words.add(word);
+        }
+        writeVarLong(out, index + 1L);
+    }
+
+    private static String readWord(DataInputStream in, String[] words) throws IOException {
+        int index = (int) readVarLong(in);
+        return index == 0 ? null : words[index - 1];
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value, long baseSecond) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, zigZag(value.toEpochSecond(ZoneOffset.UTC) - baseSecond) + 1);
+        writeVarLong(out, value.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in, long baseSecond) throws IOException {
+        long encoded = readVarLong(in);
+        if (encoded == 0) {
+            return null;
+        }
+        long second = baseSecond + unZigZag(encoded - 1);
+        return LocalDateTime.ofEpochSecond(second, (int) readVarLong(in), ZoneOffset.UTC);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated archive block");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in archive block");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * An open segment file with its sparse block index
+     */
+    private static final class Segment {
+        private final FileChannel channel;
+        private final long baseSecond;
+        private final int bookingCount;
+        private final String[] words;
+        private final String[] firstNumbers;
+        private final long[] offsets;
+        private final int[] lengths;
+        private final String lastNumber;
+        private final long[] filter;
+
+        private Segment(FileChannel channel, long baseSecond, int bookingCount, String[] words,
+                        String[] firstNumbers, long[] offsets, int[] lengths, String lastNumber, long[] filter) {
+            this.channel = channel;
+            this.baseSecond = baseSecond;
+            this.bookingCount = bookingCount;
+            this.words = words;
+            this.firstNumbers = firstNumbers;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.lastNumber = lastNumber;
+            this.filter = filter;
+        }
+
+        static Segment open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                CountingInput counting = new CountingInput(channel);
+                DataInputStream in = new DataInputStream(counting);
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a booking archive segment: " + file);
+                }
+                int version = in.readInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported archive segment version " + version + ": " + file);
+                }
+                in.readLong(); // epochDay
+                long baseSecond = in.readLong();
+                int bookingCount = in.readInt();
+                String[] words = new String[in.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = readString(in);
+                }
+                int blockCount = in.readInt();
+                String[] firstNumbers = new String[blockCount];
+                int[] lengths = new int[blockCount];
+                for (int i = 0; i < blockCount; i++) {
+                    firstNumbers[i] = readString(in);
+                    lengths[i] = in.readInt();
+                }
+                String lastNumber = readString(in);
+                long[] filter = new long[in.readInt()];
+                for (int i = 0; i < filter.length; i++) {
+                    filter[i] = in.readLong();
+                }
+                long[] offsets = new long[blockCount];
+                long offset = counting.position;
+                for (int i = 0; i < blockCount; i++) {
+                    offsets[i] = offset;
+                    offset += lengths[i];
+                }
+                if (offset != channel.size()) {
+                    throw new IOException("Archive segment is truncated: " + file);
+                }
+                return new Segment(channel, baseSecond, bookingCount, words, firstNumbers, offsets, lengths,
+                        lastNumber, filter);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        Booking find(String bookingNumber) throws IOException {
+            if (firstNumbers.length == 0 || bookingNumber.compareTo(firstNumbers[0]) < 0
+                    || bookingNumber.compareTo(lastNumber) > 0 || !mightContain(filter, bookingNumber)) {
+                return null;
+            }
+            int block = Arrays.binarySearch(firstNumbers, bookingNumber);
+            if (block < 0) {
+                block = -block - 2;
+            }
+            // Equal numbers may spill into the next block, so scan forward while it could match
+            for (; block < firstNumbers.length && firstNumbers[block].compareTo(bookingNumber) <= 0; block++) {
+                Booking booking = findInBlock(block, bookingNumber);
+                if (booking != null) {
+                    return booking;
+                }
+            }
+            return null;
+        }
+
+        private Booking findInBlock(int block, String bookingNumber) throws IOException {
+            ByteBuffer compressed = ByteBuffer.allocate(lengths[block]);
+            while (compressed.hasRemaining()) {
+                if (channel.read(compressed, offsets[block] + compressed.position()) < 0) {
+                    throw new IOException("Archive segment is truncated");
+                }
+            }
+            byte[] raw = inflate(compressed.array());
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            int count = (int) readVarLong(in);
+            String previous = "";
+            int match = -1;
+            for (int i = 0; i < count; i++) {
+                String number = readBookingNumber(in, previous);
+                if (match < 0 && number.equals(bookingNumber)) {
+                    match = i;
+                }
+                previous = number;
+            }
+            if (match < 0) {
+                return null;
+            }
+            long skip = 0;
+            for (int i = 0; i < count; i++) {
+                long length = readVarLong(in);
+                if (i < match) {
+                    skip += length;
+                }
+            }
+            in.skipNBytes(skip);
+            return readBooking(in, bookingNumber, baseSecond, words);
+        }
+
+        private static byte[] inflate(byte[] compressed) throws IOException {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+                byte[] buffer = new byte[8192];
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(buffer);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Archive block is truncated");
+                    }
+                    out.write(buffer, 0, n);
+                }
+                return out.toByteArray();
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt archive block", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Sequential reader over a file channel that tracks how many bytes were consumed
+     */
+    private static final class CountingInput extends InputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(8192).flip();
+        private long position;
+
+        CountingInput(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            position++;
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (!buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, n);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            buffer.flip();
+            return n > 0;
+        }
+    }
+}
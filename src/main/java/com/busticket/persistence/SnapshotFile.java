@@ -0,0 +1,171 @@
+package com.busticket.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * SnapshotFile is a point-in-time image of the DataStore written by checkpoints
+ *
+ * Layout (big-endian, version 1):
+ *   int magic | int version | long checkpointLsn | long createdAtMillis
+ *   { byte type | int payloadLength | payload }*   (same payloads as WalRecords)
+ *   byte 0 | long recordCount | int crc32c(records)
+ *
+ * A snapshot is written to a temporary file, forced and atomically renamed over the previous
+ * one, so a crash while checkpointing always leaves the last complete snapshot in place.
+ * Loading maps the file read-only and decodes records straight from the mapping.
+ */
+public final class SnapshotFile {
+    public static final String FILE_NAME = "datastore.snapshot";
+    static final int MAGIC = 0x42545353; // "BTSS"
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES * 2;
+    private static final int TRAILER_SIZE = Byte.BYTES + Long.BYTES + Integer.BYTES;
+
+    private SnapshotFile() {
+        // Utility class - cannot instantiate
+    }
+
+    /**
+     * Start writing a snapshot of the state covered by checkpointLsn
+     */
+    public static Writer create(Path directory, long checkpointLsn) throws IOException {
+        Files.createDirectories(directory);
+        return new Writer(directory.resolve(FILE_NAME), checkpointLsn);
+    }
+
+    /**
+     * Feed every record of the snapshot to the consumer
+     * Returns the snapshot's checkpoint LSN, or 0 if there is no snapshot
+     */
+    public static long load(Path directory, WriteAheadLog.RecordConsumer consumer) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than a single mapping: " + size + " bytes");
+            }
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Snapshot is truncated: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (mapped.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = mapped.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            long checkpointLsn = mapped.getLong();
+            mapped.getLong(); // createdAtMillis
+
+            // Verify the whole record region before applying anything
+            int recordsEnd = (int) size - Long.BYTES - Integer.BYTES;
+            CRC32C crc = new CRC32C();
+            crc.update(mapped.slice(HEADER_SIZE, recordsEnd - HEADER_SIZE));
+            if ((int) crc.getValue() != mapped.getInt(recordsEnd + Long.BYTES)) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+
+            long expectedRecords = mapped.getLong(recordsEnd);
+            long records = 0;
+            while (true) {
+                byte type = mapped.get();
+                if (type == 0) {
+                    break;
+                }
+                int length = mapped.getInt();
+                ByteBuffer payload = mapped.slice(mapped.position(), length);
+                mapped.position(mapped.position() + length);
+                consumer.accept(type, checkpointLsn, payload);
+                records++;
+            }
+            if (records != expectedRecords) {
+                throw new IOException("Snapshot record count mismatch: " + records + " of " + expectedRecords);
+            }
+            return checkpointLsn;
+        }
+    }
+
+    /**
+     * Streams records into a temporary file and publishes it on commit
+     */
+    public static final class Writer implements Closeable {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private final CRC32C crc = new CRC32C();
+        private final DataOutputStream out;
+        private long records;
+        private boolean committed;
+
+        private Writer(Path target, long checkpointLsn) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(checkpointLsn).putLong(System.currentTimeMillis());
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+        }
+
+        public void write(byte type, byte[] payload) throws IOException {
+            out.writeByte(type);
+            out.writeInt(payload.length);
+            out.write(payload);
+            records++;
+        }
+
+        /**
+         * Finish the file, force it to disk and atomically replace the previous snapshot
+         */
+        public void commit() throws IOException {
+            out.writeByte(0);
+            out.flush();
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE - Byte.BYTES);
+            trailer.putLong(records).putInt((int) crc.getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        public long getRecordCount() {
+            return records;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
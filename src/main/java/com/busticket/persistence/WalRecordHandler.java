@@ -0,0 +1,30 @@
+package com.busticket.persistence;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.BusFare;
+import com.busticket.domain.entity.Journey;
+import com.busticket.domain.entity.ServicePattern;
+import java.time.LocalDateTime;
+
+/**
+ * Applies decoded write-ahead log records to an in-memory store
+ * Every record carries explicit IDs, so applying the same record twice is harmless
+ */
+public interface WalRecordHandler {
+
+    void journeyAdded(Journey journey, int firstSeatId);
+
+    void seatBooked(int journeyId, int seatIndex, String passengerName, String passengerPhone, LocalDateTime bookedAt);
+
+    void seatReleased(int journeyId, int seatIndex);
+
+    void bookingAdded(Booking booking);
+
+    void holdAdded(int journeyId, String seatId, LocalDateTime heldAt);
+
+    void holdRemoved(int journeyId, String seatId);
+
+    void farePut(BusFare fare);
+
+    void servicePatternAdded(ServicePattern pattern);
+}
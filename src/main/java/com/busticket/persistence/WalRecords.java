@@ -0,0 +1,324 @@
+package com.busticket.persistence;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.BusFare;
+import com.busticket.domain.entity.Journey;
+import com.busticket.domain.entity.ServicePattern;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * WalRecords defines the record types of the write-ahead log and their compact binary payloads
+ * - Integers are fixed width, strings are length-prefixed UTF-8 (length -1 for null)
+ * - Timestamps are stored as UTC epoch seconds plus nanos, so replay is time-zone independent
+ */
+public final class WalRecords {
+    public static final byte JOURNEY_ADDED = 1;
+    public static final byte SEAT_BOOKED = 2;
+    public static final byte SEAT_RELEASED = 3;
+    public static final byte BOOKING_ADDED = 4;
+    public static final byte HOLD_ADDED = 5;
+    public static final byte HOLD_REMOVED = 6;
+    public static final byte FARE_PUT = 7;
+    public static final byte SEAT_MAP = 8;
+    public static final byte SERVICE_PATTERN_ADDED = 9;
+
+    private WalRecords() {
+        // Utility class - cannot instantiate
+    }
+
+    // ==================== Encoding ====================
+
+    public static byte[] journeyAdded(Journey journey, int firstSeatId) {
+        return encode(out -> {
+            out.writeInt(journey.getId());
+            out.writeInt(journey.getBusId());
+            writeString(out, journey.getJourneyNumber());
+            out.writeLong(journey.getJourneyDate().toEpochDay());
+            writeTime(out, journey.getDepartureTime());
+            writeString(out, journey.getFromStop());
+            writeString(out, journey.getToStop());
+            writeString(out, journey.getDirection());
+            out.writeInt(journey.getTotalSeats());
+            out.writeInt(firstSeatId);
+        });
+    }
+
+    public static byte[] seatBooked(int journeyId, int seatIndex, String passengerName, String passengerPhone,
+                                    LocalDateTime bookedAt) {
+        return encode(out -> {
+            out.writeInt(journeyId);
+            out.writeInt(seatIndex);
+            writeString(out, passengerName);
+            writeString(out, passengerPhone);
+            writeTime(out, bookedAt);
+        });
+    }
+
+    public static byte[] seatReleased(int journeyId, int seatIndex) {
+        return encode(out -> {
+            out.writeInt(journeyId);
+            out.writeInt(seatIndex);
+        });
+    }
+
+    public static byte[] bookingAdded(Booking booking) {
+        return encode(out -> {
+            out.writeInt(booking.getId());
+            out.writeInt(booking.getJourneyId());
+            writeString(out, booking.getBookingNumber());
+            writeString(out, booking.getPassengerName());
+            writeString(out, booking.getPassengerPhone());
+            writeString(out, booking.getPassengerEmail());
+            writeString(out, booking.getFromStop());
+            writeString(out, booking.getToStop());
+            writeString(out, booking.getSeatId());
+            writeString(out, booking.getFare() == null ? null : booking.getFare().toPlainString());
+            writeString(out, booking.getStatus());
+            writeTime(out, booking.getBookingTime());
+            writeTime(out, booking.getTravelDate());
+            writeTime(out, booking.getCreatedAt());
+            writeTime(out, booking.getUpdatedAt());
+        });
+    }
+
+    public static byte[] holdAdded(int journeyId, String seatId, LocalDateTime heldAt) {
+        return encode(out -> {
+            out.writeInt(journeyId);
+            writeString(out, seatId);
+            writeTime(out, heldAt);
+        });
+    }
+
+    public static byte[] holdRemoved(int journeyId, String seatId) {
+        return encode(out -> {
+            out.writeInt(journeyId);
+            writeString(out, seatId);
+        });
+    }
+
+    public static byte[] farePut(BusFare fare) {
+        return encode(out -> {
+            out.writeInt(fare.getId());
+            out.writeInt(fare.getFromStopId());
+            out.writeInt(fare.getToStopId());
+            writeString(out, fare.getPrice().toPlainString());
+        });
+    }
+
+    public static byte[] servicePatternAdded(ServicePattern pattern) {
+        return encode(out -> {
+            out.writeInt(pattern.getId());
+            out.writeInt(pattern.getBusId());
+            writeString(out, pattern.getJourneyNumber());
+            writeString(out, pattern.getFromStop());
+            writeString(out, pattern.getToStop());
+            writeString(out, pattern.getDirection());
+            out.writeInt(pattern.getDepartureTime().toSecondOfDay());
+            int days = 0;
+            for (DayOfWeek day : pattern.getDaysOfWeek()) {
+                days |= 1 << (day.getValue() - 1);
+            }
+            out.writeByte(days);
+            writeDate(out, pattern.getValidFrom());
+            writeDate(out, pattern.getValidUntil());
+            out.writeInt(pattern.getTotalSeats());
+        });
+    }
+
+    /**
+     * All booked seats of a journey, as written by checkpoints
+     */
+    public static byte[] seatMap(int journeyId, List<BookedSeat> seats) {
+        return encode(out -> {
+            out.writeInt(journeyId);
+            out.writeInt(seats.size());
+            for (BookedSeat seat : seats) {
+                out.writeInt(seat.seatIndex());
+                writeString(out, seat.passengerName());
+                writeString(out, seat.passengerPhone());
+                writeTime(out, seat.bookedAt());
+            }
+        });
+    }
+
+    // ==================== Decoding ====================
+
+    /**
+     * Decode a record payload and pass it to the matching handler method
+     */
+    public static void dispatch(byte type, ByteBuffer in, WalRecordHandler handler) throws IOException {
+        try {
+            decode(type, in, handler);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Malformed write-ahead log record of type " + type, e);
+        }
+    }
+
+    private static void decode(byte type, ByteBuffer in, WalRecordHandler handler) throws IOException {
+        switch (type) {
+            case JOURNEY_ADDED -> {
+                Journey journey = new Journey();
+                journey.setId(in.getInt());
+                journey.setBusId(in.getInt());
+                journey.setJourneyNumber(readString(in));
+                journey.setJourneyDate(LocalDate.ofEpochDay(in.getLong()));
+                journey.setDepartureTime(readTime(in));
+                journey.setFromStop(readString(in));
+                journey.setToStop(readString(in));
+                journey.setDirection(readString(in));
+                journey.setTotalSeats(in.getInt());
+                journey.setAvailableSeats(journey.getTotalSeats());
+                handler.journeyAdded(journey, in.getInt());
+            }
+            case SEAT_BOOKED -> handler.seatBooked(in.getInt(), in.getInt(), readString(in), readString(in),
+                    readTime(in));
+            case SEAT_RELEASED -> handler.seatReleased(in.getInt(), in.getInt());
+            case BOOKING_ADDED -> {
+                Booking booking = new Booking();
+                booking.setId(in.getInt());
+                booking.setJourneyId(in.getInt());
+                booking.setBookingNumber(readString(in));
+                booking.setPassengerName(readString(in));
+                booking.setPassengerPhone(readString(in));
+                booking.setPassengerEmail(readString(in));
+                booking.setFromStop(readString(in));
+                booking.setToStop(readString(in));
+                booking.setSeatId(readString(in));
+                String fare = readString(in);
+                booking.setFare(fare == null ? null : new BigDecimal(fare));
+                booking.setStatus(readString(in));
+                booking.setBookingTime(readTime(in));
+                booking.setTravelDate(readTime(in));
+                booking.setCreatedAt(readTime(in));
+                booking.setUpdatedAt(readTime(in));
+                handler.bookingAdded(booking);
+            }
+            case SEAT_MAP -> {
+                int journeyId = in.getInt();
+                int count = in.getInt();
+                for (int i = 0; i < count; i++) {
+                    handler.seatBooked(journeyId, in.getInt(), readString(in), readString(in), readTime(in));
+                }
+            }
+            case HOLD_ADDED -> handler.holdAdded(in.getInt(), readString(in), readTime(in));
+            case HOLD_REMOVED -> handler.holdRemoved(in.getInt(), readString(in));
+            case FARE_PUT -> {
+                int id = in.getInt();
+                int fromStopId = in.getInt();
+                int toStopId = in.getInt();
+                handler.farePut(new BusFare(id, fromStopId, toStopId, new BigDecimal(readString(in))));
+            }
+            case SERVICE_PATTERN_ADDED -> {
+                int id = in.getInt();
+                int busId = in.getInt();
+                String journeyNumber = readString(in);
+                String fromStop = readString(in);
+                String toStop = readString(in);
+                String direction = readString(in);
+                LocalTime departureTime = LocalTime.ofSecondOfDay(in.getInt());
+                int days = in.get();
+                Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    if ((days & 1 << (day.getValue() - 1)) != 0) {
+                        daysOfWeek.add(day);
+                    }
+                }
+                ServicePattern pattern = new ServicePattern(busId, journeyNumber, fromStop, toStop, direction,
+                        departureTime, daysOfWeek, readDate(in), readDate(in), in.getInt());
+                pattern.setId(id);
+                handler.servicePatternAdded(pattern);
+            }
+            default -> throw new IOException("Unknown write-ahead log record type: " + type);
+        }
+    }
+
+    // ==================== Primitives ====================
+
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(PayloadWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (in.hasArray()) {
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    private static LocalDateTime readTime(ByteBuffer in) {
+        return in.get() != 0 ? LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC) : null;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        out.writeLong(value.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        return in.get() != 0 ? LocalDate.ofEpochDay(in.getLong()) : null;
+    }
+
+    /**
+     * A booked seat inside a SEAT_MAP record
+     */
+    public record BookedSeat(int seatIndex, String passengerName, String passengerPhone, LocalDateTime bookedAt) {
+    }
+}
@@ -0,0 +1,526 @@
+package com.busticket.persistence;
+
+import com.busticket.util.LoggingConfig;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * WriteAheadLog is an append-only binary log of DataStore mutations, split into segment files
+ * named after the first LSN they may contain (wal-00000000000000000001.log, ...)
+ *
+ * Record layout (big-endian):
+ *   int payloadLength | byte type | long lsn | payload | int crc32(type, lsn, payload)
+ *
+ * Appends are assigned a log sequence number (LSN) and queued; a single writer thread
+ * drains the queue, writes the whole batch and fsyncs once (group commit), then wakes
+ * every caller of that batch. Callers therefore only return once their record is durable,
+ * but concurrent bookings share one fsync instead of paying for their own.
+ * SyncMode.RECORD forces after every record and exists for comparison.
+ *
+ * Replay stops at the first torn or corrupt record of the last segment and truncates the
+ * file there, so a crash in the middle of a write never blocks startup.
+ *
+ * Checkpoints: most mutations are applied in memory before they are logged, but a few must be
+ * logged first to keep replay order correct. Those are registered as unapplied until the caller
+ * confirms them, so getCheckpointLsn() only ever returns an LSN whose effects are all in memory.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final Logger LOGGER = LoggingConfig.getLogger(WriteAheadLog.class);
+
+    static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES;
+    static final int TRAILER_SIZE = Integer.BYTES;
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_PAYLOAD = 1 << 20;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // Writer control markers; never written to disk
+    private static final byte SHUTDOWN_MARKER = -1;
+    private static final byte ROLLOVER_MARKER = -2;
+    private static final byte[] NO_PAYLOAD = new byte[0];
+
+    public enum SyncMode {
+        /** fsync once per drained batch of records */
+        BATCH,
+        /** fsync after every record */
+        RECORD
+    }
+
+    /**
+     * Receives records in LSN order during replay
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(byte type, long lsn, ByteBuffer payload) throws IOException;
+    }
+
+    private final Path directory;
+    private final SyncMode syncMode;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Object appendLock = new Object();
+    private final NavigableSet<Long> unapplied = new ConcurrentSkipListSet<>();
+    private final List<Segment> segments;
+    private final Thread writer;
+
+    private FileChannel channel;
+    private long nextLsn;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private WriteAheadLog(Path directory, SyncMode syncMode, List<Segment> segments, FileChannel channel,
+                          long nextLsn) {
+        this.directory = directory;
+        this.syncMode = syncMode;
+        this.segments = segments;
+        this.channel = channel;
+        this.nextLsn = nextLsn;
+        this.writer = new Thread(this::writeLoop, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Replay every record after afterLsn into the consumer, then open the log for appending
+     */
+    public static WriteAheadLog open(Path directory, SyncMode syncMode, long afterLsn, RecordConsumer consumer)
+            throws IOException {
+        Files.createDirectories(directory);
+        List<Segment> segments = listSegments(directory);
+        long lastLsn = afterLsn;
+
+        for (int i = 0; i < segments.size(); i++) {
+            boolean last = i == segments.size() - 1;
+            try (FileChannel segment = FileChannel.open(segments.get(i).file(), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                lastLsn = replay(segment, afterLsn, lastLsn, consumer, last);
+            }
+        }
+
+        long nextLsn = lastLsn + 1;
+        if (segments.isEmpty()) {
+            segments.add(new Segment(nextLsn, segmentFile(directory, nextLsn)));
+        }
+        Path current = segments.get(segments.size() - 1).file();
+        FileChannel channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return new WriteAheadLog(directory, syncMode, segments, channel, nextLsn);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public SyncMode getSyncMode() {
+        return syncMode;
+    }
+
+    /**
+     * LSN that the next appended record will receive
+     */
+    public long getNextLsn() {
+        synchronized (appendLock) {
+            return nextLsn;
+        }
+    }
+
+    /**
+     * Highest LSN such that it and every earlier record are already reflected in memory
+     */
+    public long getCheckpointLsn() {
+        synchronized (appendLock) {
+            return unapplied.isEmpty() ? nextLsn - 1 : unapplied.first() - 1;
+        }
+    }
+
+    /**
+     * Append a record for a change that is already applied in memory, and wait until it is durable
+     * Returns its LSN
+     */
+    public long append(byte type, byte[] payload) {
+        return awaitDurable(enqueue(type, payload, false));
+    }
+
+    /**
+     * Append a record for a change that will be applied after it is durable
+     * The caller must call markApplied with the returned LSN once the change is visible
+     */
+    public long appendBeforeApply(byte type, byte[] payload) {
+        PendingRecord record = enqueue(type, payload, true);
+        try {
+            return awaitDurable(record);
+        } catch (RuntimeException e) {
+            unapplied.remove(record.lsn());
+            throw e;
+        }
+    }
+
+    /**
+     * Append records for changes that will be applied together once all of them are durable
+     * The records get consecutive LSNs, returned in order; the caller must markApplied each of them
+     */
+    public long[] appendAllBeforeApply(byte type, List<byte[]> payloads) {
+        List<PendingRecord> records = enqueueAll(type, payloads, true);
+        long[] lsns = new long[records.size()];
+        try {
+            for (int i = 0; i < lsns.length; i++) {
+                lsns[i] = awaitDurable(records.get(i));
+            }
+        } catch (RuntimeException e) {
+            for (PendingRecord record : records) {
+                unapplied.remove(record.lsn());
+            }
+            throw e;
+        }
+        return lsns;
+    }
+
+    /**
+     * Append records for changes that are already applied in memory, and wait until all are durable
+     * The records get consecutive LSNs and usually share one write and sync; returned in order
+     */
+    public long[] appendAll(byte type, List<byte[]> payloads) {
+        List<PendingRecord> records = enqueueAll(type, payloads, false);
+        long[] lsns = new long[records.size()];
+        for (int i = 0; i < lsns.length; i++) {
+            lsns[i] = awaitDurable(records.get(i));
+        }
+        return lsns;
+    }
+
+    public void markApplied(long lsn) {
+        unapplied.remove(lsn);
+    }
+
+    /**
+     * Start a new segment; records appended afterwards go to the new file
+     */
+    public void rollover() {
+        PendingRecord marker;
+        synchronized (appendLock) {
+            checkWritable();
+            marker = new PendingRecord(ROLLOVER_MARKER, nextLsn, NO_PAYLOAD, new CompletableFuture<>());
+            queue.add(marker);
+        }
+        awaitDurable(marker);
+    }
+
+    /**
+     * Delete closed segments whose records all have an LSN at or below the given one
+     * Returns the number of deleted segments
+     */
+    public int deleteSegmentsThrough(long lsn) throws IOException {
+        int deleted = 0;
+        synchronized (segments) {
+            // The last segment is the one being written and is never deleted
+            while (segments.size() > 1 && segments.get(1).startLsn() - 1 <= lsn) {
+                Files.deleteIfExists(segments.remove(0).file());
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    public int getSegmentCount() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Queued behind every accepted record, so they are all written before the writer stops
+            queue.add(new PendingRecord(SHUTDOWN_MARKER, 0, NO_PAYLOAD, new CompletableFuture<>()));
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private PendingRecord enqueue(byte type, byte[] payload, boolean beforeApply) {
+        checkPayloadSize(payload);
+        synchronized (appendLock) {
+            checkWritable();
+            // Queue order must match LSN order, so both happen under the append lock
+            PendingRecord record = new PendingRecord(type, nextLsn++, payload, new CompletableFuture<>());
+            if (beforeApply) {
+                unapplied.add(record.lsn());
+            }
+            queue.add(record);
+            return record;
+        }
+    }
+
+    private List<PendingRecord> enqueueAll(byte type, List<byte[]> payloads, boolean beforeApply) {
+        for (byte[] payload : payloads) {
+            checkPayloadSize(payload);
+        }
+        List<PendingRecord> records = new ArrayList<>(payloads.size());
+        synchronized (appendLock) {
+            checkWritable();
+            for (byte[] payload : payloads) {
+                PendingRecord record = new PendingRecord(type, nextLsn++, payload, new CompletableFuture<>());
+                if (beforeApply) {
+                    unapplied.add(record.lsn());
+                }
+                queue.add(record);
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static void checkPayloadSize(byte[] payload) {
+        if (payload.length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("WAL record too large: " + payload.length + " bytes");
+        }
+    }
+
+    private static long awaitDurable(PendingRecord record) {
+        try {
+            record.durable().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof UncheckedIOException unchecked ? unchecked
+                    : new UncheckedIOException(new IOException("WAL append failed", cause));
+        }
+        return record.lsn();
+    }
+
+    private void checkWritable() {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed earlier", failure);
+        }
+    }
+
+    // ==================== Writer ====================
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // Not expected: the writer is stopped by the shutdown marker, never by interrupt
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            if (batch.get(batch.size() - 1).type() == SHUTDOWN_MARKER) {
+                batch.remove(batch.size() - 1);
+                running = false;
+            }
+            try {
+                buffer = writeBatch(batch, buffer);
+                for (PendingRecord record : batch) {
+                    record.durable().complete(null);
+                }
+            } catch (IOException e) {
+                failure = e;
+                LOGGER.severe("Write-ahead log write failed: " + e.getMessage());
+                UncheckedIOException error = new UncheckedIOException(e);
+                for (PendingRecord record : batch) {
+                    record.durable().completeExceptionally(error);
+                }
+                PendingRecord pending;
+                while ((pending = queue.poll()) != null) {
+                    running &= pending.type() != SHUTDOWN_MARKER;
+                    pending.durable().completeExceptionally(error);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private ByteBuffer writeBatch(List<PendingRecord> batch, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        for (PendingRecord record : batch) {
+            if (record.type() == ROLLOVER_MARKER) {
+                flush(buffer);
+                channel.force(false);
+                openSegment(record.lsn());
+                continue;
+            }
+            int size = HEADER_SIZE + record.payload().length + TRAILER_SIZE;
+            if (buffer.remaining() < size) {
+                flush(buffer);
+                if (buffer.capacity() < size) {
+                    buffer = ByteBuffer.allocate(size);
+                }
+            }
+            encode(buffer, record.type(), record.lsn(), record.payload());
+            if (syncMode == SyncMode.RECORD) {
+                flush(buffer);
+                channel.force(false);
+            }
+        }
+        flush(buffer);
+        if (syncMode == SyncMode.BATCH) {
+            channel.force(false);
+        }
+        return buffer;
+    }
+
+    private void openSegment(long startLsn) throws IOException {
+        Path file = segmentFile(directory, startLsn);
+        FileChannel next = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        next.position(next.size());
+        channel.close();
+        channel = next;
+        synchronized (segments) {
+            segments.add(new Segment(startLsn, file));
+        }
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ==================== Framing ====================
+
+    static void encode(ByteBuffer buffer, byte type, long lsn, byte[] payload) {
+        buffer.putInt(payload.length);
+        buffer.put(type);
+        buffer.putLong(lsn);
+        buffer.put(payload);
+        buffer.putInt(checksum(type, lsn, payload));
+    }
+
+    static int checksum(byte type, long lsn, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (lsn >>> shift));
+        }
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Feed every intact record after afterLsn to the consumer
+     * A torn tail is truncated on the last segment; anywhere else it means the log is corrupt
+     * Returns the last LSN seen
+     */
+    private static long replay(FileChannel channel, long afterLsn, long lastLsn, RecordConsumer consumer,
+                               boolean lastSegment) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+
+        while (position + HEADER_SIZE + TRAILER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            int length = header.getInt();
+            byte type = header.get();
+            long lsn = header.getLong();
+            if (length < 0 || length > MAX_PAYLOAD || position + HEADER_SIZE + length + TRAILER_SIZE > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, position + HEADER_SIZE);
+            trailer.clear();
+            readFully(channel, trailer, position + HEADER_SIZE + length);
+            trailer.flip();
+            if (trailer.getInt() != checksum(type, lsn, payload.array())) {
+                break;
+            }
+            if (lsn > afterLsn) {
+                if (lsn <= lastLsn) {
+                    break;
+                }
+                payload.flip();
+                consumer.accept(type, lsn, payload);
+            }
+            lastLsn = Math.max(lastLsn, lsn);
+            position += HEADER_SIZE + length + TRAILER_SIZE;
+        }
+
+        if (position < size) {
+            if (!lastSegment) {
+                throw new IOException("Corrupt write-ahead log segment before the last one at byte " + position);
+            }
+            LOGGER.warning("Truncating " + (size - position) + " bytes of torn write-ahead log tail");
+            channel.truncate(position);
+        }
+        return lastLsn;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of write-ahead log");
+            }
+        }
+    }
+
+    // ==================== Segments ====================
+
+    private static List<Segment> listSegments(Path directory) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String digits = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    segments.add(new Segment(Long.parseLong(digits), file));
+                } catch (NumberFormatException e) {
+                    LOGGER.warning("Ignoring unexpected file in write-ahead log directory: " + name);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(Segment::startLsn));
+        return segments;
+    }
+
+    private static Path segmentFile(Path directory, long startLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, startLsn, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * A segment file and the first LSN it may contain
+     */
+    private record Segment(long startLsn, Path file) {
+    }
+
+    /**
+     * A queued record and the future completed once it has been forced to disk
+     */
+    private record PendingRecord(byte type, long lsn, byte[] payload, CompletableFuture<Void> durable) {
+    }
+}
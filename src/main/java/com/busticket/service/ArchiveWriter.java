@@ -0,0 +1,13 @@
+package com.busticket.service;
+
+import java.io.IOException;
+
+/**
+ * Receives every day partition retired from the DataStore, e.g. to move it to cold storage
+ * If archiving fails the day is put back and retried on the next retirement run.
+ */
+@FunctionalInterface
+public interface ArchiveWriter {
+
+    void archive(DayPartition partition) throws IOException;
+}
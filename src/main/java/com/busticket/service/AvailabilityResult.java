@@ -0,0 +1,38 @@
+package com.busticket.service;
+
+import com.busticket.domain.response.JourneyInfo;
+import java.util.List;
+
+/**
+ * AvailabilityResult is the answer to one availability query
+ * Cached results are shared by every caller asking the same question until a booking, release,
+ * hold or schedule change makes them stale, so the journeys must be treated as read-only.
+ * A caller may attach its serialized form of the result, which later cache hits reuse as is.
+ */
+public final class AvailabilityResult {
+    private final List<JourneyInfo> journeys;
+    private volatile byte[] body;
+
+    public AvailabilityResult(List<JourneyInfo> journeys) {
+        this.journeys = List.copyOf(journeys);
+    }
+
+    public List<JourneyInfo> getJourneys() {
+        return journeys;
+    }
+
+    public boolean isEmpty() {
+        return journeys.isEmpty();
+    }
+
+    /**
+     * Serialized form attached by an earlier caller, or null
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public void setBody(byte[] body) {
+        this.body = body;
+    }
+}
@@ -1,8 +1,11 @@
 package com.busticket.service;
 
+import com.busticket.configuration.ServerConfiguration;
 import com.busticket.domain.entity.Journey;
 import com.busticket.domain.entity.Seat;
+import com.busticket.domain.response.DayAvailability;
 import com.busticket.domain.response.JourneyInfo;
+import com.busticket.storage.SeatMap;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -10,12 +13,25 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * AvailabilityService handles journey availability and fare calculation
+ * Route availability is cached per (origin, destination, date, passenger count); every entry
+ * remembers the seat map claim versions it was computed at and is recomputed once one moves.
+ * Holds do not change which seats are offered, so they leave cached results current.
+ * The cache holds at most MAX_CACHE_ENTRIES results; when full, entries are dropped to make room.
  */
 public class AvailabilityService {
     private final JourneyService journeyService;
@@ -24,6 +40,35 @@ public class AvailabilityService {
     private static AvailabilityService instance;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    // Routes x bookable days x cached party sizes fit well below this
+    private static final int MAX_CACHE_ENTRIES = 1024;
+
+    private record CacheKey(String origin, String destination, LocalDate journeyDate, int passengerCount) {
+    }
+
+    /**
+     * A cached result and the versions it was computed at
+     */
+    private record CacheEntry(AvailabilityResult result, long scheduleVersion, BigDecimal farePerPassenger,
+                              SeatMap[] seatMaps, long[] versions) {
+
+        boolean isCurrent(long currentSchedule, BigDecimal currentFare) {
+            if (scheduleVersion != currentSchedule || farePerPassenger.compareTo(currentFare) != 0) {
+                return false;
+            }
+            for (int i = 0; i < seatMaps.length; i++) {
+                if (seatMaps[i].getClaimVersion() != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final Map<CacheKey, CacheEntry> cache = new ConcurrentHashMap<>();
+    // Days of range searches run on virtual threads; the permits bound how many run at once
+    private final ExecutorService rangeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore rangePermits = new Semaphore(ServerConfiguration.AVAILABILITY_RANGE_PARALLELISM);
 
     private AvailabilityService() {
         this.journeyService = JourneyService.getInstance();
@@ -31,7 +76,7 @@ public class AvailabilityService {
         this.seatService = SeatService.getInstance();
     }
 
-    public static AvailabilityService getInstance() {
+    public static synchronized AvailabilityService getInstance() {
         if (instance == null) {
             instance = new AvailabilityService();
         }
@@ -41,22 +86,29 @@ public class AvailabilityService {
     /**
      * Check availability of seats for a given route
      * Returns list of available journeys with fare information
-     * Creates soft locks (seat holds) for available seats
      */
     public List<JourneyInfo> checkAvailability(String origin, String destination, int passengerCount, String journeyDateStr) {
-        List<JourneyInfo> results = new ArrayList<>();
+        return getAvailability(origin, destination, passengerCount, journeyDateStr).getJourneys();
+    }
 
+    /**
+     * Check availability of seats for a given route, reusing the cached result while it is current
+     * A result is current while the schedule version, the fare and the version of every seat map
+     * it was computed from are unchanged, so staleness is known without a TTL.
+     */
+    public AvailabilityResult getAvailability(String origin, String destination, int passengerCount,
+                                              String journeyDateStr) {
         // Validate inputs
         if (!isValidStop(origin) || !isValidStop(destination)) {
-            return results;
+            return new AvailabilityResult(List.of());
         }
 
         if (origin.equals(destination)) {
-            return results;
+            return new AvailabilityResult(List.of());
         }
 
         if (passengerCount <= 0) {
-            return results;
+            return new AvailabilityResult(List.of());
         }
 
         // Parse journey date
@@ -64,19 +116,156 @@ public class AvailabilityService {
         try {
             journeyDate = LocalDate.parse(journeyDateStr, DATE_FORMATTER);
         } catch (DateTimeParseException e) {
-            return results;
+            return new AvailabilityResult(List.of());
         }
 
         // Check if date is in past
         if (journeyDate.isBefore(LocalDate.now())) {
-            return results;
+            return new AvailabilityResult(List.of());
         }
 
         // Check if date exceeds 3 days from today (only 3 days from today can be booked)
         if (journeyDate.isAfter(LocalDate.now().plusDays(2))) {
-            return results;
+            return new AvailabilityResult(List.of());
+        }
+
+        // Journeys of service patterns are created on first use of a date
+        journeyService.expandServicePatterns(journeyDate);
+        long scheduleVersion = journeyService.getScheduleVersion();
+        BigDecimal farePerPassenger = reservationService.calculateFare(origin, destination);
+        if (passengerCount > ServerConfiguration.AVAILABILITY_CACHE_MAX_PASSENGERS) {
+            return compute(origin, destination, passengerCount, journeyDate, farePerPassenger, null, null);
+        }
+
+        CacheKey key = new CacheKey(origin, destination, journeyDate, passengerCount);
+        CacheEntry cached = cache.get(key);
+        if (cached != null && cached.isCurrent(scheduleVersion, farePerPassenger)) {
+            return cached.result();
+        }
+        List<SeatMap> seatMaps = new ArrayList<>();
+        List<Long> versions = new ArrayList<>();
+        AvailabilityResult result = compute(origin, destination, passengerCount, journeyDate, farePerPassenger,
+                seatMaps, versions);
+        long[] seen = new long[versions.size()];
+        for (int i = 0; i < seen.length; i++) {
+            seen[i] = versions.get(i);
+        }
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            makeRoom();
+        }
+        cache.put(key, new CacheEntry(result, scheduleVersion, farePerPassenger,
+                seatMaps.toArray(new SeatMap[0]), seen));
+        return result;
+    }
+
+    /**
+     * Drop results of days that can no longer be queried, then arbitrary ones until there is room
+     * A dropped result is only recomputed on its next lookup.
+     */
+    private void makeRoom() {
+        LocalDate today = LocalDate.now();
+        cache.keySet().removeIf(stale -> stale.journeyDate().isBefore(today));
+        Iterator<CacheKey> keys = cache.keySet().iterator();
+        while (cache.size() >= MAX_CACHE_ENTRIES && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Summarize availability for every day from dateFrom to dateTo, inclusive
+     * Each day is looked up on its own virtual thread, so the range costs about as much as its
+     * slowest day. At most AVAILABILITY_RANGE_PARALLELISM days of all range searches run at once,
+     * and a search taking longer than AVAILABILITY_RANGE_TIMEOUT_MILLIS is abandoned with an
+     * IllegalStateException caused by a TimeoutException. Days that cannot be booked summarize as
+     * no departures. Throws IllegalArgumentException for a date that does not parse, a reversed
+     * range, or one longer than AVAILABILITY_MAX_RANGE_DAYS.
+     */
+    public List<DayAvailability> checkAvailabilityRange(String origin, String destination, int passengerCount,
+                                                        String dateFromStr, String dateToStr) {
+        LocalDate dateFrom;
+        LocalDate dateTo;
+        try {
+            dateFrom = LocalDate.parse(dateFromStr, DATE_FORMATTER);
+            dateTo = LocalDate.parse(dateToStr, DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date_from and date_to must be dates in YYYY-MM-DD format", e);
+        }
+        if (dateTo.isBefore(dateFrom)) {
+            throw new IllegalArgumentException("date_to must not be before date_from");
+        }
+        if (!dateTo.isBefore(dateFrom.plusDays(ServerConfiguration.AVAILABILITY_MAX_RANGE_DAYS))) {
+            throw new IllegalArgumentException(
+                "A date range may span at most " + ServerConfiguration.AVAILABILITY_MAX_RANGE_DAYS + " days");
         }
 
+        List<LocalDate> days = dateFrom.datesUntil(dateTo.plusDays(1)).toList();
+        if (days.size() == 1) {
+            return List.of(summarizeDay(origin, destination, passengerCount, dateFrom));
+        }
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(ServerConfiguration.AVAILABILITY_RANGE_TIMEOUT_MILLIS);
+        List<Future<DayAvailability>> futures = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            futures.add(rangeExecutor.submit(() -> {
+                rangePermits.acquire();
+                try {
+                    return summarizeDay(origin, destination, passengerCount, day);
+                } finally {
+                    rangePermits.release();
+                }
+            }));
+        }
+        List<DayAvailability> results = new ArrayList<>(days.size());
+        try {
+            for (Future<DayAvailability> future : futures) {
+                results.add(future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while checking availability", e);
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Availability range search timed out", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Availability check failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Departures, seats left and cheapest fare of one day, from the cached availability
+     */
+    private DayAvailability summarizeDay(String origin, String destination, int passengerCount, LocalDate day) {
+        List<JourneyInfo> journeys = getAvailability(origin, destination, passengerCount, day.toString()).getJourneys();
+        int seatsLeft = 0;
+        LocalDateTime firstDeparture = null;
+        JourneyInfo cheapest = null;
+        for (JourneyInfo journey : journeys) {
+            seatsLeft += journey.getAvailableSeats();
+            if (firstDeparture == null || journey.getDepartureTime().isBefore(firstDeparture)) {
+                firstDeparture = journey.getDepartureTime();
+            }
+            if (cheapest == null || journey.getFarePerPassenger().compareTo(cheapest.getFarePerPassenger()) < 0) {
+                cheapest = journey;
+            }
+        }
+        return new DayAvailability(day, journeys.size(), seatsLeft, firstDeparture,
+                cheapest == null ? null : cheapest.getFarePerPassenger(),
+                cheapest == null ? null : cheapest.getTotalFare());
+    }
+
+    /**
+     * Compute availability from the seat inventories
+     * When seatMaps is given, each journey's seat map and its version before reading it are added.
+     */
+    private AvailabilityResult compute(String origin, String destination, int passengerCount, LocalDate journeyDate,
+                                       BigDecimal farePerPassenger, List<SeatMap> seatMaps,
+                                       List<Long> versions) {
+        List<JourneyInfo> results = new ArrayList<>();
+
         // Get all journeys for the date any bus 
         Collection<Journey> journeys = journeyService.getJourneysByDate(journeyDate);
 
@@ -89,41 +278,34 @@ public class AvailabilityService {
             // IMPORTANT: For seat availability, only block seats on OVERLAPPING routes
             // Example: A→B booking blocks A→B, A→C, A→D (overlapping routes)
             // But A→B booking does NOT block B→C (passenger got off at B)
-            Collection<Journey> journeysOnSameBus = journeyService.getJourneysByBusAndDate(journey.getBusId(), journeyDate);
-
-            // Collect booked seats ONLY from overlapping journeys
-            java.util.Set<String> allBookedSeatIds = new java.util.HashSet<>();
-            for (Journey busJourney : journeysOnSameBus) {
-                // Check if busJourney and current journey have overlapping routes
-                if (routesOverlap(busJourney, journey)) {
-                    Collection<Seat> bookedSeats = seatService.getBookedSeats(busJourney.getId());
-                    for (Seat seat : bookedSeats) {
-                        allBookedSeatIds.add(seat.getSeatId());
-                    }
-                }
-            }
-
-            // Calculate truly available seats (not booked on any journey on same bus)
-            int truelyAvailableCount = journey.getTotalSeats() - allBookedSeatIds.size();
-
-            if (truelyAvailableCount <= 0) {
+            // The journey's seat map is a view of the inventory shared by its whole bus-day
+            Optional<SeatMap> seatMapOpt = seatService.getSeatMap(journey.getId());
+            if (seatMapOpt.isEmpty()) {
                 continue;
             }
+            SeatMap seatMap = seatMapOpt.get();
+            if (seatMaps != null) {
+                // Read before the seats, so a change made while reading shows up as a newer version
+                seatMaps.add(seatMap);
+                versions.add(seatMap.getClaimVersion());
+            }
+
+            // Calculate truly available seats (segments not booked on any journey on same bus);
+            // the bus-day keeps a free-seat counter per route, so journeys without room are pruned
+            // before any seat is looked at
+            int truelyAvailableCount = seatMap.availableCount();
 
             // Check if enough seats available for requested passenger count
             if (truelyAvailableCount >= passengerCount) {
-                // Get seat IDs that are not booked on any journey on same bus
-                List<String> availableSeatNumbers = new ArrayList<>();
-                for (Seat seat : seatService.getSeatsByJourney(journey.getId())) {
-                    if (!allBookedSeatIds.contains(seat.getSeatId())) {
-                        availableSeatNumbers.add(seat.getSeatId());
-                    }
+                // Get seat IDs whose segments are free on this bus
+                List<String> availableSeatNumbers = new ArrayList<>(truelyAvailableCount);
+                for (int seat = seatMap.nextAvailable(0); seat >= 0; seat = seatMap.nextAvailable(seat + 1)) {
+                    availableSeatNumbers.add(SeatMap.seatNumber(seat));
                 }
 
                 // Only include journey if we have enough seats available
                 if (availableSeatNumbers.size() >= passengerCount) {
                     // Calculate fare
-                    BigDecimal farePerPassenger = reservationService.calculateFare(origin, destination);
                     BigDecimal totalFare = farePerPassenger.multiply(new BigDecimal(passengerCount));
 
                     // Calculate estimated arrival time (simple: add 2.5 hours per journey)
@@ -151,7 +333,7 @@ public class AvailabilityService {
             }
         }
 
-        return results;
+        return new AvailabilityResult(results);
     }
 
 
@@ -179,6 +361,11 @@ public class AvailabilityService {
             return Optional.empty();
         }
 
+        // Route counters rule out journeys without room before any seat is materialized
+        if (seatService.countAvailableSeats(journey.getId()) < passengerCount) {
+            return Optional.empty();
+        }
+
         // Get available seats excluding those on hold
         Collection<Seat> availableSeats = seatService.getAvailableSeatsExcludingHolds(journey.getId());
 
@@ -233,41 +420,11 @@ public class AvailabilityService {
         return stop != null && (stop.equals("A") || stop.equals("B") || stop.equals("C") || stop.equals("D"));
     }
 
-    /**
-     * Check if two journeys have overlapping routes
-     * Routes overlap if one journey's stops fall within another's journey path
-     * Example: A→B and A→C overlap (both include A→B segment)
-     * Example: A→B and B→C do NOT overlap (different passengers, A→B passenger gets off at B)
-     */
-    private boolean routesOverlap(Journey journey1, Journey journey2) {
-        // Stop order: A=1, B=2, C=3, D=4
-        int stopOrder = 'A'; // Starting point
-        int j1Start = journey1.getFromStop().charAt(0) - stopOrder;
-        int j1End = journey1.getToStop().charAt(0) - stopOrder;
-        int j2Start = journey2.getFromStop().charAt(0) - stopOrder;
-        int j2End = journey2.getToStop().charAt(0) - stopOrder;
-
-        // Ensure start < end
-        if (j1Start > j1End) {
-            int temp = j1Start;
-            j1Start = j1End;
-            j1End = temp;
-        }
-        if (j2Start > j2End) {
-            int temp = j2Start;
-            j2Start = j2End;
-            j2End = temp;
-        }
-
-        // Two ranges overlap if: range1.start < range2.end AND range2.start < range1.end
-        // (excluding when they only touch at endpoints)
-        return j1Start < j2End && j2Start < j1End;
-    }
-
     /**
      * Reset service (for testing)
      */
     public void reset() {
+        cache.clear();
         journeyService.reset();
         reservationService.reset();
     }
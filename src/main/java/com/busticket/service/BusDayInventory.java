@@ -0,0 +1,494 @@
+package com.busticket.service;
+
+import com.busticket.util.LoggingConfig;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * BusDayInventory is the one seat inventory of a bus on a day, shared by all of its journeys
+ * - Each seat has a bitmask of occupied stop-to-stop segments (bit 0 = A->B, bit 1 = B->C, ...)
+ * - A booking on a journey occupies every segment between its stops
+ * - A seat is free for a route when none of the route's segments are occupied
+ * Example: a seat booked on A->B is free for B->C but not for A->C
+ *
+ * Passenger details are kept per seat as a short list of occupants, one per booking, each
+ * tagged with the journey and segments it covers. Journeys only hold a SeatBitmap view onto
+ * this inventory, so sibling journeys can never disagree about a seat.
+ *
+ * Nothing per seat is allocated until a seat is first booked, so a scheduled bus-day
+ * without bookings costs a handful of objects however many journeys it has.
+ *
+ * Seats are claimed with a compare-and-set on the seat's segment word, so two bookings
+ * can never occupy the same segment of the same seat and no lock is taken on the hot path.
+ * The lock stripe for the bus-day is only used for structural changes such as adding journeys.
+ *
+ * A version counter goes up after every change of seat state (occupy, vacate, hold), so a
+ * result computed from the inventory can be checked for staleness with one read; a second
+ * claim version only moves with occupy and vacate, for results that do not depend on holds.
+ *
+ * Watchers registered on the bus-day are never run by the thread making a change: a change only
+ * marks the bus-day dirty and, unless its dispatcher is already running, starts it on a virtual
+ * thread. The dispatcher runs every watcher once per round until no change arrived during a
+ * round, so a burst of bookings is one notification and watchers must only schedule work.
+ *
+ * For every origin-destination pair of the route the number of seats with an occupied segment
+ * on it is kept up to date by each claim and release, so the free seats of a route are one read.
+ */
+public class BusDayInventory {
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    // Segments of the route (stops A-D) and the origin-destination pairs spanning them
+    private static final int SEGMENTS = 3;
+    private static final long[] ROUTE_MASKS;
+    // Index into ROUTE_MASKS of a segment mask below 1 << SEGMENTS, or -1 if it is not one stop range
+    private static final int[] ROUTE_INDEX = new int[1 << SEGMENTS];
+    private static final Runnable[] NO_WATCHERS = new Runnable[0];
+    private static final ExecutorService DISPATCHER = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Logger LOGGER = LoggingConfig.getLogger(BusDayInventory.class);
+
+    static {
+        ROUTE_MASKS = new long[SEGMENTS * (SEGMENTS + 1) / 2];
+        Arrays.fill(ROUTE_INDEX, -1);
+        int route = 0;
+        for (int start = 0; start < SEGMENTS; start++) {
+            for (int end = start + 1; end <= SEGMENTS; end++) {
+                long mask = (-1L << start) & ~(-1L << end);
+                ROUTE_MASKS[route] = mask;
+                ROUTE_INDEX[(int) mask] = route++;
+            }
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong claimVersion = new AtomicLong();
+    private volatile Runnable[] watchers = NO_WATCHERS;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    // Per ROUTE_MASKS entry, seats with at least one of its segments occupied
+    private final AtomicIntegerArray blocked = new AtomicIntegerArray(ROUTE_MASKS.length);
+
+    // Seats live in fixed-size chunks that are only allocated by the first booking in them;
+    // a missing chunk reads as all seats free. Growing copies chunk references, so CAS targets never move.
+    private volatile Chunk[] chunks;
+    private volatile int seatCount;
+
+    public BusDayInventory(int seatCount) {
+        this.chunks = new Chunk[0];
+        ensureCapacity(seatCount);
+    }
+
+    /**
+     * Segment bitmask covered by a route, independent of travel direction
+     */
+    public static long segmentMask(String fromStop, String toStop) {
+        // Stop order: A=0, B=1, C=2, D=3
+        int from = fromStop.charAt(0) - 'A';
+        int to = toStop.charAt(0) - 'A';
+        int start = Math.min(from, to);
+        int end = Math.max(from, to);
+        return (-1L << start) & ~(-1L << end);
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    /**
+     * Seat state version; read it before computing from the inventory, compare it to reuse the result
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Version of the seat claims alone; holds placed or ended leave it unchanged
+     */
+    public long getClaimVersion() {
+        return claimVersion.get();
+    }
+
+    /**
+     * Record a claim or release of seats and tell the watchers; called after the change is visible
+     */
+    void bumpVersion() {
+        claimVersion.incrementAndGet();
+        bumpHoldVersion();
+    }
+
+    /**
+     * Record a hold placed or ended and tell the watchers; the claim version stays as it is
+     */
+    void bumpHoldVersion() {
+        version.incrementAndGet();
+        if (watchers.length == 0) {
+            return;
+        }
+        dirty.set(true);
+        if (dispatching.compareAndSet(false, true)) {
+            DISPATCHER.execute(this::dispatch);
+        }
+    }
+
+    /**
+     * Run the watchers until no change is left unannounced; only one dispatcher runs per bus-day
+     */
+    private void dispatch() {
+        do {
+            while (dirty.getAndSet(false)) {
+                for (Runnable watcher : watchers) {
+                    try {
+                        watcher.run();
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "Seat change watcher failed", e);
+                    }
+                }
+            }
+            dispatching.set(false);
+            // A change made after the last round but before the flag was cleared found it still set
+        } while (dirty.get() && dispatching.compareAndSet(false, true));
+    }
+
+    /**
+     * Run the watcher after changes of seat state, on the bus-day's dispatcher thread
+     */
+    public void watch(Runnable watcher) {
+        lock.lock();
+        try {
+            Runnable[] grown = Arrays.copyOf(watchers, watchers.length + 1);
+            grown[grown.length - 1] = watcher;
+            watchers = grown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void unwatch(Runnable watcher) {
+        lock.lock();
+        try {
+            Runnable[] current = watchers;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == watcher) {
+                    Runnable[] shrunk = Arrays.copyOf(current, current.length - 1);
+                    System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                    watchers = shrunk.length == 0 ? NO_WATCHERS : shrunk;
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWatcherCount() {
+        return watchers.length;
+    }
+
+    /**
+     * Number of allocated seat chunks; zero until the first booking
+     */
+    public int getAllocatedChunkCount() {
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Grow the inventory when a journey with more seats joins this bus-day (caller holds the lock)
+     */
+    void ensureCapacity(int seatCount) {
+        if (seatCount <= this.seatCount) {
+            return;
+        }
+        int chunkCount = (seatCount + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        if (chunkCount > chunks.length) {
+            Chunk[] grown = new Chunk[chunkCount];
+            System.arraycopy(chunks, 0, grown, 0, chunks.length);
+            chunks = grown;
+        }
+        this.seatCount = seatCount;
+    }
+
+    /**
+     * Chunk holding a seat, or null if nothing in it was ever booked
+     */
+    private Chunk chunkOf(int seat) {
+        return chunks[seat >>> CHUNK_SHIFT];
+    }
+
+    /**
+     * Chunk holding a seat, allocating it on first write
+     */
+    private Chunk writableChunkOf(int seat) {
+        Chunk chunk = chunkOf(seat);
+        if (chunk != null) {
+            return chunk;
+        }
+        // Installed under the bus-day lock so it cannot race with ensureCapacity copying the array
+        lock.lock();
+        try {
+            Chunk[] current = chunks;
+            chunk = current[seat >>> CHUNK_SHIFT];
+            if (chunk == null) {
+                chunk = new Chunk();
+                current[seat >>> CHUNK_SHIFT] = chunk;
+                chunks = current; // volatile write publishes the new slot
+            }
+            return chunk;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long occupiedSegments(int seat) {
+        Chunk chunk = chunkOf(seat);
+        return chunk == null ? 0 : chunk.words.get(seat & (CHUNK_SIZE - 1));
+    }
+
+    public boolean isFree(int seat, long segmentMask) {
+        return (occupiedSegments(seat) & segmentMask) == 0;
+    }
+
+    /**
+     * Count seats in [0, seatCount) whose segments do not intersect the mask
+     */
+    public int countFree(long segmentMask, int seatCount) {
+        Chunk[] current = chunks;
+        int free = 0;
+        for (int start = 0; start < seatCount; start += CHUNK_SIZE) {
+            int end = Math.min(seatCount, start + CHUNK_SIZE);
+            int c = start >>> CHUNK_SHIFT;
+            Chunk chunk = c < current.length ? current[c] : null;
+            if (chunk == null) {
+                free += end - start;
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                if ((chunk.words.get(i & (CHUNK_SIZE - 1)) & segmentMask) == 0) {
+                    free++;
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Count seats in [0, seatCount) whose segments do not intersect the mask
+     * Reads the route's counter when the range covers the whole inventory, otherwise scans the seats.
+     */
+    public int freeSeats(long segmentMask, int seatCount) {
+        int route = segmentMask > 0 && segmentMask < ROUTE_INDEX.length ? ROUTE_INDEX[(int) segmentMask] : -1;
+        if (route < 0 || seatCount != this.seatCount) {
+            return countFree(segmentMask, seatCount);
+        }
+        return seatCount - blocked.get(route);
+    }
+
+    /**
+     * Index of the next seat at or after fromIndex, below seatCount, that is free for the mask, or -1
+     */
+    public int nextFree(int fromIndex, long segmentMask, int seatCount) {
+        for (int i = fromIndex; i < seatCount; i++) {
+            if (isFree(i, segmentMask)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ==================== Bookings ====================
+
+    /**
+     * Atomically occupy a journey's segments of a seat and record the passenger
+     * Returns false if any of the segments is already occupied
+     */
+    boolean book(int seat, int journeyId, long segmentMask, String passengerName, String passengerPhone,
+                 LocalDateTime bookedAt) {
+        if (!tryOccupy(seat, segmentMask)) {
+            return false;
+        }
+        addOccupant(seat, journeyId, segmentMask, passengerName, passengerPhone, bookedAt);
+        bumpVersion();
+        return true;
+    }
+
+    /**
+     * Atomically occupy a journey's segments of several seats, or none of them
+     * Every seat is claimed before any passenger is recorded; if one claim fails, the seats
+     * claimed so far are vacated again and false is returned.
+     * The version goes up once for the whole group, after it is booked or rolled back, so
+     * watchers never see a group that is only partly claimed as a change of its own.
+     */
+    boolean bookAll(int[] seats, int journeyId, long segmentMask, String[] passengerNames, String[] passengerPhones,
+                    LocalDateTime bookedAt) {
+        for (int i = 0; i < seats.length; i++) {
+            if (!tryOccupy(seats[i], segmentMask)) {
+                for (int j = 0; j < i; j++) {
+                    vacate(seats[j], segmentMask);
+                }
+                if (i > 0) {
+                    // Readers may have seen the seats claimed meanwhile; a new version makes them look again
+                    bumpVersion();
+                }
+                return false;
+            }
+        }
+        for (int i = 0; i < seats.length; i++) {
+            addOccupant(seats[i], journeyId, segmentMask, passengerNames[i], passengerPhones[i], bookedAt);
+        }
+        bumpVersion();
+        return true;
+    }
+
+    private void addOccupant(int seat, int journeyId, long segmentMask, String passengerName, String passengerPhone,
+                             LocalDateTime bookedAt) {
+        AtomicReferenceArray<Occupant> occupants = chunkOf(seat).occupants;
+        int offset = seat & (CHUNK_SIZE - 1);
+        while (true) {
+            Occupant current = occupants.get(offset);
+            Occupant added = new Occupant(journeyId, segmentMask, passengerName, passengerPhone, bookedAt, current);
+            if (occupants.compareAndSet(offset, current, added)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Atomically remove a journey's booking of a seat and free its segments
+     * Returns false if the journey has no booking on the seat
+     */
+    boolean release(int seat, int journeyId) {
+        Chunk chunk = chunkOf(seat);
+        if (chunk == null) {
+            return false;
+        }
+        AtomicReferenceArray<Occupant> occupants = chunk.occupants;
+        int offset = seat & (CHUNK_SIZE - 1);
+        while (true) {
+            Occupant current = occupants.get(offset);
+            Occupant removed = find(current, journeyId);
+            if (removed == null) {
+                return false;
+            }
+            if (occupants.compareAndSet(offset, current, without(current, removed))) {
+                vacate(seat, removed.segmentMask());
+                bumpVersion();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Passenger of a journey's booking on a seat, or null
+     */
+    Occupant occupant(int seat, int journeyId) {
+        Chunk chunk = chunkOf(seat);
+        return chunk == null ? null : find(chunk.occupants.get(seat & (CHUNK_SIZE - 1)), journeyId);
+    }
+
+    private static Occupant find(Occupant head, int journeyId) {
+        for (Occupant occupant = head; occupant != null; occupant = occupant.next()) {
+            if (occupant.journeyId() == journeyId) {
+                return occupant;
+            }
+        }
+        return null;
+    }
+
+    private static Occupant without(Occupant head, Occupant removed) {
+        if (head == removed) {
+            return head.next();
+        }
+        return head.withNext(without(head.next(), removed));
+    }
+
+    /**
+     * Atomically claim the given segments of a seat; the caller bumps the version
+     * Returns false if any of them is already occupied
+     */
+    boolean tryOccupy(int seat, long segmentMask) {
+        AtomicLongArray chunk = writableChunkOf(seat).words;
+        int offset = seat & (CHUNK_SIZE - 1);
+        while (true) {
+            long current = chunk.get(offset);
+            if ((current & segmentMask) != 0) {
+                return false;
+            }
+            if (chunk.compareAndSet(offset, current, current | segmentMask)) {
+                countRoutes(current, current | segmentMask);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically release the given segments of a seat; the caller bumps the version
+     */
+    void vacate(int seat, long segmentMask) {
+        AtomicLongArray chunk = chunkOf(seat).words;
+        int offset = seat & (CHUNK_SIZE - 1);
+        while (true) {
+            long current = chunk.get(offset);
+            if (chunk.compareAndSet(offset, current, current & ~segmentMask)) {
+                countRoutes(current, current & ~segmentMask);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adjust the route counters for a seat whose segment word changed from before to after
+     */
+    private void countRoutes(long before, long after) {
+        for (int route = 0; route < ROUTE_MASKS.length; route++) {
+            long mask = ROUTE_MASKS[route];
+            boolean wasBlocked = (before & mask) != 0;
+            if (wasBlocked != ((after & mask) != 0)) {
+                blocked.getAndAdd(route, wasBlocked ? -1 : 1);
+            }
+        }
+    }
+
+    /**
+     * Segment words and passengers of CHUNK_SIZE consecutive seats
+     */
+    private static final class Chunk {
+        final AtomicLongArray words = new AtomicLongArray(CHUNK_SIZE);
+        final AtomicReferenceArray<Occupant> occupants = new AtomicReferenceArray<>(CHUNK_SIZE);
+    }
+
+    /**
+     * A booking of one seat on one journey; the occupants of a seat form an immutable list
+     */
+    record Occupant(int journeyId, long segmentMask, String passengerName, String passengerPhone,
+                    LocalDateTime bookedAt, Occupant next) {
+
+        Occupant withNext(Occupant next) {
+            return new Occupant(journeyId, segmentMask, passengerName, passengerPhone, bookedAt, next);
+        }
+    }
+}
@@ -1,55 +1,142 @@
 package com.busticket.service;
 
+import com.busticket.domain.container.BusDayKey;
 import com.busticket.domain.entity.Booking;
 import com.busticket.domain.entity.Bus;
 import com.busticket.domain.entity.BusFare;
 import com.busticket.domain.entity.Journey;
 import com.busticket.domain.entity.Seat;
 import com.busticket.domain.entity.SeatHold;
+import com.busticket.domain.entity.ServicePattern;
 import com.busticket.domain.entity.Stop;
+import com.busticket.persistence.BookingArchive;
+import com.busticket.persistence.SnapshotFile;
+import com.busticket.persistence.WalRecordHandler;
+import com.busticket.persistence.WalRecords;
+import com.busticket.persistence.WriteAheadLog;
+import com.busticket.storage.BookingRepository;
+import com.busticket.storage.FareRepository;
+import com.busticket.storage.HoldRegistry;
+import com.busticket.storage.JourneyRepository;
+import com.busticket.storage.SeatInventory;
+import com.busticket.storage.SeatMap;
+import com.busticket.util.LoggingConfig;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * DataStore manages all in-memory storage for bus ticketing system
+ * It implements every storage interface and is exposed to services by InMemoryStorageProvider.
  * - Stops, Buses (reference data)
- * - Journeys, Bookings (operational data)
+ * - Service patterns (recurring schedule), Journeys, Bookings (operational data)
  * - Fares (pricing data)
  * - Seats (configuration data)
+ *
+ * Journeys, their seats and bookings are kept in one DayPartition per journey date. Lookups by
+ * date go straight to that day, lookups by ID are routed through a small ID-to-partition map,
+ * and days in the past are retired by detaching their partition (optionally archiving it), so
+ * query cost does not grow with the number of days the service has been running.
+ *
+ * Thread safety: all maps are concurrent and ID sequences are atomic, so lookups never block.
+ * All journeys of a bus on a day share one BusDayInventory; seats are claimed lock-free with a
+ * compare-and-set on its segment words, which is the single point that decides a booking.
+ * Structural changes (adding journeys) are serialized per (busId, journeyDate) using the lock
+ * of that bus-day, so different buses never contend.
+ *
+ * Durability: when a write-ahead log is attached, every journey, seat, booking, hold and fare
+ * mutation is appended to it before the call returns. Periodic checkpoints write a snapshot
+ * so that a restart loads the snapshot and only replays the log written after it.
  */
-public class DataStore {
+public class DataStore implements JourneyRepository, SeatInventory, BookingRepository, FareRepository, HoldRegistry {
+    private static final Logger LOGGER = LoggingConfig.getLogger(DataStore.class);
+
     // In-memory storage for all data
     private final Map<Integer, Stop> stops;
     private final Map<Integer, BusFare> fares;
     private final Map<Integer, Bus> buses;
-    private final Map<Integer, Journey> journeys;
-    private final Map<Integer, Seat> seats;
-    private final Map<Integer, Booking> bookings;
-    private final List<SeatHold> seatHolds;
-
-    private int stopIdCounter = 1;
-    private int fareIdCounter = 1;
-    private int busIdCounter = 1;
-    private int journeyIdCounter = 1;
-    private int seatIdCounter = 1;
-    private int bookingIdCounter = 1;
+    private final Map<Integer, ServicePattern> servicePatterns;
+    private final Set<LocalDate> expandedDates;
+    private final SeatHoldRegistry seatHolds;
+
+    // Journeys, seats and bookings live in one partition per journey date
+    private final NavigableMap<LocalDate, DayPartition> partitions;
+    private final Map<Integer, DayPartition> journeyPartitions;
+    private final Map<Integer, DayPartition> bookingPartitions;
+
+    // Days before this date have been retired and are not expanded from service patterns again
+    private volatile LocalDate retiredBefore = LocalDate.MIN;
+    private volatile ArchiveWriter archiveWriter;
+    // Optional cold tier that answers booking-number lookups for retired days
+    private volatile BookingArchive bookingArchive;
+    private ScheduledExecutorService retirer;
+    private final Object retirementLock = new Object();
+
+    // Immutable fare lookup table, rebuilt and swapped whenever fares change
+    private volatile FareMatrix fareMatrix = FareMatrix.EMPTY;
+    private final Object fareLock = new Object();
+
+    // Optional write-ahead log; null keeps the store purely in-memory
+    private volatile WriteAheadLog wal;
+    private ScheduledExecutorService checkpointer;
+    private final Object checkpointLock = new Object();
+
+    // Cross-day secondary indexes, maintained on every insert and pruned when a day is retired
+    private final NavigableMap<Integer, SeatBitmap> seatMapsByFirstSeatId;
+    private final Map<String, Booking> bookingsByNumber;
+    private final Map<String, List<Booking>> bookingsByPhone;
+
+    private final AtomicInteger stopIdCounter = new AtomicInteger(1);
+    private final AtomicInteger fareIdCounter = new AtomicInteger(1);
+    private final AtomicInteger busIdCounter = new AtomicInteger(1);
+    private final AtomicInteger journeyIdCounter = new AtomicInteger(1);
+    private final AtomicInteger servicePatternIdCounter = new AtomicInteger(1);
+    private final AtomicInteger seatIdCounter = new AtomicInteger(1);
+    private final AtomicInteger bookingIdCounter = new AtomicInteger(1);
+    // Never reset, so a version seen before a reset cannot match one after it
+    private final AtomicLong scheduleVersion = new AtomicLong();
 
     private static DataStore instance;
 
     private DataStore() {
-        this.stops = new HashMap<>();
-        this.fares = new HashMap<>();
-        this.buses = new HashMap<>();
-        this.journeys = new HashMap<>();
-        this.seats = new HashMap<>();
-        this.bookings = new HashMap<>();
-        this.seatHolds = new ArrayList<>();
+        this.stops = new ConcurrentHashMap<>();
+        this.fares = new ConcurrentHashMap<>();
+        this.buses = new ConcurrentHashMap<>();
+        this.servicePatterns = new ConcurrentHashMap<>();
+        this.expandedDates = ConcurrentHashMap.newKeySet();
+        this.seatHolds = new SeatHoldRegistry(this::setHeldBit);
+        this.partitions = new ConcurrentSkipListMap<>();
+        this.journeyPartitions = new ConcurrentHashMap<>();
+        this.bookingPartitions = new ConcurrentHashMap<>();
+        this.seatMapsByFirstSeatId = new ConcurrentSkipListMap<>();
+        this.bookingsByNumber = new ConcurrentHashMap<>();
+        this.bookingsByPhone = new ConcurrentHashMap<>();
         initializeDefaultData();
     }
 
@@ -68,10 +155,10 @@ public class DataStore {
      */
     private void initializeDefaultData() {
         // Create required stops for bus ticketing system
-        Stop stopA = new Stop(stopIdCounter++, "A", 0.0, 0.0); // id 1
-        Stop stopB = new Stop(stopIdCounter++, "B", 0.0, 0.0); // id 2
-        Stop stopC = new Stop(stopIdCounter++, "C", 0.0, 0.0); // id 3
-        Stop stopD = new Stop(stopIdCounter++, "D", 0.0, 0.0); // id 4
+        Stop stopA = new Stop(stopIdCounter.getAndIncrement(), "A", 0.0, 0.0); // id 1
+        Stop stopB = new Stop(stopIdCounter.getAndIncrement(), "B", 0.0, 0.0); // id 2
+        Stop stopC = new Stop(stopIdCounter.getAndIncrement(), "C", 0.0, 0.0); // id 3
+        Stop stopD = new Stop(stopIdCounter.getAndIncrement(), "D", 0.0, 0.0); // id 4
 
         stops.put(stopA.getId(), stopA);
         stops.put(stopB.getId(), stopB);
@@ -80,12 +167,12 @@ public class DataStore {
 
         // Create fares (stop-based, unidirectional) - Reverse direction uses same fare
         // Stop IDs: A=1, B=2, C=3, D=4
-        BusFare fare1 = new BusFare(fareIdCounter++, 1, 2, new BigDecimal("50.00"));     // A<->B: 50
-        BusFare fare2 = new BusFare(fareIdCounter++, 1, 3, new BigDecimal("100.00"));    // A<->C: 100
-        BusFare fare3 = new BusFare(fareIdCounter++, 1, 4, new BigDecimal("150.00"));    // A<->D: 150
-        BusFare fare4 = new BusFare(fareIdCounter++, 2, 3, new BigDecimal("50.00"));     // B<->C: 50
-        BusFare fare5 = new BusFare(fareIdCounter++, 2, 4, new BigDecimal("100.00"));    // B<->D: 100
-        BusFare fare6 = new BusFare(fareIdCounter++, 3, 4, new BigDecimal("50.00"));     // C<->D: 50
+        BusFare fare1 = new BusFare(fareIdCounter.getAndIncrement(), 1, 2, new BigDecimal("50.00"));     // A<->B: 50
+        BusFare fare2 = new BusFare(fareIdCounter.getAndIncrement(), 1, 3, new BigDecimal("100.00"));    // A<->C: 100
+        BusFare fare3 = new BusFare(fareIdCounter.getAndIncrement(), 1, 4, new BigDecimal("150.00"));    // A<->D: 150
+        BusFare fare4 = new BusFare(fareIdCounter.getAndIncrement(), 2, 3, new BigDecimal("50.00"));     // B<->C: 50
+        BusFare fare5 = new BusFare(fareIdCounter.getAndIncrement(), 2, 4, new BigDecimal("100.00"));    // B<->D: 100
+        BusFare fare6 = new BusFare(fareIdCounter.getAndIncrement(), 3, 4, new BigDecimal("50.00"));     // C<->D: 50
 
         fares.put(fare1.getId(), fare1);
         fares.put(fare2.getId(), fare2);
@@ -96,33 +183,36 @@ public class DataStore {
 
         // Create buses
         Bus bus1Obj = new Bus("BUS-001", 40);
-        bus1Obj.setId(busIdCounter++);
+        bus1Obj.setId(busIdCounter.getAndIncrement());
 
         Bus bus2Obj = new Bus("BUS-002", 40);
-        bus2Obj.setId(busIdCounter++);
+        bus2Obj.setId(busIdCounter.getAndIncrement());
 
         Bus bus3Obj = new Bus("BUS-003", 40);
-        bus3Obj.setId(busIdCounter++);
+        bus3Obj.setId(busIdCounter.getAndIncrement());
 
         buses.put(bus1Obj.getId(), bus1Obj);
         buses.put(bus2Obj.getId(), bus2Obj);
         buses.put(bus3Obj.getId(), bus3Obj);
 
+        rebuildFareMatrix();
     }
 
     // ==================== Stop Methods ====================
 
-    public Optional<?> getStop(int stopId) {
+    @Override
+    public Optional<Stop> getStop(int stopId) {
         return Optional.ofNullable(stops.get(stopId));
     }
 
     // ==================== Journey Methods ====================
 
+    @Override
     public Journey addJourney(int busId, String journeyNumber, LocalDate journeyDate,
-                             java.time.LocalDateTime departureTime, String fromStop, String toStop,
+                             LocalDateTime departureTime, String fromStop, String toStop,
                              String direction, int totalSeats) {
         Journey journey = new Journey();
-        journey.setId(journeyIdCounter++);
+        journey.setId(journeyIdCounter.getAndIncrement());
         journey.setBusId(busId);
         journey.setJourneyNumber(journeyNumber);
         journey.setJourneyDate(journeyDate);
@@ -132,245 +222,1260 @@ public class DataStore {
         journey.setDirection(direction);
         journey.setTotalSeats(totalSeats);
         journey.setAvailableSeats(totalSeats);
-        journeys.put(journey.getId(), journey);
 
-        // Initialize seats for this journey
-        // If other journeys on same bus on same day exist, reuse their seats (seat sharing)
-        initializeSeatsForJourney(journey.getId(), totalSeats, busId, journeyDate);
+        // Seat IDs are reserved as one contiguous range per journey
+        int firstSeatId = seatIdCounter.getAndAdd(totalSeats);
 
+        // Logged before it is published, so no booking on the journey can reach the log first
+        WriteAheadLog log = wal;
+        long lsn = log == null ? 0 : log.appendBeforeApply(WalRecords.JOURNEY_ADDED,
+                WalRecords.journeyAdded(journey, firstSeatId));
+        try {
+            publishJourney(journey, firstSeatId);
+        } finally {
+            markApplied(log, lsn);
+        }
         return journey;
     }
 
+    private void publishJourney(Journey journey, int firstSeatId) {
+        DayPartition partition = partitionFor(journey.getJourneyDate());
+        BusDayInventory inventory = partition.inventoryOf(journey.getBusId(),
+                new BusDayInventory(journey.getTotalSeats()));
+        inventory.lock();
+        try {
+            // Initialize seats for this journey
+            // If other journeys on same bus on same day exist, reuse their seats (seat sharing)
+            initializeSeatsForJourney(journey, firstSeatId, partition, inventory);
+
+            // Publish only once the seats exist so readers never see a half-built journey
+            partition.addJourneys(List.of(journey));
+            journeyPartitions.put(journey.getId(), partition);
+            scheduleVersion.incrementAndGet();
+        } finally {
+            inventory.unlock();
+        }
+    }
+
     /**
      * Initialize seats for a journey with seat sharing across same bus on same day
      * IMPORTANT: All journeys on the same bus on the same day share the same seat inventory
      * This means if seat 1A is booked on journey A->B, it's available on B->C (same day)
      */
-    private void initializeSeatsForJourney(int journeyId, int totalSeats, int busId, LocalDate journeyDate) {
+    private void initializeSeatsForJourney(Journey journey, int firstSeatId, DayPartition partition,
+                                           BusDayInventory inventory) {
+        inventory.ensureCapacity(journey.getTotalSeats());
+
+        // The journey only keeps a view of its seat ID range and route segments onto the shared inventory
+        SeatBitmap seatMap = new SeatBitmap(journey.getId(), firstSeatId, journey.getTotalSeats(),
+                BusDayInventory.segmentMask(journey.getFromStop(), journey.getToStop()), inventory);
+        partition.putSeatMap(seatMap);
+        seatMapsByFirstSeatId.put(seatMap.getFirstSeatId(), seatMap);
+    }
+
+    /**
+     * Add many journeys at once, e.g. from a schedule import
+     * Seat views are built in parallel per bus-day with fork/join and nothing is visible until
+     * all of them are built (and logged); each index key is then extended with one bulk append,
+     * so the cost stays linear in the number of journeys instead of one index copy per journey.
+     * The given journeys get fresh IDs and full availability.
+     */
+    @Override
+    public List<Journey> addJourneys(List<Journey> newJourneys) {
+        if (newJourneys.isEmpty()) {
+            return List.of();
+        }
+        // IDs and seat ranges follow input order; everything per bus-day is built in parallel
+        Map<BusDayKey, List<Journey>> byBusDay = new LinkedHashMap<>();
+        for (Journey journey : newJourneys) {
+            journey.setId(journeyIdCounter.getAndIncrement());
+            journey.setAvailableSeats(journey.getTotalSeats());
+            byBusDay.computeIfAbsent(new BusDayKey(journey.getBusId(), journey.getJourneyDate()),
+                    k -> new ArrayList<>()).add(journey);
+        }
+        WriteAheadLog log = wal;
+        List<PreparedBusDay> prepared = new ArrayList<>(byBusDay.size());
+        byBusDay.forEach((key, group) -> prepared.add(new PreparedBusDay(key, group, log != null)));
+        ForkJoinPool.commonPool().invoke(new PrepareBusDays(prepared, 0, prepared.size()));
+
+        long[] lsns = new long[0];
+        if (log != null) {
+            List<byte[]> payloads = new ArrayList<>(newJourneys.size());
+            for (PreparedBusDay busDay : prepared) {
+                payloads.addAll(busDay.walPayloads);
+            }
+            lsns = log.appendAllBeforeApply(WalRecords.JOURNEY_ADDED, payloads);
+        }
+        try {
+            publishJourneys(prepared);
+        } finally {
+            for (long lsn : lsns) {
+                markApplied(log, lsn);
+            }
+        }
+        List<Journey> added = new ArrayList<>(newJourneys.size());
+        for (PreparedBusDay busDay : prepared) {
+            added.addAll(busDay.journeys);
+        }
+        return added;
+    }
+
+    private void publishJourneys(List<PreparedBusDay> prepared) {
+        // Seats first, under each bus-day lock, so no indexed journey is ever missing its seat map
+        Map<DayPartition, List<Journey>> byPartition = new LinkedHashMap<>();
+        for (PreparedBusDay busDay : prepared) {
+            DayPartition partition = partitionFor(busDay.key.journeyDate());
+            BusDayInventory inventory = partition.inventoryOf(busDay.key.busId(), busDay.inventory);
+            inventory.lock();
+            try {
+                if (inventory != busDay.inventory) {
+                    // Another thread created this bus-day meanwhile; bind the views to its inventory
+                    busDay.bindTo(inventory);
+                }
+                inventory.ensureCapacity(busDay.maxSeats);
+                for (SeatBitmap seatMap : busDay.seatMaps) {
+                    partition.putSeatMap(seatMap);
+                    seatMapsByFirstSeatId.put(seatMap.getFirstSeatId(), seatMap);
+                }
+            } finally {
+                inventory.unlock();
+            }
+            byPartition.computeIfAbsent(partition, k -> new ArrayList<>()).addAll(busDay.journeys);
+        }
+
+        byPartition.forEach((partition, added) -> {
+            partition.addJourneys(added);
+            for (Journey journey : added) {
+                journeyPartitions.put(journey.getId(), partition);
+            }
+        });
+        scheduleVersion.incrementAndGet();
+    }
+
+    /**
+     * The journeys of one bus-day in a bulk add, with IDs, seat ranges and seat views assigned
+     * The inventory is the published one if the bus-day already exists, otherwise a private new one
+     */
+    private final class PreparedBusDay {
+        private final BusDayKey key;
+        private final List<Journey> journeys;
+        private final int[] firstSeatIds;
+        private final List<SeatBitmap> seatMaps;
+        private final List<byte[]> walPayloads;
+        private final boolean logged;
+        private BusDayInventory inventory;
+        private int maxSeats;
+
+        private PreparedBusDay(BusDayKey key, List<Journey> journeys, boolean logged) {
+            this.key = key;
+            this.journeys = journeys;
+            this.firstSeatIds = new int[journeys.size()];
+            this.seatMaps = new ArrayList<>(journeys.size());
+            this.walPayloads = new ArrayList<>(logged ? journeys.size() : 0);
+            this.logged = logged;
+            // Seat IDs are reserved as one contiguous range per journey, as in addJourney
+            int seats = 0;
+            for (Journey journey : journeys) {
+                seats += journey.getTotalSeats();
+                maxSeats = Math.max(maxSeats, journey.getTotalSeats());
+            }
+            int nextSeatId = seatIdCounter.getAndAdd(seats);
+            for (int i = 0; i < firstSeatIds.length; i++) {
+                firstSeatIds[i] = nextSeatId;
+                nextSeatId += journeys.get(i).getTotalSeats();
+            }
+        }
 
+        private void prepare() {
+            DayPartition partition = partitions.get(key.journeyDate());
+            BusDayInventory existing = partition == null ? null : partition.getInventory(key.busId());
+            bindTo(existing != null ? existing : new BusDayInventory(maxSeats));
+            if (logged) {
+                for (int i = 0; i < firstSeatIds.length; i++) {
+                    walPayloads.add(WalRecords.journeyAdded(journeys.get(i), firstSeatIds[i]));
+                }
+            }
+        }
 
-        // No sibling journeys found, create new seats
-        for (int i = 1; i <= totalSeats; i++) {
-            int row = (i - 1) / 4 + 1;  // 4 seats per row (A, B, C, D)
-            String[] columns = {"A", "B", "C", "D"};
-            String column = columns[(i - 1) % 4];
-            String seatNumber = row + column;
+        private void bindTo(BusDayInventory target) {
+            inventory = target;
+            seatMaps.clear();
+            for (int i = 0; i < firstSeatIds.length; i++) {
+                Journey journey = journeys.get(i);
+                seatMaps.add(new SeatBitmap(journey.getId(), firstSeatIds[i], journey.getTotalSeats(),
+                        BusDayInventory.segmentMask(journey.getFromStop(), journey.getToStop()), target));
+            }
+        }
+    }
 
-            Seat seat = new Seat(journeyId, seatNumber, row, column);
-            seat.setId(seatIdCounter++);
-            seats.put(seat.getId(), seat);
+    /**
+     * Fork/join task preparing a range of bus-days; each bus-day is independent of the others
+     */
+    private static final class PrepareBusDays extends RecursiveAction {
+        private static final int THRESHOLD = 16;
+        private final List<PreparedBusDay> busDays;
+        private final int from;
+        private final int to;
+
+        private PrepareBusDays(List<PreparedBusDay> busDays, int from, int to) {
+            this.busDays = busDays;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    busDays.get(i).prepare();
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PrepareBusDays(busDays, from, mid), new PrepareBusDays(busDays, mid, to));
         }
     }
 
+    /**
+     * Live partition of a date, created on first use
+     */
+    private DayPartition partitionFor(LocalDate journeyDate) {
+        return partitions.computeIfAbsent(journeyDate, DayPartition::new);
+    }
+
+    /**
+     * Live partition holding a journey, or null if the journey is unknown or its day is retired
+     */
+    private DayPartition partitionOf(int journeyId) {
+        DayPartition partition = journeyPartitions.get(journeyId);
+        return partition == null || partition.isRetired() ? null : partition;
+    }
+
+    private SeatBitmap seatMapOf(int journeyId) {
+        DayPartition partition = partitionOf(journeyId);
+        return partition == null ? null : partition.getSeatMap(journeyId);
+    }
+
+    @Override
     public Optional<Journey> getJourneyById(int journeyId) {
-        return Optional.ofNullable(journeys.get(journeyId));
+        DayPartition partition = partitionOf(journeyId);
+        return partition == null ? Optional.empty() : Optional.ofNullable(partition.getJourney(journeyId));
     }
 
+    @Override
     public Collection<Journey> getAllJourneys() {
-        return new ArrayList<>(journeys.values());
+        List<Journey> result = new ArrayList<>();
+        for (DayPartition partition : partitions.values()) {
+            result.addAll(partition.getJourneys());
+        }
+        return result;
     }
 
+    @Override
     public Collection<Journey> getJourneysByDate(LocalDate journeyDate) {
-        return journeys.values().stream()
-                .filter(j -> j.getJourneyDate().equals(journeyDate))
-                .toList();
+        DayPartition partition = partitions.get(journeyDate);
+        return partition == null ? Collections.emptyList() : partition.getJourneys();
     }
 
+    @Override
     public Collection<Journey> getJourneysByRoute(String fromStop, String toStop) {
-        return journeys.values().stream()
-                .filter(j -> j.getFromStop().equals(fromStop) && j.getToStop().equals(toStop))
-                .toList();
+        RouteKey route = new RouteKey(fromStop, toStop);
+        List<Journey> result = new ArrayList<>();
+        for (DayPartition partition : partitions.values()) {
+            result.addAll(partition.getJourneysByRoute(route));
+        }
+        return Collections.unmodifiableList(result);
     }
 
+    @Override
     public Collection<Journey> getJourneysByDirection(String direction) {
-        return journeys.values().stream()
+        return partitions.values().stream()
+                .flatMap(partition -> partition.getJourneys().stream())
                 .filter(j -> j.getDirection().equals(direction))
                 .toList();
     }
 
+    @Override
     public Collection<Journey> getJourneysByBusAndDate(int busId, LocalDate journeyDate) {
-        return journeys.values().stream()
-                .filter(j -> j.getBusId() == busId && j.getJourneyDate().equals(journeyDate))
-                .toList();
+        DayPartition partition = partitions.get(journeyDate);
+        return partition == null ? Collections.emptyList() : partition.getJourneysByBus(busId);
+    }
+
+    @Override
+    public long getScheduleVersion() {
+        return scheduleVersion.get();
+    }
+
+    // ==================== Service Pattern Methods ====================
+
+    /**
+     * Store a service pattern under a fresh ID
+     * Every date has to be expanded again afterwards, since the new pattern may run on it
+     */
+    @Override
+    public ServicePattern addServicePattern(ServicePattern pattern) {
+        pattern.setId(servicePatternIdCounter.getAndIncrement());
+        WriteAheadLog log = wal;
+        long lsn = log == null ? 0 : log.appendBeforeApply(WalRecords.SERVICE_PATTERN_ADDED,
+                WalRecords.servicePatternAdded(pattern));
+        try {
+            servicePatterns.put(pattern.getId(), pattern);
+            expandedDates.clear();
+        } finally {
+            markApplied(log, lsn);
+        }
+        return pattern;
+    }
+
+    @Override
+    public Collection<ServicePattern> getServicePatterns() {
+        return new ArrayList<>(servicePatterns.values());
+    }
+
+    /**
+     * Retired days count as expanded, so a query for a past day never brings it back
+     */
+    @Override
+    public boolean isDateExpanded(LocalDate journeyDate) {
+        return journeyDate.isBefore(retiredBefore) || expandedDates.contains(journeyDate);
+    }
+
+    @Override
+    public void markDateExpanded(LocalDate journeyDate) {
+        expandedDates.add(journeyDate);
     }
 
     // ==================== Booking Methods ====================
 
+    /**
+     * Allocate the next booking ID
+     */
+    @Override
+    public int nextBookingId() {
+        return bookingIdCounter.getAndIncrement();
+    }
+
+    /**
+     * Add a booking; it is logged before it is indexed, so a failed write leaves nothing behind
+     */
+    @Override
     public void addBooking(Booking booking) {
-        bookings.put(booking.getId(), booking);
+        DayPartition partition = partitionOf(booking.getJourneyId());
+        if (partition == null) {
+            throw new IllegalArgumentException("Unknown journey: " + booking.getJourneyId());
+        }
+        WriteAheadLog log = wal;
+        long lsn = log == null ? 0
+                : log.appendBeforeApply(WalRecords.BOOKING_ADDED, WalRecords.bookingAdded(booking));
+        try {
+            indexBooking(partition, booking);
+        } finally {
+            markApplied(log, lsn);
+        }
+    }
+
+    /**
+     * Add several bookings, all or none; their log records share one write-ahead log batch
+     * The batch is logged before the bookings are indexed, so a failed write leaves none of them behind.
+     */
+    @Override
+    public void addBookings(Collection<Booking> added) {
+        List<DayPartition> targets = new ArrayList<>(added.size());
+        List<byte[]> payloads = new ArrayList<>(added.size());
+        for (Booking booking : added) {
+            DayPartition partition = partitionOf(booking.getJourneyId());
+            if (partition == null) {
+                throw new IllegalArgumentException("Unknown journey: " + booking.getJourneyId());
+            }
+            targets.add(partition);
+            payloads.add(WalRecords.bookingAdded(booking));
+        }
+        WriteAheadLog log = wal;
+        long[] lsns = new long[0];
+        if (log != null && !payloads.isEmpty()) {
+            lsns = log.appendAllBeforeApply(WalRecords.BOOKING_ADDED, payloads);
+        }
+        try {
+            int i = 0;
+            for (Booking booking : added) {
+                indexBooking(targets.get(i++), booking);
+            }
+        } finally {
+            for (long lsn : lsns) {
+                markApplied(log, lsn);
+            }
+        }
     }
 
+    private void indexBooking(DayPartition partition, Booking booking) {
+        if (!partition.addBooking(booking)) {
+            return;
+        }
+        bookingPartitions.put(booking.getId(), partition);
+        if (booking.getBookingNumber() != null) {
+            bookingsByNumber.put(booking.getBookingNumber(), booking);
+        }
+        if (booking.getPassengerPhone() != null) {
+            bookingsByPhone.computeIfAbsent(booking.getPassengerPhone(), k -> new CopyOnWriteArrayList<>()).add(booking);
+        }
+    }
+
+    @Override
     public Optional<Booking> getBookingById(int bookingId) {
-        return Optional.ofNullable(bookings.get(bookingId));
+        DayPartition partition = bookingPartitions.get(bookingId);
+        return partition == null || partition.isRetired() ? Optional.empty()
+                : Optional.ofNullable(partition.getBooking(bookingId));
     }
 
+    @Override
     public Optional<Booking> getBookingByNumber(String bookingNumber) {
-        return bookings.values().stream()
-                .filter(b -> b.getBookingNumber().equals(bookingNumber))
-                .findFirst();
+        Booking booking = bookingsByNumber.get(bookingNumber);
+        if (booking != null && partitionOf(booking.getJourneyId()) != null) {
+            return Optional.of(booking);
+        }
+        BookingArchive archive = bookingArchive;
+        if (archive == null || bookingNumber == null) {
+            return Optional.empty();
+        }
+        try {
+            return archive.find(bookingNumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
+    @Override
     public Collection<Booking> getBookingsByJourney(int journeyId) {
-        return bookings.values().stream()
-                .filter(b -> b.getJourneyId() == journeyId)
-                .toList();
+        DayPartition partition = partitionOf(journeyId);
+        return partition == null ? Collections.emptyList() : partition.getBookingsByJourney(journeyId);
     }
 
+    @Override
     public Collection<Booking> getBookingsByPassenger(String passengerPhone) {
-        return bookings.values().stream()
-                .filter(b -> b.getPassengerPhone().equals(passengerPhone))
-                .toList();
+        return unmodifiable(bookingsByPhone.get(passengerPhone));
     }
 
+    @Override
     public Collection<Booking> getAllBookings() {
-        return new ArrayList<>(bookings.values());
+        List<Booking> result = new ArrayList<>();
+        for (DayPartition partition : partitions.values()) {
+            result.addAll(partition.getBookings());
+        }
+        return result;
     }
 
     // ==================== Fare Methods ====================
 
-    public Optional<com.busticket.domain.entity.BusFare> getFareByStops(int fromStopId, int toStopId) {
-        // Try direct lookup first
-        Optional<BusFare> fare = fares.values().stream()
-                .filter(f -> f.getFromStopId() == fromStopId && f.getToStopId() == toStopId)
-                .findFirst();
+    /**
+     * Fare between two stops; falls back to the reverse direction (bidirectional)
+     */
+    @Override
+    public Optional<BusFare> getFareByStops(int fromStopId, int toStopId) {
+        return Optional.ofNullable(fareMatrix.getFareByStopIds(fromStopId, toStopId));
+    }
 
-        // If not found, try reverse direction (bidirectional)
-        if (fare.isEmpty()) {
-            fare = fares.values().stream()
-                    .filter(f -> f.getFromStopId() == toStopId && f.getToStopId() == fromStopId)
-                    .findFirst();
+    @Override
+    public BusFare addFare(int fromStopId, int toStopId, BigDecimal price) {
+        synchronized (fareLock) {
+            BusFare fare = new BusFare(fareIdCounter.getAndIncrement(), fromStopId, toStopId, price);
+            putFare(fare);
+            return fare;
         }
+    }
 
-        return fare;
+    /**
+     * Change the price of the fare currently used between two stops
+     * The fare is replaced rather than mutated so published fare matrices never change
+     */
+    @Override
+    public Optional<BusFare> updateFare(int fromStopId, int toStopId, BigDecimal price) {
+        synchronized (fareLock) {
+            BusFare current = fareMatrix.getFareByStopIds(fromStopId, toStopId);
+            if (current == null) {
+                return Optional.empty();
+            }
+            BusFare updated = new BusFare(current.getId(), current.getFromStopId(), current.getToStopId(), price);
+            updated.setCreatedAt(current.getCreatedAt());
+            putFare(updated);
+            return Optional.of(updated);
+        }
     }
 
-    public BusFare addFare(int fromStopId, int toStopId, BigDecimal price) {
-        BusFare fare = new BusFare(fareIdCounter++, fromStopId, toStopId, price);
-        fares.put(fare.getId(), fare);
-        return fare;
+    /**
+     * Current fare matrix snapshot
+     */
+    public FareMatrix getFareMatrix() {
+        return fareMatrix;
+    }
+
+    private void putFare(BusFare fare) {
+        WriteAheadLog log = wal;
+        long lsn = log == null ? 0 : log.appendBeforeApply(WalRecords.FARE_PUT, WalRecords.farePut(fare));
+        try {
+            fares.put(fare.getId(), fare);
+            rebuildFareMatrix();
+        } finally {
+            markApplied(log, lsn);
+        }
     }
 
+    private void rebuildFareMatrix() {
+        synchronized (fareLock) {
+            fareMatrix = new FareMatrix(stops.values(), fares.values());
+        }
+    }
+
+    @Override
     public Collection<BusFare> getAllFares() {
         return new ArrayList<>(fares.values());
     }
 
     // ==================== Fare Calculation ====================
 
+    /**
+     * Fare between two stops given as numeric IDs or names/letters (bidirectional)
+     */
+    @Override
     public BigDecimal calculateFare(String fromStop, String toStop) {
-        // Look up fares between stops directly
-        Optional<?> fromStopOpt = getStopByIdentifier(fromStop);
-        Optional<?> toStopOpt = getStopByIdentifier(toStop);
+        FareMatrix matrix = fareMatrix;
+        BusFare fare = matrix.getFare(matrix.ordinalOf(fromStop), matrix.ordinalOf(toStop));
+        return fare == null ? BigDecimal.ZERO : fare.getPrice();
+    }
 
-        if (fromStopOpt.isEmpty() || toStopOpt.isEmpty()) {
-            return BigDecimal.ZERO;
+    // ==================== Seat Methods ====================
+
+    @Override
+    public Optional<Seat> getSeatById(int seatId) {
+        Map.Entry<Integer, SeatBitmap> entry = seatMapsByFirstSeatId.floorEntry(seatId);
+        if (entry == null) {
+            return Optional.empty();
         }
+        int index = seatId - entry.getKey();
+        SeatBitmap seatMap = entry.getValue();
+        return index < seatMap.getTotalSeats() && partitionOf(seatMap.getJourneyId()) != null ? Optional.of(seatMap.toSeat(index)) : Optional.empty();
+    }
 
-        Stop from = (Stop) fromStopOpt.get();
-        Stop to = (Stop) toStopOpt.get();
+    @Override
+    public Optional<Seat> getSeatByJourneyAndSeatId(int journeyId, String seatId) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        int index = seatMap == null ? -1 : seatMap.indexOf(seatId);
+        return index < 0 ? Optional.empty() : Optional.of(seatMap.toSeat(index));
+    }
 
-        // Find fare by stop IDs (uses bidirectional lookup)
-        Optional<BusFare> fare = getFareByStops(from.getId(), to.getId());
-        return fare.map(BusFare::getPrice).orElse(BigDecimal.ZERO);
+    @Override
+    public Collection<Seat> getAvailableSeats(int journeyId) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        if (seatMap == null) {
+            return Collections.emptyList();
+        }
+        List<Seat> result = new ArrayList<>(seatMap.availableCount());
+        for (int i = seatMap.nextAvailable(0); i >= 0; i = seatMap.nextAvailable(i + 1)) {
+            result.add(seatMap.toSeat(i));
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Seat> getSeatsByJourney(int journeyId) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        if (seatMap == null) {
+            return Collections.emptyList();
+        }
+        List<Seat> result = new ArrayList<>(seatMap.getTotalSeats());
+        for (int i = 0; i < seatMap.getTotalSeats(); i++) {
+            result.add(seatMap.toSeat(i));
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<Seat> getBookedSeats(int journeyId) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        if (seatMap == null) {
+            return Collections.emptyList();
+        }
+        List<Seat> result = new ArrayList<>(seatMap.bookedCount());
+        for (int i = seatMap.nextBooked(0); i >= 0; i = seatMap.nextBooked(i + 1)) {
+            result.add(seatMap.toSeat(i));
+        }
+        return result;
     }
 
     /**
-     * Get stop by identifier (numeric ID or name/letter)
+     * Get the bitmap seat inventory of a journey
      */
-    private Optional<?> getStopByIdentifier(String identifier) {
-        try {
-            // Try parsing as integer ID first
-            int stopId = Integer.parseInt(identifier);
-            return getStop(stopId);
-        } catch (NumberFormatException e) {
-            // If not a number, try to find by name
-            return stops.values().stream()
-                    .filter(s -> s.getName().equalsIgnoreCase(identifier))
-                    .findFirst()
-                    .map(s -> (Object) s);
+    @Override
+    public Optional<SeatMap> getSeatMap(int journeyId) {
+        return Optional.ofNullable(seatMapOf(journeyId));
+    }
+
+    /**
+     * Book a seat on a journey; returns false if the seat does not exist or is already booked
+     */
+    @Override
+    public boolean bookSeat(int journeyId, String seatId, String passengerName, String passengerPhone) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        int index = seatMap == null ? -1 : seatMap.indexOf(seatId);
+        return index >= 0 && bookSeat(journeyId, index, passengerName, passengerPhone);
+    }
+
+    /**
+     * Book a seat by its bitmap index and mark the journey's segments as occupied
+     */
+    @Override
+    public boolean bookSeat(int journeyId, int seatIndex, String passengerName, String passengerPhone) {
+        LocalDateTime bookedAt = LocalDateTime.now();
+        if (!claimSeat(journeyId, seatIndex, passengerName, passengerPhone, bookedAt)) {
+            return false;
+        }
+        WriteAheadLog log = wal;
+        if (log != null) {
+            try {
+                log.append(WalRecords.SEAT_BOOKED,
+                        WalRecords.seatBooked(journeyId, seatIndex, passengerName, passengerPhone, bookedAt));
+            } catch (RuntimeException e) {
+                // Not durable, so the booking must not stand
+                vacateSeat(journeyId, seatIndex);
+                throw e;
+            }
         }
+        return true;
     }
 
-    // ==================== Seat Methods ====================
+    /**
+     * Book several seats of a journey in one all-or-nothing claim on the bus-day inventory
+     * The seats' booking records share one write-ahead log batch.
+     */
+    @Override
+    public boolean bookSeats(int journeyId, int[] seatIndexes, String[] passengerNames, String[] passengerPhones) {
+        if (seatIndexes.length != passengerNames.length || seatIndexes.length != passengerPhones.length) {
+            throw new IllegalArgumentException("Every seat needs one passenger name and phone");
+        }
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        LocalDateTime bookedAt = LocalDateTime.now();
+        if (seatMap == null || !seatMap.bookAll(seatIndexes, passengerNames, passengerPhones, bookedAt)) {
+            return false;
+        }
+        WriteAheadLog log = wal;
+        if (log != null) {
+            List<byte[]> payloads = new ArrayList<>(seatIndexes.length);
+            for (int i = 0; i < seatIndexes.length; i++) {
+                payloads.add(WalRecords.seatBooked(journeyId, seatIndexes[i], passengerNames[i], passengerPhones[i],
+                        bookedAt));
+            }
+            try {
+                log.appendAll(WalRecords.SEAT_BOOKED, payloads);
+            } catch (RuntimeException e) {
+                // Not durable, so none of the bookings may stand
+                for (int seatIndex : seatIndexes) {
+                    vacateSeat(journeyId, seatIndex);
+                }
+                throw e;
+            }
+        }
+        return true;
+    }
 
-    public Optional<Seat> getSeatById(int seatId) {
-        return seats.values().stream()
-                .filter(s -> s.getId() == seatId)
-                .findFirst();
+    /**
+     * Book a batch of groups with a single write-ahead log batch for all of them
+     * A run of groups on the same bus-day is seated under that bus-day's lock, taken once, so
+     * concurrent batches for a bus-day seat one after the other instead of racing for the same
+     * picks. Single bookings stay lock-free; the claim still decides against them.
+     */
+    @Override
+    public int[][] bookSeatGroups(List<SeatGroup> groups, SeatPicker picker, int attempts) {
+        for (SeatGroup group : groups) {
+            if (group.passengerNames().length != group.passengerPhones().length) {
+                throw new IllegalArgumentException("Every seat needs one passenger name and phone");
+            }
+        }
+        int[][] booked = new int[groups.size()][];
+        List<byte[]> payloads = new ArrayList<>();
+        LocalDateTime bookedAt = LocalDateTime.now();
+        BusDayInventory locked = null;
+        try {
+            for (int g = 0; g < groups.size(); g++) {
+                SeatGroup group = groups.get(g);
+                int count = group.passengerNames().length;
+                SeatBitmap seatMap = seatMapOf(group.journeyId());
+                if (seatMap == null || count == 0) {
+                    continue;
+                }
+                if (seatMap.getInventory() != locked) {
+                    if (locked != null) {
+                        locked.unlock();
+                    }
+                    locked = seatMap.getInventory();
+                    locked.lock();
+                }
+                for (int attempt = 0; attempt < attempts && booked[g] == null; attempt++) {
+                    int[] seats = picker.pick(group.journeyId(), count);
+                    if (seats == null || seats.length != count) {
+                        break;
+                    }
+                    if (seatMap.bookAll(seats, group.passengerNames(), group.passengerPhones(), bookedAt)) {
+                        booked[g] = seats;
+                    }
+                }
+                for (int i = 0; booked[g] != null && i < count; i++) {
+                    payloads.add(WalRecords.seatBooked(group.journeyId(), booked[g][i], group.passengerNames()[i],
+                            group.passengerPhones()[i], bookedAt));
+                }
+            }
+        } finally {
+            if (locked != null) {
+                locked.unlock();
+            }
+        }
+
+        WriteAheadLog log = wal;
+        if (log != null && !payloads.isEmpty()) {
+            try {
+                log.appendAll(WalRecords.SEAT_BOOKED, payloads);
+            } catch (RuntimeException e) {
+                // Not durable, so none of the batch may stand
+                for (int g = 0; g < booked.length; g++) {
+                    for (int i = 0; booked[g] != null && i < booked[g].length; i++) {
+                        vacateSeat(groups.get(g).journeyId(), booked[g][i]);
+                    }
+                }
+                throw e;
+            }
+        }
+        return booked;
     }
 
-    public Optional<Seat> getSeatByJourneyAndSeatId(int journeyId, String seatId) {
-        return seats.values().stream()
-                .filter(s -> s.getJourneyId() == journeyId && s.getSeatId().equals(seatId))
-                .findFirst();
+    private boolean claimSeat(int journeyId, int seatIndex, String passengerName, String passengerPhone,
+                              LocalDateTime bookedAt) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        // Claiming the journey's segments on the shared bus-day inventory is the linearization point
+        return seatMap != null && seatIndex >= 0 && seatIndex < seatMap.getTotalSeats()
+                && seatMap.book(seatIndex, passengerName, passengerPhone, bookedAt);
     }
 
-    public Collection<Seat> getAvailableSeats(int journeyId) {
-        return seats.values().stream()
-                .filter(s -> s.getJourneyId() == journeyId && !s.isBooked())
-                .toList();
+    /**
+     * Release a booked seat; returns false if the seat does not exist or is not booked
+     */
+    @Override
+    public boolean releaseSeat(int journeyId, String seatId) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        int index = seatMap == null ? -1 : seatMap.indexOf(seatId);
+        if (index < 0 || !seatMap.isBooked(index)) {
+            return false;
+        }
+
+        // Logged before the seat is freed so a rebooking can never precede its release in the log
+        WriteAheadLog log = wal;
+        long lsn = log == null ? 0 : log.appendBeforeApply(WalRecords.SEAT_RELEASED,
+                WalRecords.seatReleased(journeyId, index));
+        try {
+            return vacateSeat(journeyId, index);
+        } finally {
+            markApplied(log, lsn);
+        }
     }
 
-    public Collection<Seat> getSeatsByJourney(int journeyId) {
-        return seats.values().stream()
-                .filter(s -> s.getJourneyId() == journeyId)
-                .toList();
+    private boolean vacateSeat(int journeyId, int seatIndex) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        return seatMap != null && seatMap.release(seatIndex);
     }
 
-    public Collection<Seat> getBookedSeats(int journeyId) {
-        return seats.values().stream()
-                .filter(s -> s.getJourneyId() == journeyId && s.isBooked())
-                .toList();
+    /**
+     * Get the seat inventory shared by all journeys of a bus on a day
+     */
+    public Optional<BusDayInventory> getBusDayInventory(int busId, LocalDate journeyDate) {
+        DayPartition partition = partitions.get(journeyDate);
+        return partition == null ? Optional.empty() : Optional.ofNullable(partition.getInventory(busId));
+    }
+
+    /**
+     * Check whether a seat exists on the journey and no journey of its bus-day occupies its segments
+     */
+    @Override
+    public boolean isSeatAvailable(int journeyId, String seatId) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        int index = seatMap == null ? -1 : seatMap.indexOf(seatId);
+        return index >= 0 && seatMap.isAvailable(index);
     }
 
     // ==================== Seat Hold Management (Soft Locks) ====================
 
     /**
      * Add a seat hold (soft lock)
+     * Returns false if the seat already has an active hold
      */
+    @Override
     public boolean addSeatHold(SeatHold hold) {
-        seatHolds.add(hold);
+        if (!seatHolds.tryHold(hold)) {
+            return false;
+        }
+        WriteAheadLog log = wal;
+        if (log != null) {
+            try {
+                log.append(WalRecords.HOLD_ADDED,
+                        WalRecords.holdAdded(hold.getJourneyId(), hold.getSeatId(), hold.getHeldAt()));
+            } catch (RuntimeException e) {
+                seatHolds.remove(hold.getJourneyId(), hold.getSeatId());
+                throw e;
+            }
+        }
         return true;
     }
 
     /**
      * Get all seat holds
      */
+    @Override
     public List<SeatHold> getSeatHolds() {
-        return new ArrayList<>(seatHolds);
+        return seatHolds.getAllHolds();
+    }
+
+    /**
+     * Active hold on a seat, if any
+     */
+    @Override
+    public Optional<SeatHold> getActiveSeatHold(int journeyId, String seatId) {
+        return Optional.ofNullable(seatHolds.getActiveHold(journeyId, seatId));
+    }
+
+    /**
+     * Active holds of a journey
+     */
+    @Override
+    public List<SeatHold> getActiveSeatHolds(int journeyId) {
+        return seatHolds.getActiveHolds(journeyId);
     }
 
     /**
      * Remove a specific seat hold
      */
+    @Override
     public void removeSeatHold(int journeyId, String seatId) {
-        seatHolds.removeIf(hold -> hold.matches(journeyId, seatId));
+        WriteAheadLog log = wal;
+        long lsn = log == null || !seatHolds.isHeld(journeyId, seatId) ? 0
+                : log.appendBeforeApply(WalRecords.HOLD_REMOVED, WalRecords.holdRemoved(journeyId, seatId));
+        try {
+            seatHolds.remove(journeyId, seatId);
+        } finally {
+            markApplied(log, lsn);
+        }
     }
 
     /**
-     * Remove all expired seat holds
+     * Remove a seat hold if it is still the one on its seat
+     * The identity check and the removal are one step of the registry, and only a removal that
+     * happened is logged, so a hold placed on the seat meanwhile is never logged as removed.
      */
+    @Override
+    public boolean removeSeatHold(SeatHold hold) {
+        if (!seatHolds.remove(hold)) {
+            return false;
+        }
+        WriteAheadLog log = wal;
+        if (log != null) {
+            try {
+                log.append(WalRecords.HOLD_REMOVED, WalRecords.holdRemoved(hold.getJourneyId(), hold.getSeatId()));
+            } catch (RuntimeException e) {
+                seatHolds.tryHold(hold);
+                throw e;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove all expired seat holds now instead of waiting for the background reaper
+     */
+    @Override
     public void removeExpiredSeatHolds() {
-        seatHolds.removeIf(SeatHold::isExpired);
+        seatHolds.reapExpired();
+    }
+
+    private void setHeldBit(int journeyId, String seatId, boolean held) {
+        SeatBitmap seatMap = seatMapOf(journeyId);
+        int index = seatMap == null ? -1 : seatMap.indexOf(seatId);
+        if (index >= 0) {
+            seatMap.setHeld(index, held);
+        }
+    }
+
+    // ==================== Day Retirement ====================
+
+    /**
+     * Hand every retired day to the writer; null drops retired days
+     */
+    public void setArchiveWriter(ArchiveWriter writer) {
+        this.archiveWriter = writer;
+    }
+
+    /**
+     * Archive the bookings of retired days into the given archive and look them up there by number
+     * The archive stays owned by the caller; null detaches it and drops retired days again.
+     */
+    public void setBookingArchive(BookingArchive archive) {
+        this.bookingArchive = archive;
+        this.archiveWriter = archive == null ? null
+                : partition -> archive.append(partition.getDate(), partition.getBookings());
+    }
+
+    /**
+     * Live partitions from the first date to the last, for tools and tests
+     */
+    public Collection<DayPartition> getDayPartitions() {
+        return Collections.unmodifiableCollection(partitions.values());
+    }
+
+    /**
+     * Retire every day before the cutoff
+     * Each day leaves every lookup at once, by a single flag write and map removal; the routing
+     * and cross-day index entries of its journeys and bookings are pruned afterwards.
+     * Days are only retired once they are in the past, when journeys are no longer added to them.
+     * Returns the number of days retired.
+     */
+    public int retireDaysBefore(LocalDate cutoff) {
+        synchronized (retirementLock) {
+            if (cutoff.isAfter(retiredBefore)) {
+                retiredBefore = cutoff;
+            }
+            int retired = 0;
+            for (Map.Entry<LocalDate, DayPartition> entry : partitions.headMap(cutoff).entrySet()) {
+                DayPartition partition = entry.getValue();
+                partition.setRetired(true);
+                partitions.remove(entry.getKey(), partition);
+
+                ArchiveWriter writer = archiveWriter;
+                if (writer != null) {
+                    try {
+                        writer.archive(partition);
+                    } catch (IOException | RuntimeException e) {
+                        // Keep the day live and try again on the next run rather than lose it
+                        LOGGER.log(Level.WARNING, "Archiving " + entry.getKey() + " failed", e);
+                        partitions.put(entry.getKey(), partition);
+                        partition.setRetired(false);
+                        break;
+                    }
+                }
+                unlink(partition);
+                expandedDates.remove(entry.getKey());
+                scheduleVersion.incrementAndGet();
+                retired++;
+            }
+            return retired;
+        }
+    }
+
+    private void unlink(DayPartition partition) {
+        for (Journey journey : partition.getJourneys()) {
+            journeyPartitions.remove(journey.getId(), partition);
+            SeatBitmap seatMap = partition.getSeatMap(journey.getId());
+            if (seatMap != null) {
+                seatMapsByFirstSeatId.remove(seatMap.getFirstSeatId(), seatMap);
+            }
+            for (SeatHold hold : seatHolds.getActiveHolds(journey.getId())) {
+                seatHolds.remove(hold.getJourneyId(), hold.getSeatId());
+            }
+        }
+        for (Booking booking : partition.getBookings()) {
+            bookingPartitions.remove(booking.getId(), partition);
+            if (booking.getBookingNumber() != null) {
+                bookingsByNumber.remove(booking.getBookingNumber(), booking);
+            }
+            if (booking.getPassengerPhone() != null) {
+                bookingsByPhone.computeIfPresent(booking.getPassengerPhone(), (phone, list) -> {
+                    list.remove(booking);
+                    return list.isEmpty() ? null : list;
+                });
+            }
+        }
+    }
+
+    /**
+     * Retire days older than the retention period every hour on a background thread
+     * With a retention of 0 days everything before today is retired.
+     */
+    public synchronized void startRetiringDays(int retentionDays) {
+        if (retirer == null) {
+            retirer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "datastore-retirement");
+                thread.setDaemon(true);
+                return thread;
+            });
+            retirer.scheduleWithFixedDelay(() -> {
+                try {
+                    retireDaysBefore(LocalDate.now().minusDays(retentionDays));
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Retiring days failed", e);
+                }
+            }, 0, 1, TimeUnit.HOURS);
+        }
+    }
+
+    public synchronized void stopRetiringDays() {
+        if (retirer != null) {
+            retirer.shutdownNow();
+            retirer = null;
+        }
+    }
+
+    // ==================== Persistence ====================
+
+    /**
+     * Restore state from the snapshot and write-ahead log in the given directory,
+     * then log every later mutation there
+     * Only the log records written after the snapshot's checkpoint are replayed.
+     */
+    public synchronized void enableWriteAheadLog(Path directory, WriteAheadLog.SyncMode syncMode) throws IOException {
+        if (wal != null) {
+            throw new IllegalStateException("Write-ahead log already enabled: " + wal.getDirectory());
+        }
+        WalRecordHandler replayer = new WalReplayer();
+        WriteAheadLog.RecordConsumer consumer = (type, lsn, payload) -> WalRecords.dispatch(type, payload, replayer);
+        long checkpointLsn = SnapshotFile.load(directory, consumer);
+        WriteAheadLog log = WriteAheadLog.open(directory, syncMode, checkpointLsn, consumer);
+        recountAvailableSeats();
+        wal = log;
+    }
+
+    /**
+     * Write a checkpoint every interval on a background thread
+     */
+    public synchronized void startCheckpointing(Duration interval) {
+        if (wal == null) {
+            throw new IllegalStateException("Write-ahead log is not enabled");
+        }
+        if (checkpointer == null) {
+            checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "datastore-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = interval.toMillis();
+            checkpointer.scheduleWithFixedDelay(this::checkpointQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write a snapshot of the current state and drop the log segments it covers
+     *
+     * The snapshot is fuzzy: request threads keep running while it is written, so it may also
+     * contain changes made after its checkpoint LSN. Replaying the log tail on top of it is still
+     * correct because every record carries explicit IDs and full seat state, and the tail holds
+     * the last word on any seat it touches.
+     * Returns the checkpoint LSN, or -1 if the log is not enabled.
+     */
+    public long checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            WriteAheadLog log = wal;
+            if (log == null) {
+                return -1;
+            }
+            long checkpointLsn = log.getCheckpointLsn();
+            // New records go to a fresh segment, so the old ones can be deleted once the snapshot is safe
+            log.rollover();
+
+            try (SnapshotFile.Writer writer = SnapshotFile.create(log.getDirectory(), checkpointLsn)) {
+                for (BusFare fare : fares.values()) {
+                    writer.write(WalRecords.FARE_PUT, WalRecords.farePut(fare));
+                }
+                for (ServicePattern pattern : servicePatterns.values()) {
+                    writer.write(WalRecords.SERVICE_PATTERN_ADDED, WalRecords.servicePatternAdded(pattern));
+                }
+                for (Journey journey : getAllJourneys()) {
+                    SeatBitmap seatMap = seatMapOf(journey.getId());
+                    if (seatMap == null) {
+                        continue; // Retired meanwhile
+                    }
+                    writer.write(WalRecords.JOURNEY_ADDED, WalRecords.journeyAdded(journey, seatMap.getFirstSeatId()));
+                    List<WalRecords.BookedSeat> booked = new ArrayList<>();
+                    for (int i = seatMap.nextBooked(0); i >= 0; i = seatMap.nextBooked(i + 1)) {
+                        Seat seat = seatMap.toSeat(i);
+                        booked.add(new WalRecords.BookedSeat(i, seat.getPassengerName(), seat.getPassengerPhone(),
+                                seat.getBookedAt()));
+                    }
+                    if (!booked.isEmpty()) {
+                        writer.write(WalRecords.SEAT_MAP, WalRecords.seatMap(journey.getId(), booked));
+                    }
+                }
+                for (Booking booking : getAllBookings()) {
+                    writer.write(WalRecords.BOOKING_ADDED, WalRecords.bookingAdded(booking));
+                }
+                for (SeatHold hold : seatHolds.getAllHolds()) {
+                    if (!hold.isExpired()) {
+                        writer.write(WalRecords.HOLD_ADDED,
+                                WalRecords.holdAdded(hold.getJourneyId(), hold.getSeatId(), hold.getHeldAt()));
+                    }
+                }
+                writer.commit();
+            }
+
+            log.deleteSegmentsThrough(checkpointLsn);
+            return checkpointLsn;
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Checkpoint failed", e);
+        }
+    }
+
+    /**
+     * Stop checkpointing, flush and detach the write-ahead log; the store keeps running purely in-memory
+     */
+    public synchronized void closeWriteAheadLog() throws IOException {
+        ScheduledExecutorService scheduler = checkpointer;
+        checkpointer = null;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        WriteAheadLog log = wal;
+        wal = null;
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    public boolean isWriteAheadLogEnabled() {
+        return wal != null;
+    }
+
+    private static void markApplied(WriteAheadLog log, long lsn) {
+        if (log != null && lsn != 0) {
+            log.markApplied(lsn);
+        }
+    }
+
+    /**
+     * Derive each journey's available seats from its confirmed bookings after a restore,
+     * matching ReservationService, which takes one seat off the journey per booking it stores
+     */
+    private void recountAvailableSeats() {
+        for (Journey journey : getAllJourneys()) {
+            int confirmed = 0;
+            for (Booking booking : getBookingsByJourney(journey.getId())) {
+                if ("CONFIRMED".equals(booking.getStatus())) {
+                    confirmed++;
+                }
+            }
+            journey.setAvailableSeats(journey.getTotalSeats() - confirmed);
+        }
+    }
+
+    /**
+     * Applies replayed records with their original IDs, without logging them again
+     */
+    private class WalReplayer implements WalRecordHandler {
+        @Override
+        public void journeyAdded(Journey journey, int firstSeatId) {
+            if (journeyPartitions.containsKey(journey.getId())) {
+                return;
+            }
+            journeyIdCounter.accumulateAndGet(journey.getId() + 1, Math::max);
+            seatIdCounter.accumulateAndGet(firstSeatId + journey.getTotalSeats(), Math::max);
+            publishJourney(journey, firstSeatId);
+        }
+
+        @Override
+        public void seatBooked(int journeyId, int seatIndex, String passengerName, String passengerPhone,
+                               LocalDateTime bookedAt) {
+            claimSeat(journeyId, seatIndex, passengerName, passengerPhone, bookedAt);
+        }
+
+        @Override
+        public void seatReleased(int journeyId, int seatIndex) {
+            vacateSeat(journeyId, seatIndex);
+        }
+
+        @Override
+        public void bookingAdded(Booking booking) {
+            bookingIdCounter.accumulateAndGet(booking.getId() + 1, Math::max);
+            DayPartition partition = partitionOf(booking.getJourneyId());
+            if (partition != null) {
+                indexBooking(partition, booking);
+            }
+        }
+
+        @Override
+        public void holdAdded(int journeyId, String seatId, LocalDateTime heldAt) {
+            seatHolds.tryHold(new SeatHold(journeyId, seatId, heldAt));
+        }
+
+        @Override
+        public void holdRemoved(int journeyId, String seatId) {
+            seatHolds.remove(journeyId, seatId);
+        }
+
+        @Override
+        public void farePut(BusFare fare) {
+            synchronized (fareLock) {
+                fareIdCounter.accumulateAndGet(fare.getId() + 1, Math::max);
+                fares.put(fare.getId(), fare);
+                rebuildFareMatrix();
+            }
+        }
+
+        @Override
+        public void servicePatternAdded(ServicePattern pattern) {
+            servicePatternIdCounter.accumulateAndGet(pattern.getId() + 1, Math::max);
+            servicePatterns.put(pattern.getId(), pattern);
+        }
     }
 
     // ==================== Reset (For Testing) ====================
 
+    /**
+     * Reset to the default data set; an attached write-ahead log is closed first so the
+     * wiped state is never mixed with logged history
+     */
     public void reset() {
+        try {
+            closeWriteAheadLog();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         stops.clear();
         fares.clear();
         buses.clear();
-        journeys.clear();
-        seats.clear();
-        bookings.clear();
+        stopRetiringDays();
+        partitions.clear();
+        scheduleVersion.incrementAndGet();
+        journeyPartitions.clear();
+        bookingPartitions.clear();
+        seatMapsByFirstSeatId.clear();
+        servicePatterns.clear();
+        expandedDates.clear();
         seatHolds.clear();
-
-        stopIdCounter = 1;
-        fareIdCounter = 1;
-        busIdCounter = 1;
-        journeyIdCounter = 1;
-        seatIdCounter = 1;
-        bookingIdCounter = 1;
+        bookingsByNumber.clear();
+        bookingsByPhone.clear();
+        retiredBefore = LocalDate.MIN;
+        archiveWriter = null;
+        bookingArchive = null;
+
+        stopIdCounter.set(1);
+        fareIdCounter.set(1);
+        busIdCounter.set(1);
+        journeyIdCounter.set(1);
+        servicePatternIdCounter.set(1);
+        seatIdCounter.set(1);
+        bookingIdCounter.set(1);
 
         initializeDefaultData();
     }
+
+    private static <T> Collection<T> unmodifiable(List<T> list) {
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Index key for journeys by origin and destination stop
+     */
+    record RouteKey(String fromStop, String toStop) {
+    }
 }
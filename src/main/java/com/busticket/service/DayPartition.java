@@ -0,0 +1,143 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * DayPartition holds the operational data of one journey date
+ * - Journeys with their seat views and the bus-day inventories they share
+ * - Bookings made on those journeys
+ * DataStore routes journey, seat and booking operations to the partition of the journey's date,
+ * so a query only touches the days it asks for and a past day is dropped by detaching its partition.
+ * Once retired, a partition is no longer reachable through the DataStore and is only read by
+ * the archive writer.
+ */
+public final class DayPartition {
+    private final LocalDate date;
+    private final Map<Integer, Journey> journeys = new ConcurrentHashMap<>();
+    private final List<Journey> journeyList = new CopyOnWriteArrayList<>();
+    private final Map<Integer, List<Journey>> journeysByBus = new ConcurrentHashMap<>();
+    private final Map<DataStore.RouteKey, List<Journey>> journeysByRoute = new ConcurrentHashMap<>();
+    private final Map<Integer, SeatBitmap> seatMaps = new ConcurrentHashMap<>();
+    private final Map<Integer, BusDayInventory> inventoriesByBus = new ConcurrentHashMap<>();
+    private final Map<Integer, Booking> bookings = new ConcurrentHashMap<>();
+    private final Map<Integer, List<Booking>> bookingsByJourney = new ConcurrentHashMap<>();
+    private volatile boolean retired;
+
+    DayPartition(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    void setRetired(boolean retired) {
+        this.retired = retired;
+    }
+
+    // ==================== Journeys and Seats ====================
+
+    /**
+     * Journeys of the day in the order they were added
+     */
+    public Collection<Journey> getJourneys() {
+        return Collections.unmodifiableList(journeyList);
+    }
+
+    Journey getJourney(int journeyId) {
+        return journeys.get(journeyId);
+    }
+
+    public SeatBitmap getSeatMap(int journeyId) {
+        return seatMaps.get(journeyId);
+    }
+
+    Collection<Journey> getJourneysByBus(int busId) {
+        return unmodifiable(journeysByBus.get(busId));
+    }
+
+    Collection<Journey> getJourneysByRoute(DataStore.RouteKey route) {
+        return unmodifiable(journeysByRoute.get(route));
+    }
+
+    BusDayInventory getInventory(int busId) {
+        return inventoriesByBus.get(busId);
+    }
+
+    /**
+     * The bus's inventory for the day, installing the given one if the bus has none yet
+     */
+    BusDayInventory inventoryOf(int busId, BusDayInventory ifAbsent) {
+        BusDayInventory existing = inventoriesByBus.putIfAbsent(busId, ifAbsent);
+        return existing != null ? existing : ifAbsent;
+    }
+
+    void putSeatMap(SeatBitmap seatMap) {
+        seatMaps.put(seatMap.getJourneyId(), seatMap);
+    }
+
+    /**
+     * Make journeys visible; their seat maps must already be in place
+     * Each index key is extended with one bulk append
+     */
+    void addJourneys(List<Journey> added) {
+        for (Journey journey : added) {
+            journeys.put(journey.getId(), journey);
+        }
+        journeyList.addAll(added);
+        Map<Integer, List<Journey>> byBus = new HashMap<>();
+        Map<DataStore.RouteKey, List<Journey>> byRoute = new HashMap<>();
+        for (Journey journey : added) {
+            byBus.computeIfAbsent(journey.getBusId(), k -> new ArrayList<>()).add(journey);
+            byRoute.computeIfAbsent(new DataStore.RouteKey(journey.getFromStop(), journey.getToStop()),
+                    k -> new ArrayList<>()).add(journey);
+        }
+        byBus.forEach((bus, list) ->
+                journeysByBus.computeIfAbsent(bus, k -> new CopyOnWriteArrayList<>()).addAll(list));
+        byRoute.forEach((route, list) ->
+                journeysByRoute.computeIfAbsent(route, k -> new CopyOnWriteArrayList<>()).addAll(list));
+    }
+
+    // ==================== Bookings ====================
+
+    /**
+     * Bookings made on the day's journeys
+     */
+    public Collection<Booking> getBookings() {
+        return Collections.unmodifiableCollection(bookings.values());
+    }
+
+    Booking getBooking(int bookingId) {
+        return bookings.get(bookingId);
+    }
+
+    Collection<Booking> getBookingsByJourney(int journeyId) {
+        return unmodifiable(bookingsByJourney.get(journeyId));
+    }
+
+    boolean addBooking(Booking booking) {
+        if (bookings.putIfAbsent(booking.getId(), booking) != null) {
+            return false;
+        }
+        bookingsByJourney.computeIfAbsent(booking.getJourneyId(), k -> new CopyOnWriteArrayList<>()).add(booking);
+        return true;
+    }
+
+    private static <T> Collection<T> unmodifiable(List<T> list) {
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+}
@@ -0,0 +1,133 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.BusFare;
+import com.busticket.domain.entity.Stop;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * FareMatrix is an immutable snapshot of all fares indexed by dense stop ordinal
+ * - Stops are numbered 0..n-1; stop IDs and names resolve to an ordinal through lookup tables
+ * - fares[from][to] holds the fare for the pair, with the reverse direction filled in
+ *   when no direct fare exists (same bidirectional rule as before)
+ * - When several fares exist for the same direction, the most recently added one wins
+ * Lookups are plain array reads; DataStore swaps in a new matrix whenever fares change.
+ */
+public final class FareMatrix {
+    static final FareMatrix EMPTY = new FareMatrix(List.of(), List.of());
+
+    private final Stop[] stops;
+    private final int[] ordinalByStopId;
+    private final Map<String, Integer> ordinalByName;
+    private final BusFare[][] fares;
+
+    public FareMatrix(Collection<Stop> stopList, Collection<BusFare> fareList) {
+        List<Stop> sortedStops = new ArrayList<>(stopList);
+        sortedStops.sort(Comparator.comparingInt(Stop::getId));
+
+        int maxStopId = 0;
+        for (Stop stop : sortedStops) {
+            maxStopId = Math.max(maxStopId, stop.getId());
+        }
+        this.stops = sortedStops.toArray(new Stop[0]);
+        this.ordinalByStopId = new int[maxStopId + 1];
+        Arrays.fill(ordinalByStopId, -1);
+        this.ordinalByName = new HashMap<>();
+        for (int ordinal = 0; ordinal < stops.length; ordinal++) {
+            ordinalByStopId[stops[ordinal].getId()] = ordinal;
+            if (stops[ordinal].getName() != null) {
+                ordinalByName.putIfAbsent(stops[ordinal].getName().toUpperCase(Locale.ROOT), ordinal);
+            }
+        }
+
+        // Apply fares oldest first so the latest fare for a direction overwrites earlier ones
+        List<BusFare> sortedFares = new ArrayList<>(fareList);
+        sortedFares.sort(Comparator.comparingInt(BusFare::getId));
+        int n = stops.length;
+        this.fares = new BusFare[n][n];
+        boolean[][] direct = new boolean[n][n];
+        for (BusFare fare : sortedFares) {
+            int from = ordinalOf(fare.getFromStopId());
+            int to = ordinalOf(fare.getToStopId());
+            if (from < 0 || to < 0) {
+                continue;
+            }
+            fares[from][to] = fare;
+            direct[from][to] = true;
+            if (!direct[to][from]) {
+                fares[to][from] = fare;
+            }
+        }
+    }
+
+    public int getStopCount() {
+        return stops.length;
+    }
+
+    /**
+     * Dense ordinal of a stop ID, or -1 if unknown
+     */
+    public int ordinalOf(int stopId) {
+        return stopId >= 0 && stopId < ordinalByStopId.length ? ordinalByStopId[stopId] : -1;
+    }
+
+    /**
+     * Dense ordinal of a stop identifier (numeric ID or case-insensitive name), or -1 if unknown
+     */
+    public int ordinalOf(String identifier) {
+        if (identifier == null || identifier.isEmpty()) {
+            return -1;
+        }
+        int stopId = parseStopId(identifier);
+        if (stopId >= 0) {
+            return ordinalOf(stopId);
+        }
+        Integer ordinal = ordinalByName.get(identifier.toUpperCase(Locale.ROOT));
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public Stop getStop(int ordinal) {
+        return stops[ordinal];
+    }
+
+    /**
+     * Fare between two stop ordinals, or null if none is configured
+     */
+    public BusFare getFare(int fromOrdinal, int toOrdinal) {
+        if (fromOrdinal < 0 || toOrdinal < 0) {
+            return null;
+        }
+        return fares[fromOrdinal][toOrdinal];
+    }
+
+    /**
+     * Fare between two stop IDs, or null if none is configured
+     */
+    public BusFare getFareByStopIds(int fromStopId, int toStopId) {
+        return getFare(ordinalOf(fromStopId), ordinalOf(toStopId));
+    }
+
+    /**
+     * Parse a non-negative decimal stop ID without throwing, or -1 if the identifier is not numeric
+     */
+    private static int parseStopId(String identifier) {
+        if (identifier.length() > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
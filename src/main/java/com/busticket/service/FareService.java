@@ -1,22 +1,28 @@
 package com.busticket.service;
 
 import com.busticket.domain.entity.BusFare;
+import com.busticket.domain.request.UpdateFareRequest;
 import com.busticket.domain.response.FareResponse;
 import com.busticket.domain.entity.Stop;
+import com.busticket.storage.FareRepository;
+import com.busticket.storage.StorageProvider;
+import com.busticket.storage.StorageProviders;
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.Optional;
 
 /**
  * FareService handles all fare calculations and management
- * Uses in-memory DataStore for fare data
+ * Fare data comes from the configured storage provider
  */
 public class FareService {
-    private final com.busticket.service.DataStore dataStore;
+    private final StorageProvider storage;
+    private final FareRepository fares;
     private static FareService instance;
 
     private FareService() {
-        this.dataStore = com.busticket.service.DataStore.getInstance();
+        this.storage = StorageProviders.getProvider();
+        this.fares = storage.fares();
     }
 
     /**
@@ -33,8 +39,8 @@ public class FareService {
      * Calculate fare between two stops
      */
     public Optional<FareResponse> calculateFare(int fromStopId, int toStopId) {
-        Optional<?> fromStopOpt = dataStore.getStop(fromStopId);
-        Optional<?> toStopOpt = dataStore.getStop(toStopId);
+        Optional<?> fromStopOpt = fares.getStop(fromStopId);
+        Optional<?> toStopOpt = fares.getStop(toStopId);
 
         if (fromStopOpt.isEmpty() || toStopOpt.isEmpty()) {
             return Optional.empty();
@@ -44,7 +50,7 @@ public class FareService {
         Stop toStop = (Stop) toStopOpt.get();
 
         // Fetch fare from data store using stop IDs
-        Optional<BusFare> fare = dataStore.getFareByStops(fromStopId, toStopId);
+        Optional<BusFare> fare = fares.getFareByStops(fromStopId, toStopId);
         if (fare.isPresent()) {
             BusFare busFare = fare.get();
             FareResponse response = new FareResponse(
@@ -66,13 +72,24 @@ public class FareService {
      * Get all fares
      */
     public Collection<BusFare> getAllFares() {
-        return dataStore.getAllFares();
+        return fares.getAllFares();
     }
 
     /**
      * Add new fare
      */
     public BusFare addFare(int fromStopId, int toStopId, BigDecimal price) {
-        return dataStore.addFare(fromStopId, toStopId, price);
+        return fares.addFare(fromStopId, toStopId, price);
+    }
+
+    /**
+     * Update the price of an existing fare
+     * Returns empty if no fare exists between the stops or the price is missing
+     */
+    public Optional<BusFare> updateFare(UpdateFareRequest request) {
+        if (request == null || request.getPrice() == null) {
+            return Optional.empty();
+        }
+        return fares.updateFare(request.getFromStopId(), request.getToStopId(), request.getPrice());
     }
 }
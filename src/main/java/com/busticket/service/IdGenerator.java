@@ -0,0 +1,112 @@
+package com.busticket.service;
+
+import com.busticket.configuration.ServerConfiguration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * IdGenerator issues booking, reservation and ticket numbers without locks
+ * Each id packs three fields into a positive long:
+ *   41 bits - milliseconds since 2024-01-01T00:00Z (about 69 years)
+ *   10 bits - node id, unique per running instance (0-1023)
+ *   12 bits - sequence within the millisecond (4096 ids per millisecond)
+ * The millisecond and sequence live together in one AtomicLong advanced by CAS. When a
+ * millisecond's sequence is used up, the carry moves the id into the next millisecond instead
+ * of waiting, and a clock that steps backwards is ignored, so ids from one node only increase
+ * and ids from different nodes never collide.
+ * Numbers are the id in fixed-width base 36 after a prefix, so they sort in issue order.
+ */
+public final class IdGenerator {
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int NUMBER_WIDTH = 13; // Long.MAX_VALUE in base 36
+
+    private static IdGenerator instance;
+
+    private final int nodeId;
+    private final LongSupplier clock;
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong state = new AtomicLong();
+
+    public IdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    IdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Get singleton instance, using the configured node id (0 when unset)
+     */
+    public static synchronized IdGenerator getInstance() {
+        if (instance == null) {
+            String nodeId = ServerConfiguration.getSetting(ServerConfiguration.NODE_ID_PROPERTY,
+                    ServerConfiguration.NODE_ID_ENV);
+            instance = new IdGenerator(nodeId == null || nodeId.isBlank() ? 0 : Integer.parseInt(nodeId.trim()));
+        }
+        return instance;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Next id; strictly greater than every id this generator issued before
+     */
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            long next = now > last ? now : last + 1;
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | ((long) nodeId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Next id as a number with the given prefix, e.g. "RS" + 13 base-36 digits
+     */
+    public String nextNumber(String prefix) {
+        String digits = Long.toString(nextId(), Character.MAX_RADIX).toUpperCase();
+        StringBuilder number = new StringBuilder(prefix.length() + NUMBER_WIDTH).append(prefix);
+        for (int i = digits.length(); i < NUMBER_WIDTH; i++) {
+            number.append('0');
+        }
+        return number.append(digits).toString();
+    }
+
+    public String nextReservationNumber() {
+        return nextNumber("RS");
+    }
+
+    public String nextBookingNumber() {
+        return nextNumber("BK-");
+    }
+
+    public String nextTicketNumber() {
+        return nextNumber("TICKET-");
+    }
+
+    /**
+     * Wall-clock millisecond an id was issued in
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
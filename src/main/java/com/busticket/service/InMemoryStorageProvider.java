@@ -0,0 +1,55 @@
+package com.busticket.service;
+
+import com.busticket.storage.BookingRepository;
+import com.busticket.storage.FareRepository;
+import com.busticket.storage.HoldRegistry;
+import com.busticket.storage.JourneyRepository;
+import com.busticket.storage.SeatInventory;
+import com.busticket.storage.StorageProvider;
+
+/**
+ * The default storage provider, backed by the in-memory DataStore singleton
+ * All instances share the same DataStore, so every service sees the same data.
+ */
+public class InMemoryStorageProvider implements StorageProvider {
+    private final DataStore dataStore;
+
+    public InMemoryStorageProvider() {
+        this.dataStore = DataStore.getInstance();
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public JourneyRepository journeys() {
+        return dataStore;
+    }
+
+    @Override
+    public SeatInventory seats() {
+        return dataStore;
+    }
+
+    @Override
+    public BookingRepository bookings() {
+        return dataStore;
+    }
+
+    @Override
+    public FareRepository fares() {
+        return dataStore;
+    }
+
+    @Override
+    public HoldRegistry holds() {
+        return dataStore;
+    }
+
+    @Override
+    public void reset() {
+        dataStore.reset();
+    }
+}
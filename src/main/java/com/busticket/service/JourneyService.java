@@ -1,24 +1,39 @@
 package com.busticket.service;
 
 import com.busticket.domain.entity.Journey;
+import com.busticket.domain.entity.ServicePattern;
+import com.busticket.storage.JourneyRepository;
+import com.busticket.storage.StorageProvider;
+import com.busticket.storage.StorageProviders;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * JourneyService handles journey management with date/time tracking
  * Journeys are stored in-memory for fast access during operations
+ *
+ * Recurring departures are kept as service patterns; their journeys for a date are created
+ * in one bulk add the first time that date is queried, so the stored schedule does not grow
+ * with how far ahead it is published.
  */
 public class JourneyService {
-    private final DataStore dataStore;
+    private final StorageProvider storage;
+    private final JourneyRepository journeys;
+    private final Object expansionLock = new Object();
     private static JourneyService instance;
 
     private JourneyService() {
-        this.dataStore = DataStore.getInstance();
+        this.storage = StorageProviders.getProvider();
+        this.journeys = storage.journeys();
     }
 
-    public static JourneyService getInstance() {
+    public static synchronized JourneyService getInstance() {
         if (instance == null) {
             instance = new JourneyService();
         }
@@ -31,7 +46,7 @@ public class JourneyService {
     public Journey createJourney(int busId, String journeyNumber, LocalDate journeyDate,
                                 LocalDateTime departureTime, String fromStop, String toStop,
                                 String direction, int totalSeats) {
-        return dataStore.addJourney(busId, journeyNumber, journeyDate, departureTime,
+        return journeys.addJourney(busId, journeyNumber, journeyDate, departureTime,
                                    fromStop, toStop, direction, totalSeats);
     }
 
@@ -39,41 +54,93 @@ public class JourneyService {
      * Get journey by ID
      */
     public Optional<Journey> getJourneyById(int journeyId) {
-        return dataStore.getJourneyById(journeyId);
+        return journeys.getJourneyById(journeyId);
     }
 
     /**
      * Get all journeys
      */
     public Collection<Journey> getAllJourneys() {
-        return dataStore.getAllJourneys();
+        return journeys.getAllJourneys();
     }
 
     /**
-     * Get journeys for a specific date
+     * Get journeys for a specific date, expanding service patterns for it on first use
      */
     public Collection<Journey> getJourneysByDate(LocalDate journeyDate) {
-        return dataStore.getJourneysByDate(journeyDate);
+        expandServicePatterns(journeyDate);
+        return journeys.getJourneysByDate(journeyDate);
+    }
+
+    /**
+     * Version of the set of journeys; changes whenever journeys are added or a day is retired
+     */
+    public long getScheduleVersion() {
+        return journeys.getScheduleVersion();
+    }
+
+    /**
+     * Register a recurring service pattern
+     */
+    public ServicePattern createServicePattern(ServicePattern pattern) {
+        synchronized (expansionLock) {
+            return journeys.addServicePattern(pattern);
+        }
+    }
+
+    public Collection<ServicePattern> getServicePatterns() {
+        return journeys.getServicePatterns();
+    }
+
+    /**
+     * Create the journeys of every service pattern running on the date, once per date
+     * A pattern whose bus already has a journey with the same number that day (e.g. restored
+     * from the write-ahead log) is skipped, so expanding again never duplicates journeys.
+     */
+    public void expandServicePatterns(LocalDate journeyDate) {
+        if (journeys.isDateExpanded(journeyDate)) {
+            return;
+        }
+        synchronized (expansionLock) {
+            if (journeys.isDateExpanded(journeyDate)) {
+                return;
+            }
+            Set<String> existing = new HashSet<>();
+            for (Journey journey : journeys.getJourneysByDate(journeyDate)) {
+                existing.add(journey.getBusId() + "/" + journey.getJourneyNumber());
+            }
+            List<Journey> expanded = new ArrayList<>();
+            for (ServicePattern pattern : journeys.getServicePatterns()) {
+                if (pattern.runsOn(journeyDate)
+                        && !existing.contains(pattern.getBusId() + "/" + pattern.getJourneyNumber())) {
+                    expanded.add(pattern.toJourney(journeyDate));
+                }
+            }
+            if (!expanded.isEmpty()) {
+                journeys.addJourneys(expanded);
+            }
+            journeys.markDateExpanded(journeyDate);
+        }
     }
 
     /**
      * Get journeys by route (from stop to to stop)
      */
     public Collection<Journey> getJourneysByRoute(String fromStop, String toStop) {
-        return dataStore.getJourneysByRoute(fromStop, toStop);
+        return journeys.getJourneysByRoute(fromStop, toStop);
     }
 
     /**
      * Get journeys for a specific bus on a date
      */
     public Collection<Journey> getJourneysByBusAndDate(int busId, LocalDate journeyDate) {
-        return dataStore.getJourneysByBusAndDate(busId, journeyDate);
+        return journeys.getJourneysByBusAndDate(busId, journeyDate);
     }
 
     /**
      * Reset journey service (for testing)
      */
     public void reset() {
-        dataStore.reset();
+        storage.reset();
     }
 }
@@ -1,32 +1,55 @@
 package com.busticket.service;
 
+import com.busticket.domain.container.BusDayKey;
 import com.busticket.domain.entity.Booking;
 import com.busticket.domain.entity.Journey;
 import com.busticket.domain.entity.Seat;
+import com.busticket.domain.request.PassengerInfo;
+import com.busticket.storage.BookingRepository;
+import com.busticket.storage.FareRepository;
+import com.busticket.storage.SeatInventory;
+import com.busticket.storage.SeatMap;
+import com.busticket.storage.StorageProvider;
+import com.busticket.storage.StorageProviders;
+import com.busticket.util.LoggingConfig;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * ReservationService handles passenger reservations with seat selection and auto-assignment
  * Reservations are stored in-memory for fast access during operations
  */
 public class ReservationService {
-    private final DataStore dataStore;
+    private static final Logger LOGGER = LoggingConfig.getLogger(ReservationService.class);
+    // Fresh seat picks tried when concurrent bookings take a picked seat first
+    private static final int GROUP_BOOKING_ATTEMPTS = 3;
+
+    private final StorageProvider storage;
+    private final BookingRepository bookings;
+    private final FareRepository fares;
     private final SeatService seatService;
     private final JourneyService journeyService;
+    private final IdGenerator idGenerator;
     private static ReservationService instance;
-    private int reservationIdCounter = 1;
 
     private ReservationService() {
-        this.dataStore = DataStore.getInstance();
+        this.storage = StorageProviders.getProvider();
+        this.bookings = storage.bookings();
+        this.fares = storage.fares();
         this.seatService = SeatService.getInstance();
         this.journeyService = JourneyService.getInstance();
+        this.idGenerator = IdGenerator.getInstance();
     }
 
-    public static ReservationService getInstance() {
+    public static synchronized ReservationService getInstance() {
         if (instance == null) {
             instance = new ReservationService();
         }
@@ -57,7 +80,7 @@ public class ReservationService {
 
         // Create reservation
         Booking reservation = new Booking(journeyId, passengerName, passengerPhone, fromStop, toStop);
-        reservation.setId(reservationIdCounter++);
+        reservation.setId(bookings.nextBookingId());
         reservation.setBookingNumber(generateReservationNumber());
         reservation.setPassengerEmail(passengerEmail);
         reservation.setSeatId(preferredSeatId);
@@ -65,12 +88,195 @@ public class ReservationService {
                                                journey.getDepartureTime().toLocalTime()));
         reservation.setFare(calculateFare(fromStop, toStop));
 
-        dataStore.addBooking(reservation);
-        journey.setAvailableSeats(journey.getAvailableSeats() - 1);
+        try {
+            bookings.addBooking(reservation);
+        } catch (RuntimeException e) {
+            // A seat without its booking may not stay taken, so the claim is undone
+            seatService.releaseSeat(journeyId, preferredSeatId);
+            throw e;
+        }
+        journey.decrementAvailableSeats();
 
         return Optional.of(reservation);
     }
 
+    /**
+     * Reserve seats for a group of passengers, all or nothing
+     * Seats are picked together (adjacent where possible) and claimed in one all-or-nothing step
+     * on the bus-day inventory; if another booking takes one of them first, the pick is retried.
+     * Returns one booking per passenger in order, or empty with no seat booked.
+     */
+    public Optional<List<Booking>> createGroupReservation(int journeyId, List<PassengerInfo> passengers,
+                                                          String fromStop, String toStop) {
+        Optional<Journey> journeyOpt = journeyService.getJourneyById(journeyId);
+        Optional<SeatMap> seatMapOpt = seatService.getSeatMap(journeyId);
+        if (journeyOpt.isEmpty() || seatMapOpt.isEmpty() || passengers.isEmpty()) {
+            return Optional.empty();
+        }
+        Journey journey = journeyOpt.get();
+        SeatMap seatMap = seatMapOpt.get();
+        int count = passengers.size();
+        String[] names = new String[count];
+        String[] phones = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = passengers.get(i).getName();
+            phones[i] = passengers.get(i).getPhone();
+        }
+
+        List<Seat> seats = null;
+        for (int attempt = 0; attempt < GROUP_BOOKING_ATTEMPTS && seats == null; attempt++) {
+            List<Seat> picked = seatService.autoAssignMultipleAdjacentSeats(journeyId, count);
+            if (picked.size() < count) {
+                return Optional.empty();
+            }
+            int[] indexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                indexes[i] = seatMap.indexOf(picked.get(i).getSeatId());
+            }
+            if (seatService.bookSeats(journeyId, indexes, names, phones)) {
+                seats = picked;
+            }
+        }
+        if (seats == null) {
+            return Optional.empty();
+        }
+        List<String> seatIds = new ArrayList<>(count);
+        for (Seat seat : seats) {
+            seatIds.add(seat.getSeatId());
+        }
+        List<Booking> group = recordGroup(journey, passengers, seatIds, fromStop, toStop);
+        try {
+            bookings.addBookings(group);
+        } catch (RuntimeException e) {
+            // Seats without their bookings may not stay taken, so the claim is undone
+            releaseGroup(journey, seatIds);
+            throw e;
+        }
+        return Optional.of(group);
+    }
+
+    /**
+     * A group reservation requested as part of a batch
+     */
+    public record GroupRequest(int journeyId, List<PassengerInfo> passengers, String fromStop, String toStop) {
+    }
+
+    /**
+     * Reserve seats for a batch of groups, each group all or nothing as in createGroupReservation
+     * Groups are seated one bus-day at a time: each bus-day's inventory is locked once for all its
+     * groups, and their seats and bookings are logged in one write each, instead of once per group.
+     * If a bus-day's bookings cannot be stored, its groups give their seats back and come out empty.
+     * Returns one result per request in order; empty for a group that could not be seated.
+     */
+    public List<Optional<List<Booking>>> createGroupReservations(List<GroupRequest> requests) {
+        List<Optional<List<Booking>>> results = new ArrayList<>(requests.size());
+        Map<BusDayKey, List<Integer>> byBusDay = new LinkedHashMap<>();
+        List<Journey> journeys = new ArrayList<>(requests.size());
+        for (int r = 0; r < requests.size(); r++) {
+            GroupRequest request = requests.get(r);
+            Journey journey = journeyService.getJourneyById(request.journeyId()).orElse(null);
+            results.add(Optional.empty());
+            journeys.add(journey);
+            if (journey != null && !request.passengers().isEmpty()) {
+                byBusDay.computeIfAbsent(new BusDayKey(journey.getBusId(), journey.getJourneyDate()),
+                        key -> new ArrayList<>()).add(r);
+            }
+        }
+
+        for (List<Integer> busDay : byBusDay.values()) {
+            List<SeatInventory.SeatGroup> groups = new ArrayList<>(busDay.size());
+            for (int r : busDay) {
+                List<PassengerInfo> passengers = requests.get(r).passengers();
+                String[] names = new String[passengers.size()];
+                String[] phones = new String[passengers.size()];
+                for (int i = 0; i < passengers.size(); i++) {
+                    names[i] = passengers.get(i).getName();
+                    phones[i] = passengers.get(i).getPhone();
+                }
+                groups.add(new SeatInventory.SeatGroup(requests.get(r).journeyId(), names, phones));
+            }
+            int[][] booked = seatService.bookSeatGroups(groups, this::pickSeats, GROUP_BOOKING_ATTEMPTS);
+            List<Booking> added = new ArrayList<>();
+            for (int g = 0; g < booked.length; g++) {
+                if (booked[g] == null) {
+                    continue;
+                }
+                int r = busDay.get(g);
+                GroupRequest request = requests.get(r);
+                List<String> seatIds = new ArrayList<>(booked[g].length);
+                for (int index : booked[g]) {
+                    seatIds.add(SeatMap.seatNumber(index));
+                }
+                List<Booking> group = recordGroup(journeys.get(r), request.passengers(), seatIds,
+                        request.fromStop(), request.toStop());
+                added.addAll(group);
+                results.set(r, Optional.of(group));
+            }
+            try {
+                bookings.addBookings(added);
+            } catch (RuntimeException e) {
+                // None of the bus-day's bookings were stored, so none of its groups keep their seats
+                LOGGER.log(Level.WARNING, "Storing a batch of bookings failed; releasing their seats", e);
+                for (int r : busDay) {
+                    results.get(r).ifPresent(group ->
+                            releaseGroup(journeys.get(r), group.stream().map(Booking::getSeatId).toList()));
+                    results.set(r, Optional.empty());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Seat map indexes of the seats auto-assignment would give a group now, or null if too few are free
+     */
+    private int[] pickSeats(int journeyId, int count) {
+        Optional<SeatMap> seatMap = seatService.getSeatMap(journeyId);
+        List<Seat> picked = seatService.autoAssignMultipleAdjacentSeats(journeyId, count);
+        if (seatMap.isEmpty() || picked.size() < count) {
+            return null;
+        }
+        int[] indexes = new int[count];
+        for (int i = 0; i < count; i++) {
+            indexes[i] = seatMap.get().indexOf(picked.get(i).getSeatId());
+        }
+        return indexes;
+    }
+
+    /**
+     * Release the seats of a group whose bookings could not be stored and give them back to the journey
+     */
+    private void releaseGroup(Journey journey, List<String> seatIds) {
+        for (String seatId : seatIds) {
+            seatService.releaseSeat(journey.getId(), seatId);
+            journey.incrementAvailableSeats();
+        }
+    }
+
+    /**
+     * Create the bookings of a group whose seats are already booked, passenger i on seat i
+     * The caller adds them to the repository.
+     */
+    private List<Booking> recordGroup(Journey journey, List<PassengerInfo> passengers, List<String> seatIds,
+                                      String fromStop, String toStop) {
+        BigDecimal fare = calculateFare(fromStop, toStop);
+        LocalDateTime travelDate = LocalDateTime.of(journey.getJourneyDate(), journey.getDepartureTime().toLocalTime());
+        List<Booking> group = new ArrayList<>(passengers.size());
+        for (int i = 0; i < passengers.size(); i++) {
+            PassengerInfo passenger = passengers.get(i);
+            Booking reservation = new Booking(journey.getId(), passenger.getName(), passenger.getPhone(), fromStop, toStop);
+            reservation.setId(bookings.nextBookingId());
+            reservation.setBookingNumber(generateReservationNumber());
+            reservation.setPassengerEmail(passenger.getEmail());
+            reservation.setSeatId(seatIds.get(i));
+            reservation.setTravelDate(travelDate);
+            reservation.setFare(fare);
+            journey.decrementAvailableSeats();
+            group.add(reservation);
+        }
+        return group;
+    }
+
     /**
      * Alias for createReservation to maintain backward compatibility
      */
@@ -84,7 +290,7 @@ public class ReservationService {
      * Get reservation by ID
      */
     public Optional<Booking> getReservationById(int reservationId) {
-        return dataStore.getBookingById(reservationId);
+        return bookings.getBookingById(reservationId);
     }
 
     /**
@@ -98,7 +304,7 @@ public class ReservationService {
      * Get reservation by reservation number
      */
     public Optional<Booking> getReservationByNumber(String reservationNumber) {
-        return dataStore.getBookingByNumber(reservationNumber);
+        return bookings.getBookingByNumber(reservationNumber);
     }
 
     /**
@@ -112,7 +318,7 @@ public class ReservationService {
      * Get all reservations for a journey
      */
     public Collection<Booking> getReservationsByJourney(int journeyId) {
-        return dataStore.getBookingsByJourney(journeyId);
+        return bookings.getBookingsByJourney(journeyId);
     }
 
     /**
@@ -126,7 +332,7 @@ public class ReservationService {
      * Get all reservations for a passenger
      */
     public Collection<Booking> getReservationsByPassenger(String passengerPhone) {
-        return dataStore.getBookingsByPassenger(passengerPhone);
+        return bookings.getBookingsByPassenger(passengerPhone);
     }
 
     /**
@@ -140,7 +346,7 @@ public class ReservationService {
      * Get all reservations
      */
     public Collection<Booking> getAllReservations() {
-        return dataStore.getAllBookings();
+        return bookings.getAllBookings();
     }
 
     /**
@@ -154,21 +360,20 @@ public class ReservationService {
      * Calculate fare between two stops
      */
     public BigDecimal calculateFare(String fromStop, String toStop) {
-        return dataStore.calculateFare(fromStop, toStop);
+        return fares.calculateFare(fromStop, toStop);
     }
 
     /**
      * Generate unique reservation number
      */
     private String generateReservationNumber() {
-        return "RS" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6);
+        return idGenerator.nextReservationNumber();
     }
 
     /**
      * Reset reservation service (for testing)
      */
     public void reset() {
-        reservationIdCounter = 1;
-        dataStore.reset();
+        storage.reset();
     }
 }
@@ -0,0 +1,256 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.Journey;
+import com.busticket.storage.JourneyRepository;
+import com.busticket.storage.StorageProviders;
+import com.busticket.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ScheduleImporter loads a timetable file into the journey repository in one bulk add
+ * - CSV with a header row naming the columns (any order, no quoted fields), or JSON Lines
+ *   with one object per line using the same field names
+ * - Columns: bus_id, journey_number, journey_date, departure_time (HH:mm or ISO date-time),
+ *   from_stop, to_stop, direction (optional, defaults to "from->to"), total_seats
+ * The file is streamed line by line and every row is validated; only when all rows are valid
+ * are the journeys published, so a bad file never leaves half a timetable behind.
+ */
+public class ScheduleImporter {
+    public static final List<String> COLUMNS = List.of("bus_id", "journey_number", "journey_date",
+            "departure_time", "from_stop", "to_stop", "direction", "total_seats");
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int MAX_SEATS = 1000;
+
+    private final JourneyRepository journeys;
+    private static ScheduleImporter instance;
+
+    private ScheduleImporter() {
+        this.journeys = StorageProviders.getProvider().journeys();
+    }
+
+    public static synchronized ScheduleImporter getInstance() {
+        if (instance == null) {
+            instance = new ScheduleImporter();
+        }
+        return instance;
+    }
+
+    /**
+     * Import a .csv, .jsonl or .ndjson timetable file
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (name.endsWith(".csv")) {
+                return importCsv(reader);
+            }
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return importJsonLines(reader);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported schedule file type: " + file);
+    }
+
+    public ImportReport importCsv(Reader source) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = buffered(source);
+        String header = reader.readLine();
+        if (header == null) {
+            return new Parser().finish(start);
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        String[] names = header.split(",", -1);
+        for (int i = 0; i < names.length; i++) {
+            positions.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : COLUMNS) {
+            if (!positions.containsKey(column) && !column.equals("direction")) {
+                throw new IllegalArgumentException("Schedule header is missing column: " + column);
+            }
+        }
+
+        Parser parser = new Parser();
+        String line;
+        for (int lineNumber = 2; (line = reader.readLine()) != null; lineNumber++) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            parser.row(lineNumber, column -> {
+                Integer position = positions.get(column);
+                return position == null || position >= fields.length ? null : fields[position].trim();
+            });
+        }
+        return parser.finish(start);
+    }
+
+    public ImportReport importJsonLines(Reader source) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = buffered(source);
+        ObjectMapper mapper = JsonUtil.getObjectMapper();
+        Parser parser = new Parser();
+        String line;
+        for (int lineNumber = 1; (line = reader.readLine()) != null; lineNumber++) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = mapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                parser.malformed(lineNumber, "malformed JSON");
+                continue;
+            }
+            parser.row(lineNumber, column -> {
+                JsonNode value = node.get(column);
+                return value == null || value.isNull() ? null : value.asText().trim();
+            });
+        }
+        return parser.finish(start);
+    }
+
+    private static BufferedReader buffered(Reader source) {
+        return source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+    }
+
+    @FunctionalInterface
+    private interface Row {
+        String get(String column);
+    }
+
+    /**
+     * Validates rows into journeys and publishes them once the whole file has been read
+     */
+    private final class Parser {
+        private final List<Journey> parsed = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private long rows;
+        private long rejected;
+
+        void row(int lineNumber, Row row) {
+            rows++;
+            try {
+                Journey journey = toJourney(row);
+                if (rejected == 0) {
+                    parsed.add(journey);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                reject(lineNumber, e.getMessage());
+            }
+        }
+
+        void malformed(int lineNumber, String message) {
+            rows++;
+            reject(lineNumber, message);
+        }
+
+        private void reject(int lineNumber, String message) {
+            // Nothing will be published, so stop holding on to parsed journeys
+            parsed.clear();
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + message);
+            }
+        }
+
+        ImportReport finish(long startNanos) {
+            int imported = 0;
+            if (rejected == 0 && !parsed.isEmpty()) {
+                imported = journeys.addJourneys(parsed).size();
+            }
+            return new ImportReport(rows, imported, rejected, List.copyOf(errors), System.nanoTime() - startNanos);
+        }
+    }
+
+    private static Journey toJourney(Row row) {
+        String fromStop = stop(row, "from_stop");
+        String toStop = stop(row, "to_stop");
+        if (fromStop.equals(toStop)) {
+            throw new IllegalArgumentException("from_stop and to_stop must differ");
+        }
+        LocalDate journeyDate = LocalDate.parse(required(row, "journey_date"));
+        String departure = required(row, "departure_time");
+        LocalDateTime departureTime = departure.indexOf('T') >= 0
+                ? LocalDateTime.parse(departure)
+                : journeyDate.atTime(LocalTime.parse(departure));
+        int totalSeats = number(row, "total_seats");
+        if (totalSeats > MAX_SEATS) {
+            throw new IllegalArgumentException("total_seats must be at most " + MAX_SEATS);
+        }
+        String direction = row.get("direction");
+
+        Journey journey = new Journey();
+        journey.setBusId(number(row, "bus_id"));
+        journey.setJourneyNumber(required(row, "journey_number"));
+        journey.setJourneyDate(journeyDate);
+        journey.setDepartureTime(departureTime);
+        journey.setFromStop(fromStop);
+        journey.setToStop(toStop);
+        journey.setDirection(direction == null || direction.isEmpty() ? fromStop + "->" + toStop : direction);
+        journey.setTotalSeats(totalSeats);
+        return journey;
+    }
+
+    private static String required(Row row, String column) {
+        String value = row.get(column);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value;
+    }
+
+    private static int number(Row row, String column) {
+        String value = required(row, column);
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(column + " must be a positive integer: " + value);
+    }
+
+    private static String stop(Row row, String column) {
+        String value = required(row, column).toUpperCase(Locale.ROOT);
+        if (value.length() != 1 || value.charAt(0) < 'A' || value.charAt(0) > 'D') {
+            throw new IllegalArgumentException(column + " must be one of A, B, C, D: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Outcome of an import; journeysImported is 0 whenever any row was rejected
+     */
+    public record ImportReport(long rowsRead, int journeysImported, long rowsRejected, List<String> errors,
+                               long elapsedNanos) {
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows, %d journeys imported, %d rejected in %d ms (%.0f rows/sec)",
+                    rowsRead, journeysImported, rowsRejected, elapsedNanos / 1_000_000, rowsPerSecond());
+        }
+    }
+}
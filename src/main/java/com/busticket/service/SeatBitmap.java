@@ -0,0 +1,320 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.Seat;
+import com.busticket.storage.SeatMap;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SeatBitmap is a journey's view of the seat inventory of its bus-day
+ * - Seats and passengers live in the shared BusDayInventory; this view only knows the journey's
+ *   seat range and the stop-to-stop segments it covers
+ * - A seat is available when none of those segments is occupied by any journey of the bus-day
+ * - A seat is booked on this journey when this journey holds a booking on it
+ * - Seat numbers are derived from the index (4 seats per row: A, B, C, D)
+ * Seat entities, including the default layout of an untouched journey, are materialized
+ * on demand when a response needs them
+ *
+ * Holds stay per journey and are kept as one bit per seat, allocated with the first hold.
+ * Until its first hold or booking a journey's seats cost nothing beyond this small header.
+ */
+public class SeatBitmap implements SeatMap {
+    private static final String[] COLUMNS = {"A", "B", "C", "D"};
+
+    private final int journeyId;
+    private final int firstSeatId;
+    private final int totalSeats;
+    private final long segmentMask;
+    private final BusDayInventory inventory;
+    private final long createdAtMillis;
+
+    // Lazily allocated hold bits
+    private volatile AtomicLongArray held;
+
+    /**
+     * A journey covering the given segments of a shared bus-day inventory
+     */
+    public SeatBitmap(int journeyId, int firstSeatId, int totalSeats, long segmentMask, BusDayInventory inventory) {
+        this.journeyId = journeyId;
+        this.firstSeatId = firstSeatId;
+        this.totalSeats = totalSeats;
+        this.segmentMask = segmentMask;
+        this.inventory = inventory;
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * A stand-alone journey with an inventory of its own
+     */
+    public SeatBitmap(int journeyId, int firstSeatId, int totalSeats) {
+        this(journeyId, firstSeatId, totalSeats, 1L, new BusDayInventory(totalSeats));
+    }
+
+    @Override
+    public int getJourneyId() {
+        return journeyId;
+    }
+
+    public int getFirstSeatId() {
+        return firstSeatId;
+    }
+
+    @Override
+    public int getTotalSeats() {
+        return totalSeats;
+    }
+
+    public long getSegmentMask() {
+        return segmentMask;
+    }
+
+    public BusDayInventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Version of the shared bus-day inventory, so a change by any journey of the bus-day counts
+     */
+    @Override
+    public long getVersion() {
+        return inventory.getVersion();
+    }
+
+    @Override
+    public long getClaimVersion() {
+        return inventory.getClaimVersion();
+    }
+
+    @Override
+    public void watch(Runnable watcher) {
+        inventory.watch(watcher);
+    }
+
+    @Override
+    public void unwatch(Runnable watcher) {
+        inventory.unwatch(watcher);
+    }
+
+    // ==================== Seat Numbering ====================
+
+    @Override
+    public int indexOf(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            return -1;
+        }
+        int last = seatNumber.length() - 1;
+        int column = seatNumber.charAt(last) - 'A';
+        if (column < 0 || column >= SEATS_PER_ROW) {
+            return -1;
+        }
+        int row = 0;
+        for (int i = 0; i < last; i++) {
+            char c = seatNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            row = row * 10 + (c - '0');
+        }
+        int index = (row - 1) * SEATS_PER_ROW + column;
+        return row >= 1 && index < totalSeats ? index : -1;
+    }
+
+    // ==================== Seat State ====================
+
+    /**
+     * True if none of this journey's segments of the seat is occupied
+     */
+    @Override
+    public boolean isAvailable(int index) {
+        return inventory.isFree(index, segmentMask);
+    }
+
+    /**
+     * True if this journey holds a booking on the seat
+     */
+    @Override
+    public boolean isBooked(int index) {
+        return inventory.occupant(index, journeyId) != null;
+    }
+
+    @Override
+    public boolean isHeld(int index) {
+        AtomicLongArray words = held;
+        return words != null && (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Atomically book a seat for this journey; returns false if any of its segments is taken
+     */
+    public boolean book(int index, String passengerName, String passengerPhone) {
+        return book(index, passengerName, passengerPhone, LocalDateTime.now());
+    }
+
+    /**
+     * Atomically book a seat for this journey at the given time; returns false if any of its segments is taken
+     */
+    public boolean book(int index, String passengerName, String passengerPhone, LocalDateTime bookedAt) {
+        return inventory.book(index, journeyId, segmentMask, passengerName, passengerPhone, bookedAt);
+    }
+
+    /**
+     * Atomically book several seats for this journey, or none if any of them is taken or out of range
+     */
+    public boolean bookAll(int[] indexes, String[] passengerNames, String[] passengerPhones, LocalDateTime bookedAt) {
+        for (int index : indexes) {
+            if (index < 0 || index >= totalSeats) {
+                return false;
+            }
+        }
+        return inventory.bookAll(indexes, journeyId, segmentMask, passengerNames, passengerPhones, bookedAt);
+    }
+
+    /**
+     * Atomically release this journey's booking of a seat; returns false if it had none
+     */
+    public boolean release(int index) {
+        return inventory.release(index, journeyId);
+    }
+
+    public void setHeld(int index, boolean isHeld) {
+        if (isHeld) {
+            setBit(heldWords(), index);
+        } else if (held != null) {
+            clearBit(held, index);
+        }
+        inventory.bumpHoldVersion();
+    }
+
+    /**
+     * Seats booked on this journey
+     */
+    @Override
+    public int bookedCount() {
+        int count = 0;
+        for (int i = nextBooked(0); i >= 0; i = nextBooked(i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Seats whose segments on this journey's route are all free
+     */
+    @Override
+    public int availableCount() {
+        return inventory.freeSeats(segmentMask, totalSeats);
+    }
+
+    /**
+     * Index of the next available seat at or after fromIndex, or -1
+     */
+    @Override
+    public int nextAvailable(int fromIndex) {
+        return inventory.nextFree(fromIndex, segmentMask, totalSeats);
+    }
+
+    /**
+     * Index of the next available seat at or after fromIndex that is not held, or -1
+     */
+    @Override
+    public int nextAvailableUnheld(int fromIndex) {
+        for (int i = nextAvailable(fromIndex); i >= 0; i = nextAvailable(i + 1)) {
+            if (!isHeld(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Index of the next seat booked on this journey at or after fromIndex, or -1
+     */
+    @Override
+    public int nextBooked(int fromIndex) {
+        for (int i = fromIndex; i < totalSeats; i++) {
+            // Only seats with an occupied segment can carry one of this journey's bookings
+            if (!inventory.isFree(i, segmentMask) && isBooked(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * CAS a bit from 0 to 1; returns false if it was already set
+     */
+    private static boolean setBit(AtomicLongArray words, int index) {
+        int wordIndex = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(wordIndex);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(wordIndex, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * CAS a bit from 1 to 0; returns false if it was already clear
+     */
+    private static boolean clearBit(AtomicLongArray words, int index) {
+        int wordIndex = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(wordIndex);
+            if ((current & mask) == 0) {
+                return false;
+            }
+            if (words.compareAndSet(wordIndex, current, current & ~mask)) {
+                return true;
+            }
+        }
+    }
+
+    private AtomicLongArray heldWords() {
+        AtomicLongArray result = held;
+        if (result == null) {
+            synchronized (this) {
+                result = held;
+                if (result == null) {
+                    result = new AtomicLongArray((totalSeats + 63) >>> 6);
+                    held = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // ==================== Materialization ====================
+
+    /**
+     * Build a Seat entity snapshot for the given index
+     * A seat taken by an overlapping journey shows as booked without passenger details.
+     */
+    @Override
+    public Seat toSeat(int index) {
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneId.systemDefault());
+        Seat seat = new Seat();
+        seat.setId(firstSeatId + index);
+        seat.setJourneyId(journeyId);
+        seat.setSeatId(SeatMap.seatNumber(index));
+        seat.setRowNumber(index / SEATS_PER_ROW + 1);
+        seat.setColumn(COLUMNS[index % SEATS_PER_ROW]);
+        seat.setCreatedAt(createdAt);
+        seat.setBooked(!isAvailable(index));
+        seat.setUpdatedAt(createdAt);
+        BusDayInventory.Occupant occupant = inventory.occupant(index, journeyId);
+        if (occupant != null) {
+            seat.setPassengerName(occupant.passengerName());
+            seat.setPassengerPhone(occupant.passengerPhone());
+            seat.setBookedAt(occupant.bookedAt());
+            seat.setUpdatedAt(occupant.bookedAt());
+        }
+        return seat;
+    }
+}
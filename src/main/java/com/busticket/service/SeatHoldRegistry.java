@@ -0,0 +1,198 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.SeatHold;
+import com.busticket.util.LoggingConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * SeatHoldRegistry indexes active seat holds by journey and seat number
+ * - At most one hold exists per seat; an expired hold is replaced in place
+ * - Hold checks are a two-level hash lookup plus one time comparison
+ * - Expiry is driven by a delay queue drained by a background reaper thread,
+ *   so memory is released as holds lapse rather than when someone next reads them
+ *
+ * Every change to a journey's holds runs inside that journey's map entry, so the
+ * held-bit listener always sees adds and removals of the same seat in order.
+ */
+public class SeatHoldRegistry {
+    private static final Logger LOGGER = LoggingConfig.getLogger(SeatHoldRegistry.class);
+
+    /**
+     * Notified when a seat gains or loses its hold
+     */
+    @FunctionalInterface
+    public interface HoldListener {
+        void onHoldChanged(int journeyId, String seatId, boolean held);
+    }
+
+    private final Map<Integer, Map<String, SeatHold>> holdsByJourney = new ConcurrentHashMap<>();
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    private final HoldListener listener;
+
+    public SeatHoldRegistry(HoldListener listener) {
+        this.listener = listener;
+        Thread reaper = new Thread(this::reapForever, "seat-hold-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    /**
+     * Place a hold unless the seat already has an active one
+     */
+    public boolean tryHold(SeatHold hold) {
+        boolean[] placed = {false};
+        holdsByJourney.compute(hold.getJourneyId(), (journeyId, holds) -> {
+            if (holds == null) {
+                holds = new ConcurrentHashMap<>();
+            }
+            SeatHold existing = holds.get(hold.getSeatId());
+            if (existing == null || existing.isExpired()) {
+                holds.put(hold.getSeatId(), hold);
+                if (existing == null) {
+                    listener.onHoldChanged(journeyId, hold.getSeatId(), true);
+                }
+                placed[0] = true;
+            }
+            return holds;
+        });
+        if (placed[0]) {
+            expiries.add(new Expiry(hold));
+        }
+        return placed[0];
+    }
+
+    /**
+     * Active hold on a seat, or null
+     */
+    public SeatHold getActiveHold(int journeyId, String seatId) {
+        Map<String, SeatHold> holds = holdsByJourney.get(journeyId);
+        SeatHold hold = holds == null ? null : holds.get(seatId);
+        return hold == null || hold.isExpired() ? null : hold;
+    }
+
+    public boolean isHeld(int journeyId, String seatId) {
+        return getActiveHold(journeyId, seatId) != null;
+    }
+
+    /**
+     * Active holds of a journey
+     */
+    public List<SeatHold> getActiveHolds(int journeyId) {
+        Map<String, SeatHold> holds = holdsByJourney.get(journeyId);
+        if (holds == null) {
+            return Collections.emptyList();
+        }
+        long now = System.currentTimeMillis();
+        List<SeatHold> result = new ArrayList<>();
+        for (SeatHold hold : holds.values()) {
+            if (!hold.isExpired(now)) {
+                result.add(hold);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Snapshot of every indexed hold, including ones awaiting the reaper
+     */
+    public List<SeatHold> getAllHolds() {
+        List<SeatHold> result = new ArrayList<>();
+        for (Map<String, SeatHold> holds : holdsByJourney.values()) {
+            result.addAll(holds.values());
+        }
+        return result;
+    }
+
+    /**
+     * Remove whatever hold is on a seat
+     */
+    public void remove(int journeyId, String seatId) {
+        removeIf(journeyId, seatId, null);
+    }
+
+    /**
+     * Remove the hold if it is the one on its seat; returns false if another hold or none is there
+     */
+    public boolean remove(SeatHold hold) {
+        return removeIf(hold.getJourneyId(), hold.getSeatId(), hold);
+    }
+
+    /**
+     * Remove all holds whose expiry has passed; the reaper does this continuously
+     */
+    public void reapExpired() {
+        Expiry expiry;
+        while ((expiry = expiries.poll()) != null) {
+            removeIf(expiry.hold().getJourneyId(), expiry.hold().getSeatId(), expiry.hold());
+        }
+    }
+
+    public void clear() {
+        expiries.clear();
+        holdsByJourney.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, SeatHold> holds : holdsByJourney.values()) {
+            size += holds.size();
+        }
+        return size;
+    }
+
+    /**
+     * Remove the hold on a seat if it is the expected one (any hold when expected is null)
+     * Empty journey maps are dropped so memory stays bounded after a spike
+     */
+    private boolean removeIf(int journeyId, String seatId, SeatHold expected) {
+        boolean[] removed = {false};
+        holdsByJourney.computeIfPresent(journeyId, (id, holds) -> {
+            SeatHold existing = holds.get(seatId);
+            if (existing != null && (expected == null || existing == expected)) {
+                holds.remove(seatId);
+                listener.onHoldChanged(id, seatId, false);
+                removed[0] = true;
+            }
+            return holds.isEmpty() ? null : holds;
+        });
+        return removed[0];
+    }
+
+    private void reapForever() {
+        while (true) {
+            try {
+                Expiry expiry = expiries.take();
+                removeIf(expiry.hold().getJourneyId(), expiry.hold().getSeatId(), expiry.hold());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to release expired seat hold", e);
+            }
+        }
+    }
+
+    /**
+     * Delay queue entry that becomes available when its hold expires
+     */
+    private record Expiry(SeatHold hold) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(hold.getExpiresAtMillis() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(hold.getExpiresAtMillis(), ((Expiry) other).hold().getExpiresAtMillis());
+        }
+    }
+}
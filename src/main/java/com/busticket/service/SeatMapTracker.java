@@ -0,0 +1,132 @@
+package com.busticket.service;
+
+import com.busticket.storage.SeatMap;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SeatMapTracker follows one journey's seat map on behalf of a subscriber
+ * - The seat map calls the change callback, off the changing thread, after claims, releases and hold changes
+ * - poll() compares the seat map with what the subscriber last saw and reports the difference
+ * Changes between two polls are coalesced: a seat claimed and released again in between does
+ * not show up at all, so a slow subscriber costs two bitmaps however far behind it falls.
+ */
+public class SeatMapTracker implements AutoCloseable {
+
+    /**
+     * Full seat state of the journey
+     */
+    public record Snapshot(int journeyId, long version, List<String> available, List<String> held) {
+    }
+
+    /**
+     * Seats whose state changed since the previous snapshot or delta
+     * A hold that ends without a booking, by expiry or release, is reported in holdEnded.
+     */
+    public record Delta(int journeyId, long version, List<String> claimed, List<String> released,
+                        List<String> held, List<String> holdEnded) {
+
+        public boolean isEmpty() {
+            return claimed.isEmpty() && released.isEmpty() && held.isEmpty() && holdEnded.isEmpty();
+        }
+    }
+
+    private final SeatMap seatMap;
+    private final Runnable onChange;
+    private final long[] available;
+    private final long[] held;
+    private long version = -1;
+
+    /**
+     * Track a journey's seat map, running onChange on the bus-day's dispatcher thread after changes
+     */
+    public SeatMapTracker(SeatMap seatMap, Runnable onChange) {
+        this.seatMap = seatMap;
+        this.onChange = onChange;
+        int words = (seatMap.getTotalSeats() + 63) >>> 6;
+        this.available = new long[words];
+        this.held = new long[words];
+        seatMap.watch(onChange);
+    }
+
+    public int getJourneyId() {
+        return seatMap.getJourneyId();
+    }
+
+    /**
+     * Record and return the current seat state; later deltas are relative to it
+     */
+    public synchronized Snapshot snapshot() {
+        version = seatMap.getVersion();
+        List<String> availableSeats = new ArrayList<>();
+        List<String> heldSeats = new ArrayList<>();
+        for (int seat = 0; seat < seatMap.getTotalSeats(); seat++) {
+            boolean isAvailable = seatMap.isAvailable(seat);
+            boolean isHeld = seatMap.isHeld(seat);
+            set(available, seat, isAvailable);
+            set(held, seat, isHeld);
+            if (isAvailable) {
+                availableSeats.add(SeatMap.seatNumber(seat));
+            }
+            if (isHeld) {
+                heldSeats.add(SeatMap.seatNumber(seat));
+            }
+        }
+        return new Snapshot(getJourneyId(), version, availableSeats, heldSeats);
+    }
+
+    /**
+     * Changes since the last snapshot or delta; empty when nothing changed
+     */
+    public synchronized Delta poll() {
+        // Read before the seats, so a change made while reading is reported again by the next poll
+        long current = seatMap.getVersion();
+        if (current == version) {
+            return new Delta(getJourneyId(), version, List.of(), List.of(), List.of(), List.of());
+        }
+        version = current;
+        List<String> claimed = new ArrayList<>();
+        List<String> released = new ArrayList<>();
+        List<String> nowHeld = new ArrayList<>();
+        List<String> holdEnded = new ArrayList<>();
+        for (int seat = 0; seat < seatMap.getTotalSeats(); seat++) {
+            boolean isAvailable = seatMap.isAvailable(seat);
+            boolean isHeld = seatMap.isHeld(seat);
+            boolean wasAvailable = get(available, seat);
+            boolean wasHeld = get(held, seat);
+            if (wasAvailable != isAvailable) {
+                (isAvailable ? released : claimed).add(SeatMap.seatNumber(seat));
+                set(available, seat, isAvailable);
+            }
+            if (wasHeld != isHeld) {
+                if (isHeld) {
+                    nowHeld.add(SeatMap.seatNumber(seat));
+                } else if (isAvailable) {
+                    holdEnded.add(SeatMap.seatNumber(seat));
+                }
+                set(held, seat, isHeld);
+            }
+        }
+        return new Delta(getJourneyId(), version, claimed, released, nowHeld, holdEnded);
+    }
+
+    /**
+     * Stop receiving change callbacks
+     */
+    @Override
+    public void close() {
+        seatMap.unwatch(onChange);
+    }
+
+    private static boolean get(long[] words, int seat) {
+        return (words[seat >>> 6] & (1L << seat)) != 0;
+    }
+
+    private static void set(long[] words, int seat, boolean value) {
+        if (value) {
+            words[seat >>> 6] |= 1L << seat;
+        } else {
+            words[seat >>> 6] &= ~(1L << seat);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.SeatHold;
+import com.busticket.storage.SeatMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * SeatSelection is one client's interactive choice of seats on a journey
+ * - Selecting a seat places a hold leased to the selection; deselecting releases it at once
+ * - Closing the selection releases every hold it still has, instead of waiting for expiry
+ * - Seats of the journey are tracked, so the client can be sent what changed since it last looked
+ * A lease is dropped without further action when its seat gets booked or its hold expires.
+ */
+public class SeatSelection implements AutoCloseable {
+
+    public enum Outcome {
+        SELECTED,
+        DESELECTED,
+        UNKNOWN_SEAT,
+        UNAVAILABLE,
+        NOT_SELECTED,
+        LIMIT_REACHED
+    }
+
+    private final SeatService seatService;
+    private final SeatMap seatMap;
+    private final int maxHolds;
+    private final SeatMapTracker tracker;
+    private final Map<String, SeatHold> leases = new LinkedHashMap<>();
+    private boolean closed;
+
+    /**
+     * A selection of at most maxHolds seats, running onChange after changes of the journey's seats
+     */
+    public SeatSelection(SeatService seatService, SeatMap seatMap, int maxHolds, Runnable onChange) {
+        this.seatService = seatService;
+        this.seatMap = seatMap;
+        this.maxHolds = maxHolds;
+        this.tracker = new SeatMapTracker(seatMap, onChange);
+    }
+
+    public int getJourneyId() {
+        return seatMap.getJourneyId();
+    }
+
+    public synchronized Outcome select(String seatId) {
+        if (closed || seatMap.indexOf(seatId) < 0) {
+            return Outcome.UNKNOWN_SEAT;
+        }
+        if (leases.containsKey(seatId)) {
+            return Outcome.SELECTED;
+        }
+        dropLapsedLeases();
+        if (leases.size() >= maxHolds) {
+            return Outcome.LIMIT_REACHED;
+        }
+        Optional<SeatHold> hold = seatService.leaseSeatHold(getJourneyId(), seatId);
+        if (hold.isEmpty()) {
+            return Outcome.UNAVAILABLE;
+        }
+        leases.put(seatId, hold.get());
+        return Outcome.SELECTED;
+    }
+
+    public synchronized Outcome deselect(String seatId) {
+        SeatHold hold = leases.remove(seatId);
+        if (hold == null) {
+            return Outcome.NOT_SELECTED;
+        }
+        seatService.releaseSeatHold(hold);
+        return Outcome.DESELECTED;
+    }
+
+    /**
+     * Seats currently held by this selection
+     */
+    public synchronized List<String> getSelected() {
+        dropLapsedLeases();
+        return new ArrayList<>(leases.keySet());
+    }
+
+    public SeatMapTracker.Snapshot snapshot() {
+        return tracker.snapshot();
+    }
+
+    /**
+     * Seat changes since the last snapshot or poll
+     */
+    public SeatMapTracker.Delta poll() {
+        SeatMapTracker.Delta delta = tracker.poll();
+        if (!delta.isEmpty()) {
+            synchronized (this) {
+                dropLapsedLeases();
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Release every hold of the selection and stop tracking the journey
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        tracker.close();
+        for (SeatHold hold : leases.values()) {
+            seatService.releaseSeatHold(hold);
+        }
+        leases.clear();
+    }
+
+    /**
+     * Forget leases whose hold expired, and release those whose seat has been booked meanwhile
+     */
+    private void dropLapsedLeases() {
+        leases.values().removeIf(hold -> {
+            if (hold.isExpired()) {
+                return true;
+            }
+            if (!seatMap.isAvailable(seatMap.indexOf(hold.getSeatId()))) {
+                seatService.releaseSeatHold(hold);
+                return true;
+            }
+            return false;
+        });
+    }
+}
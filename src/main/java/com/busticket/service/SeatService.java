@@ -2,6 +2,11 @@ package com.busticket.service;
 
 import com.busticket.domain.entity.Seat;
 import com.busticket.domain.entity.SeatHold;
+import com.busticket.storage.HoldRegistry;
+import com.busticket.storage.SeatInventory;
+import com.busticket.storage.SeatMap;
+import com.busticket.storage.StorageProvider;
+import com.busticket.storage.StorageProviders;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
@@ -9,17 +14,21 @@ import java.util.Optional;
 
 /**
  * SeatService handles seat management with auto-assignment logic
- * Uses DataStore which delegates to H2 database for seat data
+ * Seat and hold data come from the configured storage provider
  */
 public class SeatService {
-    private final DataStore dataStore;
+    private final StorageProvider storage;
+    private final SeatInventory seats;
+    private final HoldRegistry holds;
     private static SeatService instance;
 
     private SeatService() {
-        this.dataStore = DataStore.getInstance();
+        this.storage = StorageProviders.getProvider();
+        this.seats = storage.seats();
+        this.holds = storage.holds();
     }
 
-    public static SeatService getInstance() {
+    public static synchronized SeatService getInstance() {
         if (instance == null) {
             instance = new SeatService();
         }
@@ -30,68 +39,93 @@ public class SeatService {
      * Get seat by ID
      */
     public Optional<Seat> getSeatById(int seatId) {
-        return dataStore.getSeatById(seatId);
+        return seats.getSeatById(seatId);
     }
 
     /**
      * Get seat by journey and seat ID
      */
     public Optional<Seat> getSeatByJourneyAndSeatId(int journeyId, String seatId) {
-        return dataStore.getSeatByJourneyAndSeatId(journeyId, seatId);
+        return seats.getSeatByJourneyAndSeatId(journeyId, seatId);
     }
 
     /**
      * Get all available seats for a journey
      */
     public Collection<Seat> getAvailableSeats(int journeyId) {
-        return dataStore.getAvailableSeats(journeyId);
+        return seats.getAvailableSeats(journeyId);
+    }
+
+    /**
+     * Count available seats for a journey without materializing them
+     */
+    public int countAvailableSeats(int journeyId) {
+        return seats.getSeatMap(journeyId).map(SeatMap::availableCount).orElse(0);
+    }
+
+    /**
+     * Count booked seats for a journey without materializing them
+     */
+    public int countBookedSeats(int journeyId) {
+        return seats.getSeatMap(journeyId).map(SeatMap::bookedCount).orElse(0);
     }
 
     /**
      * Get all seats for a journey
      */
     public Collection<Seat> getSeatsByJourney(int journeyId) {
-        return dataStore.getSeatsByJourney(journeyId);
+        return seats.getSeatsByJourney(journeyId);
     }
 
     /**
      * Get booked seats for a journey
      */
     public Collection<Seat> getBookedSeats(int journeyId) {
-        return dataStore.getBookedSeats(journeyId);
+        return seats.getBookedSeats(journeyId);
+    }
+
+    /**
+     * Get a journey's view of the seat inventory it shares with its bus-day
+     */
+    public Optional<SeatMap> getSeatMap(int journeyId) {
+        return seats.getSeatMap(journeyId);
     }
 
     /**
      * Book a specific seat
      */
     public boolean bookSeat(int journeyId, String seatId, String passengerName, String passengerPhone) {
-        Optional<Seat> seatOpt = getSeatByJourneyAndSeatId(journeyId, seatId);
-
-        if (seatOpt.isPresent()) {
-            Seat seat = seatOpt.get();
-            if (!seat.isBooked()) {
-                seat.setBooked(true);
-                seat.setPassengerName(passengerName);
-                seat.setPassengerPhone(passengerPhone);
-                seat.setBookedAt(LocalDateTime.now());
-                seat.setUpdatedAt(LocalDateTime.now());
-                return true;
-            }
-        }
-        return false;
+        return seats.bookSeat(journeyId, seatId, passengerName, passengerPhone);
+    }
+
+    /**
+     * Book several seats by seat map index, all or nothing
+     */
+    public boolean bookSeats(int journeyId, int[] seatIndexes, String[] passengerNames, String[] passengerPhones) {
+        return seats.bookSeats(journeyId, seatIndexes, passengerNames, passengerPhones);
+    }
+
+    /**
+     * Book a batch of groups, each all or nothing, picking every group's seats in turn
+     */
+    public int[][] bookSeatGroups(List<SeatInventory.SeatGroup> groups, SeatInventory.SeatPicker picker,
+                                  int attempts) {
+        return seats.bookSeatGroups(groups, picker, attempts);
     }
 
     /**
      * Auto-assign the first available seat
      */
     public Optional<Seat> autoAssignSeat(int journeyId, String passengerName, String passengerPhone) {
-        Collection<Seat> availableSeats = getAvailableSeats(journeyId);
+        Optional<SeatMap> seatMapOpt = seats.getSeatMap(journeyId);
+        if (seatMapOpt.isEmpty()) {
+            return Optional.empty();
+        }
 
-        if (!availableSeats.isEmpty()) {
-            Seat seat = availableSeats.iterator().next();
-            if (bookSeat(journeyId, seat.getSeatId(), passengerName, passengerPhone)) {
-                return Optional.of(seat);
-            }
+        SeatMap seatMap = seatMapOpt.get();
+        int index = seatMap.nextAvailable(0);
+        if (index >= 0 && seats.bookSeat(journeyId, index, passengerName, passengerPhone)) {
+            return Optional.of(seatMap.toSeat(index));
         }
 
         return Optional.empty();
@@ -101,28 +135,14 @@ public class SeatService {
      * Release a booked seat
      */
     public boolean releaseSeat(int journeyId, String seatId) {
-        Optional<Seat> seatOpt = getSeatByJourneyAndSeatId(journeyId, seatId);
-
-        if (seatOpt.isPresent()) {
-            Seat seat = seatOpt.get();
-            if (seat.isBooked()) {
-                seat.setBooked(false);
-                seat.setPassengerName(null);
-                seat.setPassengerPhone(null);
-                seat.setBookedAt(null);
-                seat.setUpdatedAt(LocalDateTime.now());
-                return true;
-            }
-        }
-        return false;
+        return seats.releaseSeat(journeyId, seatId);
     }
 
     /**
      * Check if a specific seat is available
      */
     public boolean isSeatAvailable(int journeyId, String seatId) {
-        Optional<Seat> seatOpt = getSeatByJourneyAndSeatId(journeyId, seatId);
-        return seatOpt.isPresent() && !seatOpt.get().isBooked();
+        return seats.isSeatAvailable(journeyId, seatId);
     }
 
     /**
@@ -130,42 +150,55 @@ public class SeatService {
      * Returns true if hold was created, false if seat is already booked or held
      */
     public boolean createSeatHold(int journeyId, String seatId) {
+        return leaseSeatHold(journeyId, seatId).isPresent();
+    }
+
+    /**
+     * Create a seat hold and return it, so its holder can release exactly this hold later
+     * Empty if the seat is already booked or held
+     */
+    public Optional<SeatHold> leaseSeatHold(int journeyId, String seatId) {
         // Check if seat is available and not already held
         if (!isSeatAvailable(journeyId, seatId)) {
-            return false;
-        }
-
-        // Check if seat is already on hold
-        if (isSeatOnHold(journeyId, seatId)) {
-            return false;
+            return Optional.empty();
         }
 
+        // Fails if the seat is already on hold; an expired hold is replaced
         SeatHold hold = new SeatHold(journeyId, seatId, LocalDateTime.now());
-        return dataStore.addSeatHold(hold);
+        return holds.addSeatHold(hold) ? Optional.of(hold) : Optional.empty();
+    }
+
+    /**
+     * Release a hold taken with leaseSeatHold; returns false if it already expired or was replaced
+     */
+    public boolean releaseSeatHold(SeatHold hold) {
+        return holds.removeSeatHold(hold);
     }
 
     /**
      * Check if a seat is currently on hold (soft lock)
      */
     public boolean isSeatOnHold(int journeyId, String seatId) {
-        List<SeatHold> holds = dataStore.getSeatHolds();
-        return holds.stream()
-                .anyMatch(hold -> hold.matches(journeyId, seatId) && !hold.isExpired());
+        return holds.getActiveSeatHold(journeyId, seatId).isPresent();
     }
 
     /**
      * Get available seats excluding those on hold
      */
     public Collection<Seat> getAvailableSeatsExcludingHolds(int journeyId) {
-        Collection<Seat> available = getAvailableSeats(journeyId);
-        List<SeatHold> activeHolds = getActiveHolds(journeyId);
+        Optional<SeatMap> seatMapOpt = seats.getSeatMap(journeyId);
+        if (seatMapOpt.isEmpty()) {
+            return java.util.Collections.emptyList();
+        }
 
-        // Convert to mutable list and filter out seats that are on hold
-        List<Seat> result = new java.util.ArrayList<>(available);
-        result.removeIf(seat ->
-                activeHolds.stream()
-                        .anyMatch(hold -> hold.getSeatId().equals(seat.getSeatId()))
-        );
+        // Purge expired holds so the held bits only reflect active holds
+        holds.removeExpiredSeatHolds();
+
+        SeatMap seatMap = seatMapOpt.get();
+        List<Seat> result = new java.util.ArrayList<>();
+        for (int i = seatMap.nextAvailableUnheld(0); i >= 0; i = seatMap.nextAvailableUnheld(i + 1)) {
+            result.add(seatMap.toSeat(i));
+        }
 
         return result;
     }
@@ -174,16 +207,7 @@ public class SeatService {
      * Get active (non-expired) seat holds for a journey
      */
     public List<SeatHold> getActiveHolds(int journeyId) {
-        List<SeatHold> holds = dataStore.getSeatHolds();
-        List<SeatHold> activeHolds = new java.util.ArrayList<>();
-
-        for (SeatHold hold : holds) {
-            if (hold.getJourneyId() == journeyId && !hold.isExpired()) {
-                activeHolds.add(hold);
-            }
-        }
-
-        return activeHolds;
+        return holds.getActiveSeatHolds(journeyId);
     }
 
 
@@ -193,59 +217,40 @@ public class SeatService {
      */
     public java.util.List<Seat> autoAssignMultipleAdjacentSeats(int journeyId, int seatCount) {
         java.util.List<Seat> assignedSeats = new java.util.ArrayList<>();
-        Collection<Seat> allSeats = getSeatsByJourney(journeyId);
+        Optional<SeatMap> seatMapOpt = seats.getSeatMap(journeyId);
 
-        if (allSeats.isEmpty()) {
+        if (seatMapOpt.isEmpty() || seatCount <= 0) {
             return assignedSeats;
         }
 
-        // Sort seats by row and column for easier adjacent detection
-        java.util.List<Seat> sortedSeats = new java.util.ArrayList<>(allSeats);
-        sortedSeats.sort((s1, s2) -> {
-            if (s1.getRowNumber() != s2.getRowNumber()) {
-                return Integer.compare(s1.getRowNumber(), s2.getRowNumber());
-            }
-            return s1.getColumn().compareTo(s2.getColumn());
-        });
-
-        // Try to find consecutive available seats
-        for (int i = 0; i <= sortedSeats.size() - seatCount; i++) {
-            java.util.List<Seat> consecutiveSeats = new java.util.ArrayList<>();
-            boolean allConsecutiveAvailable = true;
+        // Seat indexes are already ordered by row and column
+        SeatMap seatMap = seatMapOpt.get();
+        int totalSeats = seatMap.getTotalSeats();
 
-            // Check if we have N consecutive seats in same row
-            int row = sortedSeats.get(i).getRowNumber();
+        // Try to find N consecutive available seats in the same row
+        for (int i = seatMap.nextAvailable(0); i >= 0 && i <= totalSeats - seatCount; i = seatMap.nextAvailable(i + 1)) {
+            int row = i / 4;
             int consecutiveInRow = 0;
 
-            for (int j = i; j < sortedSeats.size() && consecutiveInRow < seatCount; j++) {
-                Seat seat = sortedSeats.get(j);
-                if (seat.getRowNumber() != row) {
-                    break; // Different row, stop looking in this direction
-                }
-                if (!seat.isBooked()) {
-                    consecutiveSeats.add(seat);
-                    consecutiveInRow++;
-                } else {
-                    break; // Seat is booked, stop checking this sequence
+            for (int j = i; j < totalSeats && consecutiveInRow < seatCount; j++) {
+                if (j / 4 != row || !seatMap.isAvailable(j)) {
+                    break; // Different row or taken seat, stop checking this sequence
                 }
+                consecutiveInRow++;
             }
 
             // If we found enough consecutive seats, assign them
-            if (consecutiveSeats.size() == seatCount) {
-                return consecutiveSeats;
+            if (consecutiveInRow == seatCount) {
+                for (int j = i; j < i + seatCount; j++) {
+                    assignedSeats.add(seatMap.toSeat(j));
+                }
+                return assignedSeats;
             }
         }
 
         // If no consecutive seats found, just assign available seats
-        int assigned = 0;
-        for (Seat seat : sortedSeats) {
-            if (assigned >= seatCount) {
-                break;
-            }
-            if (!seat.isBooked()) {
-                assignedSeats.add(seat);
-                assigned++;
-            }
+        for (int i = seatMap.nextAvailable(0); i >= 0 && assignedSeats.size() < seatCount; i = seatMap.nextAvailable(i + 1)) {
+            assignedSeats.add(seatMap.toSeat(i));
         }
 
         return assignedSeats;
@@ -255,6 +260,6 @@ public class SeatService {
      * Reset seat service (for testing)
      */
     public void reset() {
-        dataStore.reset();
+        storage.reset();
     }
 }
@@ -63,6 +63,7 @@ public class AppInitializer implements ServletContextListener {
     public void contextDestroyed(ServletContextEvent sce) {
         System.out.println("\n🛑 Application shutting down...");
         LOGGER.info("Application shutting down...");
+        ApplicationConfiguration.getInstance().shutdown();
         System.out.println("✅ Application stopped successfully\n");
     }
 }
@@ -1,6 +1,8 @@
 package com.busticket.servlet;
 
+import com.busticket.domain.response.DayAvailability;
 import com.busticket.domain.response.JourneyInfo;
+import com.busticket.service.AvailabilityResult;
 import com.busticket.service.AvailabilityService;
 import com.busticket.util.RequestParser;
 import jakarta.servlet.ServletException;
@@ -10,18 +12,26 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 /**
  * AvailabilityServlet handles journey availability check endpoints
  *
  * Endpoints:
  * - GET/POST /api/v1/reservation/availability
+ *   journey_date for one day's journeys, or date_from and date_to for a per-day summary of the range
  */
 @WebServlet(urlPatterns = {"/api/v1/reservation/availability"})
 public class AvailabilityServlet extends HttpServlet {
 
+    private static final String MISSING_PARAMETERS =
+        "Missing required parameters: origin, destination, passenger_count, journey_date (or date_from and date_to)";
+
     private AvailabilityService availabilityService;
 
     @Override
@@ -42,10 +52,13 @@ public class AvailabilityServlet extends HttpServlet {
             String destination = request.getParameter("destination");
             String passengerCountStr = request.getParameter("passenger_count");
             String journeyDate = request.getParameter("journey_date");
+            String dateFrom = request.getParameter("date_from");
+            String dateTo = request.getParameter("date_to");
             String preferredSeat = request.getParameter("preferred_seat");
 
-            if (origin == null || destination == null || passengerCountStr == null || journeyDate == null) {
-                sendErrorResponse(response, "INVALID_REQUEST", "Missing required parameters: origin, destination, passenger_count, journey_date", 400);
+            if (origin == null || destination == null || passengerCountStr == null
+                    || (journeyDate == null && (dateFrom == null || dateTo == null))) {
+                sendErrorResponse(response, "INVALID_REQUEST", MISSING_PARAMETERS, 400);
                 return;
             }
 
@@ -73,15 +86,16 @@ public class AvailabilityServlet extends HttpServlet {
                     return;
                 }
 
-                List<JourneyInfo> availability = availabilityService.checkAvailability(
+                if (journeyDate == null) {
+                    sendRangeResponse(response, origin, destination, passengerCount, dateFrom, dateTo);
+                    return;
+                }
+
+                AvailabilityResult availability = availabilityService.getAvailability(
                     origin, destination, passengerCount, journeyDate
                 );
 
-                if (availability.isEmpty()) {
-                    sendAvailabilityResponse(response, availability, origin, destination, passengerCount, 204);
-                } else {
-                    sendAvailabilityResponse(response, availability, origin, destination, passengerCount, 200);
-                }
+                sendAvailabilityResponse(response, availability, origin, destination, passengerCount);
 
             } catch (NumberFormatException e) {
                 sendErrorResponse(response, "INVALID_FORMAT", "passenger_count must be an integer", 400);
@@ -107,10 +121,13 @@ public class AvailabilityServlet extends HttpServlet {
             String destination = RequestParser.getString(params, "destination", null);
             int passengerCount = RequestParser.getInt(params, "passenger_count", -1);
             String journeyDate = RequestParser.getString(params, "journey_date", null);
+            String dateFrom = RequestParser.getString(params, "date_from", null);
+            String dateTo = RequestParser.getString(params, "date_to", null);
             String preferredSeat = RequestParser.getString(params, "preferred_seat", null);
 
-            if (origin == null || destination == null || passengerCount < 1 || journeyDate == null) {
-                sendErrorResponse(response, "INVALID_REQUEST", "Missing required parameters: origin, destination, passenger_count, journey_date", 400);
+            if (origin == null || destination == null || passengerCount < 1
+                    || (journeyDate == null && (dateFrom == null || dateTo == null))) {
+                sendErrorResponse(response, "INVALID_REQUEST", MISSING_PARAMETERS, 400);
                 return;
             }
 
@@ -130,15 +147,16 @@ public class AvailabilityServlet extends HttpServlet {
                 return;
             }
 
-            List<JourneyInfo> availability = availabilityService.checkAvailability(
+            if (journeyDate == null) {
+                sendRangeResponse(response, origin, destination, passengerCount, dateFrom, dateTo);
+                return;
+            }
+
+            AvailabilityResult availability = availabilityService.getAvailability(
                 origin, destination, passengerCount, journeyDate
             );
 
-            if (availability.isEmpty()) {
-                sendAvailabilityResponse(response, availability, origin, destination, passengerCount, 204);
-            } else {
-                sendAvailabilityResponse(response, availability, origin, destination, passengerCount, 200);
-            }
+            sendAvailabilityResponse(response, availability, origin, destination, passengerCount);
 
         } catch (Exception e) {
             sendErrorResponse(response, "SERVER_ERROR", "Internal server error: " + e.getMessage(), 500);
@@ -153,11 +171,85 @@ public class AvailabilityServlet extends HttpServlet {
         response.setStatus(HttpServletResponse.SC_OK);
     }
 
+    /**
+     * Send a per-day availability summary for a date_from/date_to search
+     */
+    private void sendRangeResponse(HttpServletResponse response, String origin, String destination,
+                                   int passengerCount, String dateFrom, String dateTo) throws IOException {
+        List<DayAvailability> days;
+        try {
+            days = availabilityService.checkAvailabilityRange(origin, destination, passengerCount, dateFrom, dateTo);
+        } catch (IllegalArgumentException e) {
+            String errorCode = e.getCause() instanceof DateTimeParseException ? "INVALID_DATE" : "INVALID_DATE_RANGE";
+            sendErrorResponse(response, errorCode, e.getMessage(), 400);
+            return;
+        } catch (IllegalStateException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                throw e;
+            }
+            sendErrorResponse(response, "SEARCH_TIMEOUT", "Date range search took too long, try a shorter range", 503);
+            return;
+        }
+        int statusCode = days.stream().anyMatch(day -> day.getDepartures() > 0) ? 200 : 204;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        sb.append("\"status\":\"").append(statusCode == 200 ? "AVAILABLE" : "NOT_AVAILABLE").append("\",");
+        sb.append("\"code\":").append(statusCode).append(",");
+        sb.append("\"data\":{");
+        sb.append("\"origin\":\"").append(origin).append("\",");
+        sb.append("\"destination\":\"").append(destination).append("\",");
+        sb.append("\"passenger_count\":").append(passengerCount).append(",");
+        sb.append("\"date_from\":\"").append(dateFrom).append("\",");
+        sb.append("\"date_to\":\"").append(dateTo).append("\",");
+        sb.append("\"days\":[");
+        for (int i = 0; i < days.size(); i++) {
+            if (i > 0) sb.append(",");
+            DayAvailability day = days.get(i);
+            sb.append("{");
+            sb.append("\"date\":\"").append(day.getDate()).append("\",");
+            sb.append("\"departures\":").append(day.getDepartures()).append(",");
+            sb.append("\"seats_left\":").append(day.getSeatsLeft());
+            if (day.getDepartures() > 0) {
+                sb.append(",\"first_departure\":\"").append(day.getFirstDeparture()).append("\"");
+                sb.append(",\"cheapest_fare\":").append(day.getCheapestFare());
+                sb.append(",\"cheapest_total_fare\":").append(day.getCheapestTotalFare());
+            }
+            sb.append("}");
+        }
+        sb.append("]");
+        sb.append("},");
+        sb.append("\"timestamp\":\"").append(java.time.Instant.now()).append("\"");
+        sb.append("}");
+
+        response.setStatus(statusCode);
+        response.getWriter().write(sb.toString());
+    }
+
     /**
      * Send formatted availability response with seat hold information
+     * Everything but the timestamp is rendered once per result and reused while the result stays cached.
      */
-    private void sendAvailabilityResponse(HttpServletResponse response, List<JourneyInfo> journeys,
-                                         String origin, String destination, int passengerCount, int statusCode) throws IOException {
+    private void sendAvailabilityResponse(HttpServletResponse response, AvailabilityResult availability,
+                                         String origin, String destination, int passengerCount) throws IOException {
+        int statusCode = availability.isEmpty() ? 204 : 200;
+        byte[] body = availability.getBody();
+        if (body == null) {
+            body = renderAvailability(availability.getJourneys(), origin, destination, passengerCount, statusCode);
+            availability.setBody(body);
+        }
+
+        response.setStatus(statusCode);
+        OutputStream out = response.getOutputStream();
+        out.write(body);
+        out.write((java.time.Instant.now() + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Render an availability response up to the value of its timestamp
+     */
+    private byte[] renderAvailability(List<JourneyInfo> journeys, String origin, String destination,
+                                      int passengerCount, int statusCode) {
         StringBuilder sb = new StringBuilder();
         sb.append("{");
         sb.append("\"status\":\"").append(statusCode == 200 ? "AVAILABLE" : "NOT_AVAILABLE").append("\",");
@@ -214,11 +306,8 @@ public class AvailabilityServlet extends HttpServlet {
         }
 
         sb.append(",");
-        sb.append("\"timestamp\":\"").append(java.time.Instant.now()).append("\"");
-        sb.append("}");
-
-        response.setStatus(statusCode);
-        response.getWriter().write(sb.toString());
+        sb.append("\"timestamp\":\"");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
     }
 
     /**
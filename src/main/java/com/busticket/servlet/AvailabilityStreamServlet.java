@@ -0,0 +1,325 @@
+package com.busticket.servlet;
+
+import com.busticket.configuration.ServerConfiguration;
+import com.busticket.service.SeatMapTracker;
+import com.busticket.service.SeatService;
+import com.busticket.storage.SeatMap;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AvailabilityStreamServlet streams a journey's seat changes as Server-Sent Events
+ * - The first event is a snapshot of the available and held seats
+ * - Each later event is a delta: seats claimed, released, held, and holds ended (expired or released)
+ * - Event ids are the bus-day's change sequence (its inventory version)
+ * Subscribers are served with async, non-blocking I/O, so an idle subscriber holds no thread.
+ * A subscriber whose connection cannot take more data receives nothing until it can, and then
+ * one delta covering everything that changed meanwhile, so nothing is buffered per change.
+ *
+ * Endpoints:
+ * - GET /api/v1/reservation/availability/stream?journey_id=N
+ */
+@WebServlet(urlPatterns = {"/api/v1/reservation/availability/stream"}, asyncSupported = true)
+public class AvailabilityStreamServlet extends HttpServlet {
+    static final String EVENT_STREAM_CONTENT_TYPE = "text/event-stream";
+    private static final byte[] HEARTBEAT = ": heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private SeatService seatService;
+    private ExecutorService executor;
+    private ScheduledExecutorService heartbeats;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.seatService = SeatService.getInstance();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "availability-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = ServerConfiguration.AVAILABILITY_STREAM_HEARTBEAT_SECONDS;
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::heartbeat),
+                interval, interval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.complete();
+        }
+        executor.shutdown();
+        super.destroy();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+
+        int journeyId;
+        try {
+            journeyId = Integer.parseInt(request.getParameter("journey_id"));
+        } catch (NumberFormatException e) {
+            sendErrorResponse(response, "INVALID_REQUEST", "journey_id must be an integer", 400);
+            return;
+        }
+        Optional<SeatMap> seatMap = seatService.getSeatMap(journeyId);
+        if (seatMap.isEmpty()) {
+            sendErrorResponse(response, "JOURNEY_NOT_FOUND", "Journey not found: " + journeyId, 404);
+            return;
+        }
+        if (subscribers.size() >= ServerConfiguration.AVAILABILITY_STREAM_MAX_SUBSCRIBERS) {
+            sendErrorResponse(response, "TOO_MANY_SUBSCRIBERS", "Too many availability subscribers, poll instead", 503);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(EVENT_STREAM_CONTENT_TYPE);
+        response.setCharacterEncoding(ServerConfiguration.CHARSET_UTF_8);
+        response.setHeader("Cache-Control", "no-cache");
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0);
+        Subscriber subscriber = new Subscriber(async, response.getOutputStream(), seatMap.get());
+        subscribers.add(subscriber);
+        async.addListener(subscriber);
+        // The container calls onWritePossible right away, which sends the snapshot
+        response.getOutputStream().setWriteListener(subscriber);
+    }
+
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * One open event stream
+     * Writes happen only while the output stream is ready; otherwise the container calls
+     * onWritePossible once it drains, and the tracker then reports all changes since the last event.
+     */
+    private final class Subscriber implements WriteListener, AsyncListener {
+        private final AsyncContext async;
+        private final ServletOutputStream out;
+        private final SeatMapTracker tracker;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private boolean started;
+        private boolean snapshotSent;
+        private boolean needsFlush;
+        private boolean closed;
+
+        Subscriber(AsyncContext async, ServletOutputStream out, SeatMap seatMap) {
+            this.async = async;
+            this.out = out;
+            this.tracker = new SeatMapTracker(seatMap, this::changed);
+        }
+
+        /**
+         * Called on the bus-day's dispatcher thread; schedules at most one pump however many changes arrive
+         */
+        private void changed() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::pump);
+                } catch (RuntimeException e) {
+                    // Shutting down; destroy completes the stream
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            changed();
+        }
+
+        @Override
+        public synchronized void onWritePossible() {
+            // Writing may only start once the container has taken the write listener
+            started = true;
+            pump();
+        }
+
+        private synchronized void pump() {
+            scheduled.set(false);
+            if (closed || !started) {
+                return;
+            }
+            try {
+                while (out.isReady()) {
+                    byte[] event = nextEvent();
+                    if (event == null) {
+                        if (!needsFlush) {
+                            return;
+                        }
+                        needsFlush = false;
+                        out.flush();
+                        continue;
+                    }
+                    out.write(event);
+                    needsFlush = true;
+                }
+            } catch (IOException | RuntimeException e) {
+                complete();
+            }
+        }
+
+        private byte[] nextEvent() {
+            if (!snapshotSent) {
+                snapshotSent = true;
+                return snapshotEvent(tracker.snapshot());
+            }
+            SeatMapTracker.Delta delta = tracker.poll();
+            if (!delta.isEmpty()) {
+                heartbeatDue = false;
+                return deltaEvent(delta);
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                return HEARTBEAT;
+            }
+            return null;
+        }
+
+        synchronized void complete() {
+            if (closed) {
+                return;
+            }
+            close();
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            tracker.close();
+            subscribers.remove(this);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            complete();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            complete();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * SSE event with the seats available and held when the stream starts
+     */
+    static byte[] snapshotEvent(SeatMapTracker.Snapshot snapshot) {
+        return event(snapshot.version(), "snapshot", snapshotJson(snapshot));
+    }
+
+    /**
+     * SSE event with the seats that changed since the previous event
+     */
+    static byte[] deltaEvent(SeatMapTracker.Delta delta) {
+        return event(delta.version(), "delta", deltaJson(delta));
+    }
+
+    private static byte[] event(long id, String name, String data) {
+        return ("id: " + id + "\nevent: " + name + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String snapshotJson(SeatMapTracker.Snapshot snapshot) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        sb.append("\"journey_id\":").append(snapshot.journeyId()).append(",");
+        sb.append("\"version\":").append(snapshot.version()).append(",");
+        appendSeats(sb, "available", snapshot.available()).append(",");
+        appendSeats(sb, "held", snapshot.held());
+        sb.append("}");
+        return sb.toString();
+    }
+
+    static String deltaJson(SeatMapTracker.Delta delta) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        sb.append("\"journey_id\":").append(delta.journeyId()).append(",");
+        sb.append("\"version\":").append(delta.version()).append(",");
+        appendSeats(sb, "claimed", delta.claimed()).append(",");
+        appendSeats(sb, "released", delta.released()).append(",");
+        appendSeats(sb, "held", delta.held()).append(",");
+        appendSeats(sb, "hold_ended", delta.holdEnded());
+        sb.append("}");
+        return sb.toString();
+    }
+
+    private static StringBuilder appendSeats(StringBuilder sb, String name, List<String> seats) {
+        sb.append("\"").append(name).append("\":[");
+        for (int i = 0; i < seats.size(); i++) {
+            if (i > 0) sb.append(",");
+            sb.append("\"").append(seats.get(i)).append("\"");
+        }
+        return sb.append("]");
+    }
+
+    /**
+     * Send error response
+     */
+    private void sendErrorResponse(HttpServletResponse response, String errorCode, String message, int statusCode) throws IOException {
+        response.setContentType("application/json");
+        StringBuilder sb = new StringBuilder();
+        sb.append("{");
+        sb.append("\"status\":\"ERROR\",");
+        sb.append("\"code\":").append(statusCode).append(",");
+        sb.append("\"message\":\"").append(message).append("\",");
+        sb.append("\"error_details\":{");
+        sb.append("\"error_code\":\"").append(errorCode).append("\",");
+        sb.append("\"description\":\"").append(message).append("\"");
+        sb.append("},");
+        sb.append("\"timestamp\":\"").append(java.time.Instant.now()).append("\"");
+        sb.append("}");
+
+        response.setStatus(statusCode);
+        response.getWriter().write(sb.toString());
+    }
+}
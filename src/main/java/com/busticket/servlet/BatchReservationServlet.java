@@ -0,0 +1,354 @@
+package com.busticket.servlet;
+
+import com.busticket.configuration.ServerConfiguration;
+import com.busticket.domain.container.BusDayKey;
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.domain.request.PassengerInfo;
+import com.busticket.domain.request.ReservationRequest;
+import com.busticket.domain.response.ReservationResponse;
+import com.busticket.service.IdGenerator;
+import com.busticket.service.JourneyService;
+import com.busticket.service.ReservationService;
+import com.busticket.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BatchReservationServlet books many reservations in one request
+ * - The body is a JSON array of booking requests, or one request per line (application/x-ndjson)
+ * - Each item has the fields of POST /api/v1/reservation/book plus an optional client_ref
+ * - Items are read as a stream; valid ones are grouped by bus-day and every bus-day is booked
+ *   in one pass (one inventory lock, one log write) while the rest of the body is still read
+ * - Results are streamed back as NDJSON, one line per item as soon as its bus-day is booked,
+ *   so they are not in request order: each line carries the item's index and client_ref
+ * - A final summary line counts the confirmed and failed items
+ * Items are independent: one failing does not affect the others.
+ *
+ * Endpoints:
+ * - POST /api/v1/reservation/batch
+ */
+@WebServlet(urlPatterns = {"/api/v1/reservation/batch"})
+public class BatchReservationServlet extends HttpServlet {
+    static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    private ReservationService reservationService;
+    private JourneyService journeyService;
+    private IdGenerator idGenerator;
+    private ExecutorService executor;
+
+    /**
+     * What validation makes of an item: an Item to book, or the ItemResult of its error
+     */
+    private sealed interface Checked permits Item, ItemResult {
+    }
+
+    /**
+     * A validated item waiting for its bus-day to be booked
+     */
+    private record Item(int index, ReservationRequest request, Journey journey, BigDecimal total) implements Checked {
+    }
+
+    /**
+     * The outcome of one item: a confirmation, or an error code and message
+     */
+    private record ItemResult(int index, String clientRef, int code, ReservationResponse reservation,
+                              String errorCode, String message) implements Checked {
+
+        static ItemResult confirmed(int index, String clientRef, ReservationResponse reservation) {
+            return new ItemResult(index, clientRef, 200, reservation, null, null);
+        }
+
+        static ItemResult error(int index, String clientRef, String errorCode, String message, int code) {
+            return new ItemResult(index, clientRef, code, null, errorCode, message);
+        }
+    }
+
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.reservationService = ReservationService.getInstance();
+        this.journeyService = JourneyService.getInstance();
+        this.idGenerator = IdGenerator.getInstance();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        super.destroy();
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        response.setCharacterEncoding(ServerConfiguration.CHARSET_UTF_8);
+        response.setStatus(HttpServletResponse.SC_OK);
+
+        try {
+            process(request.getInputStream(), response.getOutputStream());
+        } catch (Exception e) {
+            // Results may already be on the wire, so the status can no longer change
+            System.err.println("ERROR in BatchReservationServlet: " + e.getMessage());
+            e.printStackTrace(System.err);
+        }
+    }
+
+    @Override
+    protected void doOptions(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    /**
+     * Read a batch from in and stream one result line per item, then a summary line, to out
+     */
+    public void process(InputStream in, OutputStream out) throws IOException {
+        ObjectReader reader = JsonUtil.getObjectMapper().readerFor(ReservationRequest.class);
+        CompletionService<List<ItemResult>> completion = new ExecutorCompletionService<>(executor);
+        int[] counts = new int[2];
+        int inFlight = 0;
+        int index = 0;
+
+        try (JsonGenerator generator = JsonUtil.getObjectMapper().getFactory().createGenerator(out)) {
+            // Lines end in a newline instead of the default space between root values
+            generator.setRootValueSeparator(null);
+            List<Item> pending = new ArrayList<>();
+            // An array is iterated element by element; NDJSON is a sequence of root values
+            try (MappingIterator<ReservationRequest> items = reader.readValues(in)) {
+                while (items.hasNextValue()) {
+                    if (index == ServerConfiguration.BATCH_MAX_ITEMS) {
+                        write(generator, ItemResult.error(index, null, "BATCH_TOO_LARGE",
+                                "A batch holds at most " + ServerConfiguration.BATCH_MAX_ITEMS + " items", 413), counts);
+                        break;
+                    }
+                    ReservationRequest request;
+                    try {
+                        request = items.nextValue();
+                    } catch (JsonMappingException e) {
+                        // A field of the wrong type; the iterator skips to the next item
+                        write(generator, ItemResult.error(index++, null, "INVALID_REQUEST",
+                                "Invalid item: " + e.getOriginalMessage(), 400), counts);
+                        continue;
+                    }
+                    int position = index++;
+                    Checked checked = validate(position, request);
+                    if (checked instanceof ItemResult error) {
+                        write(generator, error, counts);
+                        continue;
+                    }
+                    pending.add((Item) checked);
+                    if (pending.size() == ServerConfiguration.BATCH_CHUNK_SIZE) {
+                        inFlight += submit(completion, pending);
+                        pending = new ArrayList<>();
+                    }
+                    inFlight -= drain(completion, generator, counts, false);
+                }
+            } catch (JsonProcessingException e) {
+                // Malformed JSON: nothing after it can be read, but the items before it still count
+                write(generator, ItemResult.error(index, null, "INVALID_JSON",
+                        "Invalid JSON: " + e.getOriginalMessage(), 400), counts);
+            }
+            inFlight += submit(completion, pending);
+            while (inFlight > 0) {
+                inFlight -= drain(completion, generator, counts, true);
+            }
+
+            generator.writeStartObject();
+            generator.writeStringField("status", "COMPLETE");
+            generator.writeNumberField("items", counts[0] + counts[1]);
+            generator.writeNumberField("confirmed", counts[0]);
+            generator.writeNumberField("failed", counts[1]);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    /**
+     * Check an item as POST /api/v1/reservation/book does
+     */
+    private Checked validate(int index, ReservationRequest request) {
+        String ref = request.getClientRef();
+        if (request.getJourneyId() < 1) {
+            return ItemResult.error(index, ref, "INVALID_REQUEST", "Missing required field: journey_id", 400);
+        }
+        String origin = request.getOrigin();
+        String destination = request.getDestination();
+        if (!ReservationServlet.isValidStop(origin) || !ReservationServlet.isValidStop(destination)) {
+            return ItemResult.error(index, ref, "INVALID_ROUTE", "Invalid origin or destination", 400);
+        }
+        int passengerCount = request.getPassengerCount();
+        if (passengerCount < 1) {
+            return ItemResult.error(index, ref, "INVALID_PASSENGER_COUNT", "Passenger count must be at least 1", 400);
+        }
+        if (!ReservationServlet.isValidEmail(request.getContactEmail())) {
+            return ItemResult.error(index, ref, "INVALID_EMAIL", "Invalid contact email", 400);
+        }
+        List<PassengerInfo> passengers = request.getPassengers();
+        if (passengers == null || passengers.size() != passengerCount) {
+            return ItemResult.error(index, ref, "INVALID_PASSENGERS",
+                    "Passenger count mismatch or invalid passenger data", 400);
+        }
+        for (PassengerInfo passenger : passengers) {
+            if (passenger == null || passenger.getName() == null || passenger.getPhone() == null
+                    || passenger.getEmail() == null) {
+                return ItemResult.error(index, ref, "INVALID_PASSENGERS", "Missing passenger details", 400);
+            }
+            if (!ReservationServlet.isValidPhone(passenger.getPhone())
+                    || !ReservationServlet.isValidEmail(passenger.getEmail())) {
+                return ItemResult.error(index, ref, "INVALID_PASSENGERS", "Invalid passenger phone or email", 400);
+            }
+        }
+        BigDecimal paymentAmount = request.paidAmount();
+        if (paymentAmount == null) {
+            return ItemResult.error(index, ref, "INVALID_PAYMENT", "Invalid payment information", 400);
+        }
+
+        Optional<Journey> journeyOpt = journeyService.getJourneyById(request.getJourneyId());
+        if (journeyOpt.isEmpty()) {
+            return ItemResult.error(index, ref, "JOURNEY_NOT_FOUND", "Journey not found", 404);
+        }
+        Journey journey = journeyOpt.get();
+        if (!journey.getFromStop().equals(origin) || !journey.getToStop().equals(destination)) {
+            return ItemResult.error(index, ref, "ROUTE_MISMATCH", "Journey route does not match requested route", 400);
+        }
+        if (journey.getAvailableSeats() < passengerCount) {
+            return ItemResult.error(index, ref, "INSUFFICIENT_SEATS", "Not enough available seats for all passengers", 409);
+        }
+        BigDecimal expectedTotal = reservationService.calculateFare(origin, destination)
+                .multiply(new BigDecimal(passengerCount));
+        if (paymentAmount.compareTo(expectedTotal) != 0) {
+            return ItemResult.error(index, ref, "PAYMENT_MISMATCH", "Payment amount does not match calculated fare", 400);
+        }
+        return new Item(index, request, journey, expectedTotal);
+    }
+
+    /**
+     * Submit one booking task per bus-day of the items; returns the number of tasks
+     */
+    private int submit(CompletionService<List<ItemResult>> completion, List<Item> items) {
+        Map<BusDayKey, List<Item>> byBusDay = new LinkedHashMap<>();
+        for (Item item : items) {
+            byBusDay.computeIfAbsent(new BusDayKey(item.journey().getBusId(), item.journey().getJourneyDate()),
+                    key -> new ArrayList<>()).add(item);
+        }
+        for (List<Item> busDay : byBusDay.values()) {
+            completion.submit(() -> book(busDay));
+        }
+        return byBusDay.size();
+    }
+
+    /**
+     * Book the items of one bus-day together
+     */
+    private List<ItemResult> book(List<Item> items) {
+        List<ItemResult> results = new ArrayList<>(items.size());
+        try {
+            List<ReservationService.GroupRequest> requests = new ArrayList<>(items.size());
+            for (Item item : items) {
+                ReservationRequest request = item.request();
+                requests.add(new ReservationService.GroupRequest(request.getJourneyId(), request.getPassengers(),
+                        request.getOrigin(), request.getDestination()));
+            }
+            List<Optional<List<Booking>>> booked = reservationService.createGroupReservations(requests);
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                String ref = item.request().getClientRef();
+                results.add(booked.get(i)
+                        .map(group -> ItemResult.confirmed(item.index(), ref, ReservationServlet.confirmation(
+                                item.journey(), group, item.total(), item.request().getContactEmail(), idGenerator)))
+                        .orElseGet(() -> ItemResult.error(item.index(), ref, "BOOKING_FAILED",
+                                "Could not book all passengers", 409)));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("ERROR in BatchReservationServlet: " + e.getMessage());
+            e.printStackTrace(System.err);
+            results.clear();
+            for (Item item : items) {
+                results.add(ItemResult.error(item.index(), item.request().getClientRef(), "SERVER_ERROR",
+                        "Error processing reservation: " + e.getMessage(), 500));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Write the results of finished bus-days, waiting for one if wait is set; returns how many were written
+     */
+    private int drain(CompletionService<List<ItemResult>> completion, JsonGenerator generator, int[] counts,
+                      boolean wait) throws IOException {
+        int drained = 0;
+        try {
+            Future<List<ItemResult>> done = wait ? completion.take() : completion.poll();
+            while (done != null) {
+                for (ItemResult result : done.get()) {
+                    write(generator, result, counts);
+                }
+                drained++;
+                done = completion.poll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while booking a batch", e);
+        } catch (ExecutionException e) {
+            // book() turns failures into results, so this is a bug rather than a booking error
+            throw new IllegalStateException(e.getCause());
+        }
+        if (drained > 0) {
+            generator.flush();
+        }
+        return drained;
+    }
+
+    /**
+     * Write one result line: the item's index and client_ref, then its data or error_details
+     */
+    private void write(JsonGenerator generator, ItemResult result, int[] counts) throws IOException {
+        boolean confirmed = result.reservation() != null;
+        counts[confirmed ? 0 : 1]++;
+        generator.writeStartObject();
+        generator.writeNumberField("index", result.index());
+        generator.writeStringField("client_ref", result.clientRef());
+        generator.writeStringField("status", confirmed ? "SUCCESS" : "ERROR");
+        generator.writeNumberField("code", result.code());
+        if (confirmed) {
+            generator.writeObjectField("data", result.reservation());
+        } else {
+            generator.writeObjectFieldStart("error_details");
+            generator.writeStringField("error_code", result.errorCode());
+            generator.writeStringField("description", result.message());
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,162 @@
+package com.busticket.servlet;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * IdempotencyCache remembers the response of each Idempotency-Key for a while
+ * - The first request with a key runs; its status and serialized body are stored
+ * - A retry with the same key gets the stored bytes back without running again
+ * - A duplicate arriving while the first is still running waits for its result
+ * - A request reusing a key for a different method, path or body is refused, not replayed
+ * Entries expire after the TTL and the oldest are evicted beyond the size bound. A request still
+ * running is never evicted, even past the TTL, so its retry cannot run a second time; the bound
+ * may be exceeded by the number of requests in flight.
+ * Server errors (5xx) and exceptions are not kept, so the client can retry them.
+ */
+public final class IdempotencyCache {
+
+    /**
+     * A finished response, replayed byte for byte
+     */
+    public record StoredResponse(int status, byte[] body) {
+    }
+
+    /**
+     * A response and whether it came from an earlier request with the same key
+     * When mismatched is set the key belongs to a different request and there is no response.
+     */
+    public record Outcome(StoredResponse response, boolean replayed, boolean mismatched) {
+    }
+
+    private record Entry(String key, String fingerprint, CompletableFuture<StoredResponse> result, long createdAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Entries in insertion order, which is also expiry order since all share one TTL
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger orderSize = new AtomicInteger();
+
+    public IdempotencyCache(int maxEntries, long ttl, TimeUnit unit) {
+        this(maxEntries, unit.toNanos(ttl), System::nanoTime);
+    }
+
+    IdempotencyCache(int maxEntries, long ttlNanos, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Idempotency cache needs room for at least one key");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Fingerprint of a request, so a key reused for a different request can be told from a retry
+     */
+    public static String fingerprint(String method, String path, String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Run the action once per key, or return the stored or in-flight response of the key
+     * A duplicate waits at most waitMillis for the first execution before a TimeoutException.
+     * A request whose fingerprint differs from the key's first request gets a mismatched outcome.
+     */
+    public Outcome execute(String key, String fingerprint, long waitMillis, Callable<StoredResponse> action)
+            throws Exception {
+        long now = clock.getAsLong();
+        Entry mine = new Entry(key, fingerprint, new CompletableFuture<>(), now);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, mine);
+            if (existing == null) {
+                break;
+            }
+            if (now - existing.createdAt() > ttlNanos && existing.result().isDone()) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                return new Outcome(null, false, true);
+            }
+            return new Outcome(await(existing.result(), waitMillis), true, false);
+        }
+        order.add(mine);
+        orderSize.incrementAndGet();
+        evict(now);
+
+        StoredResponse response;
+        try {
+            response = action.call();
+        } catch (Exception | Error e) {
+            entries.remove(key, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+        if (response.status() >= 500) {
+            entries.remove(key, mine);
+        }
+        mine.result().complete(response);
+        return new Outcome(response, false, false);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        order.clear();
+        orderSize.set(0);
+    }
+
+    /**
+     * Drop expired entries and the oldest ones beyond the size bound, skipping those still running
+     */
+    private void evict(long now) {
+        Iterator<Entry> oldestFirst = order.iterator();
+        while (oldestFirst.hasNext()) {
+            Entry oldest = oldestFirst.next();
+            if (orderSize.get() <= maxEntries && now - oldest.createdAt() <= ttlNanos) {
+                return;
+            }
+            if (oldest.result().isDone() && order.remove(oldest)) {
+                orderSize.decrementAndGet();
+                entries.remove(oldest.key(), oldest);
+            }
+        }
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> result, long waitMillis) throws Exception {
+        try {
+            return result.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (TimeoutException e) {
+            throw new TimeoutException("A request with the same idempotency key is still running");
+        }
+    }
+}
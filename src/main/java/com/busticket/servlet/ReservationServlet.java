@@ -1,13 +1,13 @@
 package com.busticket.servlet;
 
+import com.busticket.configuration.ServerConfiguration;
 import com.busticket.domain.entity.Booking;
 import com.busticket.domain.entity.Journey;
-import com.busticket.domain.entity.Seat;
 import com.busticket.domain.request.PassengerInfo;
 import com.busticket.domain.response.ReservationResponse;
+import com.busticket.service.IdGenerator;
 import com.busticket.service.ReservationService;
 import com.busticket.service.JourneyService;
-import com.busticket.service.SeatService;
 import com.busticket.util.JsonUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.servlet.ServletException;
@@ -18,279 +18,289 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * ReservationServlet handles booking/reservation REST endpoints
- * NOW UPDATED: Uses pre-assignment logic for multi-passenger bookings
+ * Multi-passenger bookings are all or nothing: every passenger gets a seat or none does
+ * Requests with an Idempotency-Key header are booked once; retries with the same key get the
+ * first response back (Idempotent-Replayed: true) instead of booking again. Reusing a key for a
+ * different request body is refused with 422.
  *
  * Endpoints:
  * - POST /api/v1/reservation/book
  */
 @WebServlet(urlPatterns = {"/api/v1/reservation/book"})
 public class ReservationServlet extends HttpServlet {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final Pattern PHONE_PATTERN = Pattern.compile("\\d{10}");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
 
     private ReservationService reservationService;
     private JourneyService journeyService;
-    private SeatService seatService;
-    private static int reservationCounter = 1000;
+    private IdGenerator idGenerator;
+    private IdempotencyCache idempotencyCache;
+    private static final AtomicInteger reservationCounter = new AtomicInteger(1000);
 
     @Override
     public void init() throws ServletException {
         super.init();
         this.reservationService = ReservationService.getInstance();
         this.journeyService = JourneyService.getInstance();
-        this.seatService = SeatService.getInstance();
+        this.idGenerator = IdGenerator.getInstance();
+        this.idempotencyCache = new IdempotencyCache(ServerConfiguration.IDEMPOTENCY_MAX_KEYS,
+            ServerConfiguration.IDEMPOTENCY_TTL_SECONDS, TimeUnit.SECONDS);
     }
 
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, " + IDEMPOTENCY_KEY_HEADER);
         response.setContentType("application/json");
 
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
         try {
-            String requestBody = readRequestBody(request);
-
-            // Parse request using Jackson
-            JsonNode jsonNode = JsonUtil.getObjectMapper().readTree(requestBody);
-            if (jsonNode == null) {
-                sendErrorResponse(response, "INVALID_REQUEST", "Invalid JSON request format", 400);
-                return;
+            IdempotencyCache.StoredResponse result;
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                result = book(readRequestBody(request));
+            } else {
+                // A retry gets the first attempt's response, as long as it is the same request
+                String requestBody = readRequestBody(request);
+                String fingerprint = IdempotencyCache.fingerprint(request.getMethod(), request.getRequestURI(),
+                    requestBody);
+                IdempotencyCache.Outcome outcome = idempotencyCache.execute(idempotencyKey.trim(), fingerprint,
+                    ServerConfiguration.REQUEST_TIMEOUT, () -> book(requestBody));
+                response.setHeader(IDEMPOTENCY_KEY_HEADER, idempotencyKey.trim());
+                if (outcome.mismatched()) {
+                    writeResponse(response, errorResponse("IDEMPOTENCY_KEY_REUSED",
+                        "Idempotency-Key was already used for a different request", 422));
+                    return;
+                }
+                result = outcome.response();
+                response.setHeader(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(outcome.replayed()));
             }
+            writeResponse(response, result);
 
-            // Extract and validate journey_id
-            int journeyId = jsonNode.has("journey_id") ? jsonNode.get("journey_id").asInt(-1) : -1;
-            if (journeyId < 1) {
-                sendErrorResponse(response, "INVALID_REQUEST", "Missing required field: journey_id", 400);
-                return;
+        } catch (TimeoutException e) {
+            writeResponse(response, errorResponse("IDEMPOTENCY_KEY_IN_USE", e.getMessage(), 409));
+        } catch (Exception e) {
+            System.err.println("ERROR in ReservationServlet: " + e.getMessage());
+            e.printStackTrace(System.err);
+            try {
+                writeResponse(response, errorResponse("SERVER_ERROR", "Error processing reservation: " + e.getMessage(), 500));
+            } catch (Exception ex) {
+                System.err.println("ERROR sending error response: " + ex.getMessage());
+                ex.printStackTrace(System.err);
             }
+        }
+    }
 
-            // Extract and validate origin and destination
-            String origin = jsonNode.has("origin") ? jsonNode.get("origin").asText() : null;
-            String destination = jsonNode.has("destination") ? jsonNode.get("destination").asText() : null;
+    /**
+     * Validate and book one reservation request, returning the serialized response
+     */
+    private IdempotencyCache.StoredResponse book(String requestBody) throws Exception {
+        // Parse request using Jackson
+        JsonNode jsonNode = JsonUtil.getObjectMapper().readTree(requestBody);
+        if (jsonNode == null) {
+            return errorResponse("INVALID_REQUEST", "Invalid JSON request format", 400);
+        }
 
-            if (origin == null || destination == null || !isValidStop(origin) || !isValidStop(destination)) {
-                sendErrorResponse(response, "INVALID_ROUTE", "Invalid origin or destination", 400);
-                return;
-            }
+        // Extract and validate journey_id
+        int journeyId = jsonNode.has("journey_id") ? jsonNode.get("journey_id").asInt(-1) : -1;
+        if (journeyId < 1) {
+            return errorResponse("INVALID_REQUEST", "Missing required field: journey_id", 400);
+        }
 
-            // Extract and validate passenger count
-            int passengerCount = jsonNode.has("passenger_count") ? jsonNode.get("passenger_count").asInt(-1) : -1;
-            if (passengerCount < 1) {
-                sendErrorResponse(response, "INVALID_PASSENGER_COUNT", "Passenger count must be at least 1", 400);
-                return;
-            }
+        // Extract and validate origin and destination
+        String origin = jsonNode.has("origin") ? jsonNode.get("origin").asText() : null;
+        String destination = jsonNode.has("destination") ? jsonNode.get("destination").asText() : null;
 
-            // Extract and validate contact email
-            String contactEmail = jsonNode.has("contact_email") ? jsonNode.get("contact_email").asText() : null;
-            if (contactEmail == null || !isValidEmail(contactEmail)) {
-                sendErrorResponse(response, "INVALID_EMAIL", "Invalid contact email", 400);
-                return;
-            }
+        if (origin == null || destination == null || !isValidStop(origin) || !isValidStop(destination)) {
+            return errorResponse("INVALID_ROUTE", "Invalid origin or destination", 400);
+        }
 
-            // Extract and validate passengers
-            List<PassengerInfo> passengers = new ArrayList<>();
-            if (jsonNode.has("passengers") && jsonNode.get("passengers").isArray()) {
-                passengers = JsonUtil.getObjectMapper().convertValue(
-                    jsonNode.get("passengers"),
-                    JsonUtil.getObjectMapper().getTypeFactory().constructCollectionType(List.class, PassengerInfo.class)
-                );
-            }
+        // Extract and validate passenger count
+        int passengerCount = jsonNode.has("passenger_count") ? jsonNode.get("passenger_count").asInt(-1) : -1;
+        if (passengerCount < 1) {
+            return errorResponse("INVALID_PASSENGER_COUNT", "Passenger count must be at least 1", 400);
+        }
 
-            if (passengers == null || passengers.size() != passengerCount) {
-                sendErrorResponse(response, "INVALID_PASSENGERS", "Passenger count mismatch or invalid passenger data", 400);
-                return;
-            }
+        // Extract and validate contact email
+        String contactEmail = jsonNode.has("contact_email") ? jsonNode.get("contact_email").asText() : null;
+        if (contactEmail == null || !isValidEmail(contactEmail)) {
+            return errorResponse("INVALID_EMAIL", "Invalid contact email", 400);
+        }
 
-            // Validate each passenger
-            for (PassengerInfo passenger : passengers) {
-                if (passenger.getName() == null || passenger.getPhone() == null || passenger.getEmail() == null) {
-                    sendErrorResponse(response, "INVALID_PASSENGERS", "Missing passenger details", 400);
-                    return;
-                }
-                if (!isValidPhone(passenger.getPhone()) || !isValidEmail(passenger.getEmail())) {
-                    sendErrorResponse(response, "INVALID_PASSENGERS", "Invalid passenger phone or email", 400);
-                    return;
-                }
-            }
+        // Extract and validate passengers
+        List<PassengerInfo> passengers = new ArrayList<>();
+        if (jsonNode.has("passengers") && jsonNode.get("passengers").isArray()) {
+            passengers = JsonUtil.getObjectMapper().convertValue(
+                jsonNode.get("passengers"),
+                JsonUtil.getObjectMapper().getTypeFactory().constructCollectionType(List.class, PassengerInfo.class)
+            );
+        }
 
-            // Extract and validate payment information
-            BigDecimal paymentAmount = null;
-            String paymentReference = null;
+        if (passengers == null || passengers.size() != passengerCount) {
+            return errorResponse("INVALID_PASSENGERS", "Passenger count mismatch or invalid passenger data", 400);
+        }
+
+        // Validate each passenger
+        for (PassengerInfo passenger : passengers) {
+            if (passenger.getName() == null || passenger.getPhone() == null || passenger.getEmail() == null) {
+                return errorResponse("INVALID_PASSENGERS", "Missing passenger details", 400);
+            }
+            if (!isValidPhone(passenger.getPhone()) || !isValidEmail(passenger.getEmail())) {
+                return errorResponse("INVALID_PASSENGERS", "Invalid passenger phone or email", 400);
+            }
+        }
 
-            // Try both formats: root-level payment_amount and nested payment.amount
-            if (jsonNode.has("payment_amount")) {
-                JsonNode amountNode = jsonNode.get("payment_amount");
+        // Extract and validate payment information
+        BigDecimal paymentAmount = null;
+        String paymentReference = null;
+
+        // Try both formats: root-level payment_amount and nested payment.amount
+        if (jsonNode.has("payment_amount")) {
+            JsonNode amountNode = jsonNode.get("payment_amount");
+            if (amountNode.isNumber()) {
+                paymentAmount = amountNode.decimalValue();
+            } else {
+                paymentAmount = new BigDecimal(amountNode.asText());
+            }
+        } else if (jsonNode.has("payment") && jsonNode.get("payment").isObject()) {
+            JsonNode paymentObj = jsonNode.get("payment");
+            if (paymentObj.has("amount")) {
+                JsonNode amountNode = paymentObj.get("amount");
                 if (amountNode.isNumber()) {
                     paymentAmount = amountNode.decimalValue();
                 } else {
                     paymentAmount = new BigDecimal(amountNode.asText());
                 }
-            } else if (jsonNode.has("payment") && jsonNode.get("payment").isObject()) {
-                JsonNode paymentObj = jsonNode.get("payment");
-                if (paymentObj.has("amount")) {
-                    JsonNode amountNode = paymentObj.get("amount");
-                    if (amountNode.isNumber()) {
-                        paymentAmount = amountNode.decimalValue();
-                    } else {
-                        paymentAmount = new BigDecimal(amountNode.asText());
-                    }
-                }
-                if (paymentObj.has("reference")) {
-                    paymentReference = paymentObj.get("reference").asText();
-                }
             }
-
-            // Also check root level for payment_reference if not found in nested object
-            if (paymentReference == null && jsonNode.has("payment_reference")) {
-                paymentReference = jsonNode.get("payment_reference").asText();
-            }
-
-            if (paymentAmount == null) {
-                sendErrorResponse(response, "INVALID_PAYMENT", "Invalid payment information", 400);
-                return;
-            }
-
-            // Verify journey exists and has seats
-            Optional<Journey> journeyOpt = journeyService.getJourneyById(journeyId);
-            if (journeyOpt.isEmpty()) {
-                sendErrorResponse(response, "JOURNEY_NOT_FOUND", "Journey not found", 404);
-                return;
+            if (paymentObj.has("reference")) {
+                paymentReference = paymentObj.get("reference").asText();
             }
+        }
 
-            Journey journey = journeyOpt.get();
-
-            // Verify route matches
-            if (!journey.getFromStop().equals(origin) || !journey.getToStop().equals(destination)) {
-                sendErrorResponse(response, "ROUTE_MISMATCH", "Journey route does not match requested route", 400);
-                return;
-            }
+        // Also check root level for payment_reference if not found in nested object
+        if (paymentReference == null && jsonNode.has("payment_reference")) {
+            paymentReference = jsonNode.get("payment_reference").asText();
+        }
 
-            // Check seat availability
-            if (journey.getAvailableSeats() < passengerCount) {
-                sendErrorResponse(response, "INSUFFICIENT_SEATS", "Not enough available seats for all passengers", 409);
-                return;
-            }
+        if (paymentAmount == null) {
+            return errorResponse("INVALID_PAYMENT", "Invalid payment information", 400);
+        }
 
-            // Calculate expected total fare
-            BigDecimal farePerPassenger = reservationService.calculateFare(origin, destination);
-            BigDecimal expectedTotal = farePerPassenger.multiply(new BigDecimal(passengerCount));
+        // Verify journey exists and has seats
+        Optional<Journey> journeyOpt = journeyService.getJourneyById(journeyId);
+        if (journeyOpt.isEmpty()) {
+            return errorResponse("JOURNEY_NOT_FOUND", "Journey not found", 404);
+        }
 
-            if (paymentAmount.compareTo(expectedTotal) != 0) {
-                sendErrorResponse(response, "PAYMENT_MISMATCH", "Payment amount does not match calculated fare", 400);
-                return;
-            }
+        Journey journey = journeyOpt.get();
 
-            // Process bookings - each passenger gets a unique ticket
-            List<ReservationResponse.BookingDetail> bookingDetails = new ArrayList<>();
-            int bookingsCreated = 0;
-            int reservationId = ++reservationCounter;
-
-            // Pre-assign all seats at once to handle groups (adjacent or scattered)
-            List<Seat> assignedSeats = seatService.autoAssignMultipleAdjacentSeats(journeyId, passengers.size());
-
-            // Process bookings with assigned seats
-            for (int i = 0; i < passengers.size(); i++) {
-                PassengerInfo passenger = passengers.get(i);
-                Optional<Booking> bookingOpt = Optional.empty();
-
-                // Use pre-assigned seat
-                if (i < assignedSeats.size()) {
-                    String seatId = assignedSeats.get(i).getSeatId();
-                    bookingOpt = reservationService.createBooking(
-                        journeyId, passenger.getName(), passenger.getPhone(), passenger.getEmail(),
-                        origin, destination, seatId
-                    );
-                }
+        // Verify route matches
+        if (!journey.getFromStop().equals(origin) || !journey.getToStop().equals(destination)) {
+            return errorResponse("ROUTE_MISMATCH", "Journey route does not match requested route", 400);
+        }
 
-                if (bookingOpt.isPresent()) {
-                    Booking booking = bookingOpt.get();
-                    bookingsCreated++;
-
-                    // Generate unique ticket for each passenger
-                    String uniqueTicketNumber = "TICKET-" + System.currentTimeMillis() + "-" + reservationId + "-" + bookingsCreated;
-
-                    ReservationResponse.BookingDetail detail = new ReservationResponse.BookingDetail(
-                        booking.getId(),
-                        uniqueTicketNumber,
-                        booking.getPassengerName(),
-                        booking.getPassengerPhone(),
-                        booking.getPassengerEmail(),
-                        booking.getSeatId(),
-                        booking.getFare(),
-                        booking.getStatus()
-                    );
-                    bookingDetails.add(detail);
-                }
-            }
+        // Check seat availability
+        if (journey.getAvailableSeats() < passengerCount) {
+            return errorResponse("INSUFFICIENT_SEATS", "Not enough available seats for all passengers", 409);
+        }
 
-            // Verify all bookings were created
-            if (bookingsCreated < passengerCount) {
-                sendErrorResponse(response, "BOOKING_FAILED", "Could not book all passengers", 409);
-                return;
-            }
+        // Calculate expected total fare
+        BigDecimal farePerPassenger = reservationService.calculateFare(origin, destination);
+        BigDecimal expectedTotal = farePerPassenger.multiply(new BigDecimal(passengerCount));
 
-            // Create reservation response
-            String bookingNumber = "BK-" + System.currentTimeMillis() + "-" + reservationId;
+        if (paymentAmount.compareTo(expectedTotal) != 0) {
+            return errorResponse("PAYMENT_MISMATCH", "Payment amount does not match calculated fare", 400);
+        }
 
-            LocalDateTime arrivalTime = journey.getDepartureTime().plusMinutes(150);
+        // Book the whole group in one all-or-nothing step - each passenger gets a unique ticket
+        Optional<List<Booking>> groupOpt = reservationService.createGroupReservation(
+            journeyId, passengers, origin, destination
+        );
+        if (groupOpt.isEmpty()) {
+            return errorResponse("BOOKING_FAILED", "Could not book all passengers", 409);
+        }
 
-            ReservationResponse.JourneyDetail journeyDetail = new ReservationResponse.JourneyDetail(
-                journey.getId(),
-                journey.getBusId(),
-                journey.getJourneyNumber(),
-                journey.getFromStop(),
-                journey.getToStop(),
-                journey.getDepartureTime(),
-                arrivalTime,
-                journey.getDirection()
-            );
+        ReservationResponse res = confirmation(journey, groupOpt.get(), expectedTotal, contactEmail, idGenerator);
+        return reservationResponse(res, 200);
+    }
 
-            // Use the first passenger's ticket as the main ticket number for the reservation
-            String ticketNumber = !bookingDetails.isEmpty() ? bookingDetails.get(0).getTicketNumber() :
-                                  "TICKET-" + System.currentTimeMillis() + "-" + reservationId;
-
-            ReservationResponse res = new ReservationResponse(
-                reservationId,
-                ticketNumber,
-                bookingNumber,
-                journeyDetail,
-                bookingDetails,
-                expectedTotal,
-                "CONFIRMED",
-                true,
-                contactEmail,
-                LocalDateTime.now()
+    /**
+     * Confirmation of a booked group, with a ticket number per passenger
+     */
+    static ReservationResponse confirmation(Journey journey, List<Booking> group, BigDecimal totalPrice,
+                                            String contactEmail, IdGenerator idGenerator) {
+        int reservationId = reservationCounter.incrementAndGet();
+        List<ReservationResponse.BookingDetail> bookingDetails = new ArrayList<>();
+        for (Booking booking : group) {
+            ReservationResponse.BookingDetail detail = new ReservationResponse.BookingDetail(
+                booking.getId(),
+                idGenerator.nextTicketNumber(),
+                booking.getPassengerName(),
+                booking.getPassengerPhone(),
+                booking.getPassengerEmail(),
+                booking.getSeatId(),
+                booking.getFare(),
+                booking.getStatus()
             );
-
-            sendReservationResponse(response, res, 200);
-
-        } catch (Exception e) {
-            System.err.println("ERROR in ReservationServlet: " + e.getMessage());
-            e.printStackTrace(System.err);
-            try {
-                sendErrorResponse(response, "SERVER_ERROR", "Error processing reservation: " + e.getMessage(), 500);
-            } catch (Exception ex) {
-                System.err.println("ERROR sending error response: " + ex.getMessage());
-                ex.printStackTrace(System.err);
-            }
+            bookingDetails.add(detail);
         }
+
+        // Create reservation response
+        String bookingNumber = idGenerator.nextBookingNumber();
+
+        LocalDateTime arrivalTime = journey.getDepartureTime().plusMinutes(150);
+
+        ReservationResponse.JourneyDetail journeyDetail = new ReservationResponse.JourneyDetail(
+            journey.getId(),
+            journey.getBusId(),
+            journey.getJourneyNumber(),
+            journey.getFromStop(),
+            journey.getToStop(),
+            journey.getDepartureTime(),
+            arrivalTime,
+            journey.getDirection()
+        );
+
+        // Use the first passenger's ticket as the main ticket number for the reservation
+        String ticketNumber = !bookingDetails.isEmpty() ? bookingDetails.get(0).getTicketNumber() :
+                              idGenerator.nextTicketNumber();
+
+        return new ReservationResponse(
+            reservationId,
+            ticketNumber,
+            bookingNumber,
+            journeyDetail,
+            bookingDetails,
+            totalPrice,
+            "CONFIRMED",
+            true,
+            contactEmail,
+            LocalDateTime.now()
+        );
     }
 
     @Override
     protected void doOptions(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "POST, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type");
+        response.setHeader("Access-Control-Allow-Headers", "Content-Type, " + IDEMPOTENCY_KEY_HEADER);
         response.setStatus(HttpServletResponse.SC_OK);
     }
 
@@ -402,28 +412,28 @@ public class ReservationServlet extends HttpServlet {
     /**
      * Validate phone number (10 digits)
      */
-    private boolean isValidPhone(String phone) {
-        return phone != null && phone.matches("\\d{10}");
+    static boolean isValidPhone(String phone) {
+        return phone != null && PHONE_PATTERN.matcher(phone).matches();
     }
 
     /**
      * Validate email address
      */
-    private boolean isValidEmail(String email) {
-        return email != null && email.matches("^[A-Za-z0-9+_.-]+@(.+)$");
+    static boolean isValidEmail(String email) {
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
     }
 
     /**
      * Validate stop code
      */
-    private boolean isValidStop(String stop) {
+    static boolean isValidStop(String stop) {
         return stop != null && (stop.equals("A") || stop.equals("B") || stop.equals("C") || stop.equals("D"));
     }
 
     /**
-     * Send formatted reservation response using Jackson
+     * Build reservation response using Jackson
      */
-    private void sendReservationResponse(HttpServletResponse response, ReservationResponse res, int statusCode) throws IOException {
+    private IdempotencyCache.StoredResponse reservationResponse(ReservationResponse res, int statusCode) {
         // Create API response wrapper
         Map<String, Object> apiResponse = new LinkedHashMap<>();
         apiResponse.put("status", "SUCCESS");
@@ -433,16 +443,13 @@ public class ReservationServlet extends HttpServlet {
         apiResponse.put("timestamp", java.time.Instant.now().toString());
 
         // Serialize using Jackson
-        String jsonResponse = JsonUtil.toJson(apiResponse);
-        response.setStatus(statusCode);
-        response.getWriter().write(jsonResponse);
-        response.getWriter().flush();
+        return new IdempotencyCache.StoredResponse(statusCode, JsonUtil.toJson(apiResponse).getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Send error response using Jackson
+     * Build error response using Jackson
      */
-    private void sendErrorResponse(HttpServletResponse response, String errorCode, String message, int statusCode) throws IOException {
+    private IdempotencyCache.StoredResponse errorResponse(String errorCode, String message, int statusCode) {
         // Create error response
         Map<String, Object> errorResponse = new LinkedHashMap<>();
         errorResponse.put("status", "ERROR");
@@ -457,10 +464,18 @@ public class ReservationServlet extends HttpServlet {
         errorResponse.put("timestamp", java.time.Instant.now().toString());
 
         // Serialize using Jackson
-        String jsonResponse = JsonUtil.toJson(errorResponse);
-        response.setStatus(statusCode);
-        response.getWriter().write(jsonResponse);
-        response.getWriter().flush();
+        return new IdempotencyCache.StoredResponse(statusCode, JsonUtil.toJson(errorResponse).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write a serialized response as-is
+     */
+    private void writeResponse(HttpServletResponse response, IdempotencyCache.StoredResponse result) throws IOException {
+        response.setStatus(result.status());
+        response.setCharacterEncoding(ServerConfiguration.CHARSET_UTF_8);
+        response.setContentLength(result.body().length);
+        response.getOutputStream().write(result.body());
+        response.getOutputStream().flush();
     }
 
     /**
@@ -0,0 +1,192 @@
+package com.busticket.servlet;
+
+import com.busticket.configuration.ServerConfiguration;
+import com.busticket.service.SeatMapTracker;
+import com.busticket.service.SeatSelection;
+import com.busticket.service.SeatService;
+import com.busticket.storage.SeatMap;
+import com.busticket.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnError;
+import jakarta.websocket.OnMessage;
+import jakarta.websocket.OnOpen;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.PathParam;
+import jakarta.websocket.server.ServerEndpoint;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SeatSelectionEndpoint lets a client pick seats on one journey over a WebSocket
+ * - On open the client receives a snapshot of the available and held seats
+ * - The client sends {"action":"select","seat":"1A"} or {"action":"deselect","seat":"1A"} and gets a
+ *   selected, deselected or rejected reply
+ * - Changes of the journey's seats by anyone are pushed as delta messages, coalesced while the
+ *   client is slow to read, in the format of the availability stream
+ * Holds are leased to the session: closing it, or leaving it idle, releases them at once instead of
+ * after SeatHold.HOLD_DURATION_MINUTES. The booking itself still goes through POST /reservation/book.
+ * Messages are sent with blocking writes, one at a time under a ReentrantLock rather than a monitor,
+ * so a pump waiting on a slow client parks its virtual thread instead of pinning a carrier thread.
+ *
+ * Endpoints:
+ * - WebSocket /api/v1/reservation/seats/{journeyId}
+ */
+@ServerEndpoint("/api/v1/reservation/seats/{journeyId}")
+public class SeatSelectionEndpoint {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private Session session;
+    private SeatSelection selection;
+    private volatile boolean opened;
+
+    @OnOpen
+    public void onOpen(Session session, @PathParam("journeyId") String journeyId) throws IOException {
+        this.session = session;
+        Optional<SeatMap> seatMap;
+        try {
+            seatMap = SeatService.getInstance().getSeatMap(Integer.parseInt(journeyId));
+        } catch (NumberFormatException e) {
+            seatMap = Optional.empty();
+        }
+        if (seatMap.isEmpty()) {
+            session.close(new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "Journey not found: " + journeyId));
+            return;
+        }
+        session.setMaxIdleTimeout(ServerConfiguration.SEAT_SELECTION_IDLE_TIMEOUT_SECONDS * 1000L);
+        selection = new SeatSelection(SeatService.getInstance(), seatMap.get(),
+                ServerConfiguration.SEAT_SELECTION_MAX_HOLDS, this::changed);
+        sendLock.lock();
+        try {
+            send("{\"type\":\"snapshot\",\"data\":" + AvailabilityStreamServlet.snapshotJson(selection.snapshot()) + "}");
+        } finally {
+            sendLock.unlock();
+        }
+        opened = true;
+        // Changes made while the snapshot was sent were skipped by the pump
+        changed();
+    }
+
+    @OnMessage
+    public void onMessage(String message) {
+        if (selection == null) {
+            return;
+        }
+        String action;
+        String seat;
+        try {
+            JsonNode json = JsonUtil.getObjectMapper().readTree(message);
+            action = json.path("action").asText();
+            seat = json.path("seat").asText();
+        } catch (JsonProcessingException e) {
+            reply("error", null, "INVALID_MESSAGE", "Messages must be JSON objects");
+            return;
+        }
+
+        SeatSelection.Outcome outcome;
+        switch (action) {
+            case "select" -> outcome = selection.select(seat);
+            case "deselect" -> outcome = selection.deselect(seat);
+            default -> {
+                reply("error", seat, "INVALID_ACTION", "action must be select or deselect");
+                return;
+            }
+        }
+        switch (outcome) {
+            case SELECTED -> reply("selected", seat, null, null);
+            case DESELECTED -> reply("deselected", seat, null, null);
+            case UNKNOWN_SEAT -> reply("rejected", seat, "INVALID_SEAT", "No such seat on this journey");
+            case UNAVAILABLE -> reply("rejected", seat, "SEAT_UNAVAILABLE", "Seat is booked or held");
+            case NOT_SELECTED -> reply("rejected", seat, "NOT_SELECTED", "Seat is not selected in this session");
+            case LIMIT_REACHED -> reply("rejected", seat, "HOLD_LIMIT_REACHED",
+                    "At most " + ServerConfiguration.SEAT_SELECTION_MAX_HOLDS + " seats can be selected");
+        }
+    }
+
+    @OnClose
+    public void onClose() {
+        release();
+    }
+
+    @OnError
+    public void onError(Throwable error) {
+        release();
+    }
+
+    /**
+     * Called on the bus-day's dispatcher thread; schedules at most one pump however many changes arrive
+     */
+    private void changed() {
+        if (scheduled.compareAndSet(false, true)) {
+            EXECUTOR.execute(this::pump);
+        }
+    }
+
+    /**
+     * Send the seat changes since the last message; a slow send makes the next delta cover more
+     */
+    private void pump() {
+        scheduled.set(false);
+        if (!opened) {
+            return;
+        }
+        // Polling under the lock keeps deltas in version order when two pumps overlap
+        sendLock.lock();
+        try {
+            SeatMapTracker.Delta delta = selection.poll();
+            if (!delta.isEmpty()) {
+                send("{\"type\":\"delta\",\"data\":" + AvailabilityStreamServlet.deltaJson(delta) + "}");
+            }
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void reply(String type, String seat, String errorCode, String message) {
+        ObjectNode json = JsonUtil.getObjectMapper().createObjectNode();
+        json.put("type", type);
+        if (seat != null) {
+            json.put("seat", seat);
+        }
+        if (errorCode != null) {
+            json.putObject("error_details").put("error_code", errorCode).put("description", message);
+        }
+        sendLock.lock();
+        try {
+            send(json.toString());
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Send one message; the caller holds sendLock
+     */
+    private void send(String text) {
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            session.getBasicRemote().sendText(text);
+        } catch (IOException e) {
+            release();
+        }
+    }
+
+    private void release() {
+        opened = false;
+        if (selection != null) {
+            selection.close();
+        }
+    }
+}
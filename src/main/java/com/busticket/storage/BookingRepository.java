@@ -0,0 +1,33 @@
+package com.busticket.storage;
+
+import com.busticket.domain.entity.Booking;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Stores bookings and indexes them by ID, booking number, journey and passenger phone
+ */
+public interface BookingRepository {
+
+    /**
+     * Allocate the next booking ID
+     */
+    int nextBookingId();
+
+    void addBooking(Booking booking);
+
+    /**
+     * Add several bookings at once, as when a group or a batch is booked
+     */
+    void addBookings(Collection<Booking> bookings);
+
+    Optional<Booking> getBookingById(int bookingId);
+
+    Optional<Booking> getBookingByNumber(String bookingNumber);
+
+    Collection<Booking> getBookingsByJourney(int journeyId);
+
+    Collection<Booking> getBookingsByPassenger(String passengerPhone);
+
+    Collection<Booking> getAllBookings();
+}
@@ -0,0 +1,32 @@
+package com.busticket.storage;
+
+import com.busticket.domain.entity.BusFare;
+import com.busticket.domain.entity.Stop;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Stores stops and the fares between them
+ * Fares are bidirectional: a lookup falls back to the reverse direction when no direct fare exists
+ */
+public interface FareRepository {
+
+    Optional<Stop> getStop(int stopId);
+
+    Optional<BusFare> getFareByStops(int fromStopId, int toStopId);
+
+    BusFare addFare(int fromStopId, int toStopId, BigDecimal price);
+
+    /**
+     * Change the price of the fare currently used between two stops
+     */
+    Optional<BusFare> updateFare(int fromStopId, int toStopId, BigDecimal price);
+
+    Collection<BusFare> getAllFares();
+
+    /**
+     * Fare between two stops given as numeric IDs or names/letters; zero if there is none
+     */
+    BigDecimal calculateFare(String fromStop, String toStop);
+}
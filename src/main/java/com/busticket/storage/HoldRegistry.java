@@ -0,0 +1,35 @@
+package com.busticket.storage;
+
+import com.busticket.domain.entity.SeatHold;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Short-lived seat holds (soft locks) taken while a passenger completes a booking
+ * Expired holds behave as if they were removed, even before they are purged.
+ */
+public interface HoldRegistry {
+
+    /**
+     * Add a seat hold; returns false if the seat already has an active hold
+     */
+    boolean addSeatHold(SeatHold hold);
+
+    List<SeatHold> getSeatHolds();
+
+    Optional<SeatHold> getActiveSeatHold(int journeyId, String seatId);
+
+    List<SeatHold> getActiveSeatHolds(int journeyId);
+
+    void removeSeatHold(int journeyId, String seatId);
+
+    /**
+     * Remove the hold if it is still the one on its seat; returns false if it expired or was replaced
+     */
+    boolean removeSeatHold(SeatHold hold);
+
+    /**
+     * Purge expired holds now
+     */
+    void removeExpiredSeatHolds();
+}
@@ -0,0 +1,60 @@
+package com.busticket.storage;
+
+import com.busticket.domain.entity.Journey;
+import com.busticket.domain.entity.ServicePattern;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores journeys and answers the journey lookups used by the services
+ * Query results are read-only views and empty (never null) when nothing matches
+ */
+public interface JourneyRepository {
+
+    /**
+     * Create a journey with a fresh ID and a seat inventory of totalSeats seats
+     */
+    Journey addJourney(int busId, String journeyNumber, LocalDate journeyDate, LocalDateTime departureTime,
+                       String fromStop, String toStop, String direction, int totalSeats);
+
+    /**
+     * Create many journeys at once, e.g. from a schedule import
+     * Each journey gets a fresh ID and full availability; none is visible before the whole batch is built
+     */
+    List<Journey> addJourneys(List<Journey> journeys);
+
+    Optional<Journey> getJourneyById(int journeyId);
+
+    Collection<Journey> getAllJourneys();
+
+    Collection<Journey> getJourneysByDate(LocalDate journeyDate);
+
+    Collection<Journey> getJourneysByRoute(String fromStop, String toStop);
+
+    Collection<Journey> getJourneysByDirection(String direction);
+
+    Collection<Journey> getJourneysByBusAndDate(int busId, LocalDate journeyDate);
+
+    /**
+     * Goes up whenever the set of journeys changes (journeys added, a day retired, a reset),
+     * so results derived from journey lists can be reused while it stays the same
+     */
+    long getScheduleVersion();
+
+    /**
+     * Store a recurring service pattern under a fresh ID; clears every date's expanded mark
+     */
+    ServicePattern addServicePattern(ServicePattern pattern);
+
+    Collection<ServicePattern> getServicePatterns();
+
+    /**
+     * Whether the journeys of every service pattern have been created for the date
+     */
+    boolean isDateExpanded(LocalDate journeyDate);
+
+    void markDateExpanded(LocalDate journeyDate);
+}
@@ -0,0 +1,77 @@
+package com.busticket.storage;
+
+import com.busticket.domain.entity.Seat;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Seat inventory of every journey
+ * Booking a seat is the single point that decides who gets it: of any number of concurrent
+ * bookSeat calls for a seat (or an overlapping seat on the same bus and day) exactly one succeeds.
+ */
+public interface SeatInventory {
+
+    Optional<Seat> getSeatById(int seatId);
+
+    Optional<Seat> getSeatByJourneyAndSeatId(int journeyId, String seatId);
+
+    Collection<Seat> getAvailableSeats(int journeyId);
+
+    Collection<Seat> getSeatsByJourney(int journeyId);
+
+    Collection<Seat> getBookedSeats(int journeyId);
+
+    /**
+     * A journey's view of its bus-day inventory, used for seat scans and auto-assignment
+     */
+    Optional<SeatMap> getSeatMap(int journeyId);
+
+    /**
+     * Book a seat on a journey; returns false if the seat does not exist or is already booked
+     */
+    boolean bookSeat(int journeyId, String seatId, String passengerName, String passengerPhone);
+
+    /**
+     * Book a seat by its seat map index; returns false if it does not exist or is already booked
+     */
+    boolean bookSeat(int journeyId, int seatIndex, String passengerName, String passengerPhone);
+
+    /**
+     * Book several seats of a journey by seat map index, all or nothing
+     * Passenger i gets seat i; returns false and books nothing if any seat does not exist or is taken.
+     */
+    boolean bookSeats(int journeyId, int[] seatIndexes, String[] passengerNames, String[] passengerPhones);
+
+    /**
+     * Passengers of one journey to seat together, as part of a batch
+     */
+    record SeatGroup(int journeyId, String[] passengerNames, String[] passengerPhones) {
+    }
+
+    /**
+     * Chooses seat map indexes for a group on the current state of the inventory
+     */
+    @FunctionalInterface
+    interface SeatPicker {
+        int[] pick(int journeyId, int seatCount);
+    }
+
+    /**
+     * Book a batch of groups, each all or nothing, like one bookSeats call per group
+     * Groups are seated in order, so each pick sees the seats of the groups before it; a pick that
+     * loses a seat to a concurrent booking is retried up to attempts times.
+     * Returns the booked seat indexes per group, null for a group that could not be seated.
+     */
+    int[][] bookSeatGroups(List<SeatGroup> groups, SeatPicker picker, int attempts);
+
+    /**
+     * Release a booked seat; returns false if the seat does not exist or is not booked
+     */
+    boolean releaseSeat(int journeyId, String seatId);
+
+    /**
+     * Check whether a seat exists on the journey and no journey of its bus-day occupies its segments
+     */
+    boolean isSeatAvailable(int journeyId, String seatId);
+}
@@ -0,0 +1,84 @@
+package com.busticket.storage;
+
+import com.busticket.domain.entity.Seat;
+
+/**
+ * A journey's seats as seen by the services, addressed by zero-based seat index
+ * - A seat is available when no journey of the bus and day occupies a segment of this journey's route
+ * - A seat is booked when this journey holds a booking on it
+ * - Seat numbers are derived from the index (4 seats per row: A, B, C, D)
+ * The version goes up after every claim, release and hold change of the seats, so a result
+ * computed from them can be checked for staleness with one read; the claim version ignores holds.
+ */
+public interface SeatMap {
+    int SEATS_PER_ROW = 4;
+
+    /**
+     * Seat number ("1A", "1B", ...) for a zero-based seat index
+     */
+    static String seatNumber(int index) {
+        return (index / SEATS_PER_ROW + 1) + String.valueOf((char) ('A' + index % SEATS_PER_ROW));
+    }
+
+    int getJourneyId();
+
+    int getTotalSeats();
+
+    /**
+     * Zero-based seat index for a seat number, or -1 if it is not part of this journey
+     */
+    int indexOf(String seatNumber);
+
+    boolean isAvailable(int index);
+
+    boolean isBooked(int index);
+
+    boolean isHeld(int index);
+
+    /**
+     * Seats whose segments on this journey's route are all free
+     */
+    int availableCount();
+
+    /**
+     * Seats booked on this journey
+     */
+    int bookedCount();
+
+    /**
+     * Index of the next available seat at or after fromIndex, or -1
+     */
+    int nextAvailable(int fromIndex);
+
+    /**
+     * Index of the next available seat at or after fromIndex that is not held, or -1
+     */
+    int nextAvailableUnheld(int fromIndex);
+
+    /**
+     * Index of the next seat booked on this journey at or after fromIndex, or -1
+     */
+    int nextBooked(int fromIndex);
+
+    /**
+     * Build a Seat entity snapshot for the given index
+     */
+    Seat toSeat(int index);
+
+    /**
+     * Seat state version; read it before computing from the seats, compare it to reuse the result
+     */
+    long getVersion();
+
+    /**
+     * Version of the claims and releases only, for results that do not depend on holds
+     */
+    long getClaimVersion();
+
+    /**
+     * Run the watcher after changes of the seats, never on the thread making them; one run may cover several changes
+     */
+    void watch(Runnable watcher);
+
+    void unwatch(Runnable watcher);
+}
@@ -0,0 +1,28 @@
+package com.busticket.storage;
+
+/**
+ * A storage backend for the services
+ * Implementations need a public no-argument constructor so they can be selected by class name.
+ */
+public interface StorageProvider {
+
+    /**
+     * Short name used in logs and to select the provider by configuration
+     */
+    String getName();
+
+    JourneyRepository journeys();
+
+    SeatInventory seats();
+
+    BookingRepository bookings();
+
+    FareRepository fares();
+
+    HoldRegistry holds();
+
+    /**
+     * Clear all data and restore the default reference data (for testing)
+     */
+    void reset();
+}
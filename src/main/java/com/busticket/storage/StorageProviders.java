@@ -0,0 +1,48 @@
+package com.busticket.storage;
+
+import com.busticket.configuration.ServerConfiguration;
+
+/**
+ * StorageProviders selects the storage backend used by the services
+ * The busticket.storage.provider setting is either "memory" (the default) or the
+ * fully qualified class name of a StorageProvider implementation.
+ */
+public final class StorageProviders {
+    public static final String IN_MEMORY = "memory";
+    // Loaded by name, so the storage interfaces do not depend on the service package
+    private static final String IN_MEMORY_CLASS = "com.busticket.service.InMemoryStorageProvider";
+
+    private static StorageProvider provider;
+
+    private StorageProviders() {
+        // Utility class - cannot instantiate
+    }
+
+    /**
+     * The configured provider, created on first use
+     */
+    public static synchronized StorageProvider getProvider() {
+        if (provider == null) {
+            provider = create(ServerConfiguration.getSetting(ServerConfiguration.STORAGE_PROVIDER_PROPERTY,
+                    ServerConfiguration.STORAGE_PROVIDER_ENV));
+        }
+        return provider;
+    }
+
+    /**
+     * Create a provider by name or class name; null or blank selects the in-memory provider
+     */
+    public static StorageProvider create(String name) {
+        String className = name == null || name.isBlank() || IN_MEMORY.equalsIgnoreCase(name.trim())
+                ? IN_MEMORY_CLASS : name.trim();
+        try {
+            Class<?> type = Class.forName(className);
+            if (!StorageProvider.class.isAssignableFrom(type)) {
+                throw new IllegalStateException(name + " is not a " + StorageProvider.class.getName());
+            }
+            return (StorageProvider) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create storage provider " + name, e);
+        }
+    }
+}
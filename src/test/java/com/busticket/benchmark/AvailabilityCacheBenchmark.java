@@ -0,0 +1,73 @@
+package com.busticket.benchmark;
+
+import com.busticket.configuration.ServerConfiguration;
+import com.busticket.service.AvailabilityService;
+import com.busticket.service.DataStore;
+import com.busticket.service.SeatService;
+
+import java.time.LocalDate;
+
+/**
+ * Clients polling route availability between bookings
+ * - uncached: a party size above AVAILABILITY_CACHE_MAX_PASSENGERS, computed on every poll
+ * - cached: a party size that is cached, recomputed only after a booking moves the bus-day version
+ * Reports polls per second for several polls-per-booking ratios.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.AvailabilityCacheBenchmark
+ */
+public class AvailabilityCacheBenchmark {
+
+    private static final int BUSES = 20;
+    private static final int SEATS = 40;
+    private static final int POLLS = 200_000;
+    private static final int[] POLLS_PER_BOOKING = {1, 10, 100};
+
+    public static void main(String[] args) {
+        System.out.printf("%-10s %18s %12s%n", "mode", "polls/booking", "polls/sec");
+        // Warm up both paths
+        run(false, 10);
+        run(true, 10);
+        for (int ratio : POLLS_PER_BOOKING) {
+            run(false, ratio);
+            run(true, ratio);
+        }
+    }
+
+    private static void run(boolean cached, int pollsPerBooking) {
+        DataStore dataStore = DataStore.getInstance();
+        AvailabilityService.getInstance().reset();
+        LocalDate date = LocalDate.now().plusDays(1);
+        int[] journeyIds = new int[BUSES];
+        for (int bus = 0; bus < BUSES; bus++) {
+            journeyIds[bus] = dataStore.addJourney(bus + 1, "JN-" + bus, date, date.atTime(8, 0), "A", "D", "A->D",
+                    SEATS).getId();
+        }
+        AvailabilityService availability = AvailabilityService.getInstance();
+        SeatService seats = SeatService.getInstance();
+        int passengers = cached ? 1 : ServerConfiguration.AVAILABILITY_CACHE_MAX_PASSENGERS + 1;
+        String day = date.toString();
+
+        long found = 0;
+        int booked = 0;
+        long begin = System.nanoTime();
+        for (int poll = 0; poll < POLLS; poll++) {
+            found += availability.getAvailability("A", "D", passengers, day).getJourneys().size();
+            if (poll % pollsPerBooking == 0) {
+                // Book and release so that every bus keeps its seats for the whole run
+                int journeyId = journeyIds[booked++ % BUSES];
+                seats.bookSeat(journeyId, "1A", "Passenger", "9876543210");
+                seats.releaseSeat(journeyId, "1A");
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        if (found == 0) {
+            throw new IllegalStateException("No journeys found");
+        }
+        System.out.printf("%-10s %18d %12d%n", cached ? "cached" : "uncached", pollsPerBooking,
+                POLLS * 1_000_000_000L / elapsed);
+        AvailabilityService.getInstance().reset();
+    }
+}
@@ -0,0 +1,68 @@
+package com.busticket.benchmark;
+
+import com.busticket.configuration.ServerConfiguration;
+import com.busticket.service.AvailabilityService;
+import com.busticket.service.DataStore;
+
+import java.time.LocalDate;
+
+/**
+ * Latency of a "flexible dates" search over the bookable window (today and the next two days)
+ * - single: one journey_date request
+ * - sequential: one request per day, as the UI issued them before
+ * - range: one date_from/date_to request fanned out per day
+ * Party sizes above AVAILABILITY_CACHE_MAX_PASSENGERS are used, so every request is computed.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.AvailabilityRangeBenchmark
+ */
+public class AvailabilityRangeBenchmark {
+
+    private static final int BUSES_PER_DAY = 2_000;
+    private static final int SEATS = 40;
+    private static final int DAYS = 3;
+    private static final int SEARCHES = 200;
+
+    public static void main(String[] args) {
+        AvailabilityService availability = AvailabilityService.getInstance();
+        availability.reset();
+        DataStore dataStore = DataStore.getInstance();
+        LocalDate today = LocalDate.now();
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = today.plusDays(day);
+            for (int bus = 0; bus < BUSES_PER_DAY; bus++) {
+                dataStore.addJourney(bus + 1, "JN-" + bus, date, date.atTime(23, 0), "A", "D", "A->D", SEATS);
+            }
+        }
+        int passengers = ServerConfiguration.AVAILABILITY_CACHE_MAX_PASSENGERS + 1;
+        String from = today.toString();
+        String to = today.plusDays(DAYS - 1).toString();
+
+        System.out.printf("%-12s %14s%n", "mode", "us/search");
+        for (int round = 0; round < 2; round++) {
+            long single = time(() -> availability.checkAvailability("A", "D", passengers, from));
+            long sequential = time(() -> {
+                for (int day = 0; day < DAYS; day++) {
+                    availability.checkAvailability("A", "D", passengers, today.plusDays(day).toString());
+                }
+            });
+            long range = time(() -> availability.checkAvailabilityRange("A", "D", passengers, from, to));
+            if (round > 0) {
+                System.out.printf("%-12s %14d%n", "single", single);
+                System.out.printf("%-12s %14d%n", "sequential", sequential);
+                System.out.printf("%-12s %14d%n", "range", range);
+            }
+        }
+        System.out.println("processors: " + Runtime.getRuntime().availableProcessors());
+        availability.reset();
+    }
+
+    private static long time(Runnable search) {
+        long begin = System.nanoTime();
+        for (int i = 0; i < SEARCHES; i++) {
+            search.run();
+        }
+        return (System.nanoTime() - begin) / SEARCHES / 1000;
+    }
+}
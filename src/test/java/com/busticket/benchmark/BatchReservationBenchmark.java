@@ -0,0 +1,153 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.domain.request.PassengerInfo;
+import com.busticket.persistence.WriteAheadLog;
+import com.busticket.service.DataStore;
+import com.busticket.service.JourneyService;
+import com.busticket.service.ReservationService;
+import com.busticket.servlet.BatchReservationServlet;
+import com.busticket.util.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+/**
+ * Travel agents booking single passengers, with the write-ahead log on
+ * - individual: one request per booking through the POST /reservation/book pipeline
+ *   (JSON tree parse, group booking, Map envelope serialization)
+ * - batch: each agent sends its bookings as NDJSON to BatchReservationServlet
+ * Reports bookings per second and the process CPU time spent per booking.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.BatchReservationBenchmark
+ */
+public class BatchReservationBenchmark {
+
+    private static final int[] AGENTS = {1, 8};
+    private static final int BOOKINGS = 8_000;
+    private static final int JOURNEYS = 200;
+    private static final int SEATS = 40;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-12s %8s %10s %14s %16s%n", "mode", "agents", "booked", "bookings/sec", "cpu us/booking");
+        // Warm up both paths
+        run(false, 8);
+        run(true, 8);
+        for (int agents : AGENTS) {
+            run(false, agents);
+            run(true, agents);
+        }
+    }
+
+    private static void run(boolean batch, int agentCount) throws Exception {
+        DataStore dataStore = DataStore.getInstance();
+        dataStore.reset();
+        Path directory = Files.createTempDirectory("batch-booking");
+        dataStore.enableWriteAheadLog(directory, WriteAheadLog.SyncMode.BATCH);
+        LocalDate date = LocalDate.now().plusDays(1);
+        for (int i = 0; i < JOURNEYS; i++) {
+            dataStore.addJourney(i + 1, "JN-" + i, date, date.atTime(8, 0), "A", "D", "A->D", SEATS);
+        }
+        BigDecimal fare = ReservationService.getInstance().calculateFare("A", "D");
+        BatchReservationServlet servlet = new BatchReservationServlet();
+        servlet.init();
+
+        List<List<String>> items = new ArrayList<>();
+        int perAgent = BOOKINGS / agentCount;
+        for (int agent = 0; agent < agentCount; agent++) {
+            List<String> mine = new ArrayList<>();
+            for (int i = 0; i < perAgent; i++) {
+                int booking = agent * perAgent + i;
+                mine.add("{\"client_ref\":\"" + booking + "\",\"journey_id\":" + (booking % JOURNEYS + 1)
+                        + ",\"origin\":\"A\",\"destination\":\"D\",\"passenger_count\":1,"
+                        + "\"contact_email\":\"agent@example.com\",\"passengers\":[{\"name\":\"Passenger\","
+                        + "\"phone\":\"" + (9000000000L + booking) + "\",\"email\":\"p@example.com\"}],"
+                        + "\"payment_amount\":" + fare + "}");
+            }
+            items.add(mine);
+        }
+
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> agents = new ArrayList<>();
+        for (List<String> mine : items) {
+            agents.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    if (batch) {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        servlet.process(new ByteArrayInputStream(String.join("\n", mine).getBytes(StandardCharsets.UTF_8)),
+                                out);
+                    } else {
+                        for (String body : mine) {
+                            book(body);
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        long cpuBefore = os.getProcessCpuTime();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread agent : agents) {
+            agent.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long cpu = os.getProcessCpuTime() - cpuBefore;
+
+        int booked = dataStore.getAllBookings().size();
+        System.out.printf("%-12s %8d %10d %14d %16d%n", batch ? "batch" : "individual", agentCount, booked,
+                booked * 1_000_000_000L / elapsed, cpu / Math.max(1, booked) / 1000);
+        servlet.destroy();
+        dataStore.reset();
+        deleteDirectory(directory);
+    }
+
+    /**
+     * The booking pipeline of ReservationServlet: parse, validate the journey, book, serialize
+     */
+    private static byte[] book(String body) throws Exception {
+        JsonNode json = JsonUtil.getObjectMapper().readTree(body);
+        List<PassengerInfo> passengers = JsonUtil.getObjectMapper().convertValue(json.get("passengers"),
+                JsonUtil.getObjectMapper().getTypeFactory().constructCollectionType(List.class, PassengerInfo.class));
+        int journeyId = json.get("journey_id").asInt();
+        Journey journey = JourneyService.getInstance().getJourneyById(journeyId).orElseThrow();
+        Optional<List<Booking>> booked = ReservationService.getInstance().createGroupReservation(
+                journey.getId(), passengers, json.get("origin").asText(), json.get("destination").asText());
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", booked.isPresent() ? "SUCCESS" : "ERROR");
+        response.put("data", booked.orElse(List.of()));
+        response.put("timestamp", java.time.Instant.now().toString());
+        return JsonUtil.toJson(response).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
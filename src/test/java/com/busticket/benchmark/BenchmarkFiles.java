@@ -0,0 +1,25 @@
+package com.busticket.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Temporary file helpers shared by the persistence benchmarks
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {
+        // Utility class - cannot instantiate
+    }
+
+    static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
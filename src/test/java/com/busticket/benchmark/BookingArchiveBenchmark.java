@@ -0,0 +1,128 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.persistence.BookingArchive;
+import com.busticket.service.DataStore;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Footprint of completed days' bookings on the heap versus in the compressed archive,
+ * and the latency of finding an archived booking by number
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.BookingArchiveBenchmark
+ */
+public class BookingArchiveBenchmark {
+
+    private static final String[][] ROUTES = {
+            {"A", "B"}, {"A", "C"}, {"A", "D"}, {"B", "C"}, {"B", "D"}, {"C", "D"}};
+    private static final String[] DOMAINS = {"gmail.com", "yahoo.com", "outlook.com", "example.com"};
+    private static final int DAYS = 30;
+    private static final int BUSES = 20;
+    private static final int BOOKINGS_PER_JOURNEY = 30;
+    private static final int LOOKUPS = 20_000;
+
+    public static void main(String[] args) throws IOException {
+        DataStore dataStore = DataStore.getInstance();
+        dataStore.reset();
+        Path directory = Files.createTempDirectory("booking-archive");
+        LocalDate start = LocalDate.now().minusDays(DAYS + 1);
+        List<String> numbers = new ArrayList<>();
+
+        long before = usedHeap();
+        for (int day = 0; day < DAYS; day++) {
+            publishAndBook(dataStore, start.plusDays(day), numbers);
+        }
+        long live = usedHeap() - before;
+        System.out.printf("%d bookings over %d days live: %.1f MB heap (%d bytes/booking)%n",
+                numbers.size(), DAYS, live / 1048576.0, live / numbers.size());
+
+        try (BookingArchive archive = BookingArchive.open(directory)) {
+            dataStore.setBookingArchive(archive);
+            long begin = System.nanoTime();
+            int retired = dataStore.retireDaysBefore(LocalDate.now());
+            double retireMillis = (System.nanoTime() - begin) / 1e6;
+            long remaining = usedHeap() - before;
+            long onDisk = directorySize(directory);
+            // The heap left includes this benchmark's own list of booking numbers
+            System.out.printf("retired %d days in %.1f ms: %.1f MB heap left, %.1f MB on disk (%d bytes/booking)%n",
+                    retired, retireMillis, remaining / 1048576.0, onDisk / 1048576.0, onDisk / numbers.size());
+
+            Random random = new Random(42);
+            int found = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                found += dataStore.getBookingByNumber(numbers.get(random.nextInt(numbers.size()))).isPresent() ? 1 : 0;
+            }
+            begin = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                found += dataStore.getBookingByNumber(numbers.get(random.nextInt(numbers.size()))).isPresent() ? 1 : 0;
+            }
+            double lookupMicros = (System.nanoTime() - begin) / 1e3 / LOOKUPS;
+            System.out.printf("archived lookup by number: %.1f us (%d found)%n", lookupMicros, found);
+        } finally {
+            dataStore.reset();
+            deleteDirectory(directory);
+        }
+    }
+
+    private static void publishAndBook(DataStore dataStore, LocalDate date, List<String> numbers) {
+        for (int bus = 1; bus <= BUSES; bus++) {
+            for (String[] route : ROUTES) {
+                Journey journey = dataStore.addJourney(bus, "JN-" + bus + route[0] + route[1], date,
+                        date.atTime(8, 0), route[0], route[1], route[0] + "->" + route[1], 40);
+                for (int seat = 0; seat < BOOKINGS_PER_JOURNEY; seat++) {
+                    int id = dataStore.nextBookingId();
+                    Booking booking = new Booking(journey.getId(), "Passenger " + id, String.format("07%08d", id),
+                            route[0], route[1]);
+                    booking.setId(id);
+                    booking.setBookingNumber("RS" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6));
+                    booking.setPassengerEmail("passenger" + id + "@" + DOMAINS[id % DOMAINS.length]);
+                    booking.setSeatId((seat / 4 + 1) + String.valueOf((char) ('A' + seat % 4)));
+                    booking.setFare(new BigDecimal("150.00"));
+                    booking.setTravelDate(journey.getDepartureTime());
+                    dataStore.addBooking(booking);
+                    numbers.add(booking.getBookingNumber());
+                }
+            }
+        }
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            long size = 0;
+            for (Path file : files.toList()) {
+                size += Files.size(file);
+            }
+            return size;
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
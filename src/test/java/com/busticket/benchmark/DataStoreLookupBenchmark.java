@@ -0,0 +1,104 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.service.DataStore;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Micro-benchmark for DataStore lookups as the store grows
+ * Indexed lookups should stay flat while the number of bus-days increases
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.DataStoreLookupBenchmark
+ */
+public class DataStoreLookupBenchmark {
+
+    private static final String[][] ROUTES = {
+        {"A", "B"}, {"A", "C"}, {"A", "D"}, {"B", "C"}, {"B", "D"}, {"C", "D"}
+    };
+    private static final int[] DAYS = {10, 100, 1000};
+    private static final int BUSES_PER_DAY = 4;
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) {
+        DataStore dataStore = DataStore.getInstance();
+
+        System.out.printf("%-10s %-10s %14s %14s %14s %14s%n",
+                "days", "journeys", "byDate ns", "byBusDate ns", "byNumber ns", "seat ns");
+
+        for (int days : DAYS) {
+            dataStore.reset();
+            LocalDate firstDay = LocalDate.now();
+            int journeyCount = populate(dataStore, firstDay, days);
+
+            // Warm up, then measure
+            measure(dataStore, firstDay, days, journeyCount);
+            long[] result = measure(dataStore, firstDay, days, journeyCount);
+
+            System.out.printf("%-10d %-10d %14d %14d %14d %14d%n",
+                    days, journeyCount, result[0], result[1], result[2], result[3]);
+        }
+
+        dataStore.reset();
+    }
+
+    private static int populate(DataStore dataStore, LocalDate firstDay, int days) {
+        int journeyCount = 0;
+        int bookingId = 1;
+        for (int day = 0; day < days; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            LocalDateTime departure = date.atTime(8, 0);
+            for (int bus = 1; bus <= BUSES_PER_DAY; bus++) {
+                for (String[] route : ROUTES) {
+                    Journey journey = dataStore.addJourney(bus, "JN-" + journeyCount, date, departure,
+                            route[0], route[1], route[0] + "->" + route[1], 40);
+                    journeyCount++;
+
+                    Booking booking = new Booking(journey.getId(), "Passenger", "07" + bookingId, route[0], route[1]);
+                    booking.setId(bookingId);
+                    booking.setBookingNumber("BK" + bookingId);
+                    dataStore.addBooking(booking);
+                    bookingId++;
+                }
+            }
+        }
+        return journeyCount;
+    }
+
+    private static long[] measure(DataStore dataStore, LocalDate firstDay, int days, int journeyCount) {
+        long sink = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += dataStore.getJourneysByDate(firstDay.plusDays(i % days)).size();
+        }
+        long byDate = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += dataStore.getJourneysByBusAndDate(1 + i % BUSES_PER_DAY, firstDay.plusDays(i % days)).size();
+        }
+        long byBusDate = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += dataStore.getBookingByNumber("BK" + (1 + i % journeyCount)).isPresent() ? 1 : 0;
+        }
+        long byNumber = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += dataStore.getSeatByJourneyAndSeatId(1 + i % journeyCount, "5C").isPresent() ? 1 : 0;
+        }
+        long seat = (System.nanoTime() - start) / ITERATIONS;
+
+        if (sink == 42) {
+            System.out.println("unlikely");
+        }
+        return new long[] {byDate, byBusDate, byNumber, seat};
+    }
+}
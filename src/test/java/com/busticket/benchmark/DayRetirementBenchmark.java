@@ -0,0 +1,91 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.service.DataStore;
+
+import java.time.LocalDate;
+
+/**
+ * Query latency over months of simulated uptime, with and without retiring past days
+ * Every simulated day publishes the next day's journeys, books them and then runs the
+ * cross-day queries (by route and by direction) that scan every live day.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.DayRetirementBenchmark
+ */
+public class DayRetirementBenchmark {
+
+    private static final String[][] ROUTES = {
+            {"A", "B"}, {"A", "C"}, {"A", "D"}, {"B", "C"}, {"B", "D"}, {"C", "D"}};
+    private static final int SIMULATED_DAYS = 360;
+    private static final int REPORT_EVERY = 60;
+    private static final int BUSES = 20;
+    private static final int BOOKINGS_PER_JOURNEY = 10;
+    private static final int RETENTION_DAYS = 7;
+    private static final int QUERIES = 200;
+
+    public static void main(String[] args) {
+        DataStore dataStore = DataStore.getInstance();
+        System.out.printf("%-10s %6s %12s %14s %16s%n", "retire", "day", "live days", "byRoute us", "byDirection us");
+        for (boolean retire : new boolean[]{false, true}) {
+            dataStore.reset();
+            LocalDate start = LocalDate.now();
+            int bookingId = 1;
+            for (int day = 1; day <= SIMULATED_DAYS; day++) {
+                LocalDate today = start.plusDays(day);
+                bookingId = publishAndBook(dataStore, today.plusDays(1), bookingId);
+                if (retire) {
+                    dataStore.retireDaysBefore(today.minusDays(RETENTION_DAYS));
+                }
+                if (day % REPORT_EVERY == 0) {
+                    long[] micros = query(dataStore);
+                    System.out.printf("%-10s %6d %12d %14d %16d%n", retire, day,
+                            dataStore.getDayPartitions().size(), micros[0], micros[1]);
+                }
+            }
+        }
+        dataStore.reset();
+    }
+
+    private static int publishAndBook(DataStore dataStore, LocalDate date, int bookingId) {
+        for (int bus = 1; bus <= BUSES; bus++) {
+            for (String[] route : ROUTES) {
+                Journey journey = dataStore.addJourney(bus, "JN-" + bus + route[0] + route[1], date,
+                        date.atTime(8, 0), route[0], route[1], route[0] + "->" + route[1], 40);
+                for (int seat = 0; seat < BOOKINGS_PER_JOURNEY; seat++) {
+                    Booking booking = new Booking(journey.getId(), "Passenger", String.format("07%08d", bookingId),
+                            route[0], route[1]);
+                    booking.setId(bookingId);
+                    booking.setBookingNumber("BK" + bookingId);
+                    dataStore.addBooking(booking);
+                    bookingId++;
+                }
+            }
+        }
+        return bookingId;
+    }
+
+    private static long[] query(DataStore dataStore) {
+        long sink = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            String[] route = ROUTES[i % ROUTES.length];
+            sink += dataStore.getJourneysByRoute(route[0], route[1]).size();
+        }
+        long byRoute = (System.nanoTime() - begin) / QUERIES / 1000;
+
+        begin = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            String[] route = ROUTES[i % ROUTES.length];
+            sink += dataStore.getJourneysByDirection(route[0] + "->" + route[1]).size();
+        }
+        long byDirection = (System.nanoTime() - begin) / QUERIES / 1000;
+
+        if (sink == 42) {
+            System.out.println("unlikely");
+        }
+        return new long[]{byRoute, byDirection};
+    }
+}
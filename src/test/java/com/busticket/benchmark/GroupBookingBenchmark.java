@@ -0,0 +1,131 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.domain.entity.Seat;
+import com.busticket.domain.request.PassengerInfo;
+import com.busticket.persistence.WriteAheadLog;
+import com.busticket.service.DataStore;
+import com.busticket.service.ReservationService;
+import com.busticket.service.SeatService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Groups of passengers racing for the seats of the same journeys, with the write-ahead log on
+ * - one-by-one: pick seats, then book each passenger separately (the old servlet flow)
+ * - group: ReservationService.createGroupReservation, all or nothing
+ * Reports attempts, seats left booked by groups that did not get all their seats, and the time
+ * spent per group that was booked completely.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.GroupBookingBenchmark
+ */
+public class GroupBookingBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int JOURNEYS = 50;
+    private static final int GROUP_SIZE = 4;
+    private static final int SEATS = 40;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-12s %10s %12s %14s %14s%n", "mode", "attempts", "failed", "leaked seats", "us/booked");
+        for (boolean group : new boolean[]{false, true, false, true}) {
+            run(group);
+        }
+    }
+
+    private static void run(boolean group) throws Exception {
+        DataStore dataStore = DataStore.getInstance();
+        dataStore.reset();
+        Path directory = Files.createTempDirectory("group-booking");
+        dataStore.enableWriteAheadLog(directory, WriteAheadLog.SyncMode.BATCH);
+        ReservationService reservations = ReservationService.getInstance();
+        SeatService seats = SeatService.getInstance();
+        LocalDate date = LocalDate.now().plusDays(1);
+        List<Integer> journeyIds = new ArrayList<>();
+        for (int i = 0; i < JOURNEYS; i++) {
+            Journey journey = dataStore.addJourney(i + 1, "JN-" + i, date, date.atTime(8, 0), "A", "D", "A->D", SEATS);
+            journeyIds.add(journey.getId());
+        }
+        List<PassengerInfo> passengers = new ArrayList<>();
+        for (int i = 0; i < GROUP_SIZE; i++) {
+            passengers.add(new PassengerInfo("Passenger " + i, "98765432" + i + "0", "p" + i + "@example.com"));
+        }
+
+        AtomicInteger groups = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger leaked = new AtomicInteger();
+        AtomicLong nanos = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Every thread walks every journey, so groups collide on the same seats
+                for (int journeyId : journeyIds) {
+                    while (seats.countAvailableSeats(journeyId) >= GROUP_SIZE) {
+                        long begin = System.nanoTime();
+                        int booked = group
+                                ? reservations.createGroupReservation(journeyId, passengers, "A", "D")
+                                        .map(List::size).orElse(0)
+                                : bookOneByOne(reservations, seats, journeyId, passengers);
+                        nanos.addAndGet(System.nanoTime() - begin);
+                        groups.incrementAndGet();
+                        if (booked < GROUP_SIZE) {
+                            failed.incrementAndGet();
+                            leaked.addAndGet(booked);
+                        }
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.printf("%-12s %10d %12d %14d %14d%n", group ? "group" : "one-by-one", groups.get(), failed.get(),
+                leaked.get(), nanos.get() / Math.max(1, groups.get() - failed.get()) / 1000);
+        dataStore.reset();
+        deleteDirectory(directory);
+    }
+
+    private static int bookOneByOne(ReservationService reservations, SeatService seats, int journeyId,
+                                    List<PassengerInfo> passengers) {
+        List<Seat> picked = seats.autoAssignMultipleAdjacentSeats(journeyId, passengers.size());
+        int booked = 0;
+        for (int i = 0; i < passengers.size() && i < picked.size(); i++) {
+            PassengerInfo passenger = passengers.get(i);
+            Optional<Booking> booking = reservations.createBooking(journeyId, passenger.getName(), passenger.getPhone(),
+                    passenger.getEmail(), "A", "D", picked.get(i).getSeatId());
+            if (booking.isPresent()) {
+                booked++;
+            }
+        }
+        return booked;
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.busticket.benchmark;
+
+import com.busticket.service.IdGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Booking number throughput under contention: the old millisecond + UUID scheme against IdGenerator
+ * Also counts numbers issued twice, which the millisecond-based ticket scheme could produce.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.IdGeneratorBenchmark
+ */
+public class IdGeneratorBenchmark {
+
+    private static final int[] THREADS = {1, 4, 16, 64};
+    private static final int NUMBERS_PER_THREAD = 50_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        IdGenerator generator = new IdGenerator(1);
+        int[] legacyTicketCounter = {1000};
+
+        // Warm up both paths
+        run(1, () -> "RS" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6), false);
+        run(1, generator::nextReservationNumber, false);
+
+        System.out.printf("%-28s %8s %14s %12s%n", "scheme", "threads", "numbers/sec", "duplicates");
+        for (int threads : THREADS) {
+            report("millis + UUID (old RS)", threads,
+                    () -> "RS" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6));
+            report("millis + counter (old TICKET)", threads,
+                    () -> "TICKET-" + System.currentTimeMillis() + "-" + (++legacyTicketCounter[0]));
+            report("IdGenerator", threads, generator::nextReservationNumber);
+        }
+    }
+
+    private static void report(String scheme, int threads, Supplier<String> numbers) throws InterruptedException {
+        long[] result = run(threads, numbers, true);
+        System.out.printf("%-28s %8d %14d %12d%n", scheme, threads, result[0], result[1]);
+    }
+
+    /**
+     * Returns numbers per second and how many numbers were issued more than once
+     */
+    private static long[] run(int threads, Supplier<String> numbers, boolean checkDuplicates)
+            throws InterruptedException {
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        long[] duplicates = new long[threads];
+        String[][] issued = new String[threads][NUMBERS_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String[] mine = issued[t];
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                    mine[i] = numbers.get();
+                }
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long total = 0;
+        if (checkDuplicates) {
+            for (int t = 0; t < threads; t++) {
+                for (String number : issued[t]) {
+                    if (!seen.add(number)) {
+                        duplicates[t]++;
+                    }
+                }
+                total += duplicates[t];
+            }
+        }
+        return new long[]{(long) threads * NUMBERS_PER_THREAD * 1_000_000_000L / elapsed, total};
+    }
+}
@@ -0,0 +1,102 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.request.PassengerInfo;
+import com.busticket.service.DataStore;
+import com.busticket.service.ReservationService;
+import com.busticket.servlet.IdempotencyCache;
+import com.busticket.util.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A retry storm on the booking endpoint: every booking request is sent several times at once,
+ * as clients do after a timeout. Without a key each copy runs the booking pipeline (parse,
+ * book, serialize); with an Idempotency-Key the copies share the first execution.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.IdempotencyBenchmark
+ */
+public class IdempotencyBenchmark {
+
+    private static final int REQUESTS = 2_000;
+    private static final int COPIES = 4;
+    private static final int JOURNEYS = 200;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-10s %10s %16s %14s%n", "keys", "requests", "seats booked", "us/request");
+        for (boolean keyed : new boolean[]{false, true, false, true}) {
+            run(keyed);
+        }
+        DataStore.getInstance().reset();
+    }
+
+    private static void run(boolean keyed) throws Exception {
+        DataStore dataStore = DataStore.getInstance();
+        dataStore.reset();
+        LocalDate date = LocalDate.now().plusDays(1);
+        for (int i = 0; i < JOURNEYS; i++) {
+            dataStore.addJourney(i + 1, "JN-" + i, date, date.atTime(8, 0), "A", "D", "A->D", 40);
+        }
+        IdempotencyCache cache = new IdempotencyCache(REQUESTS, 1, TimeUnit.HOURS);
+        AtomicLong nanos = new AtomicLong();
+
+        for (int request = 0; request < REQUESTS; request++) {
+            String body = "{\"journey_id\":" + (request % JOURNEYS + 1) + ",\"origin\":\"A\",\"destination\":\"D\","
+                    + "\"passengers\":[{\"name\":\"Passenger\",\"phone\":\"9876543210\",\"email\":\"p@example.com\"}]}";
+            String key = "retry-" + request;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> copies = new ArrayList<>();
+            for (int copy = 0; copy < COPIES; copy++) {
+                copies.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                        long begin = System.nanoTime();
+                        if (keyed) {
+                            String fingerprint = IdempotencyCache.fingerprint("POST", "/api/v1/reservation/book", body);
+                            cache.execute(key, fingerprint, 5_000, () -> book(body));
+                        } else {
+                            book(body);
+                        }
+                        nanos.addAndGet(System.nanoTime() - begin);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Thread copy : copies) {
+                copy.join();
+            }
+        }
+        System.out.printf("%-10s %10d %16d %14d%n", keyed ? "on" : "off", REQUESTS * COPIES,
+                dataStore.getAllBookings().size(), nanos.get() / (REQUESTS * COPIES) / 1000);
+    }
+
+    /**
+     * The booking pipeline of ReservationServlet: parse, book all passengers, serialize
+     */
+    private static IdempotencyCache.StoredResponse book(String body) throws Exception {
+        JsonNode json = JsonUtil.getObjectMapper().readTree(body);
+        List<PassengerInfo> passengers = new ArrayList<>();
+        for (JsonNode passenger : json.get("passengers")) {
+            passengers.add(new PassengerInfo(passenger.get("name").asText(), passenger.get("phone").asText(),
+                    passenger.get("email").asText()));
+        }
+        Optional<List<Booking>> booked = ReservationService.getInstance().createGroupReservation(
+                json.get("journey_id").asInt(), passengers, json.get("origin").asText(), json.get("destination").asText());
+        int status = booked.isPresent() ? 200 : 409;
+        String response = JsonUtil.toJson(Map.of("status", status, "data", booked.orElse(List.of())));
+        return new IdempotencyCache.StoredResponse(status, response.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package com.busticket.benchmark;
+
+import com.busticket.service.BusDayInventory;
+import com.busticket.service.SeatBitmap;
+
+/**
+ * Free seats of a route across a fleet of half-booked 40-seat bus-days
+ * - scan: test every seat's segment word (the previous availableCount)
+ * - counter: read the bus-day's per-route counter
+ * Reports fleet sweeps per second, one sweep asking every bus-day for A->D.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.RouteCounterBenchmark
+ */
+public class RouteCounterBenchmark {
+
+    private static final int[] FLEETS = {100, 1_000, 10_000};
+    private static final int SEATS = 40;
+    private static final long ROUTE = BusDayInventory.segmentMask("A", "D");
+    private static final long DURATION_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        System.out.printf("%-10s %8s %14s%n", "mode", "fleet", "sweeps/sec");
+        for (int fleet : FLEETS) {
+            BusDayInventory[] inventories = fleet(fleet);
+            // Warm up both paths
+            run(inventories, false);
+            run(inventories, true);
+            System.out.printf("%-10s %8d %14d%n", "scan", fleet, run(inventories, false));
+            System.out.printf("%-10s %8d %14d%n", "counter", fleet, run(inventories, true));
+        }
+    }
+
+    private static BusDayInventory[] fleet(int size) {
+        BusDayInventory[] inventories = new BusDayInventory[size];
+        for (int bus = 0; bus < size; bus++) {
+            inventories[bus] = new BusDayInventory(SEATS);
+            SeatBitmap journeyAB = new SeatBitmap(bus * 2, 0, SEATS, BusDayInventory.segmentMask("A", "B"),
+                    inventories[bus]);
+            SeatBitmap journeyCD = new SeatBitmap(bus * 2 + 1, 0, SEATS, BusDayInventory.segmentMask("C", "D"),
+                    inventories[bus]);
+            for (int seat = bus % 2; seat < SEATS; seat += 2) {
+                (seat % 4 < 2 ? journeyAB : journeyCD).book(seat, "Passenger", "9876543210");
+            }
+        }
+        return inventories;
+    }
+
+    private static long run(BusDayInventory[] inventories, boolean counter) {
+        long sweeps = 0;
+        long free = 0;
+        long begin = System.nanoTime();
+        long elapsed;
+        do {
+            for (BusDayInventory inventory : inventories) {
+                free += counter ? inventory.freeSeats(ROUTE, SEATS) : inventory.countFree(ROUTE, SEATS);
+            }
+            sweeps++;
+            elapsed = System.nanoTime() - begin;
+        } while (elapsed < DURATION_NANOS);
+        if (free != sweeps * inventories.length * SEATS / 2) {
+            throw new IllegalStateException("Unexpected free seat count");
+        }
+        return sweeps * 1_000_000_000L / elapsed;
+    }
+}
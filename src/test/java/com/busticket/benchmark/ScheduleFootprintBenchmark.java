@@ -0,0 +1,87 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.ServicePattern;
+import com.busticket.service.DataStore;
+import com.busticket.service.JourneyService;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+
+/**
+ * Heap cost of bulk-loading a year of schedules with no bookings
+ * Every bus-day runs the six journeys of a full A-B-C-D route pattern.
+ * The same schedule is then published as daily service patterns, which cost the same however
+ * far ahead they run; only the dates actually queried are expanded into journeys.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.ScheduleFootprintBenchmark
+ */
+public class ScheduleFootprintBenchmark {
+
+    private static final int DAYS = 365;
+    private static final int BUSES = 20;
+    private static final String[][] ROUTES = {
+            {"A", "B"}, {"A", "C"}, {"A", "D"}, {"B", "C"}, {"B", "D"}, {"C", "D"}};
+    private static final int SEATS = 40;
+
+    public static void main(String[] args) {
+        DataStore dataStore = DataStore.getInstance();
+        dataStore.reset();
+        long before = usedHeap();
+
+        LocalDate start = LocalDate.now();
+        long begin = System.nanoTime();
+        int journeys = 0;
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = start.plusDays(day);
+            for (int bus = 1; bus <= BUSES; bus++) {
+                for (String[] route : ROUTES) {
+                    dataStore.addJourney(bus, "JN-" + bus + route[0] + route[1], date, date.atTime(8, 0),
+                            route[0], route[1], route[0] + "->" + route[1], SEATS);
+                    journeys++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        long used = usedHeap() - before;
+
+        System.out.printf("journeys:          %,d%n", journeys);
+        System.out.printf("load time:         %.2f s (%,.0f journeys/sec)%n", seconds, journeys / seconds);
+        System.out.printf("heap retained:     %,d bytes%n", used);
+        System.out.printf("bytes per journey: %,d%n", used / journeys);
+        dataStore.reset();
+
+        JourneyService journeyService = JourneyService.getInstance();
+        before = usedHeap();
+        begin = System.nanoTime();
+        for (int bus = 1; bus <= BUSES; bus++) {
+            for (String[] route : ROUTES) {
+                journeyService.createServicePattern(new ServicePattern(bus, "JN-" + bus + route[0] + route[1],
+                        route[0], route[1], route[0] + "->" + route[1], LocalTime.of(8, 0),
+                        EnumSet.allOf(DayOfWeek.class), start, start.plusDays(DAYS - 1), SEATS));
+            }
+        }
+        seconds = (System.nanoTime() - begin) / 1e9;
+        used = usedHeap() - before;
+        begin = System.nanoTime();
+        int expanded = journeyService.getJourneysByDate(start.plusDays(DAYS / 2)).size();
+        double expandMillis = (System.nanoTime() - begin) / 1e6;
+
+        System.out.printf("%npatterns:          %,d (%d days ahead)%n", BUSES * ROUTES.length, DAYS);
+        System.out.printf("load time:         %.3f s%n", seconds);
+        System.out.printf("heap retained:     %,d bytes%n", used);
+        System.out.printf("first query of a date: %.2f ms (%d journeys expanded)%n", expandMillis, expanded);
+        dataStore.reset();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,109 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Journey;
+import com.busticket.service.DataStore;
+import com.busticket.service.ScheduleImporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schedule import time against timetable size
+ * Each size is imported from a generated CSV file with ScheduleImporter (bulk add), then the
+ * same journeys are added one at a time with addJourney. Flat microseconds per row mean the
+ * import scales linearly; a growing figure means every insert pays for the rows before it.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.ScheduleImportBenchmark
+ */
+public class ScheduleImportBenchmark {
+
+    private static final int[] ROWS = {15_000, 30_000, 60_000, 120_000};
+    private static final int BUSES = 50;
+    private static final String[][] ROUTES = {
+            {"A", "B"}, {"A", "C"}, {"A", "D"}, {"B", "C"}, {"B", "D"}, {"C", "D"}};
+
+    public static void main(String[] args) throws IOException {
+        DataStore dataStore = DataStore.getInstance();
+        ScheduleImporter importer = ScheduleImporter.getInstance();
+        Path dir = Files.createTempDirectory("schedule-benchmark");
+
+        // Warm up both paths so the first size is not dominated by JIT compilation
+        Path warmup = writeSchedule(dir, ROWS[0]);
+        dataStore.reset();
+        importer.importFile(warmup);
+        dataStore.reset();
+        addOneByOne(dataStore, warmup);
+
+        System.out.printf("%-10s %14s %12s %16s %12s%n", "rows", "import ms", "rows/sec", "one-by-one ms", "us/row");
+        for (int rows : ROWS) {
+            Path file = writeSchedule(dir, rows);
+
+            dataStore.reset();
+            ScheduleImporter.ImportReport report = importer.importFile(file);
+            if (report.journeysImported() != rows) {
+                throw new IllegalStateException("Import failed: " + report);
+            }
+
+            dataStore.reset();
+            long oneByOne = addOneByOne(dataStore, file);
+
+            System.out.printf("%-10d %14.1f %12.0f %16.1f %5.2f / %5.2f%n", rows, report.elapsedNanos() / 1e6,
+                    report.rowsPerSecond(), oneByOne / 1e6, report.elapsedNanos() / 1e3 / rows, oneByOne / 1e3 / rows);
+        }
+        dataStore.reset();
+        BenchmarkFiles.deleteRecursively(dir);
+    }
+
+    private static Path writeSchedule(Path dir, int rows) throws IOException {
+        Path file = dir.resolve("schedule-" + rows + ".csv");
+        LocalDate start = LocalDate.now();
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write(String.join(",", ScheduleImporter.COLUMNS));
+            out.newLine();
+            for (int i = 0; i < rows; i++) {
+                String[] route = ROUTES[i % ROUTES.length];
+                int bus = i / ROUTES.length % BUSES + 1;
+                LocalDate date = start.plusDays(i / (ROUTES.length * BUSES));
+                out.write(bus + ",JN-" + i + "," + date + ",08:00," + route[0] + "," + route[1] + ","
+                        + route[0] + "->" + route[1] + ",40");
+                out.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Add the already-parsed journeys of a file one at a time; returns the elapsed nanoseconds
+     */
+    private static long addOneByOne(DataStore dataStore, Path file) throws IOException {
+        List<Journey> parsed = new ArrayList<>();
+        try (var lines = Files.lines(file)) {
+            lines.skip(1).forEach(line -> {
+                String[] f = line.split(",");
+                Journey journey = new Journey();
+                journey.setBusId(Integer.parseInt(f[0]));
+                journey.setJourneyNumber(f[1]);
+                journey.setJourneyDate(LocalDate.parse(f[2]));
+                journey.setDepartureTime(journey.getJourneyDate().atTime(8, 0));
+                journey.setFromStop(f[4]);
+                journey.setToStop(f[5]);
+                journey.setDirection(f[6]);
+                journey.setTotalSeats(Integer.parseInt(f[7]));
+                parsed.add(journey);
+            });
+        }
+        long begin = System.nanoTime();
+        for (Journey j : parsed) {
+            dataStore.addJourney(j.getBusId(), j.getJourneyNumber(), j.getJourneyDate(), j.getDepartureTime(),
+                    j.getFromStop(), j.getToStop(), j.getDirection(), j.getTotalSeats());
+        }
+        return System.nanoTime() - begin;
+    }
+}
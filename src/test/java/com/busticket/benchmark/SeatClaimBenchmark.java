@@ -0,0 +1,75 @@
+package com.busticket.benchmark;
+
+import com.busticket.service.DataStore;
+import com.busticket.storage.SeatMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Flash-sale benchmark: many threads book and release seats on one journey
+ * Reports booking throughput per thread count to show how CAS claims scale with cores
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.SeatClaimBenchmark
+ */
+public class SeatClaimBenchmark {
+
+    private static final int SEATS = 4096;
+    private static final int OPERATIONS_PER_THREAD = 500_000;
+
+    public static void main(String[] args) throws Exception {
+        DataStore dataStore = DataStore.getInstance();
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%-10s %16s%n", "threads", "bookings/sec");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            dataStore.reset();
+            LocalDate date = LocalDate.now();
+            int journeyId = dataStore.addJourney(1, "FLASH", date, date.atTime(8, 0), "A", "D", "A->D", SEATS).getId();
+
+            run(dataStore, journeyId, threads, OPERATIONS_PER_THREAD / 10); // warm-up
+            long start = System.nanoTime();
+            long booked = run(dataStore, journeyId, threads, OPERATIONS_PER_THREAD);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%-10d %16.0f%n", threads, booked / seconds);
+        }
+        dataStore.reset();
+    }
+
+    private static long run(DataStore dataStore, int journeyId, int threads, int operations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 97;
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                long booked = 0;
+                for (int i = 0; i < operations; i++) {
+                    String seatId = SeatMap.seatNumber((offset + i) % SEATS);
+                    if (dataStore.bookSeat(journeyId, seatId, "Passenger", "0700000000")) {
+                        booked++;
+                        dataStore.releaseSeat(journeyId, seatId);
+                    }
+                }
+                return booked;
+            }));
+        }
+        startGate.countDown();
+
+        long total = 0;
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+        executor.shutdown();
+        return total;
+    }
+}
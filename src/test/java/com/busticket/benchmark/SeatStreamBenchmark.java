@@ -0,0 +1,87 @@
+package com.busticket.benchmark;
+
+import com.busticket.service.BusDayInventory;
+import com.busticket.service.SeatBitmap;
+import com.busticket.service.SeatMapTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seat change fan-out to stream subscribers, as AvailabilityStreamServlet does it
+ * Bookings and releases run at full speed on 100 buses; each bus-day's dispatcher tells the
+ * trackers off the booking thread, and every tracker schedules at most one pending delta on a virtual thread. Reports booking throughput and
+ * how many deltas the subscribers received per seat change, i.e. how much was coalesced.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.SeatStreamBenchmark
+ */
+public class SeatStreamBenchmark {
+
+    private static final int BUSES = 100;
+    private static final int SEATS = 40;
+    private static final int CHANGES = 400_000;
+    private static final int[] SUBSCRIBERS = {0, 1_000, 10_000};
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%12s %16s %20s%n", "subscribers", "changes/sec", "deltas/subscriber");
+        run(1_000);
+        for (int subscribers : SUBSCRIBERS) {
+            run(subscribers);
+        }
+    }
+
+    private static void run(int subscriberCount) throws Exception {
+        SeatBitmap[] journeys = new SeatBitmap[BUSES];
+        for (int bus = 0; bus < BUSES; bus++) {
+            journeys[bus] = new SeatBitmap(bus, 0, SEATS, BusDayInventory.segmentMask("A", "D"),
+                    new BusDayInventory(SEATS));
+        }
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        AtomicLong deltas = new AtomicLong();
+        List<SeatMapTracker> trackers = new ArrayList<>();
+        for (int i = 0; i < subscriberCount; i++) {
+            AtomicBoolean scheduled = new AtomicBoolean();
+            SeatMapTracker[] tracker = new SeatMapTracker[1];
+            tracker[0] = new SeatMapTracker(journeys[i % BUSES], () -> {
+                if (scheduled.compareAndSet(false, true)) {
+                    try {
+                        executor.execute(() -> {
+                            scheduled.set(false);
+                            if (!tracker[0].poll().isEmpty()) {
+                                deltas.incrementAndGet();
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // The run is over; a late round of the bus-day dispatcher has nothing to report
+                    }
+                }
+            });
+            tracker[0].snapshot();
+            trackers.add(tracker[0]);
+        }
+
+        long begin = System.nanoTime();
+        for (int change = 0; change < CHANGES; change += 2) {
+            SeatBitmap journey = journeys[change % BUSES];
+            int seat = (change / BUSES) % SEATS;
+            journey.book(seat, "Passenger", "9876543210");
+            journey.release(seat);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        trackers.forEach(SeatMapTracker::close);
+
+        System.out.printf("%12d %16d %20s%n", subscriberCount, CHANGES * 1_000_000_000L / elapsed,
+                subscriberCount == 0 ? "-" : String.format("%.1f of %d", (double) deltas.get() / subscriberCount,
+                        CHANGES / BUSES));
+    }
+}
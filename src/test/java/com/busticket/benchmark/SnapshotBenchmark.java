@@ -0,0 +1,79 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.persistence.SnapshotFile;
+import com.busticket.persistence.WriteAheadLog;
+import com.busticket.service.DataStore;
+import com.busticket.storage.SeatMap;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Cold-start benchmark: checkpoint a store holding a million bookings, then time how long
+ * a restart takes to load it back from the memory-mapped snapshot.
+ *
+ * The target is a cold load under 1 s, which the current format does not reach: a restore
+ * decodes in about 0.5 s, but every booking is rebuilt as a Booking with its index entries,
+ * and on a single-CPU host with the default heap the load takes 5-7 s, mostly in garbage
+ * collection of that live set (about 1.5-2 s with a heap large enough to avoid it).
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.SnapshotBenchmark
+ */
+public class SnapshotBenchmark {
+
+    private static final int JOURNEYS = 25_000;
+    private static final int SEATS = 40;
+
+    public static void main(String[] args) throws Exception {
+        DataStore dataStore = DataStore.getInstance();
+        Path dir = Files.createTempDirectory("snapshot-benchmark");
+        try {
+            dataStore.reset();
+            populate(dataStore);
+            dataStore.enableWriteAheadLog(dir, WriteAheadLog.SyncMode.BATCH);
+
+            long start = System.nanoTime();
+            dataStore.checkpoint();
+            double checkpointSeconds = (System.nanoTime() - start) / 1e9;
+            long snapshotBytes = Files.size(dir.resolve(SnapshotFile.FILE_NAME));
+
+            dataStore.reset();
+            start = System.nanoTime();
+            dataStore.enableWriteAheadLog(dir, WriteAheadLog.SyncMode.BATCH);
+            double loadSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("bookings:        %,d%n", dataStore.getAllBookings().size());
+            System.out.printf("snapshot size:   %,d bytes%n", snapshotBytes);
+            System.out.printf("checkpoint:      %.3f s%n", checkpointSeconds);
+            System.out.printf("cold load:       %.3f s (target < 1 s)%n", loadSeconds);
+        } finally {
+            dataStore.reset();
+            BenchmarkFiles.deleteRecursively(dir);
+        }
+    }
+
+    private static void populate(DataStore dataStore) {
+        LocalDate date = LocalDate.now();
+        for (int j = 0; j < JOURNEYS; j++) {
+            LocalDate day = date.plusDays(j % 30);
+            Journey journey = dataStore.addJourney(1 + j / 30, "JN-" + j, day, day.atTime(8, 0),
+                    "A", "D", "A->D", SEATS);
+            for (int s = 0; s < SEATS; s++) {
+                String seatId = SeatMap.seatNumber(s);
+                String phone = String.format("07%08d", j * SEATS + s);
+                dataStore.bookSeat(journey.getId(), seatId, "Passenger " + s, phone);
+                Booking booking = new Booking(journey.getId(), "Passenger " + s, phone, "A", "D");
+                booking.setId(dataStore.nextBookingId());
+                booking.setBookingNumber("BK" + booking.getId());
+                booking.setSeatId(seatId);
+                dataStore.addBooking(booking);
+                journey.decrementAvailableSeats();
+            }
+        }
+    }
+}
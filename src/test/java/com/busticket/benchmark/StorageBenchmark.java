@@ -0,0 +1,88 @@
+package com.busticket.benchmark;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.storage.SeatMap;
+import com.busticket.storage.StorageProvider;
+import com.busticket.storage.StorageProviders;
+
+import java.time.LocalDate;
+import java.util.function.IntPredicate;
+
+/**
+ * Compares storage providers on the hot operations the services issue
+ * Providers are given as arguments (names or class names); the default is the in-memory one.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.StorageBenchmark -Dexec.args="memory"
+ */
+public class StorageBenchmark {
+
+    private static final int JOURNEYS = 1_000;
+    private static final int SEATS = 40;
+    private static final int OPERATIONS = 2_000_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        String[] names = args.length > 0 ? args : new String[]{StorageProviders.IN_MEMORY};
+
+        System.out.printf("%-12s %-18s %14s%n", "provider", "operation", "ops/sec");
+        for (String name : names) {
+            StorageProvider provider = StorageProviders.create(name);
+            for (int round = 1; round <= ROUNDS; round++) {
+                // Only the last round is reported; earlier rounds warm up the JIT
+                boolean report = round == ROUNDS;
+                provider.reset();
+                int firstJourneyId = populate(provider);
+
+                measure(report, provider, "journey lookup", i ->
+                        provider.journeys().getJourneyById(firstJourneyId + i % JOURNEYS).isPresent());
+                measure(report, provider, "book + release", i -> {
+                    int journeyId = firstJourneyId + i % JOURNEYS;
+                    String seatId = SeatMap.seatNumber(i / JOURNEYS % SEATS);
+                    return provider.seats().bookSeat(journeyId, seatId, "Passenger", "0700000000")
+                            && provider.seats().releaseSeat(journeyId, seatId);
+                });
+                measure(report, provider, "booking lookup", i ->
+                        provider.bookings().getBookingByNumber("BK" + (i % JOURNEYS + 1)).isPresent());
+                measure(report, provider, "fare calculation", i ->
+                        provider.fares().calculateFare("A", "D").signum() > 0);
+            }
+            provider.reset();
+        }
+    }
+
+    private static int populate(StorageProvider provider) {
+        LocalDate date = LocalDate.now();
+        int firstJourneyId = -1;
+        for (int j = 0; j < JOURNEYS; j++) {
+            int journeyId = provider.journeys().addJourney(1 + j, "JN-" + j, date, date.atTime(8, 0),
+                    "A", "D", "A->D", SEATS).getId();
+            if (firstJourneyId < 0) {
+                firstJourneyId = journeyId;
+            }
+            Booking booking = new Booking(journeyId, "Passenger", "07" + j, "A", "D");
+            booking.setId(provider.bookings().nextBookingId());
+            booking.setBookingNumber("BK" + booking.getId());
+            provider.bookings().addBooking(booking);
+        }
+        return firstJourneyId;
+    }
+
+    private static void measure(boolean report, StorageProvider provider, String operation, IntPredicate op) {
+        int succeeded = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (op.test(i)) {
+                succeeded++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (succeeded != OPERATIONS) {
+            throw new IllegalStateException(operation + " failed " + (OPERATIONS - succeeded) + " times");
+        }
+        if (report) {
+            System.out.printf("%-12s %-18s %,14.0f%n", provider.getName(), operation, OPERATIONS / seconds);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.busticket.benchmark;
+
+import com.busticket.persistence.WriteAheadLog;
+import com.busticket.service.DataStore;
+import com.busticket.storage.SeatMap;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Durable booking throughput with the write-ahead log in group-commit (fsync per batch)
+ * versus fsync-per-record mode. Every booking waits until its record is on disk.
+ *
+ * Run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.busticket.benchmark.WalBenchmark
+ */
+public class WalBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 8, 32};
+    private static final int SEATS = 4096;
+    private static final long DURATION_MILLIS = 3000;
+
+    public static void main(String[] args) throws Exception {
+        DataStore dataStore = DataStore.getInstance();
+        Path dir = Files.createTempDirectory("wal-benchmark");
+
+        System.out.printf("%-8s %-10s %16s%n", "sync", "threads", "bookings/sec");
+        for (WriteAheadLog.SyncMode mode : WriteAheadLog.SyncMode.values()) {
+            for (int threads : THREAD_COUNTS) {
+                dataStore.reset();
+                Path logDir = Files.createDirectory(dir.resolve(mode + "-" + threads));
+                dataStore.enableWriteAheadLog(logDir, mode);
+                LocalDate date = LocalDate.now();
+                int journeyId = dataStore.addJourney(1, "FLASH", date, date.atTime(8, 0),
+                        "A", "D", "A->D", SEATS).getId();
+
+                long booked = run(dataStore, journeyId, threads);
+                System.out.printf("%-8s %-10d %16.0f%n", mode, threads, booked * 1000.0 / DURATION_MILLIS);
+
+                dataStore.closeWriteAheadLog();
+                BenchmarkFiles.deleteRecursively(logDir);
+            }
+        }
+        dataStore.reset();
+        BenchmarkFiles.deleteRecursively(dir);
+    }
+
+    private static long run(DataStore dataStore, int journeyId, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * (SEATS / threads);
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                long booked = 0;
+                for (int i = 0; System.currentTimeMillis() < deadline; i++) {
+                    String seatId = SeatMap.seatNumber((offset + i) % SEATS);
+                    // Book and release so the run never sells out; only bookings are counted
+                    if (dataStore.bookSeat(journeyId, seatId, "Passenger", "0700000000")) {
+                        booked++;
+                        dataStore.releaseSeat(journeyId, seatId);
+                    }
+                }
+                return booked;
+            }));
+        }
+        startGate.countDown();
+
+        long total = 0;
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+        executor.shutdown();
+        return total;
+    }
+}
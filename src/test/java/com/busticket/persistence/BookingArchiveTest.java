@@ -0,0 +1,126 @@
+package com.busticket.persistence;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.service.DataStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookingArchive segments and archived booking lookups
+ */
+public class BookingArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DataStore dataStore;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        dataStore.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataStore.reset();
+    }
+
+    private Booking booking(int id, String email, BigDecimal fare) {
+        Booking booking = new Booking(id % 7, "Passenger " + id, String.format("98%08d", id), "A", "D");
+        booking.setId(id);
+        booking.setBookingNumber("RS1760000000" + String.format("%03d", id));
+        booking.setPassengerEmail(email);
+        booking.setSeatId((id % 10 + 1) + "A");
+        booking.setFare(fare);
+        booking.setTravelDate(today.atTime(8, 0));
+        booking.setBookingTime(LocalDateTime.of(today.minusDays(3), LocalTime.of(9, 15, 30, 123_000_000)));
+        return booking;
+    }
+
+    private static void assertSameBooking(Booking expected, Booking actual) {
+        assertEquals(expected.getId(), actual.getId(), "id");
+        assertEquals(expected.getJourneyId(), actual.getJourneyId(), "journeyId");
+        assertEquals(expected.getBookingNumber(), actual.getBookingNumber(), "bookingNumber");
+        assertEquals(expected.getPassengerName(), actual.getPassengerName(), "passengerName");
+        assertEquals(expected.getPassengerPhone(), actual.getPassengerPhone(), "passengerPhone");
+        assertEquals(expected.getPassengerEmail(), actual.getPassengerEmail(), "passengerEmail");
+        assertEquals(expected.getFromStop(), actual.getFromStop(), "fromStop");
+        assertEquals(expected.getToStop(), actual.getToStop(), "toStop");
+        assertEquals(expected.getSeatId(), actual.getSeatId(), "seatId");
+        assertEquals(expected.getFare(), actual.getFare(), "fare");
+        assertEquals(expected.getStatus(), actual.getStatus(), "status");
+        assertEquals(expected.getBookingTime(), actual.getBookingTime(), "bookingTime");
+        assertEquals(expected.getTravelDate(), actual.getTravelDate(), "travelDate");
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt(), "createdAt");
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt(), "updatedAt");
+    }
+
+    @Test
+    public void testSegmentsRoundTripEveryFieldAcrossReopen() throws IOException {
+        List<Booking> bookings = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            String email = id % 5 == 0 ? null : id % 5 == 1 ? "nodomain" + id : "p" + id + "@example.com";
+            bookings.add(booking(id, email, id % 9 == 0 ? null : new BigDecimal("150.00").add(BigDecimal.valueOf(id))));
+        }
+        bookings.get(3).setStatus("CANCELLED");
+        bookings.get(4).setUpdatedAt(null);
+
+        try (BookingArchive archive = BookingArchive.open(tempDir)) {
+            archive.append(today.minusDays(1), bookings.subList(0, 120));
+            archive.append(today, bookings.subList(120, 200));
+        }
+
+        try (BookingArchive archive = BookingArchive.open(tempDir)) {
+            assertEquals(2, archive.getSegmentCount(), "Both segments should be reopened");
+            assertEquals(200, archive.getBookingCount(), "Every booking should be archived");
+            for (Booking expected : bookings) {
+                Optional<Booking> found = archive.find(expected.getBookingNumber());
+                assertTrue(found.isPresent(), "Archived booking should be found: " + expected.getBookingNumber());
+                assertSameBooking(expected, found.get());
+            }
+            assertTrue(archive.find("RS1760000000999").isEmpty(), "Unknown number inside the range should miss");
+            assertTrue(archive.find("ZZ").isEmpty(), "Number outside every segment should miss");
+        }
+    }
+
+    @Test
+    public void testRetiredBookingIsStillFoundByNumber() throws IOException {
+        LocalDate past = today.minusDays(2);
+        Journey journey = dataStore.addJourney(1, "JN-1", past, past.atTime(8, 0), "A", "D", "A->D", 40);
+        Booking booking = new Booking(journey.getId(), "John Doe", "9876543210", "A", "D");
+        booking.setId(dataStore.nextBookingId());
+        booking.setBookingNumber("BK-PAST");
+        booking.setPassengerEmail("john@example.com");
+        booking.setSeatId("1A");
+        dataStore.addBooking(booking);
+
+        try (BookingArchive archive = BookingArchive.open(tempDir)) {
+            dataStore.setBookingArchive(archive);
+            assertEquals(1, dataStore.retireDaysBefore(today), "The past day should be retired");
+
+            assertTrue(dataStore.getJourneyById(journey.getId()).isEmpty(), "Retired journey should leave memory");
+            assertTrue(dataStore.getBookingById(booking.getId()).isEmpty(), "Retired booking should leave memory");
+            Optional<Booking> found = dataStore.getBookingByNumber("BK-PAST");
+            assertTrue(found.isPresent(), "Retired booking should be found in the archive");
+            assertSameBooking(booking, found.get());
+            assertTrue(dataStore.getBookingByNumber("BK-NONE").isEmpty(), "Unknown number should still miss");
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.busticket.persistence;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.domain.entity.SeatHold;
+import com.busticket.domain.entity.ServicePattern;
+import com.busticket.domain.request.UpdateFareRequest;
+import com.busticket.service.DataStore;
+import com.busticket.service.FareService;
+import com.busticket.service.ReservationService;
+import com.busticket.service.SeatService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WriteAheadLog and DataStore replay
+ */
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DataStore dataStore;
+
+    @BeforeEach
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        dataStore.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataStore.reset();
+    }
+
+    @Test
+    public void testReplayRestoresStateAfterRestart() throws IOException {
+        LocalDate travelDate = LocalDate.now().plusDays(1);
+        dataStore.enableWriteAheadLog(tempDir, WriteAheadLog.SyncMode.BATCH);
+
+        Journey journey = dataStore.addJourney(1, "JN-1", travelDate, travelDate.atTime(8, 0),
+                "A", "D", "A->D", 40);
+        Booking booking = ReservationService.getInstance().createReservation(journey.getId(), "John Doe",
+                "9876543210", "john@example.com", "A", "D", "1A").orElseThrow();
+        dataStore.bookSeat(journey.getId(), "2A", "Jane Doe", "9876543211");
+        dataStore.releaseSeat(journey.getId(), "2A");
+        SeatService.getInstance().createSeatHold(journey.getId(), "3A");
+        SeatService seatService = SeatService.getInstance();
+        SeatHold released = seatService.leaseSeatHold(journey.getId(), "4A").orElseThrow();
+        assertTrue(seatService.releaseSeatHold(released), "A leased hold can be released");
+        seatService.leaseSeatHold(journey.getId(), "4A").orElseThrow();
+        assertFalse(seatService.releaseSeatHold(released), "A released hold cannot release its successor");
+        FareService.getInstance().updateFare(new UpdateFareRequest(1, 4, new BigDecimal("175.00")));
+        Journey bulk = new Journey();
+        bulk.setBusId(1);
+        bulk.setJourneyNumber("JN-BULK");
+        bulk.setJourneyDate(travelDate);
+        bulk.setDepartureTime(travelDate.atTime(10, 0));
+        bulk.setFromStop("B");
+        bulk.setToStop("C");
+        bulk.setDirection("B->C");
+        bulk.setTotalSeats(40);
+        int bulkId = dataStore.addJourneys(List.of(bulk)).get(0).getId();
+        dataStore.addServicePattern(new ServicePattern(2, "JN-DAILY", "A", "D", "A->D", LocalTime.of(7, 0),
+                EnumSet.allOf(DayOfWeek.class), travelDate, null, 40));
+
+        // Simulate a restart: wipe memory (which closes the log), then replay it
+        dataStore.reset();
+        assertTrue(dataStore.getAllJourneys().isEmpty(), "Reset should wipe journeys");
+        dataStore.enableWriteAheadLog(tempDir, WriteAheadLog.SyncMode.BATCH);
+
+        Journey restored = dataStore.getJourneyById(journey.getId()).orElseThrow();
+        assertEquals("JN-1", restored.getJourneyNumber(), "Journey should be restored");
+        assertEquals(39, restored.getAvailableSeats(), "Available seats should reflect the booking");
+        assertFalse(dataStore.isSeatAvailable(journey.getId(), "1A"), "Booked seat should stay booked");
+        assertTrue(dataStore.isSeatAvailable(journey.getId(), "2A"), "Released seat should stay released");
+        assertTrue(SeatService.getInstance().isSeatOnHold(journey.getId(), "3A"), "Hold should be restored");
+        assertTrue(SeatService.getInstance().isSeatOnHold(journey.getId(), "4A"),
+                "Only holds actually released are logged as removed");
+        assertEquals(booking.getId(), dataStore.getBookingByNumber(booking.getBookingNumber()).orElseThrow().getId(),
+                "Booking should be restored under its number");
+        assertEquals(new BigDecimal("175.00"), dataStore.calculateFare("A", "D"), "Fare update should be restored");
+        assertFalse(dataStore.isSeatAvailable(bulkId, "1A"), "Bulk-added journey should share the restored seats");
+        ServicePattern pattern = dataStore.getServicePatterns().iterator().next();
+        assertEquals(EnumSet.allOf(DayOfWeek.class), pattern.getDaysOfWeek(), "Service pattern should be restored");
+        assertEquals(travelDate, pattern.getValidFrom(), "Service pattern dates should be restored");
+
+        Journey next = dataStore.addJourney(1, "JN-2", travelDate, travelDate.atTime(9, 0), "A", "B", "A->B", 40);
+        assertTrue(next.getId() > journey.getId(), "ID sequences should continue after replayed records");
+    }
+
+    @Test
+    public void testFailedBookingWriteLeavesNoBookingOrSeatClaim() throws IOException {
+        LocalDate travelDate = LocalDate.now().plusDays(1);
+        dataStore.enableWriteAheadLog(tempDir, WriteAheadLog.SyncMode.BATCH);
+        Journey journey = dataStore.addJourney(1, "JN-1", travelDate, travelDate.atTime(8, 0),
+                "A", "D", "A->D", 40);
+
+        // The booking record outgrows the log's record limit, so only its write fails
+        String oversizedEmail = "x".repeat(1 << 20) + "@example.com";
+        assertThrows(IllegalArgumentException.class, () -> ReservationService.getInstance().createReservation(
+                journey.getId(), "John Doe", "9876543210", oversizedEmail, "A", "D", "1A"));
+
+        assertTrue(dataStore.getBookingsByJourney(journey.getId()).isEmpty(), "The booking is not kept");
+        assertTrue(dataStore.isSeatAvailable(journey.getId(), "1A"), "The seat claim is undone");
+        assertEquals(40, journey.getAvailableSeats(), "Available seats are unchanged");
+
+        dataStore.reset();
+        dataStore.enableWriteAheadLog(tempDir, WriteAheadLog.SyncMode.BATCH);
+        assertTrue(dataStore.isSeatAvailable(journey.getId(), "1A"), "The undone claim stays undone after a restart");
+    }
+
+    @Test
+    public void testTornTailIsTruncated() throws IOException {
+        Path file = tempDir.resolve("wal-00000000000000000001.log");
+        try (WriteAheadLog log = WriteAheadLog.open(tempDir, WriteAheadLog.SyncMode.RECORD, 0,
+                (type, lsn, payload) -> { })) {
+            for (int i = 0; i < 3; i++) {
+                log.append(WalRecords.SEAT_RELEASED, WalRecords.seatReleased(i, i));
+            }
+        }
+        long intactSize = Files.size(file);
+
+        // A crash mid-write leaves a partial record behind
+        Files.write(file, new byte[]{0, 0, 0, 8, WalRecords.SEAT_RELEASED, 1, 2}, StandardOpenOption.APPEND);
+
+        List<Long> lsns = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(tempDir, WriteAheadLog.SyncMode.BATCH, 0,
+                (type, lsn, payload) -> lsns.add(lsn))) {
+            assertEquals(List.of(1L, 2L, 3L), lsns, "Only intact records should be replayed");
+            assertEquals(intactSize, Files.size(file), "Torn tail should be truncated");
+            assertEquals(4, log.append(WalRecords.SEAT_RELEASED, WalRecords.seatReleased(9, 9)),
+                    "Appends should continue the LSN sequence");
+        }
+    }
+
+    @Test
+    public void testCheckpointRestoresFromSnapshotAndLogTail() throws IOException {
+        LocalDate travelDate = LocalDate.now().plusDays(1);
+        dataStore.enableWriteAheadLog(tempDir, WriteAheadLog.SyncMode.BATCH);
+        Journey journey = dataStore.addJourney(1, "JN-1", travelDate, travelDate.atTime(8, 0),
+                "A", "D", "A->D", 40);
+        ReservationService reservations = ReservationService.getInstance();
+        reservations.createReservation(journey.getId(), "John Doe", "9876543210", "john@example.com",
+                "A", "D", "1A").orElseThrow();
+        dataStore.bookSeat(journey.getId(), "2A", "Jane Doe", "9876543211");
+
+        long checkpointLsn = dataStore.checkpoint();
+        assertTrue(checkpointLsn > 0, "Checkpoint should cover the records logged so far");
+        assertTrue(Files.exists(tempDir.resolve(SnapshotFile.FILE_NAME)), "Snapshot should be written");
+
+        // Changes after the checkpoint live only in the log tail
+        dataStore.releaseSeat(journey.getId(), "2A");
+        Booking late = reservations.createReservation(journey.getId(), "Late Rider", "9876543212",
+                "late@example.com", "A", "D", "3A").orElseThrow();
+
+        dataStore.reset();
+        dataStore.enableWriteAheadLog(tempDir, WriteAheadLog.SyncMode.BATCH);
+
+        Journey restored = dataStore.getJourneyById(journey.getId()).orElseThrow();
+        assertEquals(38, restored.getAvailableSeats(), "Available seats should count both confirmed bookings");
+        assertFalse(dataStore.isSeatAvailable(journey.getId(), "1A"), "Seat from the snapshot should stay booked");
+        assertTrue(dataStore.isSeatAvailable(journey.getId(), "2A"), "Release from the log tail should apply");
+        assertFalse(dataStore.isSeatAvailable(journey.getId(), "3A"), "Booking from the log tail should apply");
+        assertEquals("Late Rider", dataStore.getBookingByNumber(late.getBookingNumber()).orElseThrow()
+                .getPassengerName(), "Booking from the log tail should be restored");
+
+        try (var segments = Files.list(tempDir)) {
+            assertTrue(segments.map(path -> path.getFileName().toString())
+                            .noneMatch(name -> name.equals("wal-00000000000000000001.log")),
+                    "Segments covered by the snapshot should be deleted");
+        }
+    }
+}
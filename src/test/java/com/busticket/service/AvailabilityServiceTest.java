@@ -247,4 +247,94 @@ public class AvailabilityServiceTest {
         var journeyInfo = availabilityService.getJourneyInfoById(journey.getId(), 2, "B", "C");
         assertTrue(journeyInfo.isEmpty(), "Should return empty when route doesn't match");
     }
+
+    @Test
+    public void testAvailabilityReflectsPartialRouteBookings() {
+        String journeyDate = testDate.toString();
+        SeatService seatService = SeatService.getInstance();
+        Journey journeyBC = journeyService.getJourneysByRoute("B", "C").stream().findFirst().orElseThrow();
+
+        // Book 1A on B->C (bus 1): overlaps A->D on bus 1 only
+        assertTrue(seatService.bookSeat(journeyBC.getId(), "1A", "John Doe", "9876543210"), "Seat should be booked");
+
+        var result = availabilityService.checkAvailability("A", "D", 1, journeyDate);
+        var bus1 = result.stream().filter(j -> j.getBusId() == 1).findFirst().orElseThrow();
+        var bus2 = result.stream().filter(j -> j.getBusId() == 2).findFirst().orElseThrow();
+        assertEquals(39, bus1.getAvailableSeats(), "Overlapping booking should block the seat on bus 1");
+        assertFalse(bus1.getAvailableSeatNumbers().contains("1A"), "1A should not be offered on bus 1");
+        assertEquals(40, bus2.getAvailableSeats(), "Other buses should be unaffected");
+
+        // Releasing the seat frees the segments again
+        assertTrue(seatService.releaseSeat(journeyBC.getId(), "1A"), "Seat should be released");
+        result = availabilityService.checkAvailability("A", "D", 1, journeyDate);
+        assertTrue(result.stream().allMatch(j -> j.getAvailableSeats() == 40), "All seats should be free again");
+    }
+
+    @Test
+    public void testRepeatedQueryReusesCachedResult() {
+        String journeyDate = testDate.toString();
+        AvailabilityResult first = availabilityService.getAvailability("A", "D", 2, journeyDate);
+        AvailabilityResult second = availabilityService.getAvailability("A", "D", 2, journeyDate);
+        assertSame(first, second, "An unchanged bus-day should be served from the cache");
+        assertNotSame(first, availabilityService.getAvailability("A", "D", 3, journeyDate),
+            "Party sizes are cached separately");
+        assertNotSame(availabilityService.getAvailability("X", "D", 2, journeyDate),
+            availabilityService.getAvailability("X", "D", 2, journeyDate), "Invalid queries are not cached");
+    }
+
+    @Test
+    public void testCachedResultInvalidatedByBookingAndSchedule() {
+        String journeyDate = testDate.toString();
+        SeatService seatService = SeatService.getInstance();
+        Journey journeyAD = journeyService.getJourneysByRoute("A", "D").stream().findFirst().orElseThrow();
+
+        AvailabilityResult before = availabilityService.getAvailability("A", "D", 1, journeyDate);
+        assertTrue(seatService.bookSeat(journeyAD.getId(), "2B", "John Doe", "9876543210"), "Seat should be booked");
+        AvailabilityResult booked = availabilityService.getAvailability("A", "D", 1, journeyDate);
+        assertNotSame(before, booked, "A booking should invalidate the cached result");
+        assertFalse(booked.getJourneys().stream().filter(j -> j.getJourneyId() == journeyAD.getId())
+            .findFirst().orElseThrow().getAvailableSeatNumbers().contains("2B"), "The booked seat is no longer offered");
+
+        assertTrue(seatService.createSeatHold(journeyAD.getId(), "3C"), "Seat should be held");
+        AvailabilityResult held = availabilityService.getAvailability("A", "D", 1, journeyDate);
+        assertSame(booked, held, "A hold does not change the seats offered, so the cached result stays current");
+
+        journeyService.createJourney(
+            3, "BUS004", testDate, LocalDateTime.now().plusDays(1).withHour(20).withMinute(0),
+            "A", "D", "FORWARD", 40
+        );
+        AvailabilityResult scheduled = availabilityService.getAvailability("A", "D", 1, journeyDate);
+        assertEquals(held.getJourneys().size() + 1, scheduled.getJourneys().size(),
+            "A new journey should invalidate the cached result");
+    }
+
+    @Test
+    public void testDateRangeSummarizesEachDay() {
+        LocalDate today = LocalDate.now();
+        journeyService.createJourney(
+            3, "BUS004", today.plusDays(2), LocalDateTime.now().plusDays(2).withHour(9).withMinute(0),
+            "A", "D", "FORWARD", 30
+        );
+
+        var days = availabilityService.checkAvailabilityRange("A", "D", 2, today.toString(), today.plusDays(3).toString());
+        assertEquals(4, days.size(), "One summary per day of the range");
+        assertEquals(today, days.get(0).getDate(), "Days are in date order");
+        assertEquals(0, days.get(0).getDepartures(), "No journeys run today");
+        assertNull(days.get(0).getCheapestFare(), "A day without departures has no fare");
+
+        var tomorrow = days.get(1);
+        assertEquals(2, tomorrow.getDepartures(), "Both A->D journeys run tomorrow");
+        assertEquals(80, tomorrow.getSeatsLeft(), "Seats of both journeys are counted");
+        assertEquals(150.00, tomorrow.getCheapestFare().doubleValue(), "A->D fare should be 150");
+        assertEquals(300.00, tomorrow.getCheapestTotalFare().doubleValue(), "Total covers both passengers");
+        assertEquals(9, days.get(2).getFirstDeparture().getHour(), "First departure of the day");
+        assertEquals(0, days.get(3).getDepartures(), "Days beyond the booking window have no departures");
+
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.checkAvailabilityRange("A", "D", 2,
+            today.plusDays(1).toString(), today.toString()), "A reversed range is rejected");
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.checkAvailabilityRange("A", "D", 2,
+            today.toString(), today.plusDays(30).toString()), "An over-long range is rejected");
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.checkAvailabilityRange("A", "D", 2,
+            "tomorrow", today.toString()), "A malformed date is rejected");
+    }
 }
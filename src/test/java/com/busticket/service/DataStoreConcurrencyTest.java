@@ -0,0 +1,217 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.storage.SeatMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-threaded stress tests for DataStore
+ */
+public class DataStoreConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int BUSES = 8;
+    private static final int SEATS_PER_BUS = 40;
+
+    private DataStore dataStore;
+    private ExecutorService executor;
+    private LocalDate testDate;
+
+    @BeforeEach
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        dataStore.reset();
+        executor = Executors.newFixedThreadPool(THREADS);
+        testDate = LocalDate.now().plusDays(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        dataStore.reset();
+    }
+
+    @Test
+    public void testConcurrentBookingsHaveNoLostUpdates() throws Exception {
+        int[] journeyIds = new int[BUSES];
+        for (int bus = 0; bus < BUSES; bus++) {
+            journeyIds[bus] = dataStore.addJourney(bus + 1, "JN-" + bus, testDate, testDate.atTime(8, 0),
+                    "A", "D", "A->D", SEATS_PER_BUS).getId();
+        }
+
+        // 8 threads per bus, each booking its own 5 seats
+        int seatsPerThread = SEATS_PER_BUS / (THREADS / BUSES);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int bus = t % BUSES;
+            int firstSeat = (t / BUSES) * seatsPerThread;
+            tasks.add(() -> {
+                int booked = 0;
+                for (int seat = firstSeat; seat < firstSeat + seatsPerThread; seat++) {
+                    String seatId = SeatMap.seatNumber(seat);
+                    if (dataStore.bookSeat(journeyIds[bus], seatId, "Passenger", "0700000000")) {
+                        Booking booking = new Booking(journeyIds[bus], "Passenger", "0700000000", "A", "D");
+                        booking.setId(dataStore.nextBookingId());
+                        booking.setBookingNumber("BK-" + booking.getId());
+                        booking.setSeatId(seatId);
+                        dataStore.addBooking(booking);
+                        booked++;
+                    }
+                }
+                return booked;
+            });
+        }
+
+        assertEquals(BUSES * SEATS_PER_BUS, sum(runConcurrently(tasks)), "Every seat should be booked exactly once");
+
+        Set<Integer> bookingIds = new HashSet<>();
+        for (Booking booking : dataStore.getAllBookings()) {
+            assertTrue(bookingIds.add(booking.getId()), "Booking IDs should be unique");
+        }
+        assertEquals(BUSES * SEATS_PER_BUS, bookingIds.size(), "No booking should be lost");
+
+        for (int bus = 0; bus < BUSES; bus++) {
+            assertEquals(SEATS_PER_BUS, dataStore.getBookedSeats(journeyIds[bus]).size(), "Bus should be full");
+            assertEquals(SEATS_PER_BUS, dataStore.getBookingsByJourney(journeyIds[bus]).size(),
+                    "Journey index should hold every booking");
+            BusDayInventory inventory = dataStore.getBusDayInventory(bus + 1, testDate).orElseThrow();
+            assertEquals(0, inventory.countFree(BusDayInventory.segmentMask("A", "D"), SEATS_PER_BUS),
+                    "Occupancy matrix should match the bookings");
+        }
+        assertEquals(BUSES * SEATS_PER_BUS, dataStore.getBookingsByPassenger("0700000000").size(),
+                "Passenger index should hold every booking");
+    }
+
+    @Test
+    public void testConcurrentBookingOfSameSeatHasSingleWinner() throws Exception {
+        int journeyId = dataStore.addJourney(1, "JN-1", testDate, testDate.atTime(8, 0),
+                "A", "D", "A->D", SEATS_PER_BUS).getId();
+
+        AtomicInteger winners = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String passenger = "Passenger " + t;
+            tasks.add(() -> dataStore.bookSeat(journeyId, "1A", passenger, "0700000000")
+                    ? winners.incrementAndGet() : 0);
+        }
+        runConcurrently(tasks);
+
+        assertEquals(1, winners.get(), "Exactly one thread should win the seat");
+        assertEquals(1, dataStore.getBookedSeats(journeyId).size(), "Only one seat should be booked");
+    }
+
+    @Test
+    public void testOverlappingJourneysCannotBothClaimSeat() throws Exception {
+        int journeyAD = dataStore.addJourney(1, "JN-AD", testDate, testDate.atTime(8, 0),
+                "A", "D", "A->D", SEATS_PER_BUS).getId();
+        int journeyBC = dataStore.addJourney(1, "JN-BC", testDate, testDate.atTime(8, 0),
+                "B", "C", "B->C", SEATS_PER_BUS).getId();
+
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int journeyId = t % 2 == 0 ? journeyAD : journeyBC;
+            tasks.add(() -> dataStore.bookSeat(journeyId, "1A", "Passenger", "0700000000") ? 1 : 0);
+        }
+
+        assertEquals(1, sum(runConcurrently(tasks)), "Overlapping routes should never share a seat");
+        assertEquals(1, dataStore.getBookedSeats(journeyAD).size() + dataStore.getBookedSeats(journeyBC).size(),
+                "Exactly one journey should hold the seat");
+    }
+
+    @Test
+    public void testConcurrentReservationsKeepAvailableCountExact() throws Exception {
+        ReservationService reservationService = ReservationService.getInstance();
+        Journey journey = dataStore.addJourney(1, "JN-1", testDate, testDate.atTime(8, 0),
+                "A", "D", "A->D", SEATS_PER_BUS);
+
+        // Every thread races for every seat; only SEATS_PER_BUS reservations can succeed
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                int reserved = 0;
+                for (int seat = 0; seat < SEATS_PER_BUS; seat++) {
+                    if (reservationService.createReservation(journey.getId(), "Passenger", "0700000000",
+                            "passenger@example.com", "A", "D", SeatMap.seatNumber(seat)).isPresent()) {
+                        reserved++;
+                    }
+                }
+                return reserved;
+            });
+        }
+
+        assertEquals(SEATS_PER_BUS, sum(runConcurrently(tasks)), "Each seat should be reserved exactly once");
+        assertEquals(0, journey.getAvailableSeats(), "No decrement should be lost");
+        assertEquals(SEATS_PER_BUS, dataStore.getBookingsByJourney(journey.getId()).size(),
+                "Every reservation should be stored");
+    }
+
+    @Test
+    public void testConcurrentJourneyCreationHasUniqueIds() throws Exception {
+        int journeysPerThread = 50;
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int busId = t % BUSES + 1;
+            tasks.add(() -> {
+                for (int i = 0; i < journeysPerThread; i++) {
+                    dataStore.addJourney(busId, "JN", testDate, LocalDateTime.now(), "A", "B", "A->B", SEATS_PER_BUS);
+                }
+                return journeysPerThread;
+            });
+        }
+        runConcurrently(tasks);
+
+        int expected = THREADS * journeysPerThread;
+        Collection<Journey> journeys = dataStore.getAllJourneys();
+        Set<Integer> journeyIds = new HashSet<>();
+        Set<Integer> firstSeatIds = new HashSet<>();
+        for (Journey journey : journeys) {
+            assertTrue(journeyIds.add(journey.getId()), "Journey IDs should be unique");
+            assertTrue(firstSeatIds.add(dataStore.getSeatMap(journey.getId()).orElseThrow().toSeat(0).getId()),
+                    "Seat ID ranges should not overlap");
+        }
+        assertEquals(expected, journeyIds.size(), "No journey should be lost");
+        assertEquals(expected, dataStore.getJourneysByDate(testDate).size(), "Date index should hold every journey");
+        assertEquals(expected, dataStore.getJourneysByRoute("A", "B").size(), "Route index should hold every journey");
+    }
+
+    private List<Integer> runConcurrently(List<Callable<Integer>> tasks) throws Exception {
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (Callable<Integer> task : tasks) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return task.call();
+            }));
+        }
+        startGate.countDown();
+
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static int sum(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -0,0 +1,78 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for day partitioning and retirement in DataStore
+ */
+public class DayPartitionTest {
+
+    private DataStore dataStore;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        dataStore.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataStore.reset();
+    }
+
+    private Journey addJourneyWithBooking(LocalDate date, String bookingNumber) {
+        Journey journey = dataStore.addJourney(1, "JN-" + date, date, date.atTime(8, 0), "A", "D", "A->D", 40);
+        dataStore.bookSeat(journey.getId(), "1A", "John Doe", "9876543210");
+        Booking booking = new Booking(journey.getId(), "John Doe", "9876543210", "A", "D");
+        booking.setId(dataStore.nextBookingId());
+        booking.setBookingNumber(bookingNumber);
+        booking.setSeatId("1A");
+        dataStore.addBooking(booking);
+        return journey;
+    }
+
+    @Test
+    public void testRetiredDaysLeaveEveryLookupAndReachTheArchiveWriter() {
+        Journey past = addJourneyWithBooking(today.minusDays(2), "BK-PAST");
+        Journey current = addJourneyWithBooking(today, "BK-TODAY");
+        List<DayPartition> archived = new ArrayList<>();
+        dataStore.setArchiveWriter(archived::add);
+
+        assertEquals(1, dataStore.retireDaysBefore(today), "Only the past day should be retired");
+
+        assertEquals(1, archived.size(), "The archive writer should receive the retired day");
+        assertEquals(today.minusDays(2), archived.get(0).getDate(), "Archived partition should be the past day");
+        assertEquals(1, archived.get(0).getBookings().size(), "Archived partition should keep its bookings");
+        assertTrue(dataStore.getJourneyById(past.getId()).isEmpty(), "Retired journey should be gone");
+        assertTrue(dataStore.getSeatMap(past.getId()).isEmpty(), "Retired seats should be gone");
+        assertTrue(dataStore.getBookingByNumber("BK-PAST").isEmpty(), "Retired booking should be gone");
+        assertEquals(1, dataStore.getBookingsByPassenger("9876543210").size(), "Phone index should be pruned");
+        assertEquals(List.of(current), List.copyOf(dataStore.getAllJourneys()), "Current day should stay");
+        assertTrue(dataStore.getBookingByNumber("BK-TODAY").isPresent(), "Current booking should stay");
+        assertTrue(dataStore.isDateExpanded(today.minusDays(2)), "Retired day should not be expanded again");
+    }
+
+    @Test
+    public void testFailedArchiveKeepsTheDay() {
+        Journey past = addJourneyWithBooking(today.minusDays(1), "BK-PAST");
+        dataStore.setArchiveWriter(partition -> {
+            throw new IOException("disk full");
+        });
+
+        assertEquals(0, dataStore.retireDaysBefore(today), "Nothing should be retired when archiving fails");
+        assertTrue(dataStore.getJourneyById(past.getId()).isPresent(), "The day should stay live");
+        assertTrue(dataStore.getBookingByNumber("BK-PAST").isPresent(), "Its bookings should stay live");
+    }
+}
@@ -1,6 +1,7 @@
 package com.busticket.service;
 
 import com.busticket.domain.entity.BusFare;
+import com.busticket.domain.request.UpdateFareRequest;
 import com.busticket.domain.response.FareResponse;
 import com.busticket.service.DataStore;
 import com.busticket.service.FareService;
@@ -86,4 +87,32 @@ public class FareServiceTest {
         assertEquals(price, newFare.getPrice(), "Price should match");
     }
 
+    @Test
+    public void testUpdateFareIsVisibleInBothDirections() {
+        // Act
+        Optional<BusFare> updated = fareService.updateFare(new UpdateFareRequest(1, 3, new BigDecimal("120.00")));
+
+        // Assert
+        assertTrue(updated.isPresent(), "Existing fare should be updated");
+        assertEquals(new BigDecimal("120.00"), fareService.calculateFare(1, 3).orElseThrow().getFare(),
+                "Forward lookup should see the new price");
+        assertEquals(new BigDecimal("120.00"), dataStore.calculateFare("C", "A"),
+                "Reverse lookup by name should see the new price");
+        assertFalse(fareService.updateFare(new UpdateFareRequest(1, 999, BigDecimal.ONE)).isPresent(),
+                "Unknown stop pair should not be updated");
+    }
+
+    @Test
+    public void testLatestFareWinsAndStopIdentifiersResolve() {
+        // Act
+        fareService.addFare(2, 1, new BigDecimal("55.00"));
+        fareService.addFare(2, 1, new BigDecimal("60.00"));
+
+        // Assert
+        assertEquals(new BigDecimal("60.00"), dataStore.calculateFare("B", "A"), "Latest fare should win");
+        assertEquals(new BigDecimal("50.00"), dataStore.calculateFare("a", "b"),
+                "Direct fare should take precedence over reverse fare");
+        assertEquals(new BigDecimal("150.00"), dataStore.calculateFare("1", "4"), "Numeric stop IDs should resolve");
+        assertEquals(BigDecimal.ZERO, dataStore.calculateFare("A", "Z"), "Unknown stop should have no fare");
+    }
 }
@@ -0,0 +1,84 @@
+package com.busticket.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IdGenerator
+ */
+public class IdGeneratorTest {
+
+    @Test
+    public void testIdsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+        IdGenerator generator = new IdGenerator(7);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(seen.add(ids[i]), "Id should be issued once: " + ids[i]);
+                    assertEquals(7, IdGenerator.nodeOf(ids[i]), "Id should carry the node id");
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "Ids seen by one thread should increase");
+                    }
+                }
+            }
+            assertEquals(threads * perThread, seen.size(), "Every id should be distinct");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSequenceOverflowAndClockStepBackKeepIdsIncreasing() {
+        AtomicLong now = new AtomicLong(IdGenerator.EPOCH_MILLIS + 1_000);
+        IdGenerator generator = new IdGenerator(3, now::get);
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "Ids should increase past a full millisecond");
+            previous = id;
+        }
+        assertTrue(IdGenerator.timestampOf(previous) > now.get(), "A full millisecond should carry into the next one");
+
+        now.addAndGet(-5_000);
+        long afterStepBack = generator.nextId();
+        assertTrue(afterStepBack > previous, "A clock stepping back should not repeat ids");
+
+        String first = generator.nextReservationNumber();
+        String second = generator.nextReservationNumber();
+        assertTrue(first.startsWith("RS") && first.length() == second.length(), "Numbers should have a fixed width");
+        assertTrue(first.compareTo(second) < 0, "Numbers should sort in issue order");
+        assertNotEquals(new IdGenerator(4, now::get).nextTicketNumber(), new IdGenerator(5, now::get).nextTicketNumber(),
+                "Nodes should never collide in the same millisecond");
+    }
+
+    @Test
+    public void testNodeIdIsValidated() {
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(-1), "Negative node id");
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(IdGenerator.MAX_NODE_ID + 1), "Node id too large");
+    }
+}
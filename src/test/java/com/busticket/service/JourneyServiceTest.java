@@ -1,14 +1,18 @@
 package com.busticket.service;
 
 import com.busticket.domain.entity.Journey;
+import com.busticket.domain.entity.ServicePattern;
 import com.busticket.service.DataStore;
 import com.busticket.service.JourneyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -109,4 +113,28 @@ public class JourneyServiceTest {
         Collection<Journey> journeys = journeyService.getJourneysByBusAndDate(1, journeyDate);
         assertEquals(1, journeys.size(), "Should have 1 journey for bus 1 on this date");
     }
+
+    @Test
+    public void testServicePatternExpandsLazilyOncePerDate() {
+        LocalDate monday = LocalDate.of(2030, 1, 7);
+        journeyService.createServicePattern(new ServicePattern(5, "JN-W1", "A", "C", "A->C", LocalTime.of(7, 30),
+            EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), monday, null, 40));
+        journeyService.createServicePattern(new ServicePattern(5, "JN-W2", "C", "D", "C->D", LocalTime.of(11, 0),
+            EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), monday, null, 40));
+
+        assertTrue(journeyService.getAllJourneys().isEmpty(), "Patterns should not materialize journeys up front");
+
+        Collection<Journey> mondayJourneys = journeyService.getJourneysByDate(monday);
+        assertEquals(2, mondayJourneys.size(), "Both weekday patterns should run on Monday");
+        assertEquals(monday.atTime(7, 30), mondayJourneys.iterator().next().getDepartureTime(),
+            "Departure should combine the date and the pattern time");
+        assertEquals(2, journeyService.getJourneysByBusAndDate(5, monday).size(),
+            "Expanded journeys should share the bus-day");
+        assertEquals(2, journeyService.getJourneysByDate(monday).size(), "Querying again should not duplicate");
+
+        assertTrue(journeyService.getJourneysByDate(monday.plusDays(5)).isEmpty(), "Patterns should not run on Saturday");
+        assertTrue(journeyService.getJourneysByDate(monday.minusDays(7)).isEmpty(),
+            "Patterns should not run before validFrom");
+        assertEquals(2, journeyService.getAllJourneys().size(), "Only the queried weekday should be materialized");
+    }
 }
@@ -2,6 +2,7 @@ package com.busticket.service;
 
 import com.busticket.domain.entity.Booking;
 import com.busticket.domain.entity.Journey;
+import com.busticket.domain.request.PassengerInfo;
 import com.busticket.service.ReservationService;
 import com.busticket.service.DataStore;
 import com.busticket.service.JourneyService;
@@ -11,8 +12,12 @@ import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -224,4 +229,64 @@ public class ReservationServiceTest {
         // Phone validation is at controller level; booking service accepts any phone
         assertTrue(reservationOpt.isPresent(), "Booking service doesn't validate phone length");
     }
+
+    @Test
+    public void testGroupReservationBooksEveryPassengerOrNone() {
+        List<PassengerInfo> group = List.of(
+            new PassengerInfo("John Doe", "9876543210", "john@example.com"),
+            new PassengerInfo("Jane Doe", "9876543211", "jane@example.com"),
+            new PassengerInfo("Jim Doe", "9876543212", "jim@example.com")
+        );
+
+        Optional<List<Booking>> booked = reservationService.createGroupReservation(testJourneyId, group, "A", "D");
+        assertTrue(booked.isPresent(), "Group reservation should succeed");
+        assertEquals(3, booked.get().size(), "Every passenger should get a booking");
+        assertEquals(List.of("1A", "1B", "1C"), booked.get().stream().map(Booking::getSeatId).toList(),
+            "Group should sit together");
+        assertEquals(3, reservationService.getReservationsByJourney(testJourneyId).size(), "Bookings should be stored");
+
+        // Leave two seats (10C and 10D), then ask for three
+        assertTrue(dataStore.bookSeat(testJourneyId, "1D", "Filler", "9000000000"), "Filler seat");
+        for (int row = 2; row <= 10; row++) {
+            for (String column : new String[]{"A", "B", "C", "D"}) {
+                if (row < 10 || column.compareTo("B") <= 0) {
+                    assertTrue(dataStore.bookSeat(testJourneyId, row + column, "Filler", "9000000000"), "Filler seat");
+                }
+            }
+        }
+        int bookedSeats = dataStore.getBookedSeats(testJourneyId).size();
+        assertTrue(reservationService.createGroupReservation(testJourneyId, group, "A", "D").isEmpty(),
+            "Group larger than the free seats should fail");
+        assertEquals(bookedSeats, dataStore.getBookedSeats(testJourneyId).size(), "A failed group should book nothing");
+        assertEquals(3, reservationService.getReservationsByJourney(testJourneyId).size(), "No partial bookings");
+    }
+
+    @Test
+    public void testGroupReservationBatchSeatsEachGroupOnce() {
+        List<PassengerInfo> group = List.of(
+            new PassengerInfo("John Doe", "9876543210", "john@example.com"),
+            new PassengerInfo("Jane Doe", "9876543211", "jane@example.com"),
+            new PassengerInfo("Jim Doe", "9876543212", "jim@example.com"),
+            new PassengerInfo("Joe Doe", "9876543213", "joe@example.com")
+        );
+        List<ReservationService.GroupRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            requests.add(new ReservationService.GroupRequest(testJourneyId, group, "A", "D"));
+        }
+        requests.add(new ReservationService.GroupRequest(9999, group, "A", "D"));
+
+        List<Optional<List<Booking>>> results = reservationService.createGroupReservations(requests);
+        assertEquals(requests.size(), results.size(), "One result per request");
+        Set<String> seats = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(results.get(i).isPresent(), "Groups that fit should be booked");
+            results.get(i).get().forEach(booking -> assertTrue(seats.add(booking.getSeatId()), "Seats are not shared"));
+        }
+        assertEquals(List.of("1A", "1B", "1C", "1D"), results.get(0).get().stream().map(Booking::getSeatId).toList(),
+            "Groups are seated in request order");
+        assertTrue(results.get(10).isEmpty(), "A group beyond the free seats should fail");
+        assertTrue(results.get(11).isEmpty(), "An unknown journey should fail");
+        assertEquals(40, dataStore.getBookedSeats(testJourneyId).size(), "Every seat should be booked once");
+        assertEquals(40, reservationService.getReservationsByJourney(testJourneyId).size(), "No partial bookings");
+    }
 }
@@ -0,0 +1,87 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.Journey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScheduleImporter
+ */
+public class ScheduleImporterTest {
+
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 15);
+
+    @TempDir
+    Path tempDir;
+
+    private DataStore dataStore;
+    private ScheduleImporter importer;
+
+    @BeforeEach
+    public void setUp() {
+        dataStore = DataStore.getInstance();
+        dataStore.reset();
+        importer = ScheduleImporter.getInstance();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataStore.reset();
+    }
+
+    @Test
+    public void testCsvImportPublishesJourneysSharingBusDaySeats() throws IOException {
+        Path file = tempDir.resolve("schedule.csv");
+        Files.writeString(file, String.join("\n",
+                "bus_id,journey_number,journey_date,departure_time,from_stop,to_stop,direction,total_seats",
+                "7,JN-1,2030-01-15,08:00,A,B,A->B,40",
+                "7,JN-2,2030-01-15,10:00,B,D,,40",
+                "8,JN-3,2030-01-15,2030-01-15T18:30,D,A,D->A,32",
+                ""));
+
+        ScheduleImporter.ImportReport report = importer.importFile(file);
+
+        assertEquals(3, report.rowsRead(), "Every row should be read");
+        assertEquals(3, report.journeysImported(), "Every row should become a journey");
+        assertEquals(0, report.rowsRejected(), "No row should be rejected");
+        List<Journey> busSeven = List.copyOf(dataStore.getJourneysByBusAndDate(7, DATE));
+        assertEquals(2, busSeven.size(), "Bus 7 should have two journeys");
+        assertEquals("B->D", busSeven.get(1).getDirection(), "Missing direction should default to the route");
+        assertEquals(DATE.atTime(18, 30), dataStore.getJourneysByRoute("D", "A").iterator().next().getDepartureTime(),
+                "ISO departure time should be kept");
+
+        int first = busSeven.get(0).getId();
+        assertTrue(dataStore.bookSeat(first, "1A", "John Doe", "9876543210"), "Imported journey should be bookable");
+        assertTrue(dataStore.isSeatAvailable(busSeven.get(1).getId(), "1A"),
+                "Non-overlapping journey of the same bus should keep the seat");
+    }
+
+    @Test
+    public void testInvalidRowRejectsWholeFile() throws IOException {
+        String jsonLines = String.join("\n",
+                "{\"bus_id\":1,\"journey_number\":\"JN-1\",\"journey_date\":\"2030-01-15\",\"departure_time\":\"08:00\","
+                        + "\"from_stop\":\"A\",\"to_stop\":\"C\",\"total_seats\":40}",
+                "{\"bus_id\":1,\"journey_number\":\"JN-2\",\"journey_date\":\"2030-01-15\",\"departure_time\":\"09:00\","
+                        + "\"from_stop\":\"C\",\"to_stop\":\"E\",\"total_seats\":40}",
+                "not json");
+
+        ScheduleImporter.ImportReport report = importer.importJsonLines(new StringReader(jsonLines));
+
+        assertEquals(3, report.rowsRead(), "Every line should be read");
+        assertEquals(2, report.rowsRejected(), "Bad stop and malformed line should be rejected");
+        assertEquals(0, report.journeysImported(), "Nothing should be published from a bad file");
+        assertTrue(report.errors().get(0).startsWith("line 2: to_stop"), "Error should name line and field");
+        assertTrue(dataStore.getAllJourneys().isEmpty(), "No journey should be visible");
+    }
+}
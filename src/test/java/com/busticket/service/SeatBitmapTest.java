@@ -0,0 +1,159 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.Seat;
+import com.busticket.storage.SeatMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SeatBitmap
+ */
+public class SeatBitmapTest {
+
+    private SeatBitmap seatMap;
+
+    @BeforeEach
+    public void setUp() {
+        seatMap = new SeatBitmap(7, 100, 40);
+    }
+
+    @Test
+    public void testSeatNumbering() {
+        assertEquals("1A", SeatMap.seatNumber(0), "First seat should be 1A");
+        assertEquals("1D", SeatMap.seatNumber(3), "Fourth seat should be 1D");
+        assertEquals("10D", SeatMap.seatNumber(39), "Last seat should be 10D");
+
+        assertEquals(0, seatMap.indexOf("1A"), "1A should map to index 0");
+        assertEquals(39, seatMap.indexOf("10D"), "10D should map to index 39");
+        assertEquals(-1, seatMap.indexOf("11A"), "Seats beyond capacity should not resolve");
+        assertEquals(-1, seatMap.indexOf("1E"), "Unknown column should not resolve");
+        assertEquals(-1, seatMap.indexOf("A1"), "Malformed seat number should not resolve");
+    }
+
+    @Test
+    public void testBookAndRelease() {
+        assertTrue(seatMap.book(5, "John Doe", "9876543210"), "Free seat should be booked");
+        assertFalse(seatMap.book(5, "Jane Doe", "9876543211"), "Booked seat should not be booked twice");
+        assertTrue(seatMap.isBooked(5), "Seat should be marked as booked");
+        assertEquals(1, seatMap.bookedCount(), "Should have 1 booked seat");
+        assertEquals(39, seatMap.availableCount(), "Should have 39 available seats");
+
+        assertTrue(seatMap.release(5), "Booked seat should be released");
+        assertFalse(seatMap.release(5), "Free seat should not be released");
+        assertEquals(40, seatMap.availableCount(), "All seats should be available again");
+    }
+
+    @Test
+    public void testNextAvailableSkipsBookedAndHeldSeats() {
+        seatMap.book(0, "John Doe", "9876543210");
+        seatMap.setHeld(1, true);
+
+        assertEquals(1, seatMap.nextAvailable(0), "Held seat is still unbooked");
+        assertEquals(2, seatMap.nextAvailableUnheld(0), "Held seat should be skipped");
+        assertEquals(0, seatMap.nextBooked(0), "First booked seat should be found");
+        assertEquals(-1, seatMap.nextBooked(1), "No further booked seats");
+
+        seatMap.setHeld(1, false);
+        assertEquals(1, seatMap.nextAvailableUnheld(0), "Released hold should be available");
+    }
+
+    @Test
+    public void testToSeatMaterializesState() {
+        seatMap.book(4, "John Doe", "9876543210");
+
+        Seat seat = seatMap.toSeat(4);
+        assertEquals(104, seat.getId(), "Seat ID should be derived from the index");
+        assertEquals(7, seat.getJourneyId(), "Journey ID should match");
+        assertEquals("2A", seat.getSeatId(), "Seat number should be derived from the index");
+        assertEquals(2, seat.getRowNumber(), "Row should be derived from the index");
+        assertEquals("A", seat.getColumn(), "Column should be derived from the index");
+        assertTrue(seat.isBooked(), "Seat should be booked");
+        assertEquals("John Doe", seat.getPassengerName(), "Passenger name should match");
+        assertNotNull(seat.getBookedAt(), "Booking time should be set");
+
+        assertFalse(seatMap.toSeat(5).isBooked(), "Neighbouring seat should be free");
+    }
+
+    @Test
+    public void testSiblingJourneysShareOneInventory() {
+        BusDayInventory inventory = new BusDayInventory(40);
+        SeatBitmap journeyAD = new SeatBitmap(1, 100, 40, BusDayInventory.segmentMask("A", "D"), inventory);
+        SeatBitmap journeyAB = new SeatBitmap(2, 140, 40, BusDayInventory.segmentMask("A", "B"), inventory);
+        SeatBitmap journeyCD = new SeatBitmap(3, 180, 40, BusDayInventory.segmentMask("C", "D"), inventory);
+
+        assertTrue(journeyAB.book(0, "John Doe", "9876543210"), "A->B booking should succeed");
+        assertFalse(journeyAD.isAvailable(0), "A->D overlaps A->B and should see the seat taken");
+        assertTrue(journeyCD.isAvailable(0), "C->D does not overlap A->B");
+        assertTrue(journeyAD.toSeat(0).isBooked(), "Overlapping journey should show the seat as booked");
+        assertNull(journeyAD.toSeat(0).getPassengerName(), "Another journey's passenger should not be exposed");
+        assertEquals(39, journeyAD.availableCount(), "A->D should count the shared booking");
+        assertEquals(0, journeyAD.bookedCount(), "A->D has no booking of its own");
+
+        assertTrue(journeyCD.book(0, "Jane Doe", "9876543211"), "C->D can reuse the seat");
+        assertFalse(journeyAD.release(0), "A->D cannot release another journey's booking");
+        assertTrue(journeyAB.release(0), "A->B releases its own booking");
+        assertFalse(journeyAD.isAvailable(0), "The C->D booking still blocks A->D");
+        assertEquals("Jane Doe", journeyCD.toSeat(0).getPassengerName(), "C->D keeps its passenger");
+    }
+
+    @Test
+    public void testRouteCountersFollowClaimsAndReleases() {
+        BusDayInventory inventory = new BusDayInventory(40);
+        SeatBitmap journeyAB = new SeatBitmap(1, 100, 40, BusDayInventory.segmentMask("A", "B"), inventory);
+        SeatBitmap journeyBD = new SeatBitmap(2, 140, 40, BusDayInventory.segmentMask("B", "D"), inventory);
+        SeatBitmap journeyCD = new SeatBitmap(3, 180, 40, BusDayInventory.segmentMask("C", "D"), inventory);
+        String[] stops = {"A", "B", "C", "D"};
+
+        for (int seat = 0; seat < 40; seat += 3) {
+            journeyAB.book(seat, "John Doe", "9876543210");
+        }
+        for (int seat = 0; seat < 40; seat += 2) {
+            journeyBD.book(seat, "Jane Doe", "9876543211");
+        }
+        journeyCD.book(1, "Jim Doe", "9876543212");
+        assertTrue(journeyAB.release(0), "A->B releases its booking");
+        assertTrue(journeyBD.release(6), "B->D releases its booking");
+        assertFalse(journeyCD.book(2, "Jim Doe", "9876543212"), "B->D still holds C->D of seat 2");
+
+        for (int from = 0; from < stops.length; from++) {
+            for (int to = from + 1; to < stops.length; to++) {
+                long mask = BusDayInventory.segmentMask(stops[from], stops[to]);
+                assertEquals(inventory.countFree(mask, 40), inventory.freeSeats(mask, 40),
+                    "Counter for " + stops[from] + "->" + stops[to] + " should match a scan");
+            }
+        }
+        assertEquals(inventory.countFree(BusDayInventory.segmentMask("A", "B"), 20),
+            inventory.freeSeats(BusDayInventory.segmentMask("A", "B"), 20), "Part of the inventory is scanned");
+    }
+
+    @Test
+    public void testGroupBookingChangesVersionOnce() throws InterruptedException {
+        BusDayInventory inventory = new BusDayInventory(40);
+        SeatBitmap journey = new SeatBitmap(1, 100, 40, BusDayInventory.segmentMask("A", "D"), inventory);
+        String[] names = {"John Doe", "Jane Doe", "Jim Doe"};
+        String[] phones = {"9876543210", "9876543211", "9876543212"};
+        Semaphore changes = new Semaphore(0);
+        journey.watch(changes::release);
+
+        long version = journey.getVersion();
+        assertTrue(journey.bookAll(new int[] {0, 1, 2}, names, phones, LocalDateTime.now()),
+            "Free seats are booked together");
+        assertEquals(version + 1, journey.getVersion(), "A booked group is one change");
+        assertTrue(changes.tryAcquire(5, TimeUnit.SECONDS), "Watchers hear of the group");
+        assertFalse(changes.tryAcquire(100, TimeUnit.MILLISECONDS), "Watchers hear of the group once");
+
+        version = journey.getVersion();
+        assertFalse(journey.bookAll(new int[] {3, 4, 2}, names, phones, LocalDateTime.now()),
+            "A group with a taken seat is not booked");
+        assertTrue(journey.isAvailable(3) && journey.isAvailable(4), "Its claimed seats are rolled back");
+        assertEquals(version + 1, journey.getVersion(), "A rolled back group is one change");
+        assertTrue(changes.tryAcquire(5, TimeUnit.SECONDS), "Watchers hear of the rollback");
+        assertFalse(changes.tryAcquire(100, TimeUnit.MILLISECONDS), "Watchers hear of the rollback once");
+    }
+}
@@ -0,0 +1,72 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.SeatHold;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SeatHoldRegistry
+ */
+public class SeatHoldRegistryTest {
+
+    private SeatHoldRegistry registry;
+    private Map<String, Boolean> heldBits;
+
+    @BeforeEach
+    public void setUp() {
+        heldBits = new ConcurrentHashMap<>();
+        registry = new SeatHoldRegistry((journeyId, seatId, held) -> heldBits.put(journeyId + ":" + seatId, held));
+    }
+
+    @Test
+    public void testSingleActiveHoldPerSeat() {
+        assertTrue(registry.tryHold(new SeatHold(1, "1A", LocalDateTime.now())), "Free seat should be held");
+        assertFalse(registry.tryHold(new SeatHold(1, "1A", LocalDateTime.now())), "Held seat should not be held twice");
+        assertTrue(registry.tryHold(new SeatHold(2, "1A", LocalDateTime.now())), "Same seat on another journey is independent");
+
+        assertTrue(registry.isHeld(1, "1A"), "Seat should be on hold");
+        assertFalse(registry.isHeld(1, "1B"), "Other seat should not be on hold");
+        assertEquals(1, registry.getActiveHolds(1).size(), "Journey should have one active hold");
+        assertEquals(Boolean.TRUE, heldBits.get("1:1A"), "Listener should see the hold");
+
+        registry.remove(1, "1A");
+        assertFalse(registry.isHeld(1, "1A"), "Removed hold should be gone");
+        assertEquals(Boolean.FALSE, heldBits.get("1:1A"), "Listener should see the release");
+    }
+
+    @Test
+    public void testExpiredHoldIsReplaced() {
+        LocalDateTime lapsed = LocalDateTime.now().minusMinutes(SeatHold.HOLD_DURATION_MINUTES + 1);
+        SeatHold expired = new SeatHold(1, "1A", lapsed);
+        assertTrue(expired.isExpired(), "Hold older than the hold duration should be expired");
+
+        // Whether or not the reaper got there first, the expired hold must not block a new one
+        registry.tryHold(expired);
+        SeatHold fresh = new SeatHold(1, "1A", LocalDateTime.now());
+        assertTrue(registry.tryHold(fresh), "Expired hold should not block a new one");
+        assertSame(fresh, registry.getActiveHold(1, "1A"), "Seat should carry the new hold");
+    }
+
+    @Test
+    public void testReaperReleasesExpiredHolds() throws InterruptedException {
+        LocalDateTime lapsed = LocalDateTime.now().minusMinutes(SeatHold.HOLD_DURATION_MINUTES + 1);
+        for (int i = 0; i < 100; i++) {
+            registry.tryHold(new SeatHold(i, "1A", lapsed));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, registry.size(), "Reaper should drop every expired hold");
+        assertTrue(registry.getAllHolds().isEmpty(), "No hold should remain indexed");
+        assertEquals(Boolean.FALSE, heldBits.get("42:1A"), "Reaper should clear the held bit");
+    }
+}
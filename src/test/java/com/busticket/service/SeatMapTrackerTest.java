@@ -0,0 +1,95 @@
+package com.busticket.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SeatMapTracker
+ */
+public class SeatMapTrackerTest {
+
+    private BusDayInventory inventory;
+    private SeatBitmap journeyAD;
+    private SeatBitmap journeyAB;
+    private AtomicInteger changes;
+    private Semaphore notified;
+    private AtomicReference<Thread> notifiedOn;
+    private SeatMapTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        inventory = new BusDayInventory(8);
+        journeyAD = new SeatBitmap(1, 100, 8, BusDayInventory.segmentMask("A", "D"), inventory);
+        journeyAB = new SeatBitmap(2, 108, 8, BusDayInventory.segmentMask("A", "B"), inventory);
+        changes = new AtomicInteger();
+        notified = new Semaphore(0);
+        notifiedOn = new AtomicReference<>();
+        tracker = new SeatMapTracker(journeyAD, () -> {
+            notifiedOn.set(Thread.currentThread());
+            changes.incrementAndGet();
+            notified.release();
+        });
+    }
+
+    @Test
+    public void testDeltasFollowClaimsReleasesAndHolds() throws InterruptedException {
+        journeyAD.book(0, "John Doe", "9876543210");
+        SeatMapTracker.Snapshot snapshot = tracker.snapshot();
+        assertEquals(7, snapshot.available().size(), "Snapshot lists the free seats");
+        assertFalse(snapshot.available().contains("1A"), "The booked seat is not available");
+        assertTrue(tracker.poll().isEmpty(), "Nothing changed since the snapshot");
+
+        journeyAB.book(1, "Jane Doe", "9876543211");
+        journeyAD.setHeld(2, true);
+        assertTrue(notified.tryAcquire(5, TimeUnit.SECONDS), "The changes run the callback");
+        assertNotSame(Thread.currentThread(), notifiedOn.get(), "The callback does not run on the changing thread");
+        SeatMapTracker.Delta delta = tracker.poll();
+        assertEquals(List.of("1B"), delta.claimed(), "A sibling journey's overlapping booking is a claim");
+        assertEquals(List.of("1C"), delta.held(), "The hold is reported");
+        assertTrue(delta.released().isEmpty() && delta.holdEnded().isEmpty(), "Nothing was freed");
+        assertEquals(inventory.getVersion(), delta.version(), "Deltas carry the bus-day change sequence");
+
+        journeyAD.release(0);
+        journeyAD.setHeld(2, false);
+        delta = tracker.poll();
+        assertEquals(List.of("1A"), delta.released(), "The release is reported");
+        assertEquals(List.of("1C"), delta.holdEnded(), "The ended hold is reported");
+    }
+
+    @Test
+    public void testChangesBetweenPollsAreCoalesced() throws InterruptedException {
+        tracker.snapshot();
+        for (int i = 0; i < 100; i++) {
+            journeyAB.book(3, "Jane Doe", "9876543211");
+            journeyAB.release(3);
+        }
+        journeyAB.book(4, "Jane Doe", "9876543211");
+
+        SeatMapTracker.Delta delta = tracker.poll();
+        assertEquals(List.of("2A"), delta.claimed(), "Only the net change is reported");
+        assertTrue(delta.released().isEmpty(), "A seat claimed and released in between does not appear");
+
+        tracker.close();
+        // Watchers run one round at a time, so once a later watcher has heard of a change,
+        // every round that could still include the tracker is over
+        Semaphore probe = new Semaphore(0);
+        Runnable probeWatcher = probe::release;
+        inventory.watch(probeWatcher);
+        journeyAB.book(5, "Jane Doe", "9876543211");
+        assertTrue(probe.tryAcquire(5, TimeUnit.SECONDS), "Other watchers are still called");
+        int seen = changes.get();
+        journeyAB.book(6, "Jane Doe", "9876543211");
+        assertTrue(probe.tryAcquire(5, TimeUnit.SECONDS), "Other watchers are still called");
+        assertEquals(seen, changes.get(), "A closed tracker is no longer called");
+        inventory.unwatch(probeWatcher);
+        assertEquals(0, inventory.getWatcherCount(), "Closing unregisters the watcher");
+    }
+}
@@ -0,0 +1,78 @@
+package com.busticket.service;
+
+import com.busticket.domain.entity.Journey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SeatSelection
+ */
+public class SeatSelectionTest {
+
+    private SeatService seatService;
+    private int journeyId;
+    private SeatSelection selection;
+
+    @BeforeEach
+    public void setUp() {
+        DataStore.getInstance().reset();
+        seatService = SeatService.getInstance();
+        Journey journey = JourneyService.getInstance().createJourney(
+            1, "BUS001", LocalDate.now().plusDays(1), LocalDateTime.now().plusDays(1), "A", "D", "FORWARD", 40
+        );
+        journeyId = journey.getId();
+        selection = new SeatSelection(seatService, seatService.getSeatMap(journeyId).orElseThrow(), 2, () -> { });
+        selection.snapshot();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        selection.close();
+        DataStore.getInstance().reset();
+    }
+
+    @Test
+    public void testSelectHoldsSeatsUpToTheLimit() {
+        assertEquals(SeatSelection.Outcome.SELECTED, selection.select("1A"), "Free seat is selected");
+        assertTrue(seatService.isSeatOnHold(journeyId, "1A"), "Selecting holds the seat");
+        assertEquals(SeatSelection.Outcome.SELECTED, selection.select("1A"), "Selecting again is harmless");
+        assertEquals(SeatSelection.Outcome.UNKNOWN_SEAT, selection.select("99Z"), "Unknown seats are rejected");
+        assertEquals(SeatSelection.Outcome.SELECTED, selection.select("1B"), "Second seat is selected");
+        assertEquals(SeatSelection.Outcome.LIMIT_REACHED, selection.select("1C"), "The hold limit applies");
+
+        SeatSelection other = new SeatSelection(seatService, seatService.getSeatMap(journeyId).orElseThrow(), 2, () -> { });
+        assertEquals(SeatSelection.Outcome.UNAVAILABLE, other.select("1A"), "Another session cannot take the seat");
+        assertEquals(SeatSelection.Outcome.NOT_SELECTED, other.deselect("1A"), "Nor release it");
+        other.close();
+        assertTrue(seatService.isSeatOnHold(journeyId, "1A"), "The hold stays with its session");
+
+        SeatMapTracker.Delta delta = selection.poll();
+        assertEquals(List.of("1A", "1B"), delta.held(), "Own holds show up as seat changes");
+        assertEquals(SeatSelection.Outcome.DESELECTED, selection.deselect("1A"), "Deselect releases the hold");
+        assertFalse(seatService.isSeatOnHold(journeyId, "1A"), "The seat is free at once");
+        assertEquals(List.of("1A"), selection.poll().holdEnded(), "The ended hold is reported");
+    }
+
+    @Test
+    public void testCloseReleasesLeasedHolds() {
+        selection.select("2A");
+        selection.select("2B");
+        assertTrue(seatService.bookSeat(journeyId, "2B", "John Doe", "9876543210"), "Held seats can still be booked");
+        selection.poll();
+        assertEquals(List.of("2A"), selection.getSelected(), "A booked seat leaves the selection");
+        assertFalse(seatService.isSeatOnHold(journeyId, "2B"), "Its hold is released");
+
+        selection.close();
+        assertFalse(seatService.isSeatOnHold(journeyId, "2A"), "Closing releases the remaining holds");
+        assertEquals(0, DataStore.getInstance().getBusDayInventory(1, LocalDate.now().plusDays(1)).orElseThrow()
+            .getWatcherCount(),
+            "Closing stops tracking the journey");
+    }
+}
@@ -126,4 +126,18 @@ public class SeatServiceTest {
         Collection<Seat> available = seatService.getAvailableSeats(testJourneyId);
         assertEquals(36, available.size(), "Should have 36 available seats");
     }
+
+    @Test
+    public void testSeatStateIsAllocatedOnFirstBooking() {
+        BusDayInventory inventory = dataStore.getBusDayInventory(1, LocalDate.now()).orElseThrow();
+        assertEquals(0, inventory.getAllocatedChunkCount(), "New journey should not allocate seat state");
+
+        Collection<Seat> layout = seatService.getSeatsByJourney(testJourneyId);
+        assertEquals(40, layout.size(), "Default layout should be synthesized on demand");
+        assertTrue(layout.stream().noneMatch(Seat::isBooked), "Default layout should be unbooked");
+        assertEquals(0, inventory.getAllocatedChunkCount(), "Reading the layout should not allocate seat state");
+
+        assertTrue(seatService.bookSeat(testJourneyId, "1A", "John Doe", "9876543210"), "Booking should succeed");
+        assertEquals(1, inventory.getAllocatedChunkCount(), "First booking should allocate its seat chunk");
+    }
 }
@@ -0,0 +1,127 @@
+package com.busticket.servlet;
+
+import com.busticket.domain.entity.Journey;
+import com.busticket.service.DataStore;
+import com.busticket.service.JourneyService;
+import com.busticket.service.ReservationService;
+import com.busticket.util.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchReservationServlet
+ */
+public class BatchReservationServletTest {
+
+    private BatchReservationServlet servlet;
+    private int journeyId;
+    private int otherJourneyId;
+    private BigDecimal fare;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DataStore.getInstance().reset();
+        JourneyService journeys = JourneyService.getInstance();
+        LocalDate date = LocalDate.now().plusDays(1);
+        Journey journey = journeys.createJourney(1, "BUS001", date, LocalDateTime.now().plusDays(1), "A", "D", "FORWARD", 4);
+        Journey other = journeys.createJourney(2, "BUS002", date, LocalDateTime.now().plusDays(1), "A", "D", "FORWARD", 40);
+        journeyId = journey.getId();
+        otherJourneyId = other.getId();
+        fare = ReservationService.getInstance().calculateFare("A", "D");
+        servlet = new BatchReservationServlet();
+        servlet.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        servlet.destroy();
+        DataStore.getInstance().reset();
+    }
+
+    private String item(String ref, int journey, int passengers) {
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < passengers; i++) {
+            list.append(i == 0 ? "" : ",").append("{\"name\":\"Passenger ").append(i)
+                .append("\",\"phone\":\"987654321").append(i).append("\",\"email\":\"p").append(i).append("@example.com\"}");
+        }
+        return "{\"client_ref\":\"" + ref + "\",\"journey_id\":" + journey + ",\"origin\":\"A\",\"destination\":\"D\","
+            + "\"passenger_count\":" + passengers + ",\"contact_email\":\"agent@example.com\","
+            + "\"passengers\":[" + list + "],\"payment\":{\"amount\":" + fare.multiply(new BigDecimal(passengers)) + "}}";
+    }
+
+    private List<JsonNode> process(String body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        servlet.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(JsonUtil.getObjectMapper().readTree(line));
+        }
+        return lines;
+    }
+
+    @Test
+    public void testNdjsonItemsAreBookedAndReportedByIndex() throws Exception {
+        String body = String.join("\n",
+            item("first", journeyId, 3),
+            item("too-many", journeyId, 3),
+            item("other", otherJourneyId, 2),
+            "{\"client_ref\":\"bad\",\"journey_id\":" + journeyId + ",\"origin\":\"X\"}",
+            item("last", journeyId, 1)) + "\n";
+
+        List<JsonNode> lines = process(body);
+        assertEquals(6, lines.size(), "One line per item plus the summary");
+        Map<String, JsonNode> byRef = new HashMap<>();
+        for (JsonNode line : lines.subList(0, 5)) {
+            byRef.put(line.get("client_ref").asText(), line);
+        }
+        assertEquals(0, byRef.get("first").get("index").asInt(), "Lines carry the item index");
+        assertEquals("SUCCESS", byRef.get("first").get("status").asText(), "First group fits");
+        assertEquals(3, byRef.get("first").get("data").get("bookings").size(), "Every passenger is booked");
+        assertEquals("BOOKING_FAILED", byRef.get("too-many").get("error_details").get("error_code").asText(),
+            "A group that no longer fits fails on its own");
+        assertEquals("SUCCESS", byRef.get("other").get("status").asText(), "Other bus-days are booked too");
+        assertEquals("INVALID_ROUTE", byRef.get("bad").get("error_details").get("error_code").asText(),
+            "Invalid items are rejected");
+        assertEquals("SUCCESS", byRef.get("last").get("status").asText(), "A later item may take the last seat");
+
+        JsonNode summary = lines.get(5);
+        assertEquals("COMPLETE", summary.get("status").asText(), "Summary comes last");
+        assertEquals(3, summary.get("confirmed").asInt(), "Confirmed items");
+        assertEquals(2, summary.get("failed").asInt(), "Failed items");
+        assertEquals(6, DataStore.getInstance().getAllBookings().size(), "Only confirmed passengers are stored");
+    }
+
+    @Test
+    public void testArrayBodyKeepsGoingPastBadItems() throws Exception {
+        String body = "[" + item("a", journeyId, 1) + ",{\"journey_id\":\"not a number\"},"
+            + item("b", otherJourneyId, 1) + "]";
+
+        List<JsonNode> lines = process(body);
+        assertEquals(4, lines.size(), "One line per item plus the summary");
+        JsonNode summary = lines.get(3);
+        assertEquals(2, summary.get("confirmed").asInt(), "Items around a malformed one are booked");
+        assertEquals(1, summary.get("failed").asInt(), "The malformed item fails");
+
+        List<JsonNode> truncated = process("[" + item("c", otherJourneyId, 1) + ",{\"journey_id\":");
+        assertEquals(3, truncated.size(), "The item before the broken one, the error and the summary");
+        assertEquals("INVALID_JSON", truncated.get(0).get("error_details").get("error_code").asText(),
+            "Broken JSON ends the batch with an error line");
+        assertEquals(1, truncated.get(0).get("index").asInt(), "The error names the broken item");
+        assertEquals(1, truncated.get(2).get("confirmed").asInt(), "Items before it are still booked");
+    }
+}
@@ -0,0 +1,150 @@
+package com.busticket.servlet;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IdempotencyCache
+ */
+public class IdempotencyCacheTest {
+
+    private static IdempotencyCache.StoredResponse response(int status, String body) {
+        return new IdempotencyCache.StoredResponse(status, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReplayReturnsStoredBytesWithoutRunningAgain() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, 1, TimeUnit.HOURS);
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyCache.Outcome first = cache.execute("key-1", "request", 1000, () -> {
+            runs.incrementAndGet();
+            return response(200, "{\"booked\":1}");
+        });
+        IdempotencyCache.Outcome retry = cache.execute("key-1", "request", 1000, () -> {
+            runs.incrementAndGet();
+            return response(200, "{\"booked\":2}");
+        });
+
+        assertFalse(first.replayed(), "First request should run");
+        assertTrue(retry.replayed(), "Retry should be a replay");
+        assertSame(first.response().body(), retry.response().body(), "Retry should get the very same bytes");
+        assertEquals(1, runs.get(), "The action should run once per key");
+        assertFalse(cache.execute("key-2", "request", 1000, () -> response(200, "{}")).replayed(), "Other keys run");
+    }
+
+    @Test
+    public void testConcurrentDuplicatesWaitForTheFirstExecution() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, 1, TimeUnit.HOURS);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int duplicates = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates + 1);
+        try {
+            Future<IdempotencyCache.Outcome> first = executor.submit(() -> cache.execute("key", "request", 5000, () -> {
+                runs.incrementAndGet();
+                running.countDown();
+                release.await();
+                return response(201, "{\"booked\":true}");
+            }));
+            running.await();
+            List<Future<IdempotencyCache.Outcome>> waiting = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                waiting.add(executor.submit(() -> cache.execute("key", "request", 5000, () -> {
+                    runs.incrementAndGet();
+                    return response(201, "{\"booked\":false}");
+                })));
+            }
+            release.countDown();
+
+            assertFalse(first.get().replayed(), "First execution should not be a replay");
+            for (Future<IdempotencyCache.Outcome> outcome : waiting) {
+                assertTrue(outcome.get().replayed(), "Duplicates should be replays");
+                assertSame(first.get().response(), outcome.get().response(), "Duplicates should get the first response");
+            }
+            assertEquals(1, runs.get(), "Only the first execution should run");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testServerErrorsAreNotKeptAndEntriesExpire() throws Exception {
+        AtomicLong now = new AtomicLong();
+        IdempotencyCache cache = new IdempotencyCache(2, TimeUnit.SECONDS.toNanos(60), now::get);
+
+        cache.execute("failed", "request", 1000, () -> response(500, "{}"));
+        assertFalse(cache.execute("failed", "request", 1000, () -> response(200, "{}")).replayed(), "5xx should be retried");
+        assertThrows(IllegalStateException.class, () -> cache.execute("thrown", "request", 1000, () -> {
+            throw new IllegalStateException("boom");
+        }), "Exceptions should reach the caller");
+        assertFalse(cache.execute("thrown", "request", 1000, () -> response(200, "{}")).replayed(), "Exceptions should be retried");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertFalse(cache.execute("failed", "request", 1000, () -> response(200, "{}")).replayed(), "Expired keys should run again");
+        cache.execute("a", "request", 1000, () -> response(200, "{}"));
+        cache.execute("b", "request", 1000, () -> response(200, "{}"));
+        assertTrue(cache.size() <= 2, "Cache should stay within its bound");
+    }
+
+    @Test
+    public void testReusedKeyForAnotherRequestIsRefused() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, 1, TimeUnit.HOURS);
+        String booking = IdempotencyCache.fingerprint("POST", "/api/v1/reservation/book", "{\"journey_id\":1}");
+        String other = IdempotencyCache.fingerprint("POST", "/api/v1/reservation/book", "{\"journey_id\":2}");
+        assertNotEquals(booking, other, "Different bodies have different fingerprints");
+
+        cache.execute("key", booking, 1000, () -> response(201, "{\"booked\":1}"));
+        IdempotencyCache.Outcome reused = cache.execute("key", other, 1000, () -> response(201, "{\"booked\":2}"));
+        assertTrue(reused.mismatched(), "A different request with the key is refused");
+        assertNull(reused.response(), "It gets no stored response");
+        assertTrue(cache.execute("key", booking, 1000, () -> response(201, "{}")).replayed(),
+            "The original request is still replayed");
+    }
+
+    @Test
+    public void testRunningRequestsAreNeverEvicted() throws Exception {
+        AtomicLong now = new AtomicLong();
+        IdempotencyCache cache = new IdempotencyCache(1, TimeUnit.SECONDS.toNanos(60), now::get);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotencyCache.Outcome> slow = executor.submit(() -> cache.execute("slow", "request", 5000, () -> {
+                runs.incrementAndGet();
+                running.countDown();
+                release.await();
+                return response(201, "{}");
+            }));
+            running.await();
+            now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+            cache.execute("a", "request", 1000, () -> response(200, "{}"));
+            cache.execute("b", "request", 1000, () -> response(200, "{}"));
+
+            assertThrows(TimeoutException.class, () -> cache.execute("slow", "request", 50, () -> {
+                runs.incrementAndGet();
+                return response(201, "{}");
+            }), "A retry waits for the running request, even past the TTL and the size bound");
+            release.countDown();
+            assertFalse(slow.get().replayed(), "The slow request completes");
+            assertEquals(1, runs.get(), "The slow request ran once");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.busticket.storage;
+
+import com.busticket.service.InMemoryStorageProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the storage conformance suite against the in-memory provider
+ */
+public class InMemoryStorageProviderTest extends StorageProviderConformanceTest {
+
+    @Override
+    protected StorageProvider createProvider() {
+        return new InMemoryStorageProvider();
+    }
+
+    @Test
+    public void testProviderIsSelectedByName() {
+        assertInstanceOf(InMemoryStorageProvider.class, StorageProviders.create(null), "Default provider");
+        assertInstanceOf(InMemoryStorageProvider.class, StorageProviders.create("memory"), "Provider by name");
+        assertInstanceOf(InMemoryStorageProvider.class,
+                StorageProviders.create(InMemoryStorageProvider.class.getName()), "Provider by class name");
+        assertThrows(IllegalStateException.class, () -> StorageProviders.create("java.lang.String"),
+                "A class that is not a provider should be rejected");
+    }
+}
@@ -0,0 +1,266 @@
+package com.busticket.storage;
+
+import com.busticket.domain.entity.Booking;
+import com.busticket.domain.entity.Journey;
+import com.busticket.domain.entity.SeatHold;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every StorageProvider must provide
+ * Each backend gets a subclass that supplies its provider.
+ */
+public abstract class StorageProviderConformanceTest {
+
+    protected StorageProvider provider;
+    private final LocalDate travelDate = LocalDate.now().plusDays(1);
+
+    /**
+     * Create the provider under test; it is reset before and after every test
+     */
+    protected abstract StorageProvider createProvider();
+
+    @BeforeEach
+    public void setUpProvider() {
+        provider = createProvider();
+        provider.reset();
+    }
+
+    @AfterEach
+    public void tearDownProvider() {
+        provider.reset();
+    }
+
+    private Journey addJourney(int busId, String fromStop, String toStop) {
+        return provider.journeys().addJourney(busId, "JN-" + busId, travelDate, travelDate.atTime(8, 0),
+                fromStop, toStop, fromStop + "->" + toStop, 40);
+    }
+
+    @Test
+    public void testJourneysAreIndexed() {
+        JourneyRepository journeys = provider.journeys();
+        Journey first = addJourney(1, "A", "D");
+        Journey second = addJourney(2, "A", "B");
+
+        assertNotEquals(first.getId(), second.getId(), "Journeys should get distinct IDs");
+        assertEquals(first, journeys.getJourneyById(first.getId()).orElseThrow(), "Lookup by ID");
+        assertEquals(2, journeys.getAllJourneys().size(), "All journeys");
+        assertEquals(2, journeys.getJourneysByDate(travelDate).size(), "Lookup by date");
+        assertEquals(List.of(second), List.copyOf(journeys.getJourneysByRoute("A", "B")), "Lookup by route");
+        assertEquals(List.of(first), List.copyOf(journeys.getJourneysByBusAndDate(1, travelDate)),
+                "Lookup by bus and date");
+        assertTrue(journeys.getJourneysByDate(travelDate.plusDays(1)).isEmpty(), "No match should be empty");
+        assertTrue(journeys.getJourneyById(-1).isEmpty(), "Unknown ID should be empty");
+    }
+
+    @Test
+    public void testBulkAddedJourneysShareBusDaySeats() {
+        Journey existing = addJourney(1, "A", "B");
+        List<Journey> batch = new ArrayList<>();
+        for (String[] route : new String[][]{{"B", "C"}, {"A", "C"}, {"C", "D"}}) {
+            Journey journey = new Journey();
+            journey.setBusId(1);
+            journey.setJourneyNumber("JN-" + route[0] + route[1]);
+            journey.setJourneyDate(travelDate);
+            journey.setDepartureTime(travelDate.atTime(9, 0));
+            journey.setFromStop(route[0]);
+            journey.setToStop(route[1]);
+            journey.setDirection(route[0] + "->" + route[1]);
+            journey.setTotalSeats(40);
+            batch.add(journey);
+        }
+
+        List<Journey> added = provider.journeys().addJourneys(batch);
+        assertEquals(3, added.size(), "Every journey should be added");
+        assertEquals(4, provider.journeys().getJourneysByBusAndDate(1, travelDate).size(),
+                "Bulk journeys should join the existing bus-day");
+        assertEquals(1, provider.journeys().getJourneysByRoute("C", "D").size(), "Bulk journeys should be indexed");
+
+        SeatInventory seats = provider.seats();
+        int bc = added.get(0).getId();
+        int ac = added.get(1).getId();
+        assertEquals(40, added.get(0).getAvailableSeats(), "Bulk journeys should start fully available");
+        assertTrue(seats.bookSeat(existing.getId(), "1A", "John Doe", "9876543210"), "Book A->B");
+        assertTrue(seats.bookSeat(bc, "1A", "Jane Doe", "9876543211"), "B->C should not overlap A->B");
+        assertFalse(seats.isSeatAvailable(ac, "1A"), "A->C overlaps both bookings on the shared inventory");
+    }
+
+    @Test
+    public void testSeatCanOnlyBeBookedOnce() {
+        SeatInventory seats = provider.seats();
+        int journeyId = addJourney(1, "A", "D").getId();
+
+        assertEquals(40, seats.getAvailableSeats(journeyId).size(), "New journey should be fully available");
+        assertTrue(seats.bookSeat(journeyId, "1A", "John Doe", "9876543210"), "First booking should succeed");
+        assertFalse(seats.bookSeat(journeyId, "1A", "Jane Doe", "9876543211"), "Second booking should fail");
+        assertFalse(seats.isSeatAvailable(journeyId, "1A"), "Booked seat should be unavailable");
+        assertEquals("John Doe", seats.getSeatByJourneyAndSeatId(journeyId, "1A").orElseThrow().getPassengerName(),
+                "Seat should keep its passenger");
+        assertEquals(1, seats.getBookedSeats(journeyId).size(), "One booked seat");
+
+        assertTrue(seats.releaseSeat(journeyId, "1A"), "Release should succeed");
+        assertFalse(seats.releaseSeat(journeyId, "1A"), "Releasing a free seat should fail");
+        assertTrue(seats.isSeatAvailable(journeyId, "1A"), "Released seat should be available");
+        assertFalse(seats.bookSeat(journeyId, "99Z", "John Doe", "9876543210"), "Unknown seat cannot be booked");
+    }
+
+    @Test
+    public void testOverlappingJourneysShareSeats() {
+        SeatInventory seats = provider.seats();
+        int longJourney = addJourney(1, "A", "D").getId();
+        int shortJourney = addJourney(1, "B", "C").getId();
+        int otherBus = addJourney(2, "B", "C").getId();
+
+        assertTrue(seats.bookSeat(longJourney, "1A", "John Doe", "9876543210"), "Booking should succeed");
+        assertFalse(seats.bookSeat(shortJourney, "1A", "Jane Doe", "9876543211"),
+                "Overlapping segment should already be taken");
+        assertTrue(seats.bookSeat(otherBus, "1A", "Jane Doe", "9876543211"), "Another bus should be unaffected");
+    }
+
+    @Test
+    public void testConcurrentBookingsHaveOneWinner() throws Exception {
+        SeatInventory seats = provider.seats();
+        int journeyId = addJourney(1, "A", "D").getId();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String phone = "98765432" + t;
+            results.add(executor.submit(() -> {
+                startGate.await();
+                return seats.bookSeat(journeyId, "5C", "Passenger", phone);
+            }));
+        }
+        startGate.countDown();
+
+        int winners = 0;
+        for (Future<Boolean> result : results) {
+            winners += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+        assertEquals(1, winners, "Exactly one concurrent booking should win");
+    }
+
+    @Test
+    public void testGroupBookingIsAllOrNothing() {
+        SeatInventory seats = provider.seats();
+        int journeyId = addJourney(1, "A", "D").getId();
+        String[] names = {"John Doe", "Jane Doe", "Jim Doe"};
+        String[] phones = {"9876543210", "9876543211", "9876543212"};
+        assertTrue(seats.bookSeat(journeyId, "1C", "Someone Else", "9876543219"), "Single booking should succeed");
+
+        assertFalse(seats.bookSeats(journeyId, new int[]{0, 1, 2}, names, phones),
+                "Group with a taken seat should fail");
+        assertTrue(seats.isSeatAvailable(journeyId, "1A") && seats.isSeatAvailable(journeyId, "1B"),
+                "A failed group should leave no seat booked");
+        assertEquals(1, seats.getBookedSeats(journeyId).size(), "Only the single booking should remain");
+
+        assertTrue(seats.bookSeats(journeyId, new int[]{0, 1, 3}, names, phones), "Free group should be booked");
+        assertEquals("Jim Doe", seats.getSeatByJourneyAndSeatId(journeyId, "1D").orElseThrow().getPassengerName(),
+                "Each seat should get its own passenger");
+        assertEquals(4, seats.getBookedSeats(journeyId).size(), "Group seats should be booked");
+        assertFalse(seats.bookSeats(journeyId, new int[]{4, 4}, new String[]{"A", "B"}, new String[]{"1", "2"}),
+                "The same seat twice should fail");
+        assertTrue(seats.isSeatAvailable(journeyId, "2A"), "The repeated seat should be released again");
+    }
+
+    @Test
+    public void testBookingsAreIndexed() {
+        BookingRepository bookings = provider.bookings();
+        int journeyId = addJourney(1, "A", "D").getId();
+        Booking booking = new Booking(journeyId, "John Doe", "9876543210", "A", "D");
+        booking.setId(bookings.nextBookingId());
+        booking.setBookingNumber("BK-CONFORMANCE");
+        booking.setSeatId("1A");
+        bookings.addBooking(booking);
+
+        assertEquals(booking, bookings.getBookingById(booking.getId()).orElseThrow(), "Lookup by ID");
+        assertEquals(booking, bookings.getBookingByNumber("BK-CONFORMANCE").orElseThrow(), "Lookup by number");
+        assertEquals(1, bookings.getBookingsByJourney(journeyId).size(), "Lookup by journey");
+        assertEquals(1, bookings.getBookingsByPassenger("9876543210").size(), "Lookup by passenger");
+        assertTrue(bookings.getBookingsByPassenger("0000000000").isEmpty(), "Unknown passenger should be empty");
+        assertTrue(bookings.nextBookingId() > booking.getId(), "Booking IDs should increase");
+    }
+
+    @Test
+    public void testBookingsAddedTogetherAreIndexed() {
+        BookingRepository bookings = provider.bookings();
+        int journeyId = addJourney(1, "A", "D").getId();
+        List<Booking> group = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Booking booking = new Booking(journeyId, "Passenger " + i, "987654321" + i, "A", "D");
+            booking.setId(bookings.nextBookingId());
+            booking.setBookingNumber("BK-GROUP-" + i);
+            group.add(booking);
+        }
+        bookings.addBookings(group);
+
+        assertEquals(3, bookings.getBookingsByJourney(journeyId).size(), "Every booking should be stored");
+        assertEquals(group.get(2), bookings.getBookingByNumber("BK-GROUP-2").orElseThrow(), "Lookup by number");
+        assertEquals(group.get(1), bookings.getBookingById(group.get(1).getId()).orElseThrow(), "Lookup by ID");
+    }
+
+    @Test
+    public void testFaresAreBidirectionalAndUpdatable() {
+        FareRepository fares = provider.fares();
+        assertTrue(fares.getStop(1).isPresent(), "Default stops should exist");
+        assertEquals(new BigDecimal("150.00"), fares.calculateFare("A", "D"), "Default fare");
+        assertEquals(new BigDecimal("150.00"), fares.calculateFare("D", "A"), "Reverse direction fare");
+
+        assertTrue(fares.updateFare(1, 4, new BigDecimal("175.00")).isPresent(), "Update should succeed");
+        assertEquals(new BigDecimal("175.00"), fares.calculateFare("1", "4"), "Updated fare by stop IDs");
+        assertTrue(fares.updateFare(1, 99, BigDecimal.ONE).isEmpty(), "Unknown route cannot be updated");
+    }
+
+    @Test
+    public void testSeatCanOnlyBeHeldOnce() {
+        HoldRegistry holds = provider.holds();
+        int journeyId = addJourney(1, "A", "D").getId();
+
+        assertTrue(holds.addSeatHold(new SeatHold(journeyId, "1A", LocalDateTime.now())), "First hold");
+        assertFalse(holds.addSeatHold(new SeatHold(journeyId, "1A", LocalDateTime.now())), "Second hold");
+        assertTrue(holds.getActiveSeatHold(journeyId, "1A").isPresent(), "Hold should be active");
+        assertEquals(1, holds.getActiveSeatHolds(journeyId).size(), "Active holds of the journey");
+
+        holds.removeSeatHold(journeyId, "1A");
+        assertTrue(holds.getActiveSeatHold(journeyId, "1A").isEmpty(), "Removed hold should be gone");
+
+        SeatHold leased = new SeatHold(journeyId, "1B", LocalDateTime.now());
+        assertTrue(holds.addSeatHold(leased), "Hold to release by identity");
+        assertFalse(holds.removeSeatHold(new SeatHold(journeyId, "1B", LocalDateTime.now())),
+                "Another hold object does not release it");
+        assertTrue(holds.removeSeatHold(leased), "The hold itself releases it");
+        assertTrue(holds.getActiveSeatHold(journeyId, "1B").isEmpty(), "Released hold should be gone");
+
+        LocalDateTime expired = LocalDateTime.now().minusMinutes(SeatHold.HOLD_DURATION_MINUTES + 1);
+        holds.addSeatHold(new SeatHold(journeyId, "2A", expired));
+        assertTrue(holds.getActiveSeatHold(journeyId, "2A").isEmpty(), "Expired hold should not be active");
+        assertTrue(holds.addSeatHold(new SeatHold(journeyId, "2A", LocalDateTime.now())),
+                "Expired hold should not block a new one");
+    }
+
+    @Test
+    public void testResetClearsData() {
+        int journeyId = addJourney(1, "A", "D").getId();
+        provider.seats().bookSeat(journeyId, "1A", "John Doe", "9876543210");
+
+        provider.reset();
+        assertTrue(provider.journeys().getAllJourneys().isEmpty(), "Journeys should be cleared");
+        assertTrue(provider.bookings().getAllBookings().isEmpty(), "Bookings should be cleared");
+        assertFalse(provider.fares().getAllFares().isEmpty(), "Default fares should be restored");
+    }
+}